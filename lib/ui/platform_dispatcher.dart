@@ -505,15 +505,25 @@ class PlatformDispatcher {
 
   static ChannelCallback _keyDataListener(KeyDataCallback onKeyData, Zone zone) =>
     (ByteData? packet, PlatformMessageResponseCallback callback) {
-      _invoke1<KeyData>(
-        (KeyData keyData) {
-          final bool handled = onKeyData(keyData);
+      _invoke1<List<KeyData>>(
+        (List<KeyData> records) {
+          // A packet might contain synthesized records followed or preceded by
+          // the record of the real event. The response belongs to the real
+          // event, or to the last record if all of them are synthesized.
+          bool? handledReal;
+          bool handledLast = false;
+          for (final KeyData keyData in records) {
+            handledLast = onKeyData(keyData);
+            if (!keyData.synthesized) {
+              handledReal = handledLast;
+            }
+          }
           final Uint8List response = Uint8List(1);
-          response[0] = handled ? 1 : 0;
+          response[0] = (handledReal ?? handledLast) ? 1 : 0;
           callback(response.buffer.asByteData());
         },
         zone,
-        _unpackKeyData(packet!),
+        _unpackKeyDataPacket(packet!),
       );
     };
 
@@ -542,21 +552,38 @@ class PlatformDispatcher {
   static const int _kKeyDataFieldCount = 6;
 
   // The packet structure is described in `key_data_packet.h`.
-  static KeyData _unpackKeyData(ByteData packet) {
+  //
+  // Some embedders concatenate several records into one packet.
+  static List<KeyData> _unpackKeyDataPacket(ByteData packet) {
+    const int kStride = Int64List.bytesPerElement;
+    final List<KeyData> records = <KeyData>[];
+    int recordStart = 0;
+    while (recordStart < packet.lengthInBytes) {
+      final int charDataSize = packet.getUint64(recordStart, _kFakeHostEndian);
+      records.add(_unpackKeyData(packet, recordStart));
+      recordStart += kStride * (1 + _kKeyDataFieldCount) + charDataSize;
+    }
+    return records;
+  }
+
+  static KeyData _unpackKeyData(ByteData packet, int recordStart) {
     const int kStride = Int64List.bytesPerElement;
 
     int offset = 0;
-    final int charDataSize = packet.getUint64(kStride * offset++, _kFakeHostEndian);
+    final int charDataSize = packet.getUint64(recordStart + kStride * offset++, _kFakeHostEndian);
     final String? character = charDataSize == 0 ? null : utf8.decoder.convert(
-          packet.buffer.asUint8List(kStride * (offset + _kKeyDataFieldCount), charDataSize));
+          packet.buffer.asUint8List(
+            packet.offsetInBytes + recordStart + kStride * (offset + _kKeyDataFieldCount),
+            charDataSize,
+          ));
 
     final KeyData keyData = KeyData(
-      timeStamp: Duration(microseconds: packet.getUint64(kStride * offset++, _kFakeHostEndian)),
-      type: KeyEventType.values[packet.getInt64(kStride * offset++, _kFakeHostEndian)],
-      physical: packet.getUint64(kStride * offset++, _kFakeHostEndian),
-      logical: packet.getUint64(kStride * offset++, _kFakeHostEndian),
+      timeStamp: Duration(microseconds: packet.getUint64(recordStart + kStride * offset++, _kFakeHostEndian)),
+      type: KeyEventType.values[packet.getInt64(recordStart + kStride * offset++, _kFakeHostEndian)],
+      physical: packet.getUint64(recordStart + kStride * offset++, _kFakeHostEndian),
+      logical: packet.getUint64(recordStart + kStride * offset++, _kFakeHostEndian),
       character: character,
-      synthesized: packet.getUint64(kStride * offset++, _kFakeHostEndian) != 0,
+      synthesized: packet.getUint64(recordStart + kStride * offset++, _kFakeHostEndian) != 0,
     );
 
     return keyData;
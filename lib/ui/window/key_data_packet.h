@@ -15,6 +15,10 @@ namespace flutter {
 
 // A byte stream representing a key event, to be sent to the framework.
 //
+// Embedders may concatenate several packets into one message, such as the
+// Android embedder, which sends the synthesized events of a platform event
+// along with its main event.
+//
 // Changes to the marshalling format here must also be made to
 // io/flutter/embedding/android/KeyData.java.
 class KeyDataPacket {
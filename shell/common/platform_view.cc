@@ -110,6 +110,8 @@ std::shared_ptr<impeller::Context> PlatformView::GetImpellerContext() const {
 
 void PlatformView::ReleaseResourceContext() const {}
 
+void PlatformView::OnFrameRasterized(const FrameTiming& timing) {}
+
 PointerDataDispatcherMaker PlatformView::GetDispatcherMaker() {
   return [](DefaultPointerDataDispatcher::Delegate& delegate) {
     return std::make_unique<DefaultPointerDataDispatcher>(delegate);
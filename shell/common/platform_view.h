@@ -9,6 +9,7 @@
 #include <memory>
 
 #include "flutter/common/graphics/texture.h"
+#include "flutter/common/settings.h"
 #include "flutter/common/task_runners.h"
 #include "flutter/flow/embedded_views.h"
 #include "flutter/flow/surface.h"
@@ -646,6 +647,18 @@ class PlatformView {
   ///
   virtual void ReleaseResourceContext() const;
 
+  //----------------------------------------------------------------------------
+  /// @brief      Used by the shell to notify the embedder of the timings of
+  ///             each frame that was rasterized. The default implementation
+  ///             of this method does nothing.
+  ///
+  /// @attention  Unlike most other methods on the platform view, this is
+  ///             called on the raster task runner.
+  ///
+  /// @param[in]  timing  The timings of the rasterized frame.
+  ///
+  virtual void OnFrameRasterized(const FrameTiming& timing);
+
   //--------------------------------------------------------------------------
   /// @brief      Returns a platform-specific PointerDataDispatcherMaker so the
   ///             `Engine` can construct the PointerDataPacketDispatcher based
@@ -1567,6 +1567,11 @@ void Shell::OnFrameRasterized(const FrameTiming& timing) {
     settings_.frame_rasterized_callback(timing);
   }
 
+  // The platform view outlives the rasterizer, see the destructor.
+  if (platform_view_) {
+    platform_view_->OnFrameRasterized(timing);
+  }
+
   if (!needs_report_timings_) {
     return;
   }
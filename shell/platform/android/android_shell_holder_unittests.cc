@@ -86,6 +86,10 @@ class MockPlatformViewAndroidJNI : public PlatformViewAndroidJNI {
               (override));
   MOCK_METHOD(void, FlutterViewBeginFrame, (), (override));
   MOCK_METHOD(void, FlutterViewEndFrame, (), (override));
+  MOCK_METHOD(void,
+              FlutterViewOnFrameRasterized,
+              (const FrameTiming& timing),
+              (override));
   MOCK_METHOD(std::unique_ptr<PlatformViewAndroidJNI::OverlayMetadata>,
               FlutterViewCreateOverlaySurface,
               (),
@@ -5,13 +5,17 @@ import static io.flutter.Build.API_LEVELS;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.graphics.Matrix;
+import android.hardware.input.InputManager;
 import android.os.Build;
+import android.util.SparseArray;
 import android.util.TypedValue;
+import android.view.Choreographer;
 import android.view.InputDevice;
 import android.view.MotionEvent;
 import android.view.ViewConfiguration;
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import io.flutter.embedding.engine.renderer.FlutterRenderer;
 import java.nio.ByteBuffer;
@@ -98,31 +102,205 @@ public class AndroidTouchProcessor {
   // The view ID for the only view in a single-view Flutter app.
   private static final int IMPLICIT_VIEW_ID = 0;
 
+  // Byte offsets of the fields that are inspected when coalescing pointer data.
+  private static final int POINTER_DATA_RECORD_SIZE = POINTER_DATA_FIELD_COUNT * BYTES_PER_FIELD;
+  private static final int CHANGE_OFFSET = 2 * BYTES_PER_FIELD;
+  private static final int KIND_OFFSET = 3 * BYTES_PER_FIELD;
+  private static final int SIGNAL_KIND_OFFSET = 4 * BYTES_PER_FIELD;
+  private static final int DEVICE_OFFSET = 5 * BYTES_PER_FIELD;
+  private static final int BUTTONS_OFFSET = 11 * BYTES_PER_FIELD;
+  private static final int SCROLL_DELTA_X_OFFSET = 27 * BYTES_PER_FIELD;
+  private static final int SCROLL_DELTA_Y_OFFSET = 28 * BYTES_PER_FIELD;
+
+  // The maximum number of records held back while coalescing before they are flushed early.
+  @VisibleForTesting static final int MAX_COALESCED_RECORDS = 16;
+
   @NonNull private final FlutterRenderer renderer;
-  @NonNull private final MotionEventTracker motionEventTracker;
+  @Nullable private final MotionEventTracker motionEventTracker;
 
   private static final Matrix IDENTITY_TRANSFORM = new Matrix();
 
-  private final boolean trackMotionEvents;
-
   private final Map<Integer, float[]> ongoingPans = new HashMap<>();
 
+  // The capabilities of the input devices that sent events to this processor, keyed by device id.
+  //
+  // Querying the device of an event and its motion ranges goes through InputManager, so the
+  // results are cached here and invalidated when InputManager reports that a device changed.
+  private final SparseArray<InputDeviceCapabilities> deviceCapabilities = new SparseArray<>();
+
+  @Nullable private InputManager inputManager;
+
+  private final InputManager.InputDeviceListener inputDeviceListener =
+      new InputManager.InputDeviceListener() {
+        @Override
+        public void onInputDeviceAdded(int deviceId) {}
+
+        @Override
+        public void onInputDeviceRemoved(int deviceId) {
+          deviceCapabilities.remove(deviceId);
+        }
+
+        @Override
+        public void onInputDeviceChanged(int deviceId) {
+          deviceCapabilities.remove(deviceId);
+        }
+      };
+
+  // The context whose scroll factors are cached below, to avoid querying ViewConfiguration and
+  // display metrics for every scroll event.
+  @Nullable private Context scrollFactorContext;
+  private float horizontalScrollFactor;
+  private float verticalScrollFactor;
+
   // Only used on api 25 and below to avoid requerying display metrics.
   private int cachedVerticalScrollFactor;
 
+  // Whether hover, scroll and trackpad pan updates are coalesced until the next frame.
+  private boolean coalesceEvents;
+
+  // Pointer data records that are held back until the next frame. Each device has at most one
+  // mergeable record in flight, which later events from the same device are merged into.
+  @Nullable private ByteBuffer pendingPacket;
+
+  // The input device and tool type of the pending records.
+  private int pendingDeviceId;
+  private int pendingToolType;
+
+  private boolean flushScheduled;
+
+  private final Choreographer.FrameCallback flushCallback =
+      new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+          flushScheduled = false;
+          flushPendingEvents();
+        }
+      };
+
+  /** The subset of an {@link InputDevice}'s capabilities used to build pointer data packets. */
+  @VisibleForTesting
+  static final class InputDeviceCapabilities {
+    static final InputDeviceCapabilities DEFAULT = new InputDeviceCapabilities(0.0f, 1.0f);
+
+    final float pressureMin;
+    final float pressureMax;
+
+    InputDeviceCapabilities(float pressureMin, float pressureMax) {
+      this.pressureMin = pressureMin;
+      this.pressureMax = pressureMax;
+    }
+
+    @NonNull
+    static InputDeviceCapabilities from(@Nullable InputDevice device) {
+      if (device == null) {
+        return DEFAULT;
+      }
+      InputDevice.MotionRange pressureRange = device.getMotionRange(MotionEvent.AXIS_PRESSURE);
+      if (pressureRange == null) {
+        return DEFAULT;
+      }
+      return new InputDeviceCapabilities(pressureRange.getMin(), pressureRange.getMax());
+    }
+  }
+
   /**
    * Constructs an {@code AndroidTouchProcessor} that will send touch event data to the Flutter
    * execution context represented by the given {@link FlutterRenderer}.
    *
    * @param renderer The object that manages textures for rendering.
    * @param trackMotionEvents This is used to query motion events when platform views are rendered.
+   *     When true, the events are tracked in the process-wide tracker returned by {@link
+   *     MotionEventTracker#getInstance()}.
    */
   // TODO(mattcarroll): consider moving packet behavior to a FlutterInteractionSurface instead of
   // FlutterRenderer
+  @SuppressWarnings("deprecation")
   public AndroidTouchProcessor(@NonNull FlutterRenderer renderer, boolean trackMotionEvents) {
+    this(renderer, trackMotionEvents ? MotionEventTracker.getInstance() : null);
+  }
+
+  /**
+   * Constructs an {@code AndroidTouchProcessor} that will send touch event data to the Flutter
+   * execution context represented by the given {@link FlutterRenderer}.
+   *
+   * @param renderer The object that manages textures for rendering.
+   * @param motionEventTracker The tracker that records the motion events, so that they can be
+   *     queried when platform views are rendered, or null if the events shouldn't be tracked.
+   */
+  public AndroidTouchProcessor(
+      @NonNull FlutterRenderer renderer, @Nullable MotionEventTracker motionEventTracker) {
     this.renderer = renderer;
-    this.motionEventTracker = MotionEventTracker.getInstance();
-    this.trackMotionEvents = trackMotionEvents;
+    this.motionEventTracker = motionEventTracker;
+  }
+
+  /**
+   * Starts listening to device changes reported by the given {@link InputManager}, so that cached
+   * device capabilities are invalidated when a device is reconfigured or removed.
+   *
+   * <p>Without a listener, the capabilities of a device are cached for the lifetime of this
+   * processor.
+   */
+  public void attachToInputManager(@NonNull InputManager inputManager) {
+    detachFromInputManager();
+    this.inputManager = inputManager;
+    // A null handler delivers the callbacks on the looper of the calling thread.
+    inputManager.registerInputDeviceListener(inputDeviceListener, null);
+  }
+
+  /** Stops listening to device changes, and clears the cached device capabilities. */
+  public void detachFromInputManager() {
+    if (inputManager != null) {
+      inputManager.unregisterInputDeviceListener(inputDeviceListener);
+      inputManager = null;
+    }
+    deviceCapabilities.clear();
+  }
+
+  /**
+   * Clears the cached scroll factors, e.g. after a configuration change updated the display
+   * density.
+   */
+  public void invalidateScrollFactors() {
+    scrollFactorContext = null;
+    cachedVerticalScrollFactor = 0;
+  }
+
+  /**
+   * Sets whether high frequency pointer updates are coalesced.
+   *
+   * <p>When enabled, hover moves and scroll events from mice, trackpads and styluses, as well as
+   * trackpad pan updates, are held back and sent to Flutter once per frame. Consecutive hover
+   * moves and pan updates from the same device are merged into the latest one, and consecutive
+   * scroll deltas are summed. Any other event, an update from another input device or tool type,
+   * or a change of the buttons pressed, flushes the pending updates first so that Flutter receives
+   * events in order.
+   *
+   * <p>Disabling coalescing flushes any pending updates.
+   */
+  public void setCoalesceEvents(boolean coalesceEvents) {
+    this.coalesceEvents = coalesceEvents;
+    if (!coalesceEvents) {
+      flushPendingEvents();
+    }
+  }
+
+  /** Sends any pointer data held back for coalescing to Flutter. */
+  public void flushPendingEvents() {
+    if (flushScheduled) {
+      Choreographer.getInstance().removeFrameCallback(flushCallback);
+      flushScheduled = false;
+    }
+    if (pendingPacket == null || pendingPacket.position() == 0) {
+      return;
+    }
+    renderer.dispatchPointerDataPacket(pendingPacket, pendingPacket.position());
+    pendingPacket.clear();
+  }
+
+  /** Returns the tracker that records the motion events, or null if events aren't tracked. */
+  @Nullable
+  public MotionEventTracker getMotionEventTracker() {
+    return motionEventTracker;
   }
 
   public boolean onTouchEvent(@NonNull MotionEvent event) {
@@ -138,6 +316,13 @@ public class AndroidTouchProcessor {
    * @return True if the event was handled.
    */
   public boolean onTouchEvent(@NonNull MotionEvent event, @NonNull Matrix transformMatrix) {
+    if (coalesceEvents && isTrackpadPanUpdate(event)) {
+      addCoalescedPointer(event, transformMatrix, null);
+      return true;
+    }
+    // Pending updates must reach Flutter before this event.
+    flushPendingEvents();
+
     int pointerCount = event.getPointerCount();
 
     // The following packing code must match the struct in pointer_data.h.
@@ -216,6 +401,11 @@ public class AndroidTouchProcessor {
       return false;
     }
 
+    if (coalesceEvents) {
+      addCoalescedPointer(event, IDENTITY_TRANSFORM, context);
+      return true;
+    }
+
     int pointerChange = getPointerChangeForAction(event.getActionMasked());
     ByteBuffer packet =
         ByteBuffer.allocateDirect(
@@ -232,6 +422,117 @@ public class AndroidTouchProcessor {
     return true;
   }
 
+  // Whether the event continues a trackpad pan, i.e. it only updates the pan offset.
+  private boolean isTrackpadPanUpdate(@NonNull MotionEvent event) {
+    return event.getActionMasked() == MotionEvent.ACTION_MOVE
+        && event.getPointerCount() == 1
+        && event.getToolType(0) == MotionEvent.TOOL_TYPE_MOUSE
+        && ongoingPans.containsKey(event.getPointerId(0));
+  }
+
+  /**
+   * Appends the pointer data for a hover, scroll or trackpad pan update to the pending packet,
+   * merging it with the pending record of the same device when possible.
+   */
+  private void addCoalescedPointer(
+      @NonNull MotionEvent event, @NonNull Matrix transformMatrix, @Nullable Context context) {
+    if (pendingPacket == null) {
+      pendingPacket = ByteBuffer.allocateDirect(MAX_COALESCED_RECORDS * POINTER_DATA_RECORD_SIZE);
+      pendingPacket.order(ByteOrder.LITTLE_ENDIAN);
+    } else if (pendingPacket.position() == pendingPacket.capacity()) {
+      flushPendingEvents();
+    }
+
+    final int deviceId = event.getDeviceId();
+    final int toolType = event.getToolType(event.getActionIndex());
+    if (pendingPacket.position() > 0
+        && (deviceId != pendingDeviceId || toolType != pendingToolType)) {
+      // Updates from another device or tool are delivered after the pending ones.
+      flushPendingEvents();
+    }
+    pendingDeviceId = deviceId;
+    pendingToolType = toolType;
+
+    final int recordStart = pendingPacket.position();
+    // Hover moves, scroll events and pan updates always apply to a single pointer only.
+    addPointerForIndex(
+        event,
+        event.getActionIndex(),
+        getPointerChangeForAction(event.getActionMasked()),
+        0,
+        transformMatrix,
+        pendingPacket,
+        context);
+    if (pendingPacket.position() == recordStart) {
+      // The event didn't produce any pointer data.
+      return;
+    }
+
+    final int previousStart = findPendingRecordForDevice(recordStart);
+    if (previousStart >= 0) {
+      if (pendingPacket.getLong(previousStart + BUTTONS_OFFSET)
+          != pendingPacket.getLong(recordStart + BUTTONS_OFFSET)) {
+        // Button changes are delivered right away.
+        flushPendingEvents();
+        return;
+      }
+      if (canMergeRecords(previousStart, recordStart)) {
+        mergeRecords(previousStart, recordStart);
+        pendingPacket.position(recordStart);
+        return;
+      }
+    }
+
+    if (!flushScheduled) {
+      Choreographer.getInstance().postFrameCallback(flushCallback);
+      flushScheduled = true;
+    }
+  }
+
+  // Returns the start of the last pending record, before recordStart, from the same device and of
+  // the same kind as the record at recordStart, or -1 if there isn't one.
+  private int findPendingRecordForDevice(int recordStart) {
+    final long device = pendingPacket.getLong(recordStart + DEVICE_OFFSET);
+    final long kind = pendingPacket.getLong(recordStart + KIND_OFFSET);
+    for (int start = recordStart - POINTER_DATA_RECORD_SIZE;
+        start >= 0;
+        start -= POINTER_DATA_RECORD_SIZE) {
+      if (pendingPacket.getLong(start + DEVICE_OFFSET) == device
+          && pendingPacket.getLong(start + KIND_OFFSET) == kind) {
+        return start;
+      }
+    }
+    return -1;
+  }
+
+  private boolean canMergeRecords(int previousStart, int recordStart) {
+    final long change = pendingPacket.getLong(recordStart + CHANGE_OFFSET);
+    if (change != PointerChange.HOVER && change != PointerChange.PAN_ZOOM_UPDATE) {
+      return false;
+    }
+    return pendingPacket.getLong(previousStart + CHANGE_OFFSET) == change
+        && pendingPacket.getLong(previousStart + SIGNAL_KIND_OFFSET)
+            == pendingPacket.getLong(recordStart + SIGNAL_KIND_OFFSET);
+  }
+
+  // Replaces the record at previousStart with the record at recordStart. Scroll deltas are summed,
+  // all the other fields (including the pan offset, which is relative to the start of the pan) are
+  // taken from the newer record.
+  private void mergeRecords(int previousStart, int recordStart) {
+    if (pendingPacket.getLong(recordStart + SIGNAL_KIND_OFFSET) == PointerSignalKind.SCROLL) {
+      addDouble(previousStart + SCROLL_DELTA_X_OFFSET, recordStart + SCROLL_DELTA_X_OFFSET);
+      addDouble(previousStart + SCROLL_DELTA_Y_OFFSET, recordStart + SCROLL_DELTA_Y_OFFSET);
+    }
+    for (int offset = 0; offset < POINTER_DATA_RECORD_SIZE; offset += BYTES_PER_FIELD) {
+      pendingPacket.putLong(previousStart + offset, pendingPacket.getLong(recordStart + offset));
+    }
+  }
+
+  private void addDouble(int fromIndex, int toIndex) {
+    pendingPacket.putDouble(
+        toIndex, pendingPacket.getDouble(toIndex) + pendingPacket.getDouble(fromIndex));
+  }
+
   /// Calls addPointerForIndex with null for context.
   ///
   /// Without context the scroll wheel will not mimick android's scroll speed.
@@ -302,9 +603,8 @@ public class AndroidTouchProcessor {
     }
 
     long motionEventId = 0;
-    if (trackMotionEvents) {
-      MotionEventTracker.MotionEventId trackedEvent = motionEventTracker.track(event);
-      motionEventId = trackedEvent.getId();
+    if (motionEventTracker != null) {
+      motionEventId = motionEventTracker.trackEvent(event);
     }
 
     int signalKind =
@@ -348,18 +648,9 @@ public class AndroidTouchProcessor {
     packet.putLong(0); // synthesized
 
     packet.putDouble(event.getPressure(pointerIndex)); // pressure
-    double pressureMin = 0.0;
-    double pressureMax = 1.0;
-    if (event.getDevice() != null) {
-      InputDevice.MotionRange pressureRange =
-          event.getDevice().getMotionRange(MotionEvent.AXIS_PRESSURE);
-      if (pressureRange != null) {
-        pressureMin = pressureRange.getMin();
-        pressureMax = pressureRange.getMax();
-      }
-    }
-    packet.putDouble(pressureMin); // pressure_min
-    packet.putDouble(pressureMax); // pressure_max
+    final InputDeviceCapabilities capabilities = getDeviceCapabilities(event);
+    packet.putDouble(capabilities.pressureMin); // pressure_min
+    packet.putDouble(capabilities.pressureMax); // pressure_max
 
     if (pointerKind == PointerDeviceKind.STYLUS) {
       packet.putDouble(event.getAxisValue(MotionEvent.AXIS_DISTANCE, pointerIndex)); // distance
@@ -393,8 +684,9 @@ public class AndroidTouchProcessor {
       double horizontalScaleFactor = DEFAULT_HORIZONTAL_SCROLL_FACTOR;
       double verticalScaleFactor = DEFAULT_VERTICAL_SCROLL_FACTOR;
       if (context != null) {
-        horizontalScaleFactor = getHorizontalScrollFactor(context);
-        verticalScaleFactor = getVerticalScrollFactor(context);
+        updateScrollFactors(context);
+        horizontalScaleFactor = horizontalScrollFactor;
+        verticalScaleFactor = verticalScrollFactor;
       }
       // We flip the sign of the scroll value below because it aligns the pixel value with the
       // scroll direction in native android.
@@ -428,6 +720,26 @@ public class AndroidTouchProcessor {
     }
   }
 
+  @NonNull
+  private InputDeviceCapabilities getDeviceCapabilities(@NonNull MotionEvent event) {
+    final int deviceId = event.getDeviceId();
+    InputDeviceCapabilities capabilities = deviceCapabilities.get(deviceId);
+    if (capabilities == null) {
+      capabilities = InputDeviceCapabilities.from(event.getDevice());
+      deviceCapabilities.put(deviceId, capabilities);
+    }
+    return capabilities;
+  }
+
+  private void updateScrollFactors(@NonNull Context context) {
+    if (context == scrollFactorContext) {
+      return;
+    }
+    horizontalScrollFactor = getHorizontalScrollFactor(context);
+    verticalScrollFactor = getVerticalScrollFactor(context);
+    scrollFactorContext = context;
+  }
+
   private float getHorizontalScrollFactor(@NonNull Context context) {
     if (Build.VERSION.SDK_INT >= API_LEVELS.API_26) {
       return ViewConfiguration.get(context).getScaledHorizontalScrollFactor();
@@ -14,6 +14,7 @@ import android.content.res.Configuration;
 import android.database.ContentObserver;
 import android.graphics.Insets;
 import android.graphics.Rect;
+import android.hardware.input.InputManager;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
@@ -21,6 +22,7 @@ import android.provider.Settings;
 import android.text.format.DateFormat;
 import android.util.AttributeSet;
 import android.util.SparseArray;
+import android.view.Display;
 import android.view.DisplayCutout;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
@@ -69,6 +71,7 @@ import io.flutter.plugin.mouse.MouseCursorPlugin;
 import io.flutter.plugin.platform.PlatformViewsController;
 import io.flutter.util.ViewUtils;
 import io.flutter.view.AccessibilityBridge;
+import io.flutter.view.VsyncWaiter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -140,6 +143,8 @@ public class FlutterView extends FrameLayout
 
   // Provides access to foldable/hinge information
   @Nullable private WindowInfoRepositoryCallbackAdapterWrapper windowInfoRepo;
+  // The display this view bound the VsyncWaiter to while attached to a window.
+  private int vsyncDisplayId = Display.INVALID_DISPLAY;
   // Directly implemented View behavior that communicates with Flutter.
   private final FlutterRenderer.ViewportMetrics viewportMetrics =
       new FlutterRenderer.ViewportMetrics();
@@ -451,6 +456,7 @@ public class FlutterView extends FrameLayout
       Log.v(TAG, "Configuration changed. Sending locales and user settings to Flutter.");
       localizationPlugin.sendLocalesToFlutter(newConfig);
       sendUserSettingsToFlutter();
+      androidTouchProcessor.invalidateScrollFactors();
 
       ViewUtils.calculateMaximumDisplayMetrics(getContext(), flutterEngine);
     }
@@ -503,11 +509,17 @@ public class FlutterView extends FrameLayout
   /**
    * Invoked when this is attached to the window.
    *
-   * <p>We register for {@link androidx.window.layout.WindowInfoTracker} updates.
+   * <p>We register for {@link androidx.window.layout.WindowInfoTracker} updates, and bind the
+   * {@link VsyncWaiter} to the display hosting this view.
    */
   @Override
   protected void onAttachedToWindow() {
     super.onAttachedToWindow();
+    final Display display = getDisplay();
+    if (display != null) {
+      vsyncDisplayId = display.getDisplayId();
+      VsyncWaiter.bindToDisplay(vsyncDisplayId);
+    }
     this.windowInfoRepo = createWindowInfoRepo();
     Activity activity = ViewUtils.getActivity(getContext());
     if (windowInfoRepo != null && activity != null) {
@@ -519,10 +531,15 @@ public class FlutterView extends FrameLayout
   /**
    * Invoked when this is detached from the window.
    *
-   * <p>We unregister from {@link androidx.window.layout.WindowInfoTracker} updates.
+   * <p>We unregister from {@link androidx.window.layout.WindowInfoTracker} updates, and unbind the
+   * {@link VsyncWaiter} from the display hosting this view.
    */
   @Override
   protected void onDetachedFromWindow() {
+    if (vsyncDisplayId != Display.INVALID_DISPLAY) {
+      VsyncWaiter.unbindFromDisplay(vsyncDisplayId);
+      vsyncDisplayId = Display.INVALID_DISPLAY;
+    }
     if (windowInfoRepo != null) {
       windowInfoRepo.removeWindowLayoutInfoListener(windowInfoListener);
     }
@@ -1124,6 +1141,11 @@ public class FlutterView extends FrameLayout
     keyboardManager = new KeyboardManager(this);
     androidTouchProcessor =
         new AndroidTouchProcessor(this.flutterEngine.getRenderer(), /*trackMotionEvents=*/ false);
+    androidTouchProcessor.setCoalesceEvents(true);
+    InputManager inputManager = (InputManager) getContext().getSystemService(Context.INPUT_SERVICE);
+    if (inputManager != null) {
+      androidTouchProcessor.attachToInputManager(inputManager);
+    }
     accessibilityBridge =
         new AccessibilityBridge(
             this,
@@ -1215,6 +1237,9 @@ public class FlutterView extends FrameLayout
     textInputPlugin.getInputMethodManager().restartInput(this);
     textInputPlugin.destroy();
     keyboardManager.destroy();
+    // Deliver any coalesced pointer data while the engine is still attached.
+    androidTouchProcessor.flushPendingEvents();
+    androidTouchProcessor.detachFromInputManager();
     if (spellCheckPlugin != null) {
       spellCheckPlugin.destroy();
     }
@@ -6,9 +6,12 @@ package io.flutter.embedding.android;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The resulting Flutter key events generated by {@link KeyEmbedderResponder}, and are sent through
@@ -17,7 +20,8 @@ import java.nio.ByteOrder;
  * <p>This class is the Java adaption of {@code KeyData} and {@code KeyDataPacket} in the C engine.
  * Changes made to either side must also be made to the other.
  *
- * <p>Each {@link KeyData} corresponds to a {@code ui.KeyData} in the framework.
+ * <p>Each {@link KeyData} corresponds to a {@code ui.KeyData} in the framework. Several records can
+ * be concatenated into one message with a {@link PacketEncoder}.
  */
 public class KeyData {
   private static final String TAG = "KeyData";
@@ -36,6 +40,8 @@ public class KeyData {
   //  * platform_dispatcher.dart (_kKeyDataFieldCount)
   private static final int FIELD_COUNT = 6;
   private static final int BYTES_PER_FIELD = 8;
+  // The size of a record without its character.
+  private static final int HEADER_SIZE = (1 + FIELD_COUNT) * BYTES_PER_FIELD;
 
   /** The action type of the key data. */
   public enum Type {
@@ -138,6 +144,28 @@ public class KeyData {
     }
   }
 
+  /**
+   * Unmarshal all the records of a packet built by a {@link PacketEncoder}, which are between
+   * position zero and the current position of the buffer.
+   */
+  @VisibleForTesting
+  @NonNull
+  static List<KeyData> fromPacket(@NonNull ByteBuffer packet) {
+    final ArrayList<KeyData> result = new ArrayList<>();
+    final int end = packet.position();
+    int recordStart = 0;
+    while (recordStart < end) {
+      final int recordEnd = recordStart + HEADER_SIZE + (int) packet.getLong(recordStart);
+      final ByteBuffer record = packet.duplicate();
+      record.order(packet.order());
+      record.limit(recordEnd);
+      record.position(recordStart);
+      result.add(new KeyData(record));
+      recordStart = recordEnd;
+    }
+    return result;
+  }
+
   long timestamp;
   Type type;
   long physicalKey;
@@ -156,18 +184,41 @@ public class KeyData {
    * @return the marshalled bytes.
    */
   ByteBuffer toBytes() {
-    byte[] charBytes;
+    final byte[] charBytes = encodeCharacter(character);
+    final int charSize = charBytes == null ? 0 : charBytes.length;
+    final ByteBuffer packet = ByteBuffer.allocateDirect(HEADER_SIZE + charSize);
+    packet.order(ByteOrder.LITTLE_ENDIAN);
+    writeRecord(
+        packet,
+        timestamp,
+        type,
+        physicalKey,
+        logicalKey,
+        synthesized,
+        deviceType,
+        charBytes);
+    return packet;
+  }
+
+  @Nullable
+  private static byte[] encodeCharacter(@Nullable String character) {
     try {
-      charBytes = character == null ? null : character.getBytes("UTF-8");
+      return character == null ? null : character.getBytes("UTF-8");
     } catch (UnsupportedEncodingException e) {
       throw new AssertionError("UTF-8 not supported");
     }
-    final int charSize = charBytes == null ? 0 : charBytes.length;
-    final ByteBuffer packet =
-        ByteBuffer.allocateDirect((1 + FIELD_COUNT) * BYTES_PER_FIELD + charSize);
-    packet.order(ByteOrder.LITTLE_ENDIAN);
+  }
 
-    packet.putLong(charSize);
+  private static void writeRecord(
+      @NonNull ByteBuffer packet,
+      long timestamp,
+      @NonNull Type type,
+      long physicalKey,
+      long logicalKey,
+      boolean synthesized,
+      @NonNull DeviceType deviceType,
+      @Nullable byte[] charBytes) {
+    packet.putLong(charBytes == null ? 0 : charBytes.length);
     packet.putLong(timestamp);
     packet.putLong(type.getValue());
     packet.putLong(physicalKey);
@@ -177,7 +228,71 @@ public class KeyData {
     if (charBytes != null) {
       packet.put(charBytes);
     }
+  }
 
-    return packet;
+  /**
+   * Marshals key data into a reusable direct buffer, so that several records can be sent to the
+   * framework in one message.
+   *
+   * <p>A packet is the concatenation of records in the format of {@link #toBytes()}. The framework
+   * processes the records in order, and replies with the result of the last non-synthesized record.
+   *
+   * <p>The buffer returned by {@link #takePacket()} is overwritten by the next packet, and therefore
+   * must be consumed synchronously, as the engine's {@link
+   * io.flutter.plugin.common.BinaryMessenger} does.
+   */
+  static final class PacketEncoder {
+    private static final int INITIAL_CAPACITY = 4 * HEADER_SIZE;
+
+    @NonNull private ByteBuffer buffer = allocate(INITIAL_CAPACITY);
+    private int recordCount = 0;
+
+    @NonNull
+    private static ByteBuffer allocate(int capacity) {
+      final ByteBuffer result = ByteBuffer.allocateDirect(capacity);
+      result.order(ByteOrder.LITTLE_ENDIAN);
+      return result;
+    }
+
+    /** Appends a record to the current packet. */
+    void add(
+        long timestamp,
+        @NonNull Type type,
+        long physicalKey,
+        long logicalKey,
+        boolean synthesized,
+        @NonNull DeviceType deviceType,
+        @Nullable String character) {
+      final byte[] charBytes = encodeCharacter(character);
+      final int recordSize = HEADER_SIZE + (charBytes == null ? 0 : charBytes.length);
+      if (recordCount == 0) {
+        buffer.clear();
+      }
+      if (buffer.remaining() < recordSize) {
+        final ByteBuffer grown =
+            allocate(Math.max(buffer.capacity() * 2, buffer.position() + recordSize));
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+      }
+      writeRecord(
+          buffer, timestamp, type, physicalKey, logicalKey, synthesized, deviceType, charBytes);
+      recordCount += 1;
+    }
+
+    /** The number of records in the current packet. */
+    int getRecordCount() {
+      return recordCount;
+    }
+
+    /**
+     * Finishes the current packet and returns it, with the records between position zero and the
+     * current position.
+     */
+    @NonNull
+    ByteBuffer takePacket() {
+      recordCount = 0;
+      return buffer;
+    }
   }
 }
@@ -4,7 +4,6 @@
 
 package io.flutter.embedding.android;
 
-import android.view.InputDevice;
 import android.view.KeyEvent;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -44,13 +43,17 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
   // On `handleEvent`, Flutter events are marshalled into byte buffers in the format specified by
   // `KeyData.toBytes`.
   @NonNull private final BinaryMessenger messenger;
+  // The records of the Flutter events derived from the Android event being handled.
+  //
+  // The synthesized events and the main event of an Android event are sent as one packet.
+  @NonNull private final KeyData.PacketEncoder packetEncoder = new KeyData.PacketEncoder();
   // The keys being pressed currently, mapped from physical keys to logical keys.
-  @NonNull private final HashMap<Long, Long> pressingRecords = new HashMap<>();
-  // Map from logical key to toggling goals.
+  @NonNull private final PressingRecords pressingRecords = new PressingRecords();
+  // The toggling goals, looked up by logical key.
   //
   // Besides immutable configuration, the toggling goals are also used to store the current enabling
   // states in their `enabled` field.
-  @NonNull private final HashMap<Long, TogglingGoal> togglingGoals = new HashMap<>();
+  @NonNull private final TogglingGoal[] togglingGoals = KeyboardMap.getTogglingGoals();
 
   @NonNull
   private final KeyboardManager.CharacterCombiner characterCombiner =
@@ -58,9 +61,125 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
 
   public KeyEmbedderResponder(BinaryMessenger messenger) {
     this.messenger = messenger;
-    for (final TogglingGoal goal : KeyboardMap.getTogglingGoals()) {
-      togglingGoals.put(goal.logicalKey, goal);
+  }
+
+  // An open-addressing hash map from physical keys to logical keys, which avoids boxing the keys of
+  // every event. Neither physical keys nor logical keys are ever 0, which marks empty slots.
+  private static final class PressingRecords {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private static int hash(long key) {
+      final long mixed = key * 0x9E3779B97F4A7C15L;
+      return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    // Returns the slot that holds the key, or the empty slot where it would be inserted.
+    private int slotOf(long key) {
+      final int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (keys[slot] != 0 && keys[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    // Returns the logical key recorded for the physical key, or 0 if there is none.
+    long get(long physicalKey) {
+      return values[slotOf(physicalKey)];
+    }
+
+    boolean containsKey(long physicalKey) {
+      return keys[slotOf(physicalKey)] != 0;
+    }
+
+    // Records the logical key for the physical key, and returns the previous one, or 0.
+    long put(long physicalKey, long logicalKey) {
+      if (physicalKey == 0 || logicalKey == 0) {
+        throw new AssertionError("Pressing records can not contain 0");
+      }
+      if ((size + 1) * 2 > keys.length) {
+        grow();
+      }
+      final int slot = slotOf(physicalKey);
+      final long previousValue = values[slot];
+      if (keys[slot] == 0) {
+        keys[slot] = physicalKey;
+        size += 1;
+      }
+      values[slot] = logicalKey;
+      return previousValue;
+    }
+
+    // Removes the record of the physical key, and returns its logical key, or 0.
+    long remove(long physicalKey) {
+      final int mask = keys.length - 1;
+      int slot = slotOf(physicalKey);
+      final long previousValue = values[slot];
+      if (keys[slot] == 0) {
+        return 0;
+      }
+      size -= 1;
+      // Shift back the following entries of the probe sequence, so that lookups never stop at the
+      // freed slot before reaching them.
+      int next = slot;
+      while (true) {
+        next = (next + 1) & mask;
+        if (keys[next] == 0) {
+          break;
+        }
+        final int home = hash(keys[next]) & mask;
+        final boolean homeBetween =
+            slot <= next ? (slot < home && home <= next) : (slot < home || home <= next);
+        if (homeBetween) {
+          continue;
+        }
+        keys[slot] = keys[next];
+        values[slot] = values[next];
+        slot = next;
+      }
+      keys[slot] = 0;
+      values[slot] = 0;
+      return previousValue;
     }
+
+    private void grow() {
+      final long[] oldKeys = keys;
+      final long[] oldValues = values;
+      keys = new long[oldKeys.length * 2];
+      values = new long[oldValues.length * 2];
+      for (int i = 0; i < oldKeys.length; i += 1) {
+        if (oldKeys[i] != 0) {
+          final int slot = slotOf(oldKeys[i]);
+          keys[slot] = oldKeys[i];
+          values[slot] = oldValues[i];
+        }
+      }
+    }
+
+    @NonNull
+    Map<Long, Long> toMap() {
+      final HashMap<Long, Long> result = new HashMap<>();
+      for (int i = 0; i < keys.length; i += 1) {
+        if (keys[i] != 0) {
+          result.put(keys[i], values[i]);
+        }
+      }
+      return result;
+    }
+  }
+
+  @Nullable
+  private TogglingGoal getTogglingGoal(long logicalKey) {
+    for (final TogglingGoal goal : togglingGoals) {
+      if (goal.logicalKey == logicalKey) {
+        return goal;
+      }
+    }
+    return null;
   }
 
   private static long keyOfPlane(long key, long plane) {
@@ -70,8 +189,8 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
 
   // Get the physical key for this event.
   //
-  // The returned value is never null.
-  private Long getPhysicalKey(@NonNull KeyEvent event) {
+  // The returned value is never 0.
+  private long getPhysicalKey(@NonNull KeyEvent event) {
     final long scancode = event.getScanCode();
     // Scancode 0 can occur during emulation using `adb shell input keyevent`. Synthesize a physical
     // key from the key code so that keys can be told apart.
@@ -79,8 +198,8 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
       // The key code can't also be 0, since those events have been filtered.
       return keyOfPlane(event.getKeyCode(), KeyboardMap.kAndroidPlane);
     }
-    final Long byMapping = KeyboardMap.scanCodeToPhysical.get(scancode);
-    if (byMapping != null) {
+    final long byMapping = KeyboardMap.getPhysicalKeyForScanCode(scancode);
+    if (byMapping != 0) {
       return byMapping;
     }
     return keyOfPlane(event.getScanCode(), KeyboardMap.kAndroidPlane);
@@ -88,10 +207,10 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
 
   // Get the logical key for this event.
   //
-  // The returned value is never null.
-  private Long getLogicalKey(@NonNull KeyEvent event) {
-    final Long byMapping = KeyboardMap.keyCodeToLogical.get((long) event.getKeyCode());
-    if (byMapping != null) {
+  // The returned value is never 0.
+  private long getLogicalKey(@NonNull KeyEvent event) {
+    final long byMapping = KeyboardMap.getLogicalKeyForKeyCode(event.getKeyCode());
+    if (byMapping != 0) {
       return byMapping;
     }
     return keyOfPlane(event.getKeyCode(), KeyboardMap.kAndroidPlane);
@@ -100,19 +219,19 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
   // Update `pressingRecords`.
   //
   // If the key indicated by `physicalKey` is currently not pressed, then `logicalKey` must not be
-  // null and this key will be marked pressed.
+  // 0 and this key will be marked pressed.
   //
-  // If the key indicated by `physicalKey` is currently pressed, then `logicalKey` must be null
+  // If the key indicated by `physicalKey` is currently pressed, then `logicalKey` must be 0
   // and this key will be marked released.
-  void updatePressingState(@NonNull Long physicalKey, @Nullable Long logicalKey) {
-    if (logicalKey != null) {
-      final Long previousValue = pressingRecords.put(physicalKey, logicalKey);
-      if (previousValue != null) {
+  void updatePressingState(long physicalKey, long logicalKey) {
+    if (logicalKey != 0) {
+      final long previousValue = pressingRecords.put(physicalKey, logicalKey);
+      if (previousValue != 0) {
         throw new AssertionError("The key was not empty");
       }
     } else {
-      final Long previousValue = pressingRecords.remove(physicalKey);
-      if (previousValue == null) {
+      final long previousValue = pressingRecords.remove(physicalKey);
+      if (previousValue == 0) {
         throw new AssertionError("The key was empty");
       }
     }
@@ -272,8 +391,8 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
     if (event.getScanCode() == 0 && event.getKeyCode() == 0) {
       return false;
     }
-    final Long physicalKey = getPhysicalKey(event);
-    final Long logicalKey = getLogicalKey(event);
+    final long physicalKey = getPhysicalKey(event);
+    final long logicalKey = getLogicalKey(event);
 
     final ArrayList<Runnable> postSynchronizeEvents = new ArrayList<>();
     for (final PressingGoal goal : KeyboardMap.pressingGoals) {
@@ -286,7 +405,7 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
           postSynchronizeEvents);
     }
 
-    for (final TogglingGoal goal : togglingGoals.values()) {
+    for (final TogglingGoal goal : togglingGoals) {
       synchronizeTogglingKey(goal, (event.getMetaState() & goal.mask) != 0, logicalKey, event);
     }
 
@@ -304,9 +423,9 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
 
     KeyData.Type type;
     String character = null;
-    final Long lastLogicalRecord = pressingRecords.get(physicalKey);
+    final long lastLogicalRecord = pressingRecords.get(physicalKey);
     if (isDownEvent) {
-      if (lastLogicalRecord == null) {
+      if (lastLogicalRecord == 0) {
         type = KeyData.Type.kDown;
       } else {
         // A key has been pressed that has the exact physical key as a currently
@@ -324,7 +443,7 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
         character = "" + complexChar;
       }
     } else { // isDownEvent is false
-      if (lastLogicalRecord == null) {
+      if (lastLogicalRecord == 0) {
         // Ignore abrupt up events.
         return false;
       } else {
@@ -333,67 +452,48 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
     }
 
     if (type != KeyData.Type.kRepeat) {
-      updatePressingState(physicalKey, isDownEvent ? logicalKey : null);
+      updatePressingState(physicalKey, isDownEvent ? logicalKey : 0);
     }
     if (type == KeyData.Type.kDown) {
-      final TogglingGoal maybeTogglingGoal = togglingGoals.get(logicalKey);
+      final TogglingGoal maybeTogglingGoal = getTogglingGoal(logicalKey);
       if (maybeTogglingGoal != null) {
         maybeTogglingGoal.enabled = !maybeTogglingGoal.enabled;
       }
     }
 
-    final KeyData output = new KeyData();
-
-    switch (event.getSource()) {
-      default:
-      case InputDevice.SOURCE_KEYBOARD:
-        output.deviceType = KeyData.DeviceType.kKeyboard;
-        break;
-      case InputDevice.SOURCE_DPAD:
-        output.deviceType = KeyData.DeviceType.kDirectionalPad;
-        break;
-      case InputDevice.SOURCE_GAMEPAD:
-        output.deviceType = KeyData.DeviceType.kGamepad;
-        break;
-      case InputDevice.SOURCE_JOYSTICK:
-        output.deviceType = KeyData.DeviceType.kJoystick;
-        break;
-      case InputDevice.SOURCE_HDMI:
-        output.deviceType = KeyData.DeviceType.kHdmi;
-        break;
-    }
-
-    output.timestamp = event.getEventTime();
-    output.type = type;
-    output.logicalKey = logicalKey;
-    output.physicalKey = physicalKey;
-    output.character = character;
-    output.synthesized = false;
-    output.deviceType = KeyData.DeviceType.kKeyboard;
-
-    sendKeyEvent(output, onKeyEventHandledCallback);
+    packetEncoder.add(
+        event.getEventTime(),
+        type,
+        physicalKey,
+        logicalKey,
+        /*synthesized=*/ false,
+        KeyData.DeviceType.kKeyboard,
+        character);
     for (final Runnable postSyncEvent : postSynchronizeEvents) {
       postSyncEvent.run();
     }
+    sendPacket(onKeyEventHandledCallback);
     return true;
   }
 
-  private void synthesizeEvent(boolean isDown, Long logicalKey, Long physicalKey, long timestamp) {
-    final KeyData output = new KeyData();
-    output.timestamp = timestamp;
-    output.type = isDown ? KeyData.Type.kDown : KeyData.Type.kUp;
-    output.logicalKey = logicalKey;
-    output.physicalKey = physicalKey;
-    output.character = null;
-    output.synthesized = true;
-    output.deviceType = KeyData.DeviceType.kKeyboard;
+  private void synthesizeEvent(boolean isDown, long logicalKey, long physicalKey, long timestamp) {
     if (physicalKey != 0 && logicalKey != 0) {
-      updatePressingState(physicalKey, isDown ? logicalKey : null);
+      updatePressingState(physicalKey, isDown ? logicalKey : 0);
     }
-    sendKeyEvent(output, null);
+    packetEncoder.add(
+        timestamp,
+        isDown ? KeyData.Type.kDown : KeyData.Type.kUp,
+        physicalKey,
+        logicalKey,
+        /*synthesized=*/ true,
+        KeyData.DeviceType.kKeyboard,
+        null);
   }
 
-  private void sendKeyEvent(KeyData data, OnKeyEventHandledCallback onKeyEventHandledCallback) {
+  // Sends the pending records as one message.
+  //
+  // The callback, if not null, receives the result of the non-synthesized record.
+  private void sendPacket(@Nullable OnKeyEventHandledCallback onKeyEventHandledCallback) {
     final BinaryMessenger.BinaryReply handleMessageReply =
         onKeyEventHandledCallback == null
             ? null
@@ -410,7 +510,7 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
               onKeyEventHandledCallback.onKeyEventHandled(handled);
             };
 
-    messenger.send(KeyData.CHANNEL, data.toBytes(), handleMessageReply);
+    messenger.send(KeyData.CHANNEL, packetEncoder.takePacket(), handleMessageReply);
   }
 
   /**
@@ -432,17 +532,18 @@ public class KeyEmbedderResponder implements KeyboardManager.Responder {
     final boolean sentAny = handleEventImpl(event, onKeyEventHandledCallback);
     if (!sentAny) {
       synthesizeEvent(true, 0L, 0L, 0L);
+      sendPacket(null);
       onKeyEventHandledCallback.onKeyEventHandled(true);
     }
   }
 
   /**
-   * Returns an unmodifiable view of the pressed state.
+   * Returns an unmodifiable snapshot of the pressed state.
    *
    * @return A map whose keys are physical keyboard key IDs and values are the corresponding logical
    *     keyboard key IDs.
    */
   public Map<Long, Long> getPressedState() {
-    return Collections.unmodifiableMap(pressingRecords);
+    return Collections.unmodifiableMap(pressingRecords.toMap());
   }
 }
@@ -225,8 +225,15 @@ public class KeyboardManager
 
     if (responders.length > 0) {
       final PerEventCallbackBuilder callbackBuilder = new PerEventCallbackBuilder(keyEvent);
-      for (final Responder primaryResponder : responders) {
-        primaryResponder.handleEvent(keyEvent, callbackBuilder.buildCallback());
+      // The messages of all the responders for an event are dispatched together.
+      final BinaryMessenger messenger = viewDelegate.getBinaryMessenger();
+      messenger.beginBatch();
+      try {
+        for (final Responder primaryResponder : responders) {
+          primaryResponder.handleEvent(keyEvent, callbackBuilder.buildCallback());
+        }
+      } finally {
+        messenger.endBatch();
       }
     } else {
       onUnhandled(keyEvent);
@@ -68,515 +68,539 @@ public class KeyboardMap {
     public boolean enabled = false;
   }
 
-  /** Maps from Android scan codes {@link KeyEvent#getScanCode()} to Flutter physical keys. */
-  public static final HashMap<Long, Long> scanCodeToPhysical =
-      new HashMap<Long, Long>() {
-        private static final long serialVersionUID = 1L;
+  /**
+   * Maps from Android scan codes {@link KeyEvent#getScanCode()} to Flutter physical keys.
+   *
+   * <p>Stored as consecutive (scan code, key) pairs sorted by scan code, to be searched with {@link
+   * #lookup(long[], long)}.
+   */
+  private static final long[] scanCodeToPhysicalTable =
+      new long[] {
+        0x0000000001L, 0x0000070029L, // escape
+        0x0000000002L, 0x000007001eL, // digit1
+        0x0000000003L, 0x000007001fL, // digit2
+        0x0000000004L, 0x0000070020L, // digit3
+        0x0000000005L, 0x0000070021L, // digit4
+        0x0000000006L, 0x0000070022L, // digit5
+        0x0000000007L, 0x0000070023L, // digit6
+        0x0000000008L, 0x0000070024L, // digit7
+        0x0000000009L, 0x0000070025L, // digit8
+        0x000000000aL, 0x0000070026L, // digit9
+        0x000000000bL, 0x0000070027L, // digit0
+        0x000000000cL, 0x000007002dL, // minus
+        0x000000000dL, 0x000007002eL, // equal
+        0x000000000eL, 0x000007002aL, // backspace
+        0x000000000fL, 0x000007002bL, // tab
+        0x0000000010L, 0x0000070014L, // keyQ
+        0x0000000011L, 0x000007001aL, // keyW
+        0x0000000012L, 0x0000070008L, // keyE
+        0x0000000013L, 0x0000070015L, // keyR
+        0x0000000014L, 0x0000070017L, // keyT
+        0x0000000015L, 0x000007001cL, // keyY
+        0x0000000016L, 0x0000070018L, // keyU
+        0x0000000017L, 0x000007000cL, // keyI
+        0x0000000018L, 0x0000070012L, // keyO
+        0x0000000019L, 0x0000070013L, // keyP
+        0x000000001aL, 0x000007002fL, // bracketLeft
+        0x000000001bL, 0x0000070030L, // bracketRight
+        0x000000001cL, 0x0000070028L, // enter
+        0x000000001dL, 0x00000700e0L, // controlLeft
+        0x000000001eL, 0x0000070004L, // keyA
+        0x000000001fL, 0x0000070016L, // keyS
+        0x0000000020L, 0x0000070007L, // keyD
+        0x0000000021L, 0x0000070009L, // keyF
+        0x0000000022L, 0x000007000aL, // keyG
+        0x0000000023L, 0x000007000bL, // keyH
+        0x0000000024L, 0x000007000dL, // keyJ
+        0x0000000025L, 0x000007000eL, // keyK
+        0x0000000026L, 0x000007000fL, // keyL
+        0x0000000027L, 0x0000070033L, // semicolon
+        0x0000000028L, 0x0000070034L, // quote
+        0x0000000029L, 0x0000070035L, // backquote
+        0x000000002aL, 0x00000700e1L, // shiftLeft
+        0x000000002bL, 0x0000070031L, // backslash
+        0x000000002cL, 0x000007001dL, // keyZ
+        0x000000002dL, 0x000007001bL, // keyX
+        0x000000002eL, 0x0000070006L, // keyC
+        0x000000002fL, 0x0000070019L, // keyV
+        0x0000000030L, 0x0000070005L, // keyB
+        0x0000000031L, 0x0000070011L, // keyN
+        0x0000000032L, 0x0000070010L, // keyM
+        0x0000000033L, 0x0000070036L, // comma
+        0x0000000034L, 0x0000070037L, // period
+        0x0000000035L, 0x0000070038L, // slash
+        0x0000000036L, 0x00000700e5L, // shiftRight
+        0x0000000037L, 0x0000070055L, // numpadMultiply
+        0x0000000038L, 0x00000700e2L, // altLeft
+        0x0000000039L, 0x000007002cL, // space
+        0x000000003aL, 0x0000070039L, // capsLock
+        0x000000003bL, 0x000007003aL, // f1
+        0x000000003cL, 0x000007003bL, // f2
+        0x000000003dL, 0x000007003cL, // f3
+        0x000000003eL, 0x000007003dL, // f4
+        0x000000003fL, 0x000007003eL, // f5
+        0x0000000040L, 0x000007003fL, // f6
+        0x0000000041L, 0x0000070040L, // f7
+        0x0000000042L, 0x0000070041L, // f8
+        0x0000000043L, 0x0000070042L, // f9
+        0x0000000044L, 0x0000070043L, // f10
+        0x0000000045L, 0x0000070053L, // numLock
+        0x0000000046L, 0x0000070047L, // scrollLock
+        0x0000000047L, 0x000007005fL, // numpad7
+        0x0000000048L, 0x0000070060L, // numpad8
+        0x0000000049L, 0x0000070061L, // numpad9
+        0x000000004aL, 0x0000070056L, // numpadSubtract
+        0x000000004bL, 0x000007005cL, // numpad4
+        0x000000004cL, 0x000007005dL, // numpad5
+        0x000000004dL, 0x000007005eL, // numpad6
+        0x000000004eL, 0x0000070057L, // numpadAdd
+        0x000000004fL, 0x0000070059L, // numpad1
+        0x0000000050L, 0x000007005aL, // numpad2
+        0x0000000051L, 0x000007005bL, // numpad3
+        0x0000000052L, 0x0000070062L, // numpad0
+        0x0000000053L, 0x0000070063L, // numpadDecimal
+        0x0000000056L, 0x0000070031L, // backslash
+        0x0000000057L, 0x0000070044L, // f11
+        0x0000000058L, 0x0000070045L, // f12
+        0x0000000059L, 0x0000070087L, // intlRo
+        0x000000005aL, 0x0000070092L, // lang3
+        0x000000005bL, 0x0000070093L, // lang4
+        0x000000005cL, 0x000007008aL, // convert
+        0x000000005eL, 0x000007008bL, // nonConvert
+        0x000000005fL, 0x0000070085L, // numpadComma
+        0x0000000060L, 0x0000070058L, // numpadEnter
+        0x0000000061L, 0x00000700e4L, // controlRight
+        0x0000000062L, 0x0000070054L, // numpadDivide
+        0x0000000063L, 0x0000070046L, // printScreen
+        0x0000000064L, 0x00000700e6L, // altRight
+        0x0000000066L, 0x000007004aL, // home
+        0x0000000067L, 0x0000070052L, // arrowUp
+        0x0000000068L, 0x000007004bL, // pageUp
+        0x0000000069L, 0x0000070050L, // arrowLeft
+        0x000000006aL, 0x000007004fL, // arrowRight
+        0x000000006bL, 0x000007004dL, // end
+        0x000000006cL, 0x0000070051L, // arrowDown
+        0x000000006dL, 0x000007004eL, // pageDown
+        0x000000006eL, 0x0000070049L, // insert
+        0x000000006fL, 0x000007004cL, // delete
+        0x0000000071L, 0x000007007fL, // audioVolumeMute
+        0x0000000072L, 0x0000070081L, // audioVolumeDown
+        0x0000000073L, 0x0000070080L, // audioVolumeUp
+        0x0000000074L, 0x0000070066L, // power
+        0x0000000075L, 0x0000070067L, // numpadEqual
+        0x0000000077L, 0x0000070048L, // pause
+        0x0000000079L, 0x0000070085L, // numpadComma
+        0x000000007cL, 0x0000070089L, // intlYen
+        0x000000007dL, 0x00000700e3L, // metaLeft
+        0x000000007eL, 0x00000700e7L, // metaRight
+        0x000000007fL, 0x0000070065L, // contextMenu
+        0x0000000080L, 0x00000c00b7L, // mediaStop
+        0x0000000081L, 0x0000070079L, // again
+        0x0000000082L, 0x00000700a3L, // props
+        0x0000000083L, 0x000007007aL, // undo
+        0x0000000085L, 0x000007007cL, // copy
+        0x0000000086L, 0x0000070074L, // open
+        0x0000000087L, 0x000007007dL, // paste
+        0x0000000088L, 0x000007007eL, // find
+        0x0000000089L, 0x000007007bL, // cut
+        0x000000008aL, 0x0000070075L, // help
+        0x000000008bL, 0x0000070065L, // contextMenu
+        0x000000008eL, 0x0000010082L, // sleep
+        0x000000008fL, 0x0000010083L, // wakeUp
+        0x0000000098L, 0x0000070066L, // power
+        0x000000009bL, 0x00000c018aL, // launchMail
+        0x000000009cL, 0x00000c022aL, // browserFavorites
+        0x000000009fL, 0x00000c0225L, // browserForward
+        0x00000000a0L, 0x00000c0203L, // close
+        0x00000000a1L, 0x00000c00b8L, // eject
+        0x00000000a2L, 0x00000c00b8L, // eject
+        0x00000000a3L, 0x00000c00b5L, // mediaTrackNext
+        0x00000000a4L, 0x00000c00cdL, // mediaPlayPause
+        0x00000000a5L, 0x00000c00b6L, // mediaTrackPrevious
+        0x00000000a6L, 0x00000c00b7L, // mediaStop
+        0x00000000a7L, 0x00000c00b2L, // mediaRecord
+        0x00000000a8L, 0x00000c00b4L, // mediaRewind
+        0x00000000aeL, 0x00000c0094L, // exit
+        0x00000000b1L, 0x000007004bL, // pageUp
+        0x00000000b2L, 0x000007004eL, // pageDown
+        0x00000000b3L, 0x00000700b6L, // numpadParenLeft
+        0x00000000b4L, 0x00000700b7L, // numpadParenRight
+        0x00000000b6L, 0x00000c0279L, // redo
+        0x00000000b7L, 0x0000070068L, // f13
+        0x00000000b8L, 0x0000070069L, // f14
+        0x00000000b9L, 0x000007006aL, // f15
+        0x00000000baL, 0x000007006bL, // f16
+        0x00000000bbL, 0x000007006cL, // f17
+        0x00000000bcL, 0x000007006dL, // f18
+        0x00000000bdL, 0x000007006eL, // f19
+        0x00000000beL, 0x000007006fL, // f20
+        0x00000000bfL, 0x0000070070L, // f21
+        0x00000000c0L, 0x0000070071L, // f22
+        0x00000000c1L, 0x0000070072L, // f23
+        0x00000000c2L, 0x0000070073L, // f24
+        0x00000000c8L, 0x00000c00b0L, // mediaPlay
+        0x00000000c9L, 0x00000c00b1L, // mediaPause
+        0x00000000cdL, 0x0000000014L, // suspend
+        0x00000000ceL, 0x00000c0203L, // close
+        0x00000000cfL, 0x00000c00b0L, // mediaPlay
+        0x00000000d0L, 0x00000c00b3L, // mediaFastForward
+        0x00000000d1L, 0x00000c00e5L, // bassBoost
+        0x00000000d2L, 0x00000c0208L, // print
+        0x00000000d7L, 0x00000c018aL, // launchMail
+        0x00000000d9L, 0x00000c0221L, // browserSearch
+        0x00000000e0L, 0x00000c0070L, // brightnessDown
+        0x00000000e1L, 0x00000c006fL, // brightnessUp
+        0x0000000100L, 0x000005ff01L, // gameButton1
+        0x0000000101L, 0x000005ff02L, // gameButton2
+        0x0000000102L, 0x000005ff03L, // gameButton3
+        0x0000000103L, 0x000005ff04L, // gameButton4
+        0x0000000104L, 0x000005ff05L, // gameButton5
+        0x0000000105L, 0x000005ff06L, // gameButton6
+        0x0000000106L, 0x000005ff07L, // gameButton7
+        0x0000000107L, 0x000005ff08L, // gameButton8
+        0x0000000108L, 0x000005ff09L, // gameButton9
+        0x0000000109L, 0x000005ff0aL, // gameButton10
+        0x000000010aL, 0x000005ff0bL, // gameButton11
+        0x000000010bL, 0x000005ff0cL, // gameButton12
+        0x000000010cL, 0x000005ff0dL, // gameButton13
+        0x000000010dL, 0x000005ff0eL, // gameButton14
+        0x000000010eL, 0x000005ff0fL, // gameButton15
+        0x000000010fL, 0x000005ff10L, // gameButton16
+        0x0000000120L, 0x000005ff01L, // gameButton1
+        0x0000000121L, 0x000005ff02L, // gameButton2
+        0x0000000122L, 0x000005ff03L, // gameButton3
+        0x0000000123L, 0x000005ff04L, // gameButton4
+        0x0000000124L, 0x000005ff05L, // gameButton5
+        0x0000000125L, 0x000005ff06L, // gameButton6
+        0x0000000126L, 0x000005ff07L, // gameButton7
+        0x0000000127L, 0x000005ff08L, // gameButton8
+        0x0000000128L, 0x000005ff09L, // gameButton9
+        0x0000000129L, 0x000005ff0aL, // gameButton10
+        0x000000012aL, 0x000005ff0bL, // gameButton11
+        0x000000012bL, 0x000005ff0cL, // gameButton12
+        0x000000012cL, 0x000005ff0dL, // gameButton13
+        0x000000012dL, 0x000005ff0eL, // gameButton14
+        0x000000012eL, 0x000005ff0fL, // gameButton15
+        0x000000012fL, 0x000005ff10L, // gameButton16
+        0x0000000130L, 0x000005ff11L, // gameButtonA
+        0x0000000131L, 0x000005ff12L, // gameButtonB
+        0x0000000132L, 0x000005ff13L, // gameButtonC
+        0x0000000133L, 0x000005ff1dL, // gameButtonX
+        0x0000000134L, 0x000005ff1eL, // gameButtonY
+        0x0000000135L, 0x000005ff1fL, // gameButtonZ
+        0x0000000136L, 0x000005ff14L, // gameButtonLeft1
+        0x0000000137L, 0x000005ff17L, // gameButtonRight1
+        0x0000000138L, 0x000005ff15L, // gameButtonLeft2
+        0x0000000139L, 0x000005ff18L, // gameButtonRight2
+        0x000000013aL, 0x000005ff19L, // gameButtonSelect
+        0x000000013bL, 0x000005ff1aL, // gameButtonStart
+        0x000000013cL, 0x000005ff16L, // gameButtonMode
+        0x000000013dL, 0x000005ff1bL, // gameButtonThumbLeft
+        0x000000013eL, 0x000005ff1cL, // gameButtonThumbRight
+        0x0000000161L, 0x0000070077L, // select
+        0x0000000166L, 0x00000c0060L, // info
+        0x0000000172L, 0x00000c0061L, // closedCaptionToggle
+        0x000000018dL, 0x00000c018eL, // launchCalendar
+        0x0000000192L, 0x00000c009cL, // channelUp
+        0x0000000193L, 0x00000c009dL, // channelDown
+        0x0000000195L, 0x00000c0083L, // mediaLast
+        0x000000019bL, 0x0000070048L, // pause
+        0x00000001adL, 0x00000c018dL, // launchContacts
+        0x00000001d0L, 0x0000000012L, // fn
+        0x0000000247L, 0x00000c01cbL, // launchAssistant
+      };
 
-        {
-          put(0x00000001d0L, 0x0000000012L); // fn
-          put(0x00000000cdL, 0x0000000014L); // suspend
-          put(0x000000008eL, 0x0000010082L); // sleep
-          put(0x000000008fL, 0x0000010083L); // wakeUp
-          put(0x0000000100L, 0x000005ff01L); // gameButton1
-          put(0x0000000120L, 0x000005ff01L); // gameButton1
-          put(0x0000000101L, 0x000005ff02L); // gameButton2
-          put(0x0000000121L, 0x000005ff02L); // gameButton2
-          put(0x0000000102L, 0x000005ff03L); // gameButton3
-          put(0x0000000122L, 0x000005ff03L); // gameButton3
-          put(0x0000000103L, 0x000005ff04L); // gameButton4
-          put(0x0000000123L, 0x000005ff04L); // gameButton4
-          put(0x0000000104L, 0x000005ff05L); // gameButton5
-          put(0x0000000124L, 0x000005ff05L); // gameButton5
-          put(0x0000000105L, 0x000005ff06L); // gameButton6
-          put(0x0000000125L, 0x000005ff06L); // gameButton6
-          put(0x0000000106L, 0x000005ff07L); // gameButton7
-          put(0x0000000126L, 0x000005ff07L); // gameButton7
-          put(0x0000000107L, 0x000005ff08L); // gameButton8
-          put(0x0000000127L, 0x000005ff08L); // gameButton8
-          put(0x0000000108L, 0x000005ff09L); // gameButton9
-          put(0x0000000128L, 0x000005ff09L); // gameButton9
-          put(0x0000000109L, 0x000005ff0aL); // gameButton10
-          put(0x0000000129L, 0x000005ff0aL); // gameButton10
-          put(0x000000010aL, 0x000005ff0bL); // gameButton11
-          put(0x000000012aL, 0x000005ff0bL); // gameButton11
-          put(0x000000010bL, 0x000005ff0cL); // gameButton12
-          put(0x000000012bL, 0x000005ff0cL); // gameButton12
-          put(0x000000010cL, 0x000005ff0dL); // gameButton13
-          put(0x000000012cL, 0x000005ff0dL); // gameButton13
-          put(0x000000010dL, 0x000005ff0eL); // gameButton14
-          put(0x000000012dL, 0x000005ff0eL); // gameButton14
-          put(0x000000010eL, 0x000005ff0fL); // gameButton15
-          put(0x000000012eL, 0x000005ff0fL); // gameButton15
-          put(0x000000010fL, 0x000005ff10L); // gameButton16
-          put(0x000000012fL, 0x000005ff10L); // gameButton16
-          put(0x0000000130L, 0x000005ff11L); // gameButtonA
-          put(0x0000000131L, 0x000005ff12L); // gameButtonB
-          put(0x0000000132L, 0x000005ff13L); // gameButtonC
-          put(0x0000000136L, 0x000005ff14L); // gameButtonLeft1
-          put(0x0000000138L, 0x000005ff15L); // gameButtonLeft2
-          put(0x000000013cL, 0x000005ff16L); // gameButtonMode
-          put(0x0000000137L, 0x000005ff17L); // gameButtonRight1
-          put(0x0000000139L, 0x000005ff18L); // gameButtonRight2
-          put(0x000000013aL, 0x000005ff19L); // gameButtonSelect
-          put(0x000000013bL, 0x000005ff1aL); // gameButtonStart
-          put(0x000000013dL, 0x000005ff1bL); // gameButtonThumbLeft
-          put(0x000000013eL, 0x000005ff1cL); // gameButtonThumbRight
-          put(0x0000000133L, 0x000005ff1dL); // gameButtonX
-          put(0x0000000134L, 0x000005ff1eL); // gameButtonY
-          put(0x0000000135L, 0x000005ff1fL); // gameButtonZ
-          put(0x000000001eL, 0x0000070004L); // keyA
-          put(0x0000000030L, 0x0000070005L); // keyB
-          put(0x000000002eL, 0x0000070006L); // keyC
-          put(0x0000000020L, 0x0000070007L); // keyD
-          put(0x0000000012L, 0x0000070008L); // keyE
-          put(0x0000000021L, 0x0000070009L); // keyF
-          put(0x0000000022L, 0x000007000aL); // keyG
-          put(0x0000000023L, 0x000007000bL); // keyH
-          put(0x0000000017L, 0x000007000cL); // keyI
-          put(0x0000000024L, 0x000007000dL); // keyJ
-          put(0x0000000025L, 0x000007000eL); // keyK
-          put(0x0000000026L, 0x000007000fL); // keyL
-          put(0x0000000032L, 0x0000070010L); // keyM
-          put(0x0000000031L, 0x0000070011L); // keyN
-          put(0x0000000018L, 0x0000070012L); // keyO
-          put(0x0000000019L, 0x0000070013L); // keyP
-          put(0x0000000010L, 0x0000070014L); // keyQ
-          put(0x0000000013L, 0x0000070015L); // keyR
-          put(0x000000001fL, 0x0000070016L); // keyS
-          put(0x0000000014L, 0x0000070017L); // keyT
-          put(0x0000000016L, 0x0000070018L); // keyU
-          put(0x000000002fL, 0x0000070019L); // keyV
-          put(0x0000000011L, 0x000007001aL); // keyW
-          put(0x000000002dL, 0x000007001bL); // keyX
-          put(0x0000000015L, 0x000007001cL); // keyY
-          put(0x000000002cL, 0x000007001dL); // keyZ
-          put(0x0000000002L, 0x000007001eL); // digit1
-          put(0x0000000003L, 0x000007001fL); // digit2
-          put(0x0000000004L, 0x0000070020L); // digit3
-          put(0x0000000005L, 0x0000070021L); // digit4
-          put(0x0000000006L, 0x0000070022L); // digit5
-          put(0x0000000007L, 0x0000070023L); // digit6
-          put(0x0000000008L, 0x0000070024L); // digit7
-          put(0x0000000009L, 0x0000070025L); // digit8
-          put(0x000000000aL, 0x0000070026L); // digit9
-          put(0x000000000bL, 0x0000070027L); // digit0
-          put(0x000000001cL, 0x0000070028L); // enter
-          put(0x0000000001L, 0x0000070029L); // escape
-          put(0x000000000eL, 0x000007002aL); // backspace
-          put(0x000000000fL, 0x000007002bL); // tab
-          put(0x0000000039L, 0x000007002cL); // space
-          put(0x000000000cL, 0x000007002dL); // minus
-          put(0x000000000dL, 0x000007002eL); // equal
-          put(0x000000001aL, 0x000007002fL); // bracketLeft
-          put(0x000000001bL, 0x0000070030L); // bracketRight
-          put(0x000000002bL, 0x0000070031L); // backslash
-          put(0x0000000056L, 0x0000070031L); // backslash
-          put(0x0000000027L, 0x0000070033L); // semicolon
-          put(0x0000000028L, 0x0000070034L); // quote
-          put(0x0000000029L, 0x0000070035L); // backquote
-          put(0x0000000033L, 0x0000070036L); // comma
-          put(0x0000000034L, 0x0000070037L); // period
-          put(0x0000000035L, 0x0000070038L); // slash
-          put(0x000000003aL, 0x0000070039L); // capsLock
-          put(0x000000003bL, 0x000007003aL); // f1
-          put(0x000000003cL, 0x000007003bL); // f2
-          put(0x000000003dL, 0x000007003cL); // f3
-          put(0x000000003eL, 0x000007003dL); // f4
-          put(0x000000003fL, 0x000007003eL); // f5
-          put(0x0000000040L, 0x000007003fL); // f6
-          put(0x0000000041L, 0x0000070040L); // f7
-          put(0x0000000042L, 0x0000070041L); // f8
-          put(0x0000000043L, 0x0000070042L); // f9
-          put(0x0000000044L, 0x0000070043L); // f10
-          put(0x0000000057L, 0x0000070044L); // f11
-          put(0x0000000058L, 0x0000070045L); // f12
-          put(0x0000000063L, 0x0000070046L); // printScreen
-          put(0x0000000046L, 0x0000070047L); // scrollLock
-          put(0x0000000077L, 0x0000070048L); // pause
-          put(0x000000019bL, 0x0000070048L); // pause
-          put(0x000000006eL, 0x0000070049L); // insert
-          put(0x0000000066L, 0x000007004aL); // home
-          put(0x0000000068L, 0x000007004bL); // pageUp
-          put(0x00000000b1L, 0x000007004bL); // pageUp
-          put(0x000000006fL, 0x000007004cL); // delete
-          put(0x000000006bL, 0x000007004dL); // end
-          put(0x000000006dL, 0x000007004eL); // pageDown
-          put(0x00000000b2L, 0x000007004eL); // pageDown
-          put(0x000000006aL, 0x000007004fL); // arrowRight
-          put(0x0000000069L, 0x0000070050L); // arrowLeft
-          put(0x000000006cL, 0x0000070051L); // arrowDown
-          put(0x0000000067L, 0x0000070052L); // arrowUp
-          put(0x0000000045L, 0x0000070053L); // numLock
-          put(0x0000000062L, 0x0000070054L); // numpadDivide
-          put(0x0000000037L, 0x0000070055L); // numpadMultiply
-          put(0x000000004aL, 0x0000070056L); // numpadSubtract
-          put(0x000000004eL, 0x0000070057L); // numpadAdd
-          put(0x0000000060L, 0x0000070058L); // numpadEnter
-          put(0x000000004fL, 0x0000070059L); // numpad1
-          put(0x0000000050L, 0x000007005aL); // numpad2
-          put(0x0000000051L, 0x000007005bL); // numpad3
-          put(0x000000004bL, 0x000007005cL); // numpad4
-          put(0x000000004cL, 0x000007005dL); // numpad5
-          put(0x000000004dL, 0x000007005eL); // numpad6
-          put(0x0000000047L, 0x000007005fL); // numpad7
-          put(0x0000000048L, 0x0000070060L); // numpad8
-          put(0x0000000049L, 0x0000070061L); // numpad9
-          put(0x0000000052L, 0x0000070062L); // numpad0
-          put(0x0000000053L, 0x0000070063L); // numpadDecimal
-          put(0x000000007fL, 0x0000070065L); // contextMenu
-          put(0x000000008bL, 0x0000070065L); // contextMenu
-          put(0x0000000074L, 0x0000070066L); // power
-          put(0x0000000098L, 0x0000070066L); // power
-          put(0x0000000075L, 0x0000070067L); // numpadEqual
-          put(0x00000000b7L, 0x0000070068L); // f13
-          put(0x00000000b8L, 0x0000070069L); // f14
-          put(0x00000000b9L, 0x000007006aL); // f15
-          put(0x00000000baL, 0x000007006bL); // f16
-          put(0x00000000bbL, 0x000007006cL); // f17
-          put(0x00000000bcL, 0x000007006dL); // f18
-          put(0x00000000bdL, 0x000007006eL); // f19
-          put(0x00000000beL, 0x000007006fL); // f20
-          put(0x00000000bfL, 0x0000070070L); // f21
-          put(0x00000000c0L, 0x0000070071L); // f22
-          put(0x00000000c1L, 0x0000070072L); // f23
-          put(0x00000000c2L, 0x0000070073L); // f24
-          put(0x0000000086L, 0x0000070074L); // open
-          put(0x000000008aL, 0x0000070075L); // help
-          put(0x0000000161L, 0x0000070077L); // select
-          put(0x0000000081L, 0x0000070079L); // again
-          put(0x0000000083L, 0x000007007aL); // undo
-          put(0x0000000089L, 0x000007007bL); // cut
-          put(0x0000000085L, 0x000007007cL); // copy
-          put(0x0000000087L, 0x000007007dL); // paste
-          put(0x0000000088L, 0x000007007eL); // find
-          put(0x0000000071L, 0x000007007fL); // audioVolumeMute
-          put(0x0000000073L, 0x0000070080L); // audioVolumeUp
-          put(0x0000000072L, 0x0000070081L); // audioVolumeDown
-          put(0x000000005fL, 0x0000070085L); // numpadComma
-          put(0x0000000079L, 0x0000070085L); // numpadComma
-          put(0x0000000059L, 0x0000070087L); // intlRo
-          put(0x000000007cL, 0x0000070089L); // intlYen
-          put(0x000000005cL, 0x000007008aL); // convert
-          put(0x000000005eL, 0x000007008bL); // nonConvert
-          put(0x000000005aL, 0x0000070092L); // lang3
-          put(0x000000005bL, 0x0000070093L); // lang4
-          put(0x0000000082L, 0x00000700a3L); // props
-          put(0x00000000b3L, 0x00000700b6L); // numpadParenLeft
-          put(0x00000000b4L, 0x00000700b7L); // numpadParenRight
-          put(0x000000001dL, 0x00000700e0L); // controlLeft
-          put(0x000000002aL, 0x00000700e1L); // shiftLeft
-          put(0x0000000038L, 0x00000700e2L); // altLeft
-          put(0x000000007dL, 0x00000700e3L); // metaLeft
-          put(0x0000000061L, 0x00000700e4L); // controlRight
-          put(0x0000000036L, 0x00000700e5L); // shiftRight
-          put(0x0000000064L, 0x00000700e6L); // altRight
-          put(0x000000007eL, 0x00000700e7L); // metaRight
-          put(0x0000000166L, 0x00000c0060L); // info
-          put(0x0000000172L, 0x00000c0061L); // closedCaptionToggle
-          put(0x00000000e1L, 0x00000c006fL); // brightnessUp
-          put(0x00000000e0L, 0x00000c0070L); // brightnessDown
-          put(0x0000000195L, 0x00000c0083L); // mediaLast
-          put(0x00000000aeL, 0x00000c0094L); // exit
-          put(0x0000000192L, 0x00000c009cL); // channelUp
-          put(0x0000000193L, 0x00000c009dL); // channelDown
-          put(0x00000000c8L, 0x00000c00b0L); // mediaPlay
-          put(0x00000000cfL, 0x00000c00b0L); // mediaPlay
-          put(0x00000000c9L, 0x00000c00b1L); // mediaPause
-          put(0x00000000a7L, 0x00000c00b2L); // mediaRecord
-          put(0x00000000d0L, 0x00000c00b3L); // mediaFastForward
-          put(0x00000000a8L, 0x00000c00b4L); // mediaRewind
-          put(0x00000000a3L, 0x00000c00b5L); // mediaTrackNext
-          put(0x00000000a5L, 0x00000c00b6L); // mediaTrackPrevious
-          put(0x0000000080L, 0x00000c00b7L); // mediaStop
-          put(0x00000000a6L, 0x00000c00b7L); // mediaStop
-          put(0x00000000a1L, 0x00000c00b8L); // eject
-          put(0x00000000a2L, 0x00000c00b8L); // eject
-          put(0x00000000a4L, 0x00000c00cdL); // mediaPlayPause
-          put(0x00000000d1L, 0x00000c00e5L); // bassBoost
-          put(0x000000009bL, 0x00000c018aL); // launchMail
-          put(0x00000000d7L, 0x00000c018aL); // launchMail
-          put(0x00000001adL, 0x00000c018dL); // launchContacts
-          put(0x000000018dL, 0x00000c018eL); // launchCalendar
-          put(0x0000000247L, 0x00000c01cbL); // launchAssistant
-          put(0x00000000a0L, 0x00000c0203L); // close
-          put(0x00000000ceL, 0x00000c0203L); // close
-          put(0x00000000d2L, 0x00000c0208L); // print
-          put(0x00000000d9L, 0x00000c0221L); // browserSearch
-          put(0x000000009fL, 0x00000c0225L); // browserForward
-          put(0x000000009cL, 0x00000c022aL); // browserFavorites
-          put(0x00000000b6L, 0x00000c0279L); // redo
-        }
+  /**
+   * Maps from Android key codes {@link KeyEvent#getKeyCode()} to Flutter logical keys.
+   *
+   * <p>Stored as consecutive (key code, key) pairs sorted by key code, to be searched with {@link
+   * #lookup(long[], long)}.
+   */
+  private static final long[] keyCodeToLogicalTable =
+      new long[] {
+        0x0000000003L, 0x0100001006L, // goHome
+        0x0000000004L, 0x0100001005L, // goBack
+        0x0000000005L, 0x0100001002L, // call
+        0x0000000006L, 0x0100001004L, // endCall
+        0x0000000007L, 0x0000000030L, // digit0
+        0x0000000008L, 0x0000000031L, // digit1
+        0x0000000009L, 0x0000000032L, // digit2
+        0x000000000aL, 0x0000000033L, // digit3
+        0x000000000bL, 0x0000000034L, // digit4
+        0x000000000cL, 0x0000000035L, // digit5
+        0x000000000dL, 0x0000000036L, // digit6
+        0x000000000eL, 0x0000000037L, // digit7
+        0x000000000fL, 0x0000000038L, // digit8
+        0x0000000010L, 0x0000000039L, // digit9
+        0x0000000011L, 0x000000002aL, // asterisk
+        0x0000000012L, 0x0000000023L, // numberSign
+        0x0000000013L, 0x0100000304L, // arrowUp
+        0x0000000014L, 0x0100000301L, // arrowDown
+        0x0000000015L, 0x0100000302L, // arrowLeft
+        0x0000000016L, 0x0100000303L, // arrowRight
+        0x0000000017L, 0x010000050cL, // select
+        0x0000000018L, 0x0100000a10L, // audioVolumeUp
+        0x0000000019L, 0x0100000a0fL, // audioVolumeDown
+        0x000000001aL, 0x0100000606L, // power
+        0x000000001bL, 0x0100000603L, // camera
+        0x000000001cL, 0x0100000401L, // clear
+        0x000000001dL, 0x0000000061L, // keyA
+        0x000000001eL, 0x0000000062L, // keyB
+        0x000000001fL, 0x0000000063L, // keyC
+        0x0000000020L, 0x0000000064L, // keyD
+        0x0000000021L, 0x0000000065L, // keyE
+        0x0000000022L, 0x0000000066L, // keyF
+        0x0000000023L, 0x0000000067L, // keyG
+        0x0000000024L, 0x0000000068L, // keyH
+        0x0000000025L, 0x0000000069L, // keyI
+        0x0000000026L, 0x000000006aL, // keyJ
+        0x0000000027L, 0x000000006bL, // keyK
+        0x0000000028L, 0x000000006cL, // keyL
+        0x0000000029L, 0x000000006dL, // keyM
+        0x000000002aL, 0x000000006eL, // keyN
+        0x000000002bL, 0x000000006fL, // keyO
+        0x000000002cL, 0x0000000070L, // keyP
+        0x000000002dL, 0x0000000071L, // keyQ
+        0x000000002eL, 0x0000000072L, // keyR
+        0x000000002fL, 0x0000000073L, // keyS
+        0x0000000030L, 0x0000000074L, // keyT
+        0x0000000031L, 0x0000000075L, // keyU
+        0x0000000032L, 0x0000000076L, // keyV
+        0x0000000033L, 0x0000000077L, // keyW
+        0x0000000034L, 0x0000000078L, // keyX
+        0x0000000035L, 0x0000000079L, // keyY
+        0x0000000036L, 0x000000007aL, // keyZ
+        0x0000000037L, 0x000000002cL, // comma
+        0x0000000038L, 0x000000002eL, // period
+        0x0000000039L, 0x0200000104L, // altLeft
+        0x000000003aL, 0x0200000105L, // altRight
+        0x000000003bL, 0x0200000102L, // shiftLeft
+        0x000000003cL, 0x0200000103L, // shiftRight
+        0x000000003dL, 0x0100000009L, // tab
+        0x000000003eL, 0x0000000020L, // space
+        0x000000003fL, 0x010000010fL, // symbol
+        0x0000000040L, 0x0100000b09L, // launchWebBrowser
+        0x0000000041L, 0x0100000b03L, // launchMail
+        0x0000000042L, 0x010000000dL, // enter
+        0x0000000043L, 0x0100000008L, // backspace
+        0x0000000044L, 0x0000000060L, // backquote
+        0x0000000045L, 0x000000002dL, // minus
+        0x0000000046L, 0x000000003dL, // equal
+        0x0000000047L, 0x000000005bL, // bracketLeft
+        0x0000000048L, 0x000000005dL, // bracketRight
+        0x0000000049L, 0x000000005cL, // backslash
+        0x000000004aL, 0x000000003bL, // semicolon
+        0x000000004bL, 0x0000000022L, // quote
+        0x000000004cL, 0x000000002fL, // slash
+        0x000000004dL, 0x0000000040L, // at
+        0x000000004fL, 0x0100001007L, // headsetHook
+        0x0000000050L, 0x0100001003L, // cameraFocus
+        0x0000000051L, 0x000000002bL, // add
+        0x0000000052L, 0x0100000505L, // contextMenu
+        0x0000000053L, 0x0100001009L, // notification
+        0x0000000054L, 0x0100000c06L, // browserSearch
+        0x0000000055L, 0x0100000a05L, // mediaPlayPause
+        0x0000000056L, 0x0100000a07L, // mediaStop
+        0x0000000057L, 0x0100000a08L, // mediaTrackNext
+        0x0000000058L, 0x0100000a09L, // mediaTrackPrevious
+        0x0000000059L, 0x0100000d31L, // mediaRewind
+        0x000000005aL, 0x0100000d2cL, // mediaFastForward
+        0x000000005bL, 0x0100000e09L, // microphoneVolumeMute
+        0x000000005cL, 0x0100000308L, // pageUp
+        0x000000005dL, 0x0100000307L, // pageDown
+        0x000000005fL, 0x010000070bL, // modeChange
+        0x0000000060L, 0x0200000311L, // gameButtonA
+        0x0000000061L, 0x0200000312L, // gameButtonB
+        0x0000000062L, 0x0200000313L, // gameButtonC
+        0x0000000063L, 0x020000031dL, // gameButtonX
+        0x0000000064L, 0x020000031eL, // gameButtonY
+        0x0000000065L, 0x020000031fL, // gameButtonZ
+        0x0000000066L, 0x0200000314L, // gameButtonLeft1
+        0x0000000067L, 0x0200000317L, // gameButtonRight1
+        0x0000000068L, 0x0200000315L, // gameButtonLeft2
+        0x0000000069L, 0x0200000318L, // gameButtonRight2
+        0x000000006aL, 0x020000031bL, // gameButtonThumbLeft
+        0x000000006bL, 0x020000031cL, // gameButtonThumbRight
+        0x000000006cL, 0x020000031aL, // gameButtonStart
+        0x000000006dL, 0x0200000319L, // gameButtonSelect
+        0x000000006eL, 0x0200000316L, // gameButtonMode
+        0x000000006fL, 0x010000001bL, // escape
+        0x0000000070L, 0x010000007fL, // delete
+        0x0000000071L, 0x0200000100L, // controlLeft
+        0x0000000072L, 0x0200000101L, // controlRight
+        0x0000000073L, 0x0100000104L, // capsLock
+        0x0000000074L, 0x010000010cL, // scrollLock
+        0x0000000075L, 0x0200000106L, // metaLeft
+        0x0000000076L, 0x0200000107L, // metaRight
+        0x0000000077L, 0x0100000106L, // fn
+        0x0000000078L, 0x0100000608L, // printScreen
+        0x0000000079L, 0x0100000509L, // pause
+        0x000000007aL, 0x0100000306L, // home
+        0x000000007bL, 0x0100000305L, // end
+        0x000000007cL, 0x0100000407L, // insert
+        0x000000007dL, 0x0100000c03L, // browserForward
+        0x000000007eL, 0x0100000d2fL, // mediaPlay
+        0x000000007fL, 0x0100000d2eL, // mediaPause
+        0x0000000080L, 0x0100000a01L, // close
+        0x0000000081L, 0x0100000604L, // eject
+        0x0000000082L, 0x0100000d30L, // mediaRecord
+        0x0000000083L, 0x0100000801L, // f1
+        0x0000000084L, 0x0100000802L, // f2
+        0x0000000085L, 0x0100000803L, // f3
+        0x0000000086L, 0x0100000804L, // f4
+        0x0000000087L, 0x0100000805L, // f5
+        0x0000000088L, 0x0100000806L, // f6
+        0x0000000089L, 0x0100000807L, // f7
+        0x000000008aL, 0x0100000808L, // f8
+        0x000000008bL, 0x0100000809L, // f9
+        0x000000008cL, 0x010000080aL, // f10
+        0x000000008dL, 0x010000080bL, // f11
+        0x000000008eL, 0x010000080cL, // f12
+        0x000000008fL, 0x010000010aL, // numLock
+        0x0000000090L, 0x0200000230L, // numpad0
+        0x0000000091L, 0x0200000231L, // numpad1
+        0x0000000092L, 0x0200000232L, // numpad2
+        0x0000000093L, 0x0200000233L, // numpad3
+        0x0000000094L, 0x0200000234L, // numpad4
+        0x0000000095L, 0x0200000235L, // numpad5
+        0x0000000096L, 0x0200000236L, // numpad6
+        0x0000000097L, 0x0200000237L, // numpad7
+        0x0000000098L, 0x0200000238L, // numpad8
+        0x0000000099L, 0x0200000239L, // numpad9
+        0x000000009aL, 0x020000022fL, // numpadDivide
+        0x000000009bL, 0x020000022aL, // numpadMultiply
+        0x000000009cL, 0x020000022dL, // numpadSubtract
+        0x000000009dL, 0x020000022bL, // numpadAdd
+        0x000000009eL, 0x020000022eL, // numpadDecimal
+        0x000000009fL, 0x020000022cL, // numpadComma
+        0x00000000a0L, 0x020000020dL, // numpadEnter
+        0x00000000a1L, 0x020000023dL, // numpadEqual
+        0x00000000a2L, 0x0200000228L, // numpadParenLeft
+        0x00000000a3L, 0x0200000229L, // numpadParenRight
+        0x00000000a4L, 0x0100000a11L, // audioVolumeMute
+        0x00000000a5L, 0x0100000d25L, // info
+        0x00000000a6L, 0x0100000d0bL, // channelUp
+        0x00000000a7L, 0x0100000d0aL, // channelDown
+        0x00000000a8L, 0x010000050dL, // zoomIn
+        0x00000000a9L, 0x010000050eL, // zoomOut
+        0x00000000aaL, 0x0100000d49L, // tv
+        0x00000000acL, 0x0100000d22L, // guide
+        0x00000000adL, 0x0100000d4fL, // dvr
+        0x00000000aeL, 0x0100000c02L, // browserFavorites
+        0x00000000afL, 0x0100000d12L, // closedCaptionToggle
+        0x00000000b0L, 0x0100000d43L, // settings
+        0x00000000b1L, 0x0100000d4bL, // tvPower
+        0x00000000b2L, 0x0100000d4aL, // tvInput
+        0x00000000b3L, 0x0100000d46L, // stbPower
+        0x00000000b4L, 0x0100000d45L, // stbInput
+        0x00000000b5L, 0x0100000d09L, // avrPower
+        0x00000000b6L, 0x0100000d08L, // avrInput
+        0x00000000b7L, 0x0100000d0cL, // colorF0Red
+        0x00000000b8L, 0x0100000d0dL, // colorF1Green
+        0x00000000b9L, 0x0100000d0eL, // colorF2Yellow
+        0x00000000baL, 0x0100000d0fL, // colorF3Blue
+        0x00000000bbL, 0x0100001001L, // appSwitch
+        0x00000000bcL, 0x0200000301L, // gameButton1
+        0x00000000bdL, 0x0200000302L, // gameButton2
+        0x00000000beL, 0x0200000303L, // gameButton3
+        0x00000000bfL, 0x0200000304L, // gameButton4
+        0x00000000c0L, 0x0200000305L, // gameButton5
+        0x00000000c1L, 0x0200000306L, // gameButton6
+        0x00000000c2L, 0x0200000307L, // gameButton7
+        0x00000000c3L, 0x0200000308L, // gameButton8
+        0x00000000c4L, 0x0200000309L, // gameButton9
+        0x00000000c5L, 0x020000030aL, // gameButton10
+        0x00000000c6L, 0x020000030bL, // gameButton11
+        0x00000000c7L, 0x020000030cL, // gameButton12
+        0x00000000c8L, 0x020000030dL, // gameButton13
+        0x00000000c9L, 0x020000030eL, // gameButton14
+        0x00000000caL, 0x020000030fL, // gameButton15
+        0x00000000cbL, 0x0200000310L, // gameButton16
+        0x00000000ccL, 0x0100000709L, // groupNext
+        0x00000000cdL, 0x010000100aL, // mannerMode
+        0x00000000ceL, 0x0100001101L, // tv3DMode
+        0x00000000cfL, 0x0100000b0cL, // launchContacts
+        0x00000000d0L, 0x0100000b02L, // launchCalendar
+        0x00000000d1L, 0x0100000b05L, // launchMusicPlayer
+        0x00000000d3L, 0x010000071dL, // zenkakuHankaku
+        0x00000000d4L, 0x0100000714L, // eisu
+        0x00000000d5L, 0x010000070dL, // nonConvert
+        0x00000000d6L, 0x0100000705L, // convert
+        0x00000000d7L, 0x0100000717L, // hiraganaKatakana
+        0x00000000d8L, 0x0200000022L, // intlYen
+        0x00000000d9L, 0x0200000021L, // intlRo
+        0x00000000daL, 0x0100000719L, // kanjiMode
+        0x00000000dbL, 0x0100000b0eL, // launchAssistant
+        0x00000000dcL, 0x0100000601L, // brightnessDown
+        0x00000000ddL, 0x0100000602L, // brightnessUp
+        0x00000000deL, 0x0100000d50L, // mediaAudioTrack
+        0x00000000dfL, 0x0200000002L, // sleep
+        0x00000000e0L, 0x010000060bL, // wakeUp
+        0x00000000e1L, 0x0100000d5aL, // pairing
+        0x00000000e2L, 0x0100000d55L, // mediaTopMenu
+        0x00000000e5L, 0x0100000d2dL, // mediaLast
+        0x00000000e6L, 0x0100001107L, // tvDataService
+        0x00000000e8L, 0x0100001114L, // tvRadioService
+        0x00000000e9L, 0x0100000d48L, // teletext
+        0x00000000eaL, 0x0100001113L, // tvNumberEntry
+        0x00000000ebL, 0x0100001119L, // tvTerrestrialAnalog
+        0x00000000ecL, 0x010000111aL, // tvTerrestrialDigital
+        0x00000000edL, 0x0100001115L, // tvSatellite
+        0x00000000eeL, 0x0100001116L, // tvSatelliteBS
+        0x00000000efL, 0x0100001117L, // tvSatelliteCS
+        0x00000000f0L, 0x0100001118L, // tvSatelliteToggle
+        0x00000000f1L, 0x0100001112L, // tvNetwork
+        0x00000000f2L, 0x0100001102L, // tvAntennaCable
+        0x00000000f3L, 0x010000110cL, // tvInputHDMI1
+        0x00000000f4L, 0x010000110dL, // tvInputHDMI2
+        0x00000000f5L, 0x010000110eL, // tvInputHDMI3
+        0x00000000f6L, 0x010000110fL, // tvInputHDMI4
+        0x00000000f7L, 0x010000110aL, // tvInputComposite1
+        0x00000000f8L, 0x010000110bL, // tvInputComposite2
+        0x00000000f9L, 0x0100001108L, // tvInputComponent1
+        0x00000000faL, 0x0100001109L, // tvInputComponent2
+        0x00000000fbL, 0x0100001110L, // tvInputVGA1
+        0x00000000fcL, 0x0100001103L, // tvAudioDescription
+        0x00000000fdL, 0x0100001105L, // tvAudioDescriptionMixUp
+        0x00000000feL, 0x0100001104L, // tvAudioDescriptionMixDown
+        0x00000000ffL, 0x0100000d4eL, // zoomToggle
+        0x0000000100L, 0x0100001106L, // tvContentsMenu
+        0x0000000102L, 0x010000111bL, // tvTimer
+        0x0000000103L, 0x0100000508L, // help
+        0x0000000104L, 0x0100000d59L, // navigatePrevious
+        0x0000000105L, 0x0100000d57L, // navigateNext
+        0x0000000106L, 0x0100000d56L, // navigateIn
+        0x0000000107L, 0x0100000d58L, // navigateOut
+        0x0000000110L, 0x0100000d52L, // mediaSkipForward
+        0x0000000111L, 0x0100000d51L, // mediaSkipBackward
+        0x0000000112L, 0x0100000d54L, // mediaStepForward
+        0x0000000113L, 0x0100000d53L, // mediaStepBackward
+        0x0000000115L, 0x0100000404L, // cut
+        0x0000000116L, 0x0100000402L, // copy
+        0x0000000117L, 0x0100000408L, // paste
       };
 
-  /** Maps from Android key codes {@link KeyEvent#getKeyCode()} to Flutter logical keys. */
-  public static final HashMap<Long, Long> keyCodeToLogical =
-      new HashMap<Long, Long>() {
-        private static final long serialVersionUID = 1L;
+  /**
+   * Maps from Android scan codes {@link KeyEvent#getScanCode()} to Flutter physical keys.
+   *
+   * <p>A copy of the table used by {@link #getPhysicalKeyForScanCode(long)}, changes to it have no
+   * effect on key handling.
+   *
+   * @deprecated Use {@link #getPhysicalKeyForScanCode(long)} instead.
+   */
+  @Deprecated
+  public static final HashMap<Long, Long> scanCodeToPhysical = toHashMap(scanCodeToPhysicalTable);
 
-        {
-          put(0x000000003eL, 0x0000000020L); // space
-          put(0x000000004bL, 0x0000000022L); // quote
-          put(0x0000000012L, 0x0000000023L); // numberSign
-          put(0x0000000011L, 0x000000002aL); // asterisk
-          put(0x0000000051L, 0x000000002bL); // add
-          put(0x0000000037L, 0x000000002cL); // comma
-          put(0x0000000045L, 0x000000002dL); // minus
-          put(0x0000000038L, 0x000000002eL); // period
-          put(0x000000004cL, 0x000000002fL); // slash
-          put(0x0000000007L, 0x0000000030L); // digit0
-          put(0x0000000008L, 0x0000000031L); // digit1
-          put(0x0000000009L, 0x0000000032L); // digit2
-          put(0x000000000aL, 0x0000000033L); // digit3
-          put(0x000000000bL, 0x0000000034L); // digit4
-          put(0x000000000cL, 0x0000000035L); // digit5
-          put(0x000000000dL, 0x0000000036L); // digit6
-          put(0x000000000eL, 0x0000000037L); // digit7
-          put(0x000000000fL, 0x0000000038L); // digit8
-          put(0x0000000010L, 0x0000000039L); // digit9
-          put(0x000000004aL, 0x000000003bL); // semicolon
-          put(0x0000000046L, 0x000000003dL); // equal
-          put(0x000000004dL, 0x0000000040L); // at
-          put(0x0000000047L, 0x000000005bL); // bracketLeft
-          put(0x0000000049L, 0x000000005cL); // backslash
-          put(0x0000000048L, 0x000000005dL); // bracketRight
-          put(0x0000000044L, 0x0000000060L); // backquote
-          put(0x000000001dL, 0x0000000061L); // keyA
-          put(0x000000001eL, 0x0000000062L); // keyB
-          put(0x000000001fL, 0x0000000063L); // keyC
-          put(0x0000000020L, 0x0000000064L); // keyD
-          put(0x0000000021L, 0x0000000065L); // keyE
-          put(0x0000000022L, 0x0000000066L); // keyF
-          put(0x0000000023L, 0x0000000067L); // keyG
-          put(0x0000000024L, 0x0000000068L); // keyH
-          put(0x0000000025L, 0x0000000069L); // keyI
-          put(0x0000000026L, 0x000000006aL); // keyJ
-          put(0x0000000027L, 0x000000006bL); // keyK
-          put(0x0000000028L, 0x000000006cL); // keyL
-          put(0x0000000029L, 0x000000006dL); // keyM
-          put(0x000000002aL, 0x000000006eL); // keyN
-          put(0x000000002bL, 0x000000006fL); // keyO
-          put(0x000000002cL, 0x0000000070L); // keyP
-          put(0x000000002dL, 0x0000000071L); // keyQ
-          put(0x000000002eL, 0x0000000072L); // keyR
-          put(0x000000002fL, 0x0000000073L); // keyS
-          put(0x0000000030L, 0x0000000074L); // keyT
-          put(0x0000000031L, 0x0000000075L); // keyU
-          put(0x0000000032L, 0x0000000076L); // keyV
-          put(0x0000000033L, 0x0000000077L); // keyW
-          put(0x0000000034L, 0x0000000078L); // keyX
-          put(0x0000000035L, 0x0000000079L); // keyY
-          put(0x0000000036L, 0x000000007aL); // keyZ
-          put(0x0000000043L, 0x0100000008L); // backspace
-          put(0x000000003dL, 0x0100000009L); // tab
-          put(0x0000000042L, 0x010000000dL); // enter
-          put(0x000000006fL, 0x010000001bL); // escape
-          put(0x0000000070L, 0x010000007fL); // delete
-          put(0x0000000073L, 0x0100000104L); // capsLock
-          put(0x0000000077L, 0x0100000106L); // fn
-          put(0x000000008fL, 0x010000010aL); // numLock
-          put(0x0000000074L, 0x010000010cL); // scrollLock
-          put(0x000000003fL, 0x010000010fL); // symbol
-          put(0x0000000014L, 0x0100000301L); // arrowDown
-          put(0x0000000015L, 0x0100000302L); // arrowLeft
-          put(0x0000000016L, 0x0100000303L); // arrowRight
-          put(0x0000000013L, 0x0100000304L); // arrowUp
-          put(0x000000007bL, 0x0100000305L); // end
-          put(0x000000007aL, 0x0100000306L); // home
-          put(0x000000005dL, 0x0100000307L); // pageDown
-          put(0x000000005cL, 0x0100000308L); // pageUp
-          put(0x000000001cL, 0x0100000401L); // clear
-          put(0x0000000116L, 0x0100000402L); // copy
-          put(0x0000000115L, 0x0100000404L); // cut
-          put(0x000000007cL, 0x0100000407L); // insert
-          put(0x0000000117L, 0x0100000408L); // paste
-          put(0x0000000052L, 0x0100000505L); // contextMenu
-          put(0x0000000103L, 0x0100000508L); // help
-          put(0x0000000079L, 0x0100000509L); // pause
-          put(0x0000000017L, 0x010000050cL); // select
-          put(0x00000000a8L, 0x010000050dL); // zoomIn
-          put(0x00000000a9L, 0x010000050eL); // zoomOut
-          put(0x00000000dcL, 0x0100000601L); // brightnessDown
-          put(0x00000000ddL, 0x0100000602L); // brightnessUp
-          put(0x000000001bL, 0x0100000603L); // camera
-          put(0x0000000081L, 0x0100000604L); // eject
-          put(0x000000001aL, 0x0100000606L); // power
-          put(0x0000000078L, 0x0100000608L); // printScreen
-          put(0x00000000e0L, 0x010000060bL); // wakeUp
-          put(0x00000000d6L, 0x0100000705L); // convert
-          put(0x00000000ccL, 0x0100000709L); // groupNext
-          put(0x000000005fL, 0x010000070bL); // modeChange
-          put(0x00000000d5L, 0x010000070dL); // nonConvert
-          put(0x00000000d4L, 0x0100000714L); // eisu
-          put(0x00000000d7L, 0x0100000717L); // hiraganaKatakana
-          put(0x00000000daL, 0x0100000719L); // kanjiMode
-          put(0x00000000d3L, 0x010000071dL); // zenkakuHankaku
-          put(0x0000000083L, 0x0100000801L); // f1
-          put(0x0000000084L, 0x0100000802L); // f2
-          put(0x0000000085L, 0x0100000803L); // f3
-          put(0x0000000086L, 0x0100000804L); // f4
-          put(0x0000000087L, 0x0100000805L); // f5
-          put(0x0000000088L, 0x0100000806L); // f6
-          put(0x0000000089L, 0x0100000807L); // f7
-          put(0x000000008aL, 0x0100000808L); // f8
-          put(0x000000008bL, 0x0100000809L); // f9
-          put(0x000000008cL, 0x010000080aL); // f10
-          put(0x000000008dL, 0x010000080bL); // f11
-          put(0x000000008eL, 0x010000080cL); // f12
-          put(0x0000000080L, 0x0100000a01L); // close
-          put(0x0000000055L, 0x0100000a05L); // mediaPlayPause
-          put(0x0000000056L, 0x0100000a07L); // mediaStop
-          put(0x0000000057L, 0x0100000a08L); // mediaTrackNext
-          put(0x0000000058L, 0x0100000a09L); // mediaTrackPrevious
-          put(0x0000000019L, 0x0100000a0fL); // audioVolumeDown
-          put(0x0000000018L, 0x0100000a10L); // audioVolumeUp
-          put(0x00000000a4L, 0x0100000a11L); // audioVolumeMute
-          put(0x00000000d0L, 0x0100000b02L); // launchCalendar
-          put(0x0000000041L, 0x0100000b03L); // launchMail
-          put(0x00000000d1L, 0x0100000b05L); // launchMusicPlayer
-          put(0x0000000040L, 0x0100000b09L); // launchWebBrowser
-          put(0x00000000cfL, 0x0100000b0cL); // launchContacts
-          put(0x00000000dbL, 0x0100000b0eL); // launchAssistant
-          put(0x00000000aeL, 0x0100000c02L); // browserFavorites
-          put(0x000000007dL, 0x0100000c03L); // browserForward
-          put(0x0000000054L, 0x0100000c06L); // browserSearch
-          put(0x00000000b6L, 0x0100000d08L); // avrInput
-          put(0x00000000b5L, 0x0100000d09L); // avrPower
-          put(0x00000000a7L, 0x0100000d0aL); // channelDown
-          put(0x00000000a6L, 0x0100000d0bL); // channelUp
-          put(0x00000000b7L, 0x0100000d0cL); // colorF0Red
-          put(0x00000000b8L, 0x0100000d0dL); // colorF1Green
-          put(0x00000000b9L, 0x0100000d0eL); // colorF2Yellow
-          put(0x00000000baL, 0x0100000d0fL); // colorF3Blue
-          put(0x00000000afL, 0x0100000d12L); // closedCaptionToggle
-          put(0x00000000acL, 0x0100000d22L); // guide
-          put(0x00000000a5L, 0x0100000d25L); // info
-          put(0x000000005aL, 0x0100000d2cL); // mediaFastForward
-          put(0x00000000e5L, 0x0100000d2dL); // mediaLast
-          put(0x000000007fL, 0x0100000d2eL); // mediaPause
-          put(0x000000007eL, 0x0100000d2fL); // mediaPlay
-          put(0x0000000082L, 0x0100000d30L); // mediaRecord
-          put(0x0000000059L, 0x0100000d31L); // mediaRewind
-          put(0x00000000b0L, 0x0100000d43L); // settings
-          put(0x00000000b4L, 0x0100000d45L); // stbInput
-          put(0x00000000b3L, 0x0100000d46L); // stbPower
-          put(0x00000000e9L, 0x0100000d48L); // teletext
-          put(0x00000000aaL, 0x0100000d49L); // tv
-          put(0x00000000b2L, 0x0100000d4aL); // tvInput
-          put(0x00000000b1L, 0x0100000d4bL); // tvPower
-          put(0x00000000ffL, 0x0100000d4eL); // zoomToggle
-          put(0x00000000adL, 0x0100000d4fL); // dvr
-          put(0x00000000deL, 0x0100000d50L); // mediaAudioTrack
-          put(0x0000000111L, 0x0100000d51L); // mediaSkipBackward
-          put(0x0000000110L, 0x0100000d52L); // mediaSkipForward
-          put(0x0000000113L, 0x0100000d53L); // mediaStepBackward
-          put(0x0000000112L, 0x0100000d54L); // mediaStepForward
-          put(0x00000000e2L, 0x0100000d55L); // mediaTopMenu
-          put(0x0000000106L, 0x0100000d56L); // navigateIn
-          put(0x0000000105L, 0x0100000d57L); // navigateNext
-          put(0x0000000107L, 0x0100000d58L); // navigateOut
-          put(0x0000000104L, 0x0100000d59L); // navigatePrevious
-          put(0x00000000e1L, 0x0100000d5aL); // pairing
-          put(0x000000005bL, 0x0100000e09L); // microphoneVolumeMute
-          put(0x00000000bbL, 0x0100001001L); // appSwitch
-          put(0x0000000005L, 0x0100001002L); // call
-          put(0x0000000050L, 0x0100001003L); // cameraFocus
-          put(0x0000000006L, 0x0100001004L); // endCall
-          put(0x0000000004L, 0x0100001005L); // goBack
-          put(0x0000000003L, 0x0100001006L); // goHome
-          put(0x000000004fL, 0x0100001007L); // headsetHook
-          put(0x0000000053L, 0x0100001009L); // notification
-          put(0x00000000cdL, 0x010000100aL); // mannerMode
-          put(0x00000000ceL, 0x0100001101L); // tv3DMode
-          put(0x00000000f2L, 0x0100001102L); // tvAntennaCable
-          put(0x00000000fcL, 0x0100001103L); // tvAudioDescription
-          put(0x00000000feL, 0x0100001104L); // tvAudioDescriptionMixDown
-          put(0x00000000fdL, 0x0100001105L); // tvAudioDescriptionMixUp
-          put(0x0000000100L, 0x0100001106L); // tvContentsMenu
-          put(0x00000000e6L, 0x0100001107L); // tvDataService
-          put(0x00000000f9L, 0x0100001108L); // tvInputComponent1
-          put(0x00000000faL, 0x0100001109L); // tvInputComponent2
-          put(0x00000000f7L, 0x010000110aL); // tvInputComposite1
-          put(0x00000000f8L, 0x010000110bL); // tvInputComposite2
-          put(0x00000000f3L, 0x010000110cL); // tvInputHDMI1
-          put(0x00000000f4L, 0x010000110dL); // tvInputHDMI2
-          put(0x00000000f5L, 0x010000110eL); // tvInputHDMI3
-          put(0x00000000f6L, 0x010000110fL); // tvInputHDMI4
-          put(0x00000000fbL, 0x0100001110L); // tvInputVGA1
-          put(0x00000000f1L, 0x0100001112L); // tvNetwork
-          put(0x00000000eaL, 0x0100001113L); // tvNumberEntry
-          put(0x00000000e8L, 0x0100001114L); // tvRadioService
-          put(0x00000000edL, 0x0100001115L); // tvSatellite
-          put(0x00000000eeL, 0x0100001116L); // tvSatelliteBS
-          put(0x00000000efL, 0x0100001117L); // tvSatelliteCS
-          put(0x00000000f0L, 0x0100001118L); // tvSatelliteToggle
-          put(0x00000000ebL, 0x0100001119L); // tvTerrestrialAnalog
-          put(0x00000000ecL, 0x010000111aL); // tvTerrestrialDigital
-          put(0x0000000102L, 0x010000111bL); // tvTimer
-          put(0x00000000dfL, 0x0200000002L); // sleep
-          put(0x00000000d9L, 0x0200000021L); // intlRo
-          put(0x00000000d8L, 0x0200000022L); // intlYen
-          put(0x0000000071L, 0x0200000100L); // controlLeft
-          put(0x0000000072L, 0x0200000101L); // controlRight
-          put(0x000000003bL, 0x0200000102L); // shiftLeft
-          put(0x000000003cL, 0x0200000103L); // shiftRight
-          put(0x0000000039L, 0x0200000104L); // altLeft
-          put(0x000000003aL, 0x0200000105L); // altRight
-          put(0x0000000075L, 0x0200000106L); // metaLeft
-          put(0x0000000076L, 0x0200000107L); // metaRight
-          put(0x00000000a0L, 0x020000020dL); // numpadEnter
-          put(0x00000000a2L, 0x0200000228L); // numpadParenLeft
-          put(0x00000000a3L, 0x0200000229L); // numpadParenRight
-          put(0x000000009bL, 0x020000022aL); // numpadMultiply
-          put(0x000000009dL, 0x020000022bL); // numpadAdd
-          put(0x000000009fL, 0x020000022cL); // numpadComma
-          put(0x000000009cL, 0x020000022dL); // numpadSubtract
-          put(0x000000009eL, 0x020000022eL); // numpadDecimal
-          put(0x000000009aL, 0x020000022fL); // numpadDivide
-          put(0x0000000090L, 0x0200000230L); // numpad0
-          put(0x0000000091L, 0x0200000231L); // numpad1
-          put(0x0000000092L, 0x0200000232L); // numpad2
-          put(0x0000000093L, 0x0200000233L); // numpad3
-          put(0x0000000094L, 0x0200000234L); // numpad4
-          put(0x0000000095L, 0x0200000235L); // numpad5
-          put(0x0000000096L, 0x0200000236L); // numpad6
-          put(0x0000000097L, 0x0200000237L); // numpad7
-          put(0x0000000098L, 0x0200000238L); // numpad8
-          put(0x0000000099L, 0x0200000239L); // numpad9
-          put(0x00000000a1L, 0x020000023dL); // numpadEqual
-          put(0x00000000bcL, 0x0200000301L); // gameButton1
-          put(0x00000000bdL, 0x0200000302L); // gameButton2
-          put(0x00000000beL, 0x0200000303L); // gameButton3
-          put(0x00000000bfL, 0x0200000304L); // gameButton4
-          put(0x00000000c0L, 0x0200000305L); // gameButton5
-          put(0x00000000c1L, 0x0200000306L); // gameButton6
-          put(0x00000000c2L, 0x0200000307L); // gameButton7
-          put(0x00000000c3L, 0x0200000308L); // gameButton8
-          put(0x00000000c4L, 0x0200000309L); // gameButton9
-          put(0x00000000c5L, 0x020000030aL); // gameButton10
-          put(0x00000000c6L, 0x020000030bL); // gameButton11
-          put(0x00000000c7L, 0x020000030cL); // gameButton12
-          put(0x00000000c8L, 0x020000030dL); // gameButton13
-          put(0x00000000c9L, 0x020000030eL); // gameButton14
-          put(0x00000000caL, 0x020000030fL); // gameButton15
-          put(0x00000000cbL, 0x0200000310L); // gameButton16
-          put(0x0000000060L, 0x0200000311L); // gameButtonA
-          put(0x0000000061L, 0x0200000312L); // gameButtonB
-          put(0x0000000062L, 0x0200000313L); // gameButtonC
-          put(0x0000000066L, 0x0200000314L); // gameButtonLeft1
-          put(0x0000000068L, 0x0200000315L); // gameButtonLeft2
-          put(0x000000006eL, 0x0200000316L); // gameButtonMode
-          put(0x0000000067L, 0x0200000317L); // gameButtonRight1
-          put(0x0000000069L, 0x0200000318L); // gameButtonRight2
-          put(0x000000006dL, 0x0200000319L); // gameButtonSelect
-          put(0x000000006cL, 0x020000031aL); // gameButtonStart
-          put(0x000000006aL, 0x020000031bL); // gameButtonThumbLeft
-          put(0x000000006bL, 0x020000031cL); // gameButtonThumbRight
-          put(0x0000000063L, 0x020000031dL); // gameButtonX
-          put(0x0000000064L, 0x020000031eL); // gameButtonY
-          put(0x0000000065L, 0x020000031fL); // gameButtonZ
-        }
-      };
+  /**
+   * Maps from Android key codes {@link KeyEvent#getKeyCode()} to Flutter logical keys.
+   *
+   * <p>A copy of the table used by {@link #getLogicalKeyForKeyCode(long)}, changes to it have no
+   * effect on key handling.
+   *
+   * @deprecated Use {@link #getLogicalKeyForKeyCode(long)} instead.
+   */
+  @Deprecated
+  public static final HashMap<Long, Long> keyCodeToLogical = toHashMap(keyCodeToLogicalTable);
 
   public static final PressingGoal[] pressingGoals =
       new PressingGoal[] {
@@ -612,6 +636,48 @@ public class KeyboardMap {
     };
   }
 
+  /**
+   * Returns the Flutter physical key for an Android scan code {@link KeyEvent#getScanCode()}, or 0
+   * if the scan code is not mapped.
+   */
+  public static long getPhysicalKeyForScanCode(long scanCode) {
+    return lookup(scanCodeToPhysicalTable, scanCode);
+  }
+
+  /**
+   * Returns the Flutter logical key for an Android key code {@link KeyEvent#getKeyCode()}, or 0 if
+   * the key code is not mapped.
+   */
+  public static long getLogicalKeyForKeyCode(long keyCode) {
+    return lookup(keyCodeToLogicalTable, keyCode);
+  }
+
+  private static HashMap<Long, Long> toHashMap(long[] table) {
+    final HashMap<Long, Long> map = new HashMap<>(table.length);
+    for (int i = 0; i < table.length; i += 2) {
+      map.put(table[i], table[i + 1]);
+    }
+    return map;
+  }
+
+  // Binary searches a table of (key, value) pairs sorted by key. Returns 0 if the key is absent.
+  private static long lookup(long[] table, long key) {
+    int low = 0;
+    int high = table.length / 2 - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final long midKey = table[mid * 2];
+      if (midKey < key) {
+        low = mid + 1;
+      } else if (midKey > key) {
+        high = mid - 1;
+      } else {
+        return table[mid * 2 + 1];
+      }
+    }
+    return 0;
+  }
+
   public static final long kValueMask = 0x000ffffffffL;
   public static final long kUnicodePlane = 0x00000000000L;
   public static final long kAndroidPlane = 0x01100000000L;
@@ -1,15 +1,37 @@
 package io.flutter.embedding.android;
 
-import android.util.LongSparseArray;
+import android.os.SystemClock;
 import android.view.MotionEvent;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import java.util.PriorityQueue;
+import androidx.annotation.VisibleForTesting;
 import java.util.concurrent.atomic.AtomicLong;
 
-/** Tracks the motion events received by the FlutterView. */
+/**
+ * Tracks the motion events received by a FlutterView.
+ *
+ * <p>Tracked events are copied into a fixed-capacity ring buffer indexed by monotonically
+ * increasing ids. Because ids only grow, the live entries always form the contiguous id range
+ * {@code [oldestId, nextId)}, and an id maps to its slot with a single mask operation. An entry is
+ * evicted (and its copy recycled) when a newer event is popped, when the buffer is full, or when it
+ * has been held for longer than the maximum age. This bounds the number of copies that are kept
+ * alive if platform views stop consuming events.
+ *
+ * <p>Instances are not thread safe and are expected to be used from the main thread only.
+ */
 public final class MotionEventTracker {
   private static final String TAG = "MotionEventTracker";
+
+  /** The default number of events that can be tracked at the same time. */
+  @VisibleForTesting static final int DEFAULT_CAPACITY = 128;
+
+  /** The default amount of time, in milliseconds, that an event is kept before being evicted. */
+  @VisibleForTesting static final long DEFAULT_MAX_AGE_MS = 5000;
+
+  // The first id handed out by the process-wide tracker, far above the ids of per-view trackers so
+  // that an id identifies the tracker it came from.
+  private static final long SHARED_TRACKER_FIRST_ID = 1L << 62;
+
   /** Represents a unique identifier corresponding to a motion event. */
   public static class MotionEventId {
     private static final AtomicLong ID_COUNTER = new AtomicLong(0);
@@ -34,37 +56,111 @@ public final class MotionEventTracker {
     }
   }
 
-  private final LongSparseArray<MotionEvent> eventById;
-  private final PriorityQueue<Long> unusedEvents;
-  private static MotionEventTracker INSTANCE;
+  private static MotionEventTracker sharedInstance;
+
+  private final MotionEvent[] events;
+  private final long[] trackTimes;
+  private final int mask;
+  private final long maxAgeMs;
+
+  // Ids start at 1, since 0 means "untracked" in pointer data packets.
+  private long nextId;
+  // The id of the oldest entry that may still be in the buffer.
+  private long oldestId;
+
+  private int occupancy;
+  private int peakOccupancy;
+  private long evictedEventCount;
 
+  /**
+   * Returns the process-wide tracker.
+   *
+   * <p>{@link io.flutter.plugin.platform.PlatformViewsController} looks up the events it doesn't
+   * find in its own tracker in this one, so that events tracked by an {@link AndroidTouchProcessor}
+   * created with {@link AndroidTouchProcessor#AndroidTouchProcessor(FlutterRenderer, boolean)} can
+   * still be delivered to platform views.
+   *
+   * @deprecated Use a tracker per view, see {@link
+   *     AndroidTouchProcessor#AndroidTouchProcessor(FlutterRenderer, MotionEventTracker)}.
+   */
+  @Deprecated
   @NonNull
   public static MotionEventTracker getInstance() {
-    if (INSTANCE == null) {
-      INSTANCE = new MotionEventTracker();
+    if (sharedInstance == null) {
+      sharedInstance =
+          new MotionEventTracker(DEFAULT_CAPACITY, DEFAULT_MAX_AGE_MS, SHARED_TRACKER_FIRST_ID);
     }
-    return INSTANCE;
+    return sharedInstance;
+  }
+
+  /** Creates a tracker with the default capacity and maximum age. */
+  public MotionEventTracker() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_AGE_MS);
+  }
+
+  /**
+   * Creates a tracker.
+   *
+   * @param capacity The maximum number of events that can be tracked at the same time. Rounded up
+   *     to the next power of two.
+   * @param maxAgeMs The maximum amount of time, in milliseconds, that an event is kept after being
+   *     tracked.
+   */
+  public MotionEventTracker(int capacity, long maxAgeMs) {
+    this(capacity, maxAgeMs, 1);
   }
 
-  private MotionEventTracker() {
-    eventById = new LongSparseArray<>();
-    unusedEvents = new PriorityQueue<>();
+  private MotionEventTracker(int capacity, long maxAgeMs, long firstId) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive, was: " + capacity);
+    }
+    final int roundedCapacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    events = new MotionEvent[roundedCapacity];
+    trackTimes = new long[roundedCapacity];
+    mask = roundedCapacity - 1;
+    this.maxAgeMs = maxAgeMs;
+    nextId = firstId;
+    oldestId = firstId;
   }
 
   /** Tracks the event and returns a unique MotionEventId identifying the event. */
   @NonNull
   public MotionEventId track(@NonNull MotionEvent event) {
-    MotionEventId eventId = MotionEventId.createUnique();
+    return MotionEventId.from(trackEvent(event));
+  }
+
+  /**
+   * Tracks the event and returns the id identifying the event.
+   *
+   * <p>This is equivalent to {@link #track(MotionEvent)}, but does not allocate a {@link
+   * MotionEventId}.
+   */
+  public long trackEvent(@NonNull MotionEvent event) {
+    final long now = SystemClock.uptimeMillis();
+    evictExpired(now);
+    if (nextId - oldestId == events.length) {
+      // The buffer is full, make room for the new event.
+      if (discard(oldestId)) {
+        evictedEventCount++;
+      }
+      oldestId++;
+    }
+
+    final long id = nextId++;
+    final int slot = slotFor(id);
     // We copy event here because the original MotionEvent delivered to us
     // will be automatically recycled (`MotionEvent.recycle`) by the RootView and we need
     // access to it after the RootView code runs.
     // The return value of `MotionEvent.obtain(event)` is still verifiable if the input
     // event was verifiable. Other overloads of `MotionEvent.obtain` do not have this
     // guarantee and should be avoided when possible.
-    MotionEvent eventCopy = MotionEvent.obtain(event);
-    eventById.put(eventId.id, eventCopy);
-    unusedEvents.add(eventId.id);
-    return eventId;
+    events[slot] = MotionEvent.obtain(event);
+    trackTimes[slot] = now;
+    occupancy++;
+    if (occupancy > peakOccupancy) {
+      peakOccupancy = occupancy;
+    }
+    return id;
   }
 
   /**
@@ -74,18 +170,98 @@ public final class MotionEventTracker {
    */
   @Nullable
   public MotionEvent pop(@NonNull MotionEventId eventId) {
-    // remove all the older events.
-    while (!unusedEvents.isEmpty() && unusedEvents.peek() < eventId.id) {
-      eventById.remove(unusedEvents.poll());
+    return pop(eventId.id);
+  }
+
+  /**
+   * Returns the MotionEvent corresponding to the id while discarding all the motion events that
+   * occurred prior to the event represented by the id. Returns null if this event was popped or
+   * discarded.
+   *
+   * <p>Ownership of the returned event is transferred to the caller.
+   */
+  @Nullable
+  public MotionEvent pop(long id) {
+    if (id < oldestId) {
+      return null;
+    }
+    if (id >= nextId) {
+      // The id was never handed out by this tracker.
+      return null;
+    }
+    // Remove all the older events.
+    while (oldestId < id) {
+      discard(oldestId);
+      oldestId++;
     }
+    final int slot = slotFor(id);
+    final MotionEvent event = events[slot];
+    if (event != null) {
+      events[slot] = null;
+      occupancy--;
+    }
+    oldestId = id + 1;
+    return event;
+  }
 
-    // remove the current event from the heap if it exists.
-    if (!unusedEvents.isEmpty() && unusedEvents.peek() == eventId.id) {
-      unusedEvents.poll();
+  /** Recycles all the tracked events. */
+  public void clear() {
+    while (oldestId < nextId) {
+      discard(oldestId);
+      oldestId++;
     }
+  }
 
-    MotionEvent event = eventById.get(eventId.id);
-    eventById.remove(eventId.id);
-    return event;
+  /** The number of events that are currently tracked. */
+  public int getOccupancy() {
+    return occupancy;
+  }
+
+  /** The largest number of events that were tracked at the same time. */
+  public int getPeakOccupancy() {
+    return peakOccupancy;
+  }
+
+  /** The maximum number of events that can be tracked at the same time. */
+  public int getCapacity() {
+    return events.length;
+  }
+
+  /**
+   * The number of events that were discarded because the buffer was full or because they were too
+   * old, without being popped or superseded by a newer event.
+   */
+  public long getEvictedEventCount() {
+    return evictedEventCount;
+  }
+
+  private void evictExpired(long now) {
+    while (oldestId < nextId) {
+      final int slot = slotFor(oldestId);
+      if (events[slot] != null && now - trackTimes[slot] <= maxAgeMs) {
+        return;
+      }
+      if (discard(oldestId)) {
+        evictedEventCount++;
+      }
+      oldestId++;
+    }
+  }
+
+  /** Recycles the event tracked with the given id, if any. Returns whether there was one. */
+  private boolean discard(long id) {
+    final int slot = slotFor(id);
+    final MotionEvent event = events[slot];
+    if (event == null) {
+      return false;
+    }
+    events[slot] = null;
+    occupancy--;
+    event.recycle();
+    return true;
+  }
+
+  private int slotFor(long id) {
+    return (int) (id & mask);
   }
 }
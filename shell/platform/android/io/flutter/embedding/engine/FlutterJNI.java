@@ -334,6 +334,8 @@ public class FlutterJNI {
   /**
    * Notifies the engine that the Choreographer has signaled a vsync.
    *
+   * <p>May be called from any thread.
+   *
    * @param frameDelayNanos The time in nanoseconds when the frame started being rendered,
    *     subtracted from the {@link System#nanoTime} timebase.
    * @param refreshPeriodNanos The display refresh period in nanoseconds.
@@ -343,6 +345,82 @@ public class FlutterJNI {
     nativeOnVsync(frameDelayNanos, refreshPeriodNanos, cookie);
   }
 
+  /** Listener invoked with the timings of the frames rasterized by the engine. */
+  public interface FrameListener {
+    /**
+     * The engine rasterized a frame.
+     *
+     * <p>Invoked on the raster thread. All the times are in nanoseconds, in the {@link
+     * System#nanoTime()} timebase.
+     *
+     * @param vsyncTimeNanos The time of the vsync signal the frame was produced for.
+     * @param buildStartNanos The time the engine started building the frame.
+     * @param buildEndNanos The time the engine finished building the frame.
+     * @param rasterStartNanos The time the engine started rasterizing the frame.
+     * @param rasterEndNanos The time the engine finished rasterizing the frame.
+     * @param refreshPeriodNanos The display refresh period in nanoseconds.
+     */
+    void onFrameRasterized(
+        long vsyncTimeNanos,
+        long buildStartNanos,
+        long buildEndNanos,
+        long rasterStartNanos,
+        long rasterEndNanos,
+        long refreshPeriodNanos);
+  }
+
+  /**
+   * Adds a {@link FrameListener}.
+   *
+   * <p>The engine only reports frame timings while there are listeners, since each report is a JNI
+   * call on the raster thread.
+   */
+  @UiThread
+  public void addFrameListener(@NonNull FrameListener listener) {
+    ensureRunningOnMainThread();
+    if (frameListeners.add(listener) && frameListeners.size() == 1) {
+      updateFrameTimingsEnabled();
+    }
+  }
+
+  /** Removes a {@link FrameListener} that was added with {@link #addFrameListener}. */
+  @UiThread
+  public void removeFrameListener(@NonNull FrameListener listener) {
+    ensureRunningOnMainThread();
+    if (frameListeners.remove(listener) && frameListeners.isEmpty()) {
+      updateFrameTimingsEnabled();
+    }
+  }
+
+  private void updateFrameTimingsEnabled() {
+    if (nativeShellHolderId != null) {
+      nativeSetFrameTimingsEnabled(nativeShellHolderId, !frameListeners.isEmpty());
+    }
+  }
+
+  private native void nativeSetFrameTimingsEnabled(long nativeShellHolderId, boolean enabled);
+
+  // Called by native on the raster thread, while there are frame listeners.
+  @SuppressWarnings("unused")
+  @VisibleForTesting
+  public void onFrameRasterized(
+      long vsyncTimeNanos,
+      long buildStartNanos,
+      long buildEndNanos,
+      long rasterStartNanos,
+      long rasterEndNanos) {
+    final long refreshPeriodNanos = (long) (1000000000.0 / refreshRateFPS);
+    for (FrameListener listener : frameListeners) {
+      listener.onFrameRasterized(
+          vsyncTimeNanos,
+          buildStartNanos,
+          buildEndNanos,
+          rasterStartNanos,
+          rasterEndNanos,
+          refreshPeriodNanos);
+    }
+  }
+
   @NonNull
   @Deprecated
   public static native FlutterCallbackInformation nativeLookupCallbackInformation(long handle);
@@ -398,6 +476,8 @@ public class FlutterJNI {
   private final Set<FlutterUiDisplayListener> flutterUiDisplayListeners =
       new CopyOnWriteArraySet<>();
 
+  @NonNull private final Set<FrameListener> frameListeners = new CopyOnWriteArraySet<>();
+
   @NonNull private final Looper mainLooper; // cached to avoid synchronization on repeat access.
 
   // ------ Start Native Attach/Detach Support ----
@@ -422,6 +502,9 @@ public class FlutterJNI {
     shellHolderLock.writeLock().lock();
     try {
       nativeShellHolderId = performNativeAttach(this);
+      if (!frameListeners.isEmpty()) {
+        updateFrameTimingsEnabled();
+      }
     } finally {
       shellHolderLock.writeLock().unlock();
     }
@@ -930,6 +1013,39 @@ public class FlutterJNI {
       long textureId,
       @NonNull WeakReference<TextureRegistry.ImageConsumer> imageTexture);
 
+  /**
+   * Registers the first {@code count} textures in {@code textures} with the ids at the same index
+   * in {@code textureIds}, with a single JNI call.
+   *
+   * <p>Each texture must either be a {@link SurfaceTextureWrapper}, which is registered as with
+   * {@link #registerTexture(long, SurfaceTextureWrapper)}, or a {@link
+   * TextureRegistry.ImageConsumer}, which is registered as with {@link #registerImageTexture(long,
+   * TextureRegistry.ImageConsumer)}.
+   */
+  @UiThread
+  public void registerTextures(@NonNull long[] textureIds, @NonNull Object[] textures, int count) {
+    ensureRunningOnMainThread();
+    ensureAttachedToNative();
+    final WeakReference<?>[] textureRefs = new WeakReference<?>[count];
+    final boolean[] imageTextures = new boolean[count];
+    for (int i = 0; i < count; i++) {
+      if (textures[i] instanceof TextureRegistry.ImageConsumer) {
+        imageTextures[i] = true;
+      } else if (!(textures[i] instanceof SurfaceTextureWrapper)) {
+        throw new IllegalArgumentException("Unsupported texture: " + textures[i]);
+      }
+      textureRefs[i] = new WeakReference<>(textures[i]);
+    }
+    nativeRegisterTextures(nativeShellHolderId, textureIds, textureRefs, imageTextures, count);
+  }
+
+  private native void nativeRegisterTextures(
+      long nativeShellHolderId,
+      @NonNull long[] textureIds,
+      @NonNull WeakReference<?>[] textures,
+      @NonNull boolean[] imageTextures,
+      int count);
+
   /**
    * Call this method to inform Flutter that a texture previously registered with {@link
    * #registerTexture(long, SurfaceTextureWrapper)} has a new frame available.
@@ -946,6 +1062,23 @@ public class FlutterJNI {
 
   private native void nativeMarkTextureFrameAvailable(long nativeShellHolderId, long textureId);
 
+  /**
+   * Call this method to inform Flutter that the first {@code count} textures in {@code textureIds}
+   * have a new frame available, and to schedule a frame.
+   *
+   * <p>This is equivalent to calling {@link #markTextureFrameAvailable(long)} for each of the
+   * textures, or {@link #scheduleFrame()} if {@code count} is 0, with a single JNI call.
+   */
+  @UiThread
+  public void markTextureFramesAvailable(@NonNull long[] textureIds, int count) {
+    ensureRunningOnMainThread();
+    ensureAttachedToNative();
+    nativeMarkTextureFramesAvailable(nativeShellHolderId, textureIds, count);
+  }
+
+  private native void nativeMarkTextureFramesAvailable(
+      long nativeShellHolderId, @NonNull long[] textureIds, int count);
+
   /** Schedule the engine to draw a frame but does not invalidate the layout tree. */
   @UiThread
   public void scheduleFrame() {
@@ -968,6 +1101,21 @@ public class FlutterJNI {
   }
 
   private native void nativeUnregisterTexture(long nativeShellHolderId, long textureId);
+
+  /**
+   * Unregisters the first {@code count} textures in {@code textureIds}, with a single JNI call.
+   *
+   * <p>This is equivalent to calling {@link #unregisterTexture(long)} for each of the textures.
+   */
+  @UiThread
+  public void unregisterTextures(@NonNull long[] textureIds, int count) {
+    ensureRunningOnMainThread();
+    ensureAttachedToNative();
+    nativeUnregisterTextures(nativeShellHolderId, textureIds, count);
+  }
+
+  private native void nativeUnregisterTextures(
+      long nativeShellHolderId, @NonNull long[] textureIds, int count);
   // ------ Start Texture Registration Support -----
 
   // ------ Start Dart Execution Support -------
@@ -1127,6 +1275,43 @@ public class FlutterJNI {
       int position,
       int responseId);
 
+  /**
+   * Sends several messages from Android to Flutter in a single call, in order.
+   *
+   * <p>This is equivalent to calling {@link #dispatchPlatformMessage(String, ByteBuffer, int,
+   * int)} for each message, or {@link #dispatchEmptyPlatformMessage(String, int)} for each null
+   * message, but crosses into native code only once.
+   *
+   * @param count The number of messages, which are the first elements of the arrays.
+   */
+  @UiThread
+  public void dispatchPlatformMessages(
+      @NonNull String[] channels,
+      @NonNull ByteBuffer[] messages,
+      @NonNull int[] positions,
+      @NonNull int[] responseIds,
+      int count) {
+    ensureRunningOnMainThread();
+    if (isAttached()) {
+      nativeDispatchPlatformMessages(
+          nativeShellHolderId, channels, messages, positions, responseIds, count);
+    } else {
+      Log.w(
+          TAG,
+          "Tried to send platform messages to Flutter, but FlutterJNI was detached from native C++. Could not send "
+              + count
+              + " messages.");
+    }
+  }
+
+  private native void nativeDispatchPlatformMessages(
+      long nativeShellHolderId,
+      @NonNull String[] channels,
+      @NonNull ByteBuffer[] messages,
+      @NonNull int[] positions,
+      @NonNull int[] responseIds,
+      int count);
+
   // TODO(mattcarroll): differentiate between channel responses and platform responses.
   public void invokePlatformMessageEmptyResponseCallback(int responseId) {
     // Called on any thread.
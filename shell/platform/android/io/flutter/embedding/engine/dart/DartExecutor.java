@@ -250,6 +250,22 @@ public class DartExecutor implements BinaryMessenger {
   public void disableBufferingIncomingMessages() {
     dartMessenger.disableBufferingIncomingMessages();
   }
+
+  /** @deprecated Use {@link #getBinaryMessenger()} instead. */
+  @Deprecated
+  @Override
+  @UiThread
+  public void beginBatch() {
+    dartMessenger.beginBatch();
+  }
+
+  /** @deprecated Use {@link #getBinaryMessenger()} instead. */
+  @Deprecated
+  @Override
+  @UiThread
+  public void endBatch() {
+    dartMessenger.endBatch();
+  }
   // ------ END BinaryMessenger -----
 
   /**
@@ -497,5 +513,17 @@ public class DartExecutor implements BinaryMessenger {
     public void disableBufferingIncomingMessages() {
       messenger.disableBufferingIncomingMessages();
     }
+
+    @Override
+    @UiThread
+    public void beginBatch() {
+      messenger.beginBatch();
+    }
+
+    @Override
+    @UiThread
+    public void endBatch() {
+      messenger.endBatch();
+    }
   }
 }
@@ -13,6 +13,7 @@ import io.flutter.embedding.engine.FlutterJNI;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.util.TraceSection;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -55,6 +56,15 @@ class DartMessenger implements BinaryMessenger, PlatformMessageHandler {
   @NonNull private final Map<Integer, BinaryMessenger.BinaryReply> pendingReplies = new HashMap<>();
   private int nextReplyId = 1;
 
+  // Messages sent while a batch is open, dispatched to Dart when the outermost batch ends. Only
+  // used on the main thread.
+  private int batchDepth = 0;
+  private int batchedCount = 0;
+  @NonNull private String[] batchedChannels = new String[2];
+  @NonNull private ByteBuffer[] batchedMessages = new ByteBuffer[2];
+  @NonNull private int[] batchedPositions = new int[2];
+  @NonNull private int[] batchedReplyIds = new int[2];
+
   @NonNull private final DartMessengerTaskQueue platformTaskQueue = new PlatformTaskQueue();
 
   @NonNull
@@ -275,6 +285,10 @@ class DartMessenger implements BinaryMessenger, PlatformMessageHandler {
       if (callback != null) {
         pendingReplies.put(replyId, callback);
       }
+      if (batchDepth > 0) {
+        addToBatch(channel, message, replyId);
+        return;
+      }
       if (message == null) {
         flutterJNI.dispatchEmptyPlatformMessage(channel, replyId);
       } else {
@@ -283,6 +297,46 @@ class DartMessenger implements BinaryMessenger, PlatformMessageHandler {
     }
   }
 
+  @Override
+  @UiThread
+  public void beginBatch() {
+    batchDepth++;
+  }
+
+  @Override
+  @UiThread
+  public void endBatch() {
+    if (batchDepth == 0) {
+      throw new IllegalStateException("endBatch called without a matching beginBatch");
+    }
+    batchDepth--;
+    if (batchDepth > 0 || batchedCount == 0) {
+      return;
+    }
+    try (TraceSection e = TraceSection.scoped("DartMessenger#endBatch")) {
+      flutterJNI.dispatchPlatformMessages(
+          batchedChannels, batchedMessages, batchedPositions, batchedReplyIds, batchedCount);
+    }
+    Arrays.fill(batchedChannels, 0, batchedCount, null);
+    Arrays.fill(batchedMessages, 0, batchedCount, null);
+    batchedCount = 0;
+  }
+
+  private void addToBatch(@NonNull String channel, @Nullable ByteBuffer message, int replyId) {
+    if (batchedCount == batchedChannels.length) {
+      final int capacity = batchedCount * 2;
+      batchedChannels = Arrays.copyOf(batchedChannels, capacity);
+      batchedMessages = Arrays.copyOf(batchedMessages, capacity);
+      batchedPositions = Arrays.copyOf(batchedPositions, capacity);
+      batchedReplyIds = Arrays.copyOf(batchedReplyIds, capacity);
+    }
+    batchedChannels[batchedCount] = channel;
+    batchedMessages[batchedCount] = message;
+    batchedPositions[batchedCount] = message == null ? 0 : message.position();
+    batchedReplyIds[batchedCount] = replyId;
+    batchedCount++;
+  }
+
   private void invokeHandler(
       @Nullable HandlerInfo handlerInfo, @Nullable ByteBuffer message, final int replyId) {
     // Called from any thread.
@@ -29,6 +29,17 @@ public final class ApplicationInfoLoader {
   public static final String PUBLIC_AUTOMATICALLY_REGISTER_PLUGINS_METADATA_KEY =
       "io.flutter." + FlutterLoader.AUTOMATICALLY_REGISTER_PLUGINS_KEY;
 
+  /**
+   * Set whether vsync signals are delivered to the engine on a dedicated thread rather than on the
+   * main thread, see {@link io.flutter.view.VsyncWaiter#init(boolean)}.
+   *
+   * <p>Vsync signals delivered on the main thread are delayed while the main thread is busy, set it
+   * to true if frames are missed while the main thread handles plugin calls or layouts. It has no
+   * effect from API 24, where the engine receives vsync signals without the main thread.
+   */
+  public static final String DEDICATED_VSYNC_THREAD_METADATA_KEY =
+      "io.flutter.embedding.android.EnableDedicatedVsyncThread";
+
   @NonNull
   private static ApplicationInfo getApplicationInfo(@NonNull Context applicationContext) {
     try {
@@ -153,6 +164,7 @@ public final class ApplicationInfoLoader {
         getString(appInfo.metaData, PUBLIC_FLUTTER_ASSETS_DIR_KEY),
         getNetworkPolicy(appInfo, applicationContext),
         appInfo.nativeLibraryDir,
-        getBoolean(appInfo.metaData, PUBLIC_AUTOMATICALLY_REGISTER_PLUGINS_METADATA_KEY, true));
+        getBoolean(appInfo.metaData, PUBLIC_AUTOMATICALLY_REGISTER_PLUGINS_METADATA_KEY, true),
+        getBoolean(appInfo.metaData, DEDICATED_VSYNC_THREAD_METADATA_KEY, false));
   }
 }
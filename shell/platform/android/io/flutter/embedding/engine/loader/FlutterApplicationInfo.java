@@ -18,6 +18,7 @@ public final class FlutterApplicationInfo {
   public final String domainNetworkPolicy;
   public final String nativeLibraryDir;
   final boolean automaticallyRegisterPlugins;
+  final boolean dedicatedVsyncThread;
 
   public FlutterApplicationInfo(
       String aotSharedLibraryName,
@@ -27,6 +28,26 @@ public final class FlutterApplicationInfo {
       String domainNetworkPolicy,
       String nativeLibraryDir,
       boolean automaticallyRegisterPlugins) {
+    this(
+        aotSharedLibraryName,
+        vmSnapshotData,
+        isolateSnapshotData,
+        flutterAssetsDir,
+        domainNetworkPolicy,
+        nativeLibraryDir,
+        automaticallyRegisterPlugins,
+        false);
+  }
+
+  public FlutterApplicationInfo(
+      String aotSharedLibraryName,
+      String vmSnapshotData,
+      String isolateSnapshotData,
+      String flutterAssetsDir,
+      String domainNetworkPolicy,
+      String nativeLibraryDir,
+      boolean automaticallyRegisterPlugins,
+      boolean dedicatedVsyncThread) {
     this.aotSharedLibraryName =
         aotSharedLibraryName == null ? DEFAULT_AOT_SHARED_LIBRARY_NAME : aotSharedLibraryName;
     this.vmSnapshotData = vmSnapshotData == null ? DEFAULT_VM_SNAPSHOT_DATA : vmSnapshotData;
@@ -37,5 +58,6 @@ public final class FlutterApplicationInfo {
     this.nativeLibraryDir = nativeLibraryDir;
     this.domainNetworkPolicy = domainNetworkPolicy == null ? "" : domainNetworkPolicy;
     this.automaticallyRegisterPlugins = automaticallyRegisterPlugins;
+    this.dedicatedVsyncThread = dedicatedVsyncThread;
   }
 }
@@ -4,6 +4,9 @@
 
 package io.flutter.embedding.engine.renderer;
 
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_COMPLETE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
 import static io.flutter.Build.API_LEVELS;
 
 import android.annotation.TargetApi;
@@ -18,6 +21,7 @@ import android.media.ImageReader;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.view.Surface;
 import androidx.annotation.Keep;
 import androidx.annotation.NonNull;
@@ -29,14 +33,18 @@ import io.flutter.view.TextureRegistry;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents the rendering responsibilities of a {@code FlutterEngine}.
@@ -66,23 +74,51 @@ public class FlutterRenderer implements TextureRegistry {
   @VisibleForTesting public static boolean debugDisableSurfaceClear = false;
 
   private static final String TAG = "FlutterRenderer";
+  // Textures drawn by the engine more recently than this are on screen, and never evicted.
+  private static final long EVICTION_MIN_UNUSED_NANOS = 1_000_000_000L;
 
   @NonNull private final FlutterJNI flutterJNI;
   @NonNull private final AtomicLong nextTextureId = new AtomicLong(0L);
   @Nullable private Surface surface;
   private boolean isDisplayingFlutterUi = false;
   private final Handler handler = new Handler();
+  @NonNull private final TextureFrameScheduler textureFrameScheduler;
+  @NonNull private final TextureRegistrationBatcher textureRegistrations;
+  @NonNull private final FrameTimingsRecorder frameTimingsRecorder = new FrameTimingsRecorder();
 
   @NonNull
   private final Set<WeakReference<TextureRegistry.OnTrimMemoryListener>> onTrimMemoryListeners =
       new HashSet<>();
 
+  // The SurfaceProducers created by this renderer, aggregated by getSurfaceProducerStatistics.
+  @NonNull
+  private final List<WeakReference<SurfaceProducer>> surfaceProducers = new ArrayList<>();
+
+  @NonNull
+  private final SurfaceProducerStatistics surfaceProducerStatistics =
+      new SurfaceProducerStatistics();
+
+  // The textures whose memory is accounted for, see getTextureMemoryUsage.
+  @NonNull
+  private final List<WeakReference<MemoryTrackedTexture>> memoryTrackedTextures =
+      new ArrayList<>();
+
+  private volatile long textureMemoryBudgetBytes = Long.MAX_VALUE;
+  private long evictedTextureCount = 0;
+  private final AtomicBoolean textureMemoryBudgetCheckScheduled = new AtomicBoolean();
+  private final Runnable textureMemoryBudgetCheck =
+      () -> {
+        textureMemoryBudgetCheckScheduled.set(false);
+        enforceTextureMemoryBudget();
+      };
+
   @NonNull
   private final FlutterUiDisplayListener flutterUiDisplayListener =
       new FlutterUiDisplayListener() {
         @Override
         public void onFlutterUiDisplayed() {
           isDisplayingFlutterUi = true;
+          frameTimingsRecorder.onFirstFrame();
         }
 
         @Override
@@ -94,6 +130,8 @@ public class FlutterRenderer implements TextureRegistry {
   public FlutterRenderer(@NonNull FlutterJNI flutterJNI) {
     this.flutterJNI = flutterJNI;
     this.flutterJNI.addIsDisplayingFlutterUiListener(flutterUiDisplayListener);
+    this.textureFrameScheduler = new TextureFrameScheduler(flutterJNI);
+    this.textureRegistrations = new TextureRegistrationBatcher(flutterJNI, handler);
   }
 
   /**
@@ -157,6 +195,248 @@ public class FlutterRenderer implements TextureRegistry {
     }
   }
 
+  /**
+   * Writes the statistics of all the {@link SurfaceProducer}s created by this renderer that have
+   * not been garbage collected, summed together, into {@code statistics}.
+   *
+   * <p>This does not allocate, so it can be polled every frame. Must be called from the main
+   * thread.
+   */
+  public void getSurfaceProducerStatistics(@NonNull SurfaceProducerStatistics statistics) {
+    statistics.reset();
+    for (int i = surfaceProducers.size() - 1; i >= 0; i--) {
+      final SurfaceProducer producer = surfaceProducers.get(i).get();
+      if (producer == null) {
+        surfaceProducers.remove(i);
+        continue;
+      }
+      producer.getStatistics(surfaceProducerStatistics);
+      statistics.add(surfaceProducerStatistics);
+    }
+  }
+
+  /**
+   * Sets the number of bytes of graphics memory that the textures of this renderer may hold.
+   * Unlimited by default.
+   *
+   * <p>When the estimated usage exceeds the budget, the textures that were least recently drawn by
+   * the engine are evicted by invoking their {@link OnTrimMemoryListener} with {@link
+   * android.content.ComponentCallbacks2#TRIM_MEMORY_COMPLETE}, until the usage is within budget
+   * again. Textures drawn in the last second are never evicted, so the budget may be exceeded by
+   * the textures on screen. The image queues of {@link SurfaceProducer}s also stop growing once the
+   * budget is reached. Must be called from the main thread.
+   */
+  public void setTextureMemoryBudget(long bytes) {
+    textureMemoryBudgetBytes = bytes;
+    enforceTextureMemoryBudget();
+  }
+
+  /** Returns the budget set by {@link #setTextureMemoryBudget(long)}. */
+  public long getTextureMemoryBudget() {
+    return textureMemoryBudgetBytes;
+  }
+
+  /**
+   * Returns an estimate of the number of bytes of graphics memory held by all the textures of this
+   * renderer, computed from their size, format and buffer count. Must be called from the main
+   * thread.
+   */
+  public long getTextureMemoryUsage() {
+    long bytes = 0;
+    for (int i = memoryTrackedTextures.size() - 1; i >= 0; i--) {
+      final MemoryTrackedTexture texture = memoryTrackedTextures.get(i).get();
+      if (texture == null) {
+        memoryTrackedTextures.remove(i);
+        continue;
+      }
+      bytes += texture.getMemoryBytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * Returns an estimate of the number of bytes of graphics memory held by each texture of this
+   * renderer, keyed by texture id. Intended for debugging. Must be called from the main thread.
+   */
+  @NonNull
+  public Map<Long, Long> getTextureMemoryUsages() {
+    final Map<Long, Long> usages = new HashMap<>();
+    for (WeakReference<MemoryTrackedTexture> textureRef : memoryTrackedTextures) {
+      final MemoryTrackedTexture texture = textureRef.get();
+      if (texture != null) {
+        usages.put(texture.id(), texture.getMemoryBytes());
+      }
+    }
+    return usages;
+  }
+
+  /** Returns the number of times a texture was evicted to stay within the texture memory budget. */
+  public long getEvictedTextureCount() {
+    return evictedTextureCount;
+  }
+
+  /**
+   * Returns the number of texture frame-available signals, from new images and new {@code
+   * SurfaceTexture} frames, that were forwarded to the engine.
+   *
+   * <p>Signals are coalesced per vsync, see {@link #getSavedTextureFrameNativeCallCount()}.
+   */
+  public long getTextureFrameSignalCount() {
+    return textureFrameScheduler.getSignalCount();
+  }
+
+  /**
+   * Returns the number of JNI calls that were avoided by coalescing texture frame-available signals
+   * per vsync, rather than forwarding each one to the engine with its own call.
+   */
+  public long getSavedTextureFrameNativeCallCount() {
+    return textureFrameScheduler.getSignalCount() - textureFrameScheduler.getNativeCallCount();
+  }
+
+  /**
+   * Starts collecting texture registrations until the matching {@link #endTextureBatch()}.
+   *
+   * <p>Textures created between the two calls, for example with {@link #createSurfaceProducer()}
+   * or {@link #createImageTexture()}, are registered with the engine together when the outermost
+   * batch ends, with a single JNI call. Their ids must not be handed to Dart before then. Texture
+   * releases are always batched, and are sent to the engine before the next frame.
+   *
+   * <p>Batches may be nested. Must be called on the main thread.
+   */
+  public void beginTextureBatch() {
+    textureRegistrations.beginBatch();
+  }
+
+  /** Ends a batch started by {@link #beginTextureBatch()}, flushing if it is the outermost one. */
+  public void endTextureBatch() {
+    textureRegistrations.endBatch();
+  }
+
+  /**
+   * Sends the pending texture registrations and releases to the engine right away, even inside a
+   * batch.
+   *
+   * <p>Must be called on the main thread.
+   */
+  public void flushTextureRegistrations() {
+    textureRegistrations.flush();
+  }
+
+  /**
+   * Adds a listener that is invoked with the timings of the frames produced by this renderer.
+   *
+   * <p>The timings are reported by the engine once each frame was rasterized. Frames are only
+   * recorded while there are listeners. They are delivered in batches, on a background thread,
+   * along with rolling percentiles of the frame durations, the number of frames that missed their
+   * deadline, and the time it took to display the first frame. Must be called on the main thread.
+   */
+  public void addFrameTimingsListener(@NonNull FrameTimingsListener listener) {
+    frameTimingsRecorder.addListener(listener);
+    flutterJNI.addFrameListener(frameTimingsRecorder);
+  }
+
+  /**
+   * Removes a listener added with {@link #addFrameTimingsListener(FrameTimingsListener)}. Must be
+   * called on the main thread.
+   */
+  public void removeFrameTimingsListener(@NonNull FrameTimingsListener listener) {
+    frameTimingsRecorder.removeListener(listener);
+    if (!frameTimingsRecorder.hasListeners()) {
+      flutterJNI.removeFrameListener(frameTimingsRecorder);
+    }
+  }
+
+  /**
+   * Returns the time, in nanoseconds, from the start of rendering to a surface to the first frame
+   * being displayed, or -1 if no frame was displayed yet.
+   */
+  public long getTimeToFirstFrameNanos() {
+    return frameTimingsRecorder.getTimeToFirstFrameNanos();
+  }
+
+  private void trackTextureMemory(@NonNull MemoryTrackedTexture texture) {
+    memoryTrackedTextures.add(new WeakReference<>(texture));
+    scheduleTextureMemoryBudgetCheck();
+  }
+
+  // Called from any thread when the memory held by a texture may have grown.
+  private void scheduleTextureMemoryBudgetCheck() {
+    if (textureMemoryBudgetBytes == Long.MAX_VALUE) {
+      return;
+    }
+    if (textureMemoryBudgetCheckScheduled.compareAndSet(false, true)) {
+      handler.post(textureMemoryBudgetCheck);
+    }
+  }
+
+  @VisibleForTesting
+  void enforceTextureMemoryBudget() {
+    long usage = getTextureMemoryUsage();
+    if (usage <= textureMemoryBudgetBytes) {
+      return;
+    }
+    // Snapshot the consumption times, they are updated concurrently by the raster thread. Textures
+    // on screen are left alone: evicting them would only have them recreated for the next frame.
+    final long drawnRecentlyAfter = System.nanoTime() - EVICTION_MIN_UNUSED_NANOS;
+    final int count = memoryTrackedTextures.size();
+    final MemoryTrackedTexture[] textures = new MemoryTrackedTexture[count];
+    final long[] lastConsumedTimes = new long[count];
+    for (int i = 0; i < count; i++) {
+      textures[i] = memoryTrackedTextures.get(i).get();
+      if (textures[i] != null) {
+        lastConsumedTimes[i] = textures[i].getLastConsumedTimeNanos();
+        if (lastConsumedTimes[i] != 0 && lastConsumedTimes[i] > drawnRecentlyAfter) {
+          textures[i] = null;
+        }
+      }
+    }
+    while (usage > textureMemoryBudgetBytes) {
+      // Evict the least recently drawn texture that holds memory.
+      int oldest = -1;
+      for (int i = 0; i < count; i++) {
+        if (textures[i] == null || textures[i].getMemoryBytes() == 0) {
+          continue;
+        }
+        if (oldest == -1 || lastConsumedTimes[i] < lastConsumedTimes[oldest]) {
+          oldest = i;
+        }
+      }
+      if (oldest == -1) {
+        return;
+      }
+      final MemoryTrackedTexture texture = textures[oldest];
+      textures[oldest] = null;
+      final long bytes = texture.getMemoryBytes();
+      texture.onTrimMemory(TRIM_MEMORY_COMPLETE);
+      final long freed = bytes - texture.getMemoryBytes();
+      if (freed <= 0) {
+        // Nothing of this texture can be released, try the next one.
+        continue;
+      }
+      Log.v(TAG, "Evicted texture " + texture.id() + ", releasing " + freed + " bytes.");
+      usage -= freed;
+      evictedTextureCount++;
+    }
+  }
+
+  // Estimates the size of bufferCount buffers of the given size and ImageFormat. Formats whose
+  // layout is opaque, such as PRIVATE, are assumed to use 4 bytes per pixel.
+  static long estimateBufferBytes(int width, int height, int format, int bufferCount) {
+    final long pixels = (long) width * height * bufferCount;
+    final int bitsPerPixel = ImageFormat.getBitsPerPixel(format);
+    return bitsPerPixel > 0 ? pixels * bitsPerPixel / 8 : pixels * 4;
+  }
+
+  private void addSurfaceProducer(@NonNull SurfaceProducer producer) {
+    // Purge dead producers to avoid accumulating.
+    for (int i = surfaceProducers.size() - 1; i >= 0; i--) {
+      if (surfaceProducers.get(i).get() == null) {
+        surfaceProducers.remove(i);
+      }
+    }
+    surfaceProducers.add(new WeakReference<>(producer));
+  }
+
   // ------ START TextureRegistry IMPLEMENTATION -----
 
   /**
@@ -196,6 +476,7 @@ public class FlutterRenderer implements TextureRegistry {
       final ImageReaderSurfaceProducer producer = new ImageReaderSurfaceProducer(id);
       registerImageTexture(id, producer);
       addOnTrimMemoryListener(producer);
+      trackTextureMemory(producer);
       Log.v(TAG, "New ImageReaderSurfaceProducer ID: " + id);
       entry = producer;
     } else {
@@ -206,10 +487,12 @@ public class FlutterRenderer implements TextureRegistry {
       // regress), reconsider this pattern.
       final SurfaceTextureEntry texture = createSurfaceTexture();
       final SurfaceTextureSurfaceProducer producer =
-          new SurfaceTextureSurfaceProducer(texture.id(), handler, flutterJNI, texture);
+          new SurfaceTextureSurfaceProducer(
+              texture.id(), textureFrameScheduler, textureRegistrations, texture);
       Log.v(TAG, "New SurfaceTextureSurfaceProducer ID: " + texture.id());
       entry = producer;
     }
+    addSurfaceProducer(entry);
     return entry;
   }
 
@@ -251,6 +534,7 @@ public class FlutterRenderer implements TextureRegistry {
     Log.v(TAG, "New SurfaceTexture ID: " + entry.id());
     registerTexture(entry.id(), entry.textureWrapper());
     addOnTrimMemoryListener(entry);
+    trackTextureMemory(entry);
     return entry;
   }
 
@@ -261,6 +545,7 @@ public class FlutterRenderer implements TextureRegistry {
         new ImageTextureRegistryEntry(nextTextureId.getAndIncrement());
     Log.v(TAG, "New ImageTextureEntry ID: " + entry.id());
     registerImageTexture(entry.id(), entry);
+    trackTextureMemory(entry);
     return entry;
   }
 
@@ -279,18 +564,43 @@ public class FlutterRenderer implements TextureRegistry {
     }
   }
 
+  /** A texture whose graphics memory is accounted for by the renderer. */
+  interface MemoryTrackedTexture extends TextureRegistry.OnTrimMemoryListener {
+    /** @return The identity of this texture. */
+    long id();
+
+    /** Returns an estimate of the number of bytes of graphics memory held by this texture. */
+    long getMemoryBytes();
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the engine last drew this texture, or consumed
+     * a frame of it, or 0.
+     */
+    long getLastConsumedTimeNanos();
+  }
+
   final class SurfaceTextureRegistryEntry
-      implements TextureRegistry.SurfaceTextureEntry, TextureRegistry.OnTrimMemoryListener {
+      implements TextureRegistry.SurfaceTextureEntry,
+          TextureRegistry.OnTrimMemoryListener,
+          MemoryTrackedTexture {
+    // An estimate, a SurfaceTexture is usually triple buffered.
+    private static final int BUFFER_COUNT = 3;
+
     private final long id;
     @NonNull private final SurfaceTextureWrapper textureWrapper;
-    private boolean released;
+    private volatile boolean released;
     @Nullable private OnTrimMemoryListener trimMemoryListener;
     @Nullable private OnFrameConsumedListener frameConsumedListener;
+    // The default buffer size, when set through setDefaultBufferSize.
+    private volatile int bufferWidth;
+    private volatile int bufferHeight;
+    private volatile long lastConsumedTimeNanos;
 
     SurfaceTextureRegistryEntry(long id, @NonNull SurfaceTexture surfaceTexture) {
       this.id = id;
       Runnable onFrameConsumed =
           () -> {
+            lastConsumedTimeNanos = System.nanoTime();
             if (frameConsumedListener != null) {
               frameConsumedListener.onFrameConsumed();
             }
@@ -331,6 +641,30 @@ public class FlutterRenderer implements TextureRegistry {
       removeOnTrimMemoryListener(this);
     }
 
+    /**
+     * Sets the default buffer size of the SurfaceTexture, and lets the renderer account for the
+     * memory it holds.
+     */
+    void setDefaultBufferSize(int width, int height) {
+      bufferWidth = width;
+      bufferHeight = height;
+      surfaceTexture().setDefaultBufferSize(width, height);
+      scheduleTextureMemoryBudgetCheck();
+    }
+
+    @Override
+    public long getMemoryBytes() {
+      if (released) {
+        return 0;
+      }
+      return estimateBufferBytes(bufferWidth, bufferHeight, ImageFormat.UNKNOWN, BUFFER_COUNT);
+    }
+
+    @Override
+    public long getLastConsumedTimeNanos() {
+      return lastConsumedTimeNanos;
+    }
+
     @NonNull
     public SurfaceTextureWrapper textureWrapper() {
       return textureWrapper;
@@ -366,7 +700,7 @@ public class FlutterRenderer implements TextureRegistry {
           return;
         }
 
-        handler.post(new TextureFinalizerRunnable(id, flutterJNI));
+        unregisterTexture(id);
       } finally {
         super.finalize();
       }
@@ -383,49 +717,39 @@ public class FlutterRenderer implements TextureRegistry {
     }
   }
 
-  static final class TextureFinalizerRunnable implements Runnable {
-    private final long id;
-    private final FlutterJNI flutterJNI;
-
-    TextureFinalizerRunnable(long id, @NonNull FlutterJNI flutterJNI) {
-      this.id = id;
-      this.flutterJNI = flutterJNI;
-    }
-
-    @Override
-    public void run() {
-      if (!flutterJNI.isAttached()) {
-        return;
-      }
-      Log.v(TAG, "Releasing a Texture (" + id + ").");
-      flutterJNI.unregisterTexture(id);
-    }
-  }
-
   // Keep a queue of ImageReaders.
   // Each ImageReader holds acquired Images.
   // When we acquire the next image, close any ImageReaders that don't have any
   // more pending images.
+  //
+  // Images are handed from the main looper (the only producer) to the thread acquiring images
+  // (the only consumer) without taking a lock: each image is published into an atomic slot and is
+  // owned by whichever side removes it from that slot, so it is closed exactly once.
   @Keep
   @TargetApi(API_LEVELS.API_29)
   final class ImageReaderSurfaceProducer
       implements TextureRegistry.SurfaceProducer,
           TextureRegistry.ImageConsumer,
-          TextureRegistry.OnTrimMemoryListener {
+          TextureRegistry.OnTrimMemoryListener,
+          MemoryTrackedTexture {
     private static final String TAG = "ImageReaderSurfaceProducer";
-    private static final int MAX_IMAGES = 5;
+    // The image queue depth of new producers: enough for one image held by the consumer, one
+    // queued and one being written by the producer. Producers that get further ahead of the
+    // consumer stall, which grows the queue.
+    @VisibleForTesting static final int MIN_IMAGES = 3;
+    // The deepest image queue a producer grows to.
+    @VisibleForTesting static final int MAX_IMAGES = 8;
+    // How long a producer must be idle before its image queue shrinks back to MIN_IMAGES.
+    @VisibleForTesting static final long SHRINK_AFTER_IDLE_MS = 5000;
+    // The number of images queued per ImageReader before we start skipping frames.
+    private static final int MAX_QUEUED_IMAGES = 2;
 
     // Flip when debugging to see verbose logs.
     private static final boolean VERBOSE_LOGS = false;
 
-    // If we cleanup the ImageReaders on memory pressure it breaks VirtualDisplay
-    // backed platform views. Disable for now as this is only necessary to work
-    // around a Samsung-specific Android 14 bug.
-    private static final boolean CLEANUP_ON_MEMORY_PRESSURE = false;
-
     private final long id;
 
-    private boolean released;
+    private volatile boolean released;
     // Will be true in tests and on Android API < 33.
     private boolean ignoringFence = false;
 
@@ -436,28 +760,60 @@ public class FlutterRenderer implements TextureRegistry {
     // create a new ImageReader (inside getSurface) with the correct width and height.
     // We use this flag so that we lazily create the ImageReader only when a frame
     // will be produced at that size.
-    private boolean createNewReader = true;
+    private final AtomicBoolean createNewReader = new AtomicBoolean(true);
+    // The image queue depth of the next ImageReader. It grows when the producer stalls, and
+    // shrinks after the producer has been idle for a while.
+    private volatile int maxImages = MIN_IMAGES;
+    private volatile long lastImageTimeMs = 0;
+    // Posted while the queue is deeper than MIN_IMAGES, to shrink it once the producer is idle.
+    private final Runnable shrinkImageQueueIfIdle = this::shrinkImageQueueIfIdle;
+    @Nullable private volatile Callback callback;
+    // Set when the surface was released for its owner to recreate. Cleared by getSurface, or when
+    // the engine draws the texture again, which tells the owner that the surface is needed.
+    private final AtomicBoolean surfaceReleased = new AtomicBoolean();
+    private final Runnable notifySurfaceAvailable =
+        () -> {
+          final Callback callback = this.callback;
+          if (!released && surfaceReleased.compareAndSet(true, false) && callback != null) {
+            callback.onSurfaceAvailable();
+          }
+        };
 
     // State held to track latency of various stages.
     private long lastDequeueTime = 0;
     private long lastQueueTime = 0;
     private long lastScheduleTime = 0;
 
-    private Object lock = new Object();
-    // REQUIRED: The following fields must only be accessed when lock is held.
-    private final ArrayDeque<PerImageReader> imageReaderQueue = new ArrayDeque<PerImageReader>();
-    private final HashMap<ImageReader, PerImageReader> perImageReaders =
-        new HashMap<ImageReader, PerImageReader>();
-    private PerImage lastDequeuedImage = null;
-    private PerImageReader lastReaderDequeuedFrom = null;
+    // The ImageReaders, oldest first. The array is never mutated: readers are added by
+    // getActiveReader and pruned by dequeueImage, both of which swap in an updated copy.
+    private final AtomicReference<PerImageReader[]> imageReaders =
+        new AtomicReference<>(new PerImageReader[0]);
+    // The last image dequeued. It must be kept open, along with its reader, until the next image
+    // is dequeued.
+    private final AtomicReference<PerImage> lastDequeuedImage = new AtomicReference<>();
+
+    // Statistics reported by getStatistics. Updated by both the producer and the consumer.
+    private final AtomicLong framesProduced = new AtomicLong();
+    private final AtomicLong framesConsumed = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong totalQueuedTimeNanos = new AtomicLong();
+    private final AtomicLong maxQueuedTimeNanos = new AtomicLong();
+    private final AtomicLong totalFenceWaitTimeNanos = new AtomicLong();
+    private final AtomicLong maxFenceWaitTimeNanos = new AtomicLong();
+    private final AtomicLong trimmedBytes = new AtomicLong();
+    private volatile long lastConsumedTimeNanos = 0;
 
     /** Internal class: state held per Image produced by ImageReaders. */
     private class PerImage {
+      public final PerImageReader reader;
       public final Image image;
+      public final long sequence;
       public final long queuedTime;
 
-      public PerImage(Image image, long queuedTime) {
+      public PerImage(PerImageReader reader, Image image, long sequence, long queuedTime) {
+        this.reader = reader;
         this.image = image;
+        this.sequence = sequence;
         this.queuedTime = queuedTime;
       }
     }
@@ -465,8 +821,14 @@ public class FlutterRenderer implements TextureRegistry {
     /** Internal class: state held per ImageReader. */
     private class PerImageReader {
       public final ImageReader reader;
-      private final ArrayDeque<PerImage> imageQueue = new ArrayDeque<PerImage>();
-      private boolean closed = false;
+      // The most recent images produced by this reader. The image with sequence number n is
+      // published into slot n % MAX_QUEUED_IMAGES, replacing the oldest image if it was not
+      // dequeued in time.
+      private final AtomicReferenceArray<PerImage> imageSlots =
+          new AtomicReferenceArray<>(MAX_QUEUED_IMAGES);
+      // Only accessed by the producer.
+      private long nextSequence = 0;
+      private volatile boolean closed = false;
 
       private final ImageReader.OnImageAvailableListener onImageAvailableListener =
           reader -> {
@@ -475,15 +837,13 @@ public class FlutterRenderer implements TextureRegistry {
               image = reader.acquireLatestImage();
             } catch (IllegalStateException e) {
               Log.e(TAG, "onImageAvailable acquireLatestImage failed: " + e);
+              // All the images of the reader are in use, so the producer stalls.
+              maybeGrowImageQueue(this);
             }
             if (image == null) {
               return;
             }
-            if (released || closed) {
-              image.close();
-              return;
-            }
-            onImage(reader, image);
+            onImage(this, image);
           };
 
       public PerImageReader(ImageReader reader) {
@@ -494,32 +854,96 @@ public class FlutterRenderer implements TextureRegistry {
 
       PerImage queueImage(Image image) {
         if (closed) {
+          dropImage(image);
           return null;
         }
-        PerImage perImage = new PerImage(image, System.nanoTime());
-        imageQueue.add(perImage);
+        final long sequence = nextSequence++;
+        final int slot = (int) (sequence % MAX_QUEUED_IMAGES);
+        PerImage perImage = new PerImage(this, image, sequence, System.nanoTime());
         // If we fall too far behind we will skip some frames.
-        while (imageQueue.size() > 2) {
-          PerImage r = imageQueue.removeFirst();
+        PerImage r = imageSlots.getAndSet(slot, perImage);
+        if (r != null) {
           if (VERBOSE_LOGS) {
             Log.i(TAG, "" + reader.hashCode() + " force closed image=" + r.image.hashCode());
           }
-          r.image.close();
+          dropImage(r.image);
+        }
+        if (closed && imageSlots.compareAndSet(slot, perImage, null)) {
+          // The reader was closed while we were publishing the image.
+          dropImage(image);
+          return null;
         }
         return perImage;
       }
 
       PerImage dequeueImage() {
-        if (imageQueue.size() == 0) {
-          return null;
+        while (true) {
+          int oldestSlot = -1;
+          PerImage oldest = null;
+          for (int i = 0; i < MAX_QUEUED_IMAGES; i++) {
+            PerImage r = imageSlots.get(i);
+            if (r != null && (oldest == null || r.sequence < oldest.sequence)) {
+              oldestSlot = i;
+              oldest = r;
+            }
+          }
+          if (oldest == null) {
+            return null;
+          }
+          if (imageSlots.compareAndSet(oldestSlot, oldest, null)) {
+            return oldest;
+          }
+          // The producer skipped the image while we were dequeuing it, try again.
+        }
+      }
+
+      long getImageReaderBytes() {
+        return estimateBufferBytes(
+            reader.getWidth(), reader.getHeight(), reader.getImageFormat(), reader.getMaxImages());
+      }
+
+      int numImages() {
+        int r = 0;
+        for (int i = 0; i < MAX_QUEUED_IMAGES; i++) {
+          if (imageSlots.get(i) != null) {
+            r++;
+          }
         }
-        PerImage r = imageQueue.removeFirst();
         return r;
       }
 
+      /**
+       * Drops the queued images, except for the most recent one if keepNewest is true. Returns
+       * true if an image was kept.
+       */
+      boolean dropQueuedImages(boolean keepNewest) {
+        int newestSlot = -1;
+        if (keepNewest) {
+          long newestSequence = -1;
+          for (int i = 0; i < MAX_QUEUED_IMAGES; i++) {
+            PerImage r = imageSlots.get(i);
+            if (r != null && r.sequence > newestSequence) {
+              newestSlot = i;
+              newestSequence = r.sequence;
+            }
+          }
+        }
+        for (int i = 0; i < MAX_QUEUED_IMAGES; i++) {
+          if (i == newestSlot) {
+            continue;
+          }
+          PerImage r = imageSlots.getAndSet(i, null);
+          if (r != null) {
+            dropImage(r.image);
+          }
+        }
+        return newestSlot != -1;
+      }
+
       /** returns true if we can prune this reader */
       boolean canPrune() {
-        return imageQueue.size() == 0 && lastReaderDequeuedFrom != this;
+        PerImage last = lastDequeuedImage.get();
+        return numImages() == 0 && (last == null || last.reader != this);
       }
 
       void close() {
@@ -527,8 +951,13 @@ public class FlutterRenderer implements TextureRegistry {
         if (VERBOSE_LOGS) {
           Log.i(TAG, "Closing reader=" + reader.hashCode());
         }
+        for (int i = 0; i < MAX_QUEUED_IMAGES; i++) {
+          PerImage r = imageSlots.getAndSet(i, null);
+          if (r != null) {
+            dropImage(r.image);
+          }
+        }
         reader.close();
-        imageQueue.clear();
       }
     }
 
@@ -537,44 +966,109 @@ public class FlutterRenderer implements TextureRegistry {
       return ms;
     }
 
-    PerImageReader getOrCreatePerImageReader(ImageReader reader) {
-      PerImageReader r = perImageReaders.get(reader);
-      if (r == null) {
-        r = new PerImageReader(reader);
-        perImageReaders.put(reader, r);
-        imageReaderQueue.add(r);
-        if (VERBOSE_LOGS) {
-          Log.i(TAG, "imageReaderQueue#=" + imageReaderQueue.size());
+    void addImageReader(PerImageReader reader) {
+      while (true) {
+        PerImageReader[] current = imageReaders.get();
+        PerImageReader[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = reader;
+        if (imageReaders.compareAndSet(current, updated)) {
+          if (VERBOSE_LOGS) {
+            Log.i(TAG, "imageReaderQueue#=" + updated.length);
+          }
+          scheduleTextureMemoryBudgetCheck();
+          return;
         }
       }
-      return r;
     }
 
     void pruneImageReaderQueue() {
-      boolean change = false;
-      // Prune nodes from the head of the ImageReader queue.
-      while (imageReaderQueue.size() > 1) {
-        PerImageReader r = imageReaderQueue.peekFirst();
-        if (!r.canPrune()) {
+      while (true) {
+        PerImageReader[] current = imageReaders.get();
+        // Prune readers from the head of the ImageReader queue.
+        int pruned = 0;
+        while (current.length - pruned > 1 && current[pruned].canPrune()) {
+          pruned++;
+        }
+        if (pruned == 0) {
           // No more ImageReaders can be pruned this round.
-          break;
+          return;
+        }
+        if (imageReaders.compareAndSet(
+            current, Arrays.copyOfRange(current, pruned, current.length))) {
+          for (int i = 0; i < pruned; i++) {
+            current[i].close();
+          }
+          if (VERBOSE_LOGS) {
+            Log.i(TAG, "Pruned image reader queue length=" + (current.length - pruned));
+          }
+          return;
         }
-        imageReaderQueue.removeFirst();
-        perImageReaders.remove(r.reader);
-        r.close();
-        change = true;
       }
-      if (change && VERBOSE_LOGS) {
-        Log.i(TAG, "Pruned image reader queue length=" + imageReaderQueue.size());
+    }
+
+    // Called on the main looper when the producer of reader stalled. Dropped frames don't grow the
+    // queue: at most MAX_QUEUED_IMAGES images are handed off per reader, whatever its depth.
+    private void maybeGrowImageQueue(PerImageReader reader) {
+      if (released || reader.closed || reader.reader.getMaxImages() != maxImages) {
+        // A reader with a deeper queue was already requested.
+        return;
+      }
+      if (maxImages >= MAX_IMAGES) {
+        return;
+      }
+      final long extraBytes = reader.getImageReaderBytes() / maxImages;
+      if (getTextureMemoryUsage() > textureMemoryBudgetBytes - extraBytes) {
+        return;
+      }
+      maxImages++;
+      createNewReader.set(true);
+      handler.removeCallbacks(shrinkImageQueueIfIdle);
+      handler.postDelayed(shrinkImageQueueIfIdle, SHRINK_AFTER_IDLE_MS);
+      if (VERBOSE_LOGS) {
+        Log.i(TAG, "Growing the image queue to maxImages=" + maxImages);
       }
     }
 
-    void onImage(ImageReader reader, Image image) {
-      PerImage queuedImage = null;
-      synchronized (lock) {
-        PerImageReader perReader = getOrCreatePerImageReader(reader);
-        queuedImage = perReader.queueImage(image);
+    // Shrinks the image queue back to MIN_IMAGES once nothing was produced for
+    // SHRINK_AFTER_IDLE_MS. The deeper readers are closed if no image of theirs is in use. The
+    // active one is replaced at the next getSurface, or right away if the owner can recreate its
+    // surface: unlike a memory trim, the producer may still be on screen.
+    private void shrinkImageQueueIfIdle() {
+      if (released || maxImages <= MIN_IMAGES) {
+        return;
+      }
+      final long idleMs = SystemClock.uptimeMillis() - lastImageTimeMs;
+      if (idleMs < SHRINK_AFTER_IDLE_MS) {
+        handler.postDelayed(shrinkImageQueueIfIdle, SHRINK_AFTER_IDLE_MS - idleMs);
+        return;
+      }
+      if (VERBOSE_LOGS) {
+        Log.i(TAG, "Shrinking the image queue to maxImages=" + MIN_IMAGES);
+      }
+      final Callback callback = this.callback;
+      if (callback != null) {
+        releaseSurface(callback);
+        handler.post(notifySurfaceAvailable);
+        return;
+      }
+      maxImages = MIN_IMAGES;
+      createNewReader.set(true);
+      closeIdleImageReaders();
+    }
+
+    void dropImage(Image image) {
+      framesDropped.incrementAndGet();
+      image.close();
+    }
+
+    void onImage(PerImageReader reader, Image image) {
+      framesProduced.incrementAndGet();
+      lastImageTimeMs = SystemClock.uptimeMillis();
+      if (released) {
+        dropImage(image);
+        return;
       }
+      PerImage queuedImage = reader.queueImage(image);
       if (queuedImage == null) {
         // We got a late image.
         return;
@@ -586,7 +1080,7 @@ public class FlutterRenderer implements TextureRegistry {
           Log.i(
               TAG,
               ""
-                  + reader.hashCode()
+                  + reader.reader.hashCode()
                   + " enqueued image="
                   + queuedImage.image.hashCode()
                   + " queueDelta="
@@ -601,105 +1095,175 @@ public class FlutterRenderer implements TextureRegistry {
 
     PerImage dequeueImage() {
       PerImage r = null;
-      synchronized (lock) {
-        for (PerImageReader reader : imageReaderQueue) {
-          r = reader.dequeueImage();
-          if (r == null) {
-            // This reader is probably about to get pruned.
-            continue;
+      for (PerImageReader reader : imageReaders.get()) {
+        r = reader.dequeueImage();
+        if (r == null) {
+          // This reader is probably about to get pruned.
+          continue;
+        }
+        if (VERBOSE_LOGS) {
+          if (lastDequeueTime != 0) {
+            long now = System.nanoTime();
+            long dequeueDelta = now - lastDequeueTime;
+            long queuedFor = now - r.queuedTime;
+            long scheduleDelay = now - lastScheduleTime;
+            Log.i(
+                TAG,
+                ""
+                    + reader.reader.hashCode()
+                    + " dequeued image="
+                    + r.image.hashCode()
+                    + " queuedFor= "
+                    + deltaMillis(queuedFor)
+                    + " dequeueDelta="
+                    + deltaMillis(dequeueDelta)
+                    + " scheduleDelay="
+                    + deltaMillis(scheduleDelay));
+            lastDequeueTime = now;
+          } else {
+            lastDequeueTime = System.nanoTime();
           }
+        }
+        // Remember the last image (and thereby the reader) dequeued from. We do this because we
+        // must keep both of these alive until we are done presenting the image.
+        PerImage previous = lastDequeuedImage.getAndSet(r);
+        if (previous != null) {
           if (VERBOSE_LOGS) {
-            if (lastDequeueTime != 0) {
-              long now = System.nanoTime();
-              long dequeueDelta = now - lastDequeueTime;
-              long queuedFor = now - r.queuedTime;
-              long scheduleDelay = now - lastScheduleTime;
-              Log.i(
-                  TAG,
-                  ""
-                      + reader.reader.hashCode()
-                      + " dequeued image="
-                      + r.image.hashCode()
-                      + " queuedFor= "
-                      + deltaMillis(queuedFor)
-                      + " dequeueDelta="
-                      + deltaMillis(dequeueDelta)
-                      + " scheduleDelay="
-                      + deltaMillis(scheduleDelay));
-              lastDequeueTime = now;
-            } else {
-              lastDequeueTime = System.nanoTime();
-            }
-          }
-          if (lastDequeuedImage != null) {
-            if (VERBOSE_LOGS) {
-              Log.i(
-                  TAG,
-                  ""
-                      + lastReaderDequeuedFrom.reader.hashCode()
-                      + " closing image="
-                      + lastDequeuedImage.image.hashCode());
-            }
-            // We must keep the last image dequeued open until we are done presenting
-            // it. We have just dequeued a new image (r). Close the previously dequeued
-            // image.
-            lastDequeuedImage.image.close();
-            lastDequeuedImage = null;
+            Log.i(
+                TAG,
+                ""
+                    + previous.reader.reader.hashCode()
+                    + " closing image="
+                    + previous.image.hashCode());
           }
-          // Remember the last image and reader dequeued from. We do this because we must
-          // keep both of these alive until we are done presenting the image.
-          lastDequeuedImage = r;
-          lastReaderDequeuedFrom = reader;
+          // We must keep the last image dequeued open until we are done presenting
+          // it. We have just dequeued a new image (r). Close the previously dequeued
+          // image.
+          previous.image.close();
+        }
+        if (reader.closed && lastDequeuedImage.compareAndSet(r, null)) {
+          // The reader was cleaned up while we were dequeuing from it.
+          dropImage(r.image);
+          r = null;
           break;
         }
-        pruneImageReaderQueue();
+        final long now = System.nanoTime();
+        final long queuedFor = now - r.queuedTime;
+        framesConsumed.incrementAndGet();
+        totalQueuedTimeNanos.addAndGet(queuedFor);
+        maxQueuedTimeNanos.accumulateAndGet(queuedFor, Math::max);
+        break;
       }
+      pruneImageReaderQueue();
       return r;
     }
 
+    // Trims memory in tiers. The reader whose Surface may still be used to produce frames, such as
+    // the one a VirtualDisplay renders into, is only closed when the owner can recreate it.
     @Override
     public void onTrimMemory(int level) {
-      if (!CLEANUP_ON_MEMORY_PRESSURE) {
+      if (released) {
+        return;
+      }
+      final Callback callback = this.callback;
+      if (level >= TRIM_MEMORY_COMPLETE && callback != null) {
+        trimmedBytes.addAndGet(releaseSurface(callback));
         return;
       }
+      if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+        // Drop the frames that haven't been consumed yet. This frees no memory, the images go back
+        // to their ImageReader, but the producer won't wait on stale frames. The most recent one is
+        // kept: a producer with static content, like an idle VirtualDisplay, won't produce it
+        // again.
+        boolean keepNewest = true;
+        PerImageReader[] readers = imageReaders.get();
+        for (int i = readers.length - 1; i >= 0; i--) {
+          if (readers[i].dropQueuedImages(keepNewest)) {
+            keepNewest = false;
+          }
+        }
+      }
+      if (level >= TRIM_MEMORY_RUNNING_LOW) {
+        trimmedBytes.addAndGet(closeIdleImageReaders());
+      }
+    }
+
+    // Releases every reader. The owner is told to recreate the surface the next time the engine
+    // draws the texture, so the memory stays released until the texture is on screen again.
+    // Returns an estimate of the number of bytes released.
+    private long releaseSurface(@NonNull Callback callback) {
+      final long bytes = getImageReaderBytes();
       cleanup();
-      createNewReader = true;
+      maxImages = MIN_IMAGES;
+      createNewReader.set(true);
+      surfaceReleased.set(true);
+      callback.onSurfaceDestroyed();
+      return bytes;
+    }
+
+    // Closes the readers, other than the active one, that have no queued or dequeued image.
+    // Returns an estimate of the number of bytes released.
+    private long closeIdleImageReaders() {
+      while (true) {
+        PerImageReader[] current = imageReaders.get();
+        if (current.length <= 1) {
+          return 0;
+        }
+        // The active reader is always kept, its Surface may be in use.
+        final PerImageReader active = current[current.length - 1];
+        PerImageReader[] kept = new PerImageReader[current.length];
+        PerImageReader[] idle = new PerImageReader[current.length - 1];
+        int keptCount = 0;
+        int idleCount = 0;
+        for (PerImageReader reader : current) {
+          if (reader != active && reader.canPrune()) {
+            idle[idleCount++] = reader;
+          } else {
+            kept[keptCount++] = reader;
+          }
+        }
+        if (idleCount == 0) {
+          return 0;
+        }
+        if (imageReaders.compareAndSet(current, Arrays.copyOf(kept, keptCount))) {
+          long bytes = 0;
+          for (int i = 0; i < idleCount; i++) {
+            bytes += idle[i].getImageReaderBytes();
+            idle[i].close();
+          }
+          return bytes;
+        }
+      }
     }
 
     private void releaseInternal() {
       cleanup();
       released = true;
+      handler.removeCallbacks(shrinkImageQueueIfIdle);
     }
 
     private void cleanup() {
-      synchronized (lock) {
-        for (PerImageReader pir : perImageReaders.values()) {
-          if (lastReaderDequeuedFrom == pir) {
-            lastReaderDequeuedFrom = null;
-          }
-          pir.close();
-        }
-        perImageReaders.clear();
-        if (lastDequeuedImage != null) {
-          lastDequeuedImage.image.close();
-          lastDequeuedImage = null;
-        }
-        if (lastReaderDequeuedFrom != null) {
-          lastReaderDequeuedFrom.close();
-          lastReaderDequeuedFrom = null;
-        }
-        imageReaderQueue.clear();
+      for (PerImageReader pir : imageReaders.getAndSet(new PerImageReader[0])) {
+        pir.close();
+      }
+      PerImage last = lastDequeuedImage.getAndSet(null);
+      if (last != null) {
+        last.image.close();
       }
     }
 
     @TargetApi(API_LEVELS.API_33)
     private void waitOnFence(Image image) {
+      final long start = System.nanoTime();
       try {
         SyncFence fence = image.getFence();
         fence.awaitForever();
       } catch (IOException e) {
         // Drop.
       }
+      final long waited = System.nanoTime() - start;
+      totalFenceWaitTimeNanos.addAndGet(waited);
+      maxFenceWaitTimeNanos.accumulateAndGet(waited, Math::max);
     }
 
     private void maybeWaitOnFence(Image image) {
@@ -747,9 +1311,9 @@ public class FlutterRenderer implements TextureRegistry {
         // No size change.
         return;
       }
-      this.createNewReader = true;
       this.requestedHeight = height;
       this.requestedWidth = width;
+      this.createNewReader.set(true);
     }
 
     @Override
@@ -764,6 +1328,7 @@ public class FlutterRenderer implements TextureRegistry {
 
     @Override
     public Surface getSurface() {
+      surfaceReleased.set(false);
       PerImageReader pir = getActiveReader();
       if (VERBOSE_LOGS) {
         Log.i(TAG, "" + pir.reader.hashCode() + " returning surface to render a new frame.");
@@ -771,6 +1336,25 @@ public class FlutterRenderer implements TextureRegistry {
       return pir.reader.getSurface();
     }
 
+    @Override
+    public void setCallback(@Nullable Callback callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public void getStatistics(@NonNull SurfaceProducerStatistics statistics) {
+      statistics.framesProduced = framesProduced.get();
+      statistics.framesConsumed = framesConsumed.get();
+      statistics.framesDropped = framesDropped.get();
+      statistics.totalQueuedTimeNanos = totalQueuedTimeNanos.get();
+      statistics.maxQueuedTimeNanos = maxQueuedTimeNanos.get();
+      statistics.totalFenceWaitTimeNanos = totalFenceWaitTimeNanos.get();
+      statistics.maxFenceWaitTimeNanos = maxFenceWaitTimeNanos.get();
+      statistics.liveReaders = numImageReaders();
+      statistics.liveImages = numImages();
+      statistics.trimmedBytes = trimmedBytes.get();
+    }
+
     @Override
     public void scheduleFrame() {
       if (VERBOSE_LOGS) {
@@ -787,6 +1371,12 @@ public class FlutterRenderer implements TextureRegistry {
     @Override
     @TargetApi(API_LEVELS.API_29)
     public Image acquireLatestImage() {
+      // The engine acquires an image whenever it draws the texture, even if there is no new one.
+      lastConsumedTimeNanos = System.nanoTime();
+      if (surfaceReleased.get()) {
+        // The engine draws the texture, the owner must recreate the surface it released.
+        handler.post(notifySurfaceAvailable);
+      }
       PerImage r = dequeueImage();
       if (r == null) {
         return null;
@@ -796,20 +1386,20 @@ public class FlutterRenderer implements TextureRegistry {
     }
 
     private PerImageReader getActiveReader() {
-      synchronized (lock) {
-        if (createNewReader) {
-          createNewReader = false;
-          // Create a new ImageReader and add it to the queue.
-          ImageReader reader = createImageReader();
-          if (VERBOSE_LOGS) {
-            Log.i(
-                TAG,
-                "" + reader.hashCode() + " created w=" + requestedWidth + " h=" + requestedHeight);
-          }
-          return getOrCreatePerImageReader(reader);
+      if (createNewReader.compareAndSet(true, false)) {
+        // Create a new ImageReader and add it to the queue.
+        ImageReader reader = createImageReader();
+        if (VERBOSE_LOGS) {
+          Log.i(
+              TAG,
+              "" + reader.hashCode() + " created w=" + requestedWidth + " h=" + requestedHeight);
         }
-        return imageReaderQueue.peekLast();
+        PerImageReader pir = new PerImageReader(reader);
+        addImageReader(pir);
+        return pir;
       }
+      PerImageReader[] readers = imageReaders.get();
+      return readers.length == 0 ? null : readers[readers.length - 1];
     }
 
     @Override
@@ -819,7 +1409,7 @@ public class FlutterRenderer implements TextureRegistry {
           return;
         }
         releaseInternal();
-        handler.post(new TextureFinalizerRunnable(id, flutterJNI));
+        unregisterTexture(id);
       } finally {
         super.finalize();
       }
@@ -828,8 +1418,7 @@ public class FlutterRenderer implements TextureRegistry {
     @TargetApi(API_LEVELS.API_33)
     private ImageReader createImageReader33() {
       final ImageReader.Builder builder = new ImageReader.Builder(requestedWidth, requestedHeight);
-      // Allow for double buffering.
-      builder.setMaxImages(MAX_IMAGES);
+      builder.setMaxImages(maxImages);
       // Use PRIVATE image format so that we can support video decoding.
       // TODO(johnmccutchan): Should we always use PRIVATE here? It may impact our ability to
       // read back texture data. If we don't always want to use it, how do we decide when to
@@ -850,7 +1439,7 @@ public class FlutterRenderer implements TextureRegistry {
               requestedWidth,
               requestedHeight,
               ImageFormat.PRIVATE,
-              MAX_IMAGES,
+              maxImages,
               HardwareBuffer.USAGE_GPU_SAMPLED_IMAGE);
       return reader;
     }
@@ -873,31 +1462,67 @@ public class FlutterRenderer implements TextureRegistry {
 
     @VisibleForTesting
     public int numImageReaders() {
-      synchronized (lock) {
-        return imageReaderQueue.size();
-      }
+      return imageReaders.get().length;
     }
 
     @VisibleForTesting
     public int numImages() {
       int r = 0;
-      synchronized (lock) {
-        for (PerImageReader reader : imageReaderQueue) {
-          r += reader.imageQueue.size();
-        }
+      for (PerImageReader reader : imageReaders.get()) {
+        r += reader.numImages();
       }
       return r;
     }
+
+    /** Returns an estimate of the number of bytes held by the ImageReaders of this producer. */
+    long getImageReaderBytes() {
+      long bytes = 0;
+      for (PerImageReader reader : imageReaders.get()) {
+        bytes += reader.getImageReaderBytes();
+      }
+      return bytes;
+    }
+
+    @Override
+    public long getMemoryBytes() {
+      return getImageReaderBytes();
+    }
+
+    @Override
+    public long getLastConsumedTimeNanos() {
+      return lastConsumedTimeNanos;
+    }
+
+    @VisibleForTesting
+    int getMaxImages() {
+      return maxImages;
+    }
+
+    @VisibleForTesting
+    void queueImageForTest(@NonNull Image image) {
+      onImage(getActiveReader(), image);
+    }
+
+    @VisibleForTesting
+    void stallForTest() {
+      maybeGrowImageQueue(getActiveReader());
+    }
   }
 
   @Keep
   final class ImageTextureRegistryEntry
-      implements TextureRegistry.ImageTextureEntry, TextureRegistry.ImageConsumer {
+      implements TextureRegistry.ImageTextureEntry,
+          TextureRegistry.ImageConsumer,
+          MemoryTrackedTexture {
     private static final String TAG = "ImageTextureRegistryEntry";
     private final long id;
     private boolean released;
     private boolean ignoringFence = false;
     private Image image;
+    // The estimated size of the pushed image, and of the last one acquired by the engine.
+    private long imageBytes;
+    private long acquiredImageBytes;
+    private volatile long lastConsumedTimeNanos;
 
     ImageTextureRegistryEntry(long id) {
       this.id = id;
@@ -914,9 +1539,13 @@ public class FlutterRenderer implements TextureRegistry {
         return;
       }
       released = true;
-      if (image != null) {
-        image.close();
-        image = null;
+      synchronized (this) {
+        if (image != null) {
+          image.close();
+          image = null;
+        }
+        imageBytes = 0;
+        acquiredImageBytes = 0;
       }
       unregisterTexture(id);
     }
@@ -926,10 +1555,20 @@ public class FlutterRenderer implements TextureRegistry {
       if (released) {
         return;
       }
+      final long bytes =
+          image == null
+              ? 0
+              : estimateBufferBytes(image.getWidth(), image.getHeight(), image.getFormat(), 1);
       Image toClose;
+      long previousBytes;
       synchronized (this) {
         toClose = this.image;
+        previousBytes = imageBytes;
         this.image = image;
+        imageBytes = bytes;
+      }
+      if (bytes > previousBytes) {
+        scheduleTextureMemoryBudgetCheck();
       }
       // Close the previously pushed buffer.
       if (toClose != null) {
@@ -976,11 +1615,38 @@ public class FlutterRenderer implements TextureRegistry {
       synchronized (this) {
         r = this.image;
         this.image = null;
+        if (r != null) {
+          acquiredImageBytes = imageBytes;
+          imageBytes = 0;
+        }
       }
+      // The engine acquires an image whenever it draws the texture, even if there is no new one.
+      lastConsumedTimeNanos = System.nanoTime();
       maybeWaitOnFence(r);
       return r;
     }
 
+    @Override
+    public synchronized long getMemoryBytes() {
+      return imageBytes + acquiredImageBytes;
+    }
+
+    @Override
+    public long getLastConsumedTimeNanos() {
+      return lastConsumedTimeNanos;
+    }
+
+    @VisibleForTesting
+    void disableFenceForTest() {
+      ignoringFence = true;
+    }
+
+    // Image textures aren't notified of memory pressure, this is only invoked to evict the
+    // texture when the renderer is over its texture memory budget. Nothing is released: the pushed
+    // image is the only copy of the next frame, and the acquired one is held by the engine.
+    @Override
+    public void onTrimMemory(int level) {}
+
     @Override
     protected void finalize() throws Throwable {
       try {
@@ -993,7 +1659,7 @@ public class FlutterRenderer implements TextureRegistry {
           image = null;
         }
         released = true;
-        handler.post(new TextureFinalizerRunnable(id, flutterJNI));
+        unregisterTexture(id);
       } finally {
         super.finalize();
       }
@@ -1033,6 +1699,9 @@ public class FlutterRenderer implements TextureRegistry {
       flutterJNI.onSurfaceWindowChanged(surface);
     } else {
       // In the non-swap case we are creating a new surface to render to.
+      if (!isDisplayingFlutterUi) {
+        frameTimingsRecorder.onRenderingStarted();
+      }
       flutterJNI.onSurfaceCreated(surface);
     }
   }
@@ -1184,28 +1853,24 @@ public class FlutterRenderer implements TextureRegistry {
     flutterJNI.dispatchPointerDataPacket(buffer, position);
   }
 
-  // TODO(mattcarroll): describe the native behavior that this invokes
+  // Registrations are deferred inside a texture batch, see beginTextureBatch.
   private void registerTexture(long textureId, @NonNull SurfaceTextureWrapper textureWrapper) {
-    flutterJNI.registerTexture(textureId, textureWrapper);
+    textureRegistrations.registerTexture(textureId, textureWrapper);
   }
 
   private void registerImageTexture(
       long textureId, @NonNull TextureRegistry.ImageConsumer imageTexture) {
-    flutterJNI.registerImageTexture(textureId, imageTexture);
+    textureRegistrations.registerImageTexture(textureId, imageTexture);
   }
 
+  // Frame requests are coalesced per vsync, see TextureFrameScheduler.
   private void scheduleEngineFrame() {
-    flutterJNI.scheduleFrame();
+    textureFrameScheduler.scheduleFrame();
   }
 
-  // TODO(mattcarroll): describe the native behavior that this invokes
-  private void markTextureFrameAvailable(long textureId) {
-    flutterJNI.markTextureFrameAvailable(textureId);
-  }
-
-  // TODO(mattcarroll): describe the native behavior that this invokes
+  // Unregistrations are batched and sent from the main thread, see TextureRegistrationBatcher.
   private void unregisterTexture(long textureId) {
-    flutterJNI.unregisterTexture(textureId);
+    textureRegistrations.unregisterTexture(textureId);
   }
 
   // TODO(mattcarroll): describe the native behavior that this invokes
@@ -0,0 +1,136 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.embedding.engine.renderer;
+
+import androidx.annotation.NonNull;
+import java.util.List;
+
+/**
+ * Listener invoked with the timings of the frames produced by a {@link FlutterRenderer}.
+ *
+ * <p>See {@link FlutterRenderer#addFrameTimingsListener(FrameTimingsListener)}.
+ */
+public interface FrameTimingsListener {
+  /**
+   * Flutter produced a batch of frames.
+   *
+   * <p>Invoked on a background thread, with the timings of the frames produced since the previous
+   * invocation, oldest first, and a summary of the recent frames.
+   */
+  void onFrameTimings(@NonNull List<FrameTiming> timings, @NonNull FrameTimingsSummary summary);
+
+  /**
+   * The timing of a single frame, as reported by the engine once the frame was rasterized.
+   *
+   * <p>All the times are in nanoseconds, in the {@link System#nanoTime()} timebase.
+   */
+  final class FrameTiming {
+    /** The time of the vsync signal the frame was produced for. */
+    public final long vsyncTimeNanos;
+
+    /** The time by which the frame had to be done to be shown on the next vsync. */
+    public final long deadlineNanos;
+
+    /** The display refresh period the frame was produced with. */
+    public final long refreshPeriodNanos;
+
+    /** The time the engine started building the frame on the UI thread. */
+    public final long buildStartTimeNanos;
+
+    /** The time the engine finished building the frame on the UI thread. */
+    public final long buildEndTimeNanos;
+
+    /** The time the engine started rasterizing the frame on the raster thread. */
+    public final long rasterStartTimeNanos;
+
+    /** The time the engine finished rasterizing the frame on the raster thread. */
+    public final long rasterEndTimeNanos;
+
+    /** The number of vsync signals that went by before the frame was rasterized. */
+    public final int missedVsyncCount;
+
+    FrameTiming(
+        long vsyncTimeNanos,
+        long refreshPeriodNanos,
+        long buildStartTimeNanos,
+        long buildEndTimeNanos,
+        long rasterStartTimeNanos,
+        long rasterEndTimeNanos) {
+      this.vsyncTimeNanos = vsyncTimeNanos;
+      this.deadlineNanos = vsyncTimeNanos + refreshPeriodNanos;
+      this.refreshPeriodNanos = refreshPeriodNanos;
+      this.buildStartTimeNanos = buildStartTimeNanos;
+      this.buildEndTimeNanos = buildEndTimeNanos;
+      this.rasterStartTimeNanos = rasterStartTimeNanos;
+      this.rasterEndTimeNanos = rasterEndTimeNanos;
+      this.missedVsyncCount =
+          refreshPeriodNanos > 0 ? (int) (getDurationNanos() / refreshPeriodNanos) : 0;
+    }
+
+    /** The time from the vsync signal to the end of rasterization. */
+    public long getDurationNanos() {
+      return rasterEndTimeNanos - vsyncTimeNanos;
+    }
+
+    /** The time the engine spent building the frame on the UI thread. */
+    public long getBuildDurationNanos() {
+      return buildEndTimeNanos - buildStartTimeNanos;
+    }
+
+    /** The time the engine spent rasterizing the frame on the raster thread. */
+    public long getRasterDurationNanos() {
+      return rasterEndTimeNanos - rasterStartTimeNanos;
+    }
+
+    /** Whether the frame was done after its deadline, and therefore was shown late. */
+    public boolean missedDeadline() {
+      return rasterEndTimeNanos > deadlineNanos;
+    }
+  }
+
+  /** A summary of the frames produced by a {@link FlutterRenderer}. */
+  final class FrameTimingsSummary {
+    /** The number of frames recorded by the renderer. */
+    public final long frameCount;
+
+    /** The number of recorded frames that missed their deadline. */
+    public final long jankyFrameCount;
+
+    /** The number of vsync signals missed by the recorded frames. */
+    public final long missedVsyncCount;
+
+    /** The 50th percentile of the duration of the recent frames, in nanoseconds. */
+    public final long p50DurationNanos;
+
+    /** The 90th percentile of the duration of the recent frames, in nanoseconds. */
+    public final long p90DurationNanos;
+
+    /** The 99th percentile of the duration of the recent frames, in nanoseconds. */
+    public final long p99DurationNanos;
+
+    /**
+     * The time from the start of rendering to a surface to the first frame being displayed, in
+     * nanoseconds, or -1 if no frame was displayed yet.
+     */
+    public final long timeToFirstFrameNanos;
+
+    FrameTimingsSummary(
+        long frameCount,
+        long jankyFrameCount,
+        long missedVsyncCount,
+        long p50DurationNanos,
+        long p90DurationNanos,
+        long p99DurationNanos,
+        long timeToFirstFrameNanos) {
+      this.frameCount = frameCount;
+      this.jankyFrameCount = jankyFrameCount;
+      this.missedVsyncCount = missedVsyncCount;
+      this.p50DurationNanos = p50DurationNanos;
+      this.p90DurationNanos = p90DurationNanos;
+      this.p99DurationNanos = p99DurationNanos;
+      this.timeToFirstFrameNanos = timeToFirstFrameNanos;
+    }
+  }
+}
@@ -0,0 +1,191 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.embedding.engine.renderer;
+
+import android.os.Process;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import io.flutter.embedding.engine.FlutterJNI;
+import io.flutter.embedding.engine.renderer.FrameTimingsListener.FrameTiming;
+import io.flutter.embedding.engine.renderer.FrameTimingsListener.FrameTimingsSummary;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the timing of the frames of a {@link FlutterRenderer}, and delivers them to {@link
+ * FrameTimingsListener}s.
+ *
+ * <p>The engine reports the timings of each frame once it was rasterized, on the raster thread,
+ * whichever way vsync signals reach it. Frames are handed to a background thread in batches. The
+ * background thread keeps the rolling window of frame durations the percentiles are computed from,
+ * and invokes the listeners.
+ *
+ * <p>Frames are only recorded while there are listeners.
+ */
+final class FrameTimingsRecorder implements FlutterJNI.FrameListener {
+  /** The number of frames delivered to the listeners at once. */
+  @VisibleForTesting static final int BATCH_SIZE = 30;
+
+  /** The number of recent frames the percentiles are computed from. */
+  @VisibleForTesting static final int WINDOW_SIZE = 120;
+
+  // How long the background thread is kept alive without batches to deliver.
+  private static final long THREAD_KEEP_ALIVE_SECONDS = 10;
+
+  @NonNull private final Set<FrameTimingsListener> listeners = new CopyOnWriteArraySet<>();
+  private final int batchSize;
+  @NonNull private final Executor executor;
+
+  // Recording state, guarded by this.
+  @NonNull private List<FrameTiming> batch = new ArrayList<>();
+  private long renderingStartTimeNanos = -1;
+  private volatile long timeToFirstFrameNanos = -1;
+
+  // Background thread state.
+  private final long[] durations = new long[WINDOW_SIZE];
+  private int durationCount = 0;
+  private int nextDuration = 0;
+  private long frameCount = 0;
+  private long jankyFrameCount = 0;
+  private long missedVsyncCount = 0;
+
+  FrameTimingsRecorder() {
+    // A single thread, that only lives while there are batches to deliver.
+    this(
+        BATCH_SIZE,
+        new ThreadPoolExecutor(
+            0,
+            1,
+            THREAD_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            FrameTimingsRecorder::newThread));
+  }
+
+  /** Creates a recorder that delivers batches of the given size on the given serial executor. */
+  @VisibleForTesting
+  FrameTimingsRecorder(int batchSize, @NonNull Executor executor) {
+    this.batchSize = batchSize;
+    this.executor = executor;
+  }
+
+  void addListener(@NonNull FrameTimingsListener listener) {
+    listeners.add(listener);
+  }
+
+  synchronized void removeListener(@NonNull FrameTimingsListener listener) {
+    listeners.remove(listener);
+    if (listeners.isEmpty()) {
+      batch.clear();
+    }
+  }
+
+  boolean hasListeners() {
+    return !listeners.isEmpty();
+  }
+
+  /** Called when the renderer starts rendering to a surface while no frame is displayed. */
+  void onRenderingStarted() {
+    renderingStartTimeNanos = System.nanoTime();
+  }
+
+  /** Called when the renderer displays its first frame. */
+  void onFirstFrame() {
+    if (renderingStartTimeNanos >= 0) {
+      timeToFirstFrameNanos = System.nanoTime() - renderingStartTimeNanos;
+      renderingStartTimeNanos = -1;
+    }
+  }
+
+  /** The time it took to display the first frame, see {@link FrameTimingsSummary}. */
+  long getTimeToFirstFrameNanos() {
+    return timeToFirstFrameNanos;
+  }
+
+  @Override
+  public synchronized void onFrameRasterized(
+      long vsyncTimeNanos,
+      long buildStartNanos,
+      long buildEndNanos,
+      long rasterStartNanos,
+      long rasterEndNanos,
+      long refreshPeriodNanos) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    batch.add(
+        new FrameTiming(
+            vsyncTimeNanos,
+            refreshPeriodNanos,
+            buildStartNanos,
+            buildEndNanos,
+            rasterStartNanos,
+            rasterEndNanos));
+    if (batch.size() < batchSize) {
+      return;
+    }
+    final List<FrameTiming> timings = Collections.unmodifiableList(batch);
+    batch = new ArrayList<>();
+    executor.execute(() -> deliver(timings));
+  }
+
+  // Runs on the background thread.
+  private void deliver(@NonNull List<FrameTiming> timings) {
+    for (FrameTiming timing : timings) {
+      durations[nextDuration] = timing.getDurationNanos();
+      nextDuration = (nextDuration + 1) % WINDOW_SIZE;
+      durationCount = Math.min(durationCount + 1, WINDOW_SIZE);
+      frameCount++;
+      if (timing.missedDeadline()) {
+        jankyFrameCount++;
+      }
+      missedVsyncCount += timing.missedVsyncCount;
+    }
+    final long[] sorted = Arrays.copyOf(durations, durationCount);
+    Arrays.sort(sorted);
+    final FrameTimingsSummary summary =
+        new FrameTimingsSummary(
+            frameCount,
+            jankyFrameCount,
+            missedVsyncCount,
+            percentile(sorted, 50),
+            percentile(sorted, 90),
+            percentile(sorted, 99),
+            timeToFirstFrameNanos);
+    for (FrameTimingsListener listener : listeners) {
+      listener.onFrameTimings(timings, summary);
+    }
+  }
+
+  /** Returns the nearest-rank percentile of the sorted values. */
+  private static long percentile(@NonNull long[] sorted, int percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+
+  @NonNull
+  private static Thread newThread(@NonNull Runnable runnable) {
+    final Thread thread =
+        new Thread(
+            () -> {
+              Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+              runnable.run();
+            },
+            "flutter-frame-timings");
+    thread.setDaemon(true);
+    return thread;
+  }
+}
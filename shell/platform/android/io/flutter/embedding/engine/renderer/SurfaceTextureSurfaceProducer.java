@@ -1,11 +1,9 @@
 package io.flutter.embedding.engine.renderer;
 
 import android.graphics.SurfaceTexture;
-import android.os.Handler;
 import android.view.Surface;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import io.flutter.embedding.engine.FlutterJNI;
 import io.flutter.view.TextureRegistry;
 
 /** Uses a {@link android.graphics.SurfaceTexture} to populate the texture registry. */
@@ -17,17 +15,17 @@ final class SurfaceTextureSurfaceProducer
   private boolean released;
   @Nullable private Surface surface;
   @NonNull private final TextureRegistry.SurfaceTextureEntry texture;
-  @NonNull private final Handler handler;
-  @NonNull private final FlutterJNI flutterJNI;
+  @NonNull private final TextureFrameScheduler frameScheduler;
+  @NonNull private final TextureRegistrationBatcher textureRegistrations;
 
   SurfaceTextureSurfaceProducer(
       long id,
-      @NonNull Handler handler,
-      @NonNull FlutterJNI flutterJNI,
+      @NonNull TextureFrameScheduler frameScheduler,
+      @NonNull TextureRegistrationBatcher textureRegistrations,
       @NonNull TextureRegistry.SurfaceTextureEntry texture) {
     this.id = id;
-    this.handler = handler;
-    this.flutterJNI = flutterJNI;
+    this.frameScheduler = frameScheduler;
+    this.textureRegistrations = textureRegistrations;
     this.texture = texture;
   }
 
@@ -38,7 +36,7 @@ final class SurfaceTextureSurfaceProducer
         return;
       }
       release();
-      handler.post(new FlutterRenderer.TextureFinalizerRunnable(id, flutterJNI));
+      textureRegistrations.unregisterTexture(id);
     } finally {
       super.finalize();
     }
@@ -65,7 +63,12 @@ final class SurfaceTextureSurfaceProducer
   public void setSize(int width, int height) {
     requestBufferWidth = width;
     requestedBufferHeight = height;
-    getSurfaceTexture().setDefaultBufferSize(width, height);
+    if (texture instanceof FlutterRenderer.SurfaceTextureRegistryEntry) {
+      // Lets the renderer account for the memory held by the texture.
+      ((FlutterRenderer.SurfaceTextureRegistryEntry) texture).setDefaultBufferSize(width, height);
+    } else {
+      getSurfaceTexture().setDefaultBufferSize(width, height);
+    }
   }
 
   @Override
@@ -88,6 +91,6 @@ final class SurfaceTextureSurfaceProducer
 
   @Override
   public void scheduleFrame() {
-    flutterJNI.markTextureFrameAvailable(id);
+    frameScheduler.markTextureFrameAvailable(id);
   }
 }
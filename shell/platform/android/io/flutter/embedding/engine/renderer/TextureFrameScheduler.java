@@ -0,0 +1,109 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.embedding.engine.renderer;
+
+import android.view.Choreographer;
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+import io.flutter.embedding.engine.FlutterJNI;
+import java.util.Arrays;
+
+/**
+ * Coalesces the texture frame-available signals of a {@link FlutterRenderer} into at most one JNI
+ * call per vsync.
+ *
+ * <p>The first signal after a vsync is forwarded to the engine right away, so that a lone texture
+ * update is not delayed. Signals that arrive before the next vsync are accumulated, and are sent
+ * together when that vsync fires, in a single {@link FlutterJNI#markTextureFramesAvailable(long[],
+ * int)} call carrying the ids of the textures that became dirty. With several textures producing
+ * frames, this replaces a JNI call per frame per texture with at most two calls per vsync.
+ *
+ * <p>Instances are not thread safe and are expected to be used from the main thread only.
+ */
+final class TextureFrameScheduler implements Choreographer.FrameCallback {
+  @NonNull private final FlutterJNI flutterJNI;
+
+  // The dirty texture ids waiting for the next vsync, without duplicates.
+  @NonNull private long[] pendingTextureIds = new long[4];
+  private int pendingTextureIdCount = 0;
+  // Whether a frame was requested without marking any texture as dirty.
+  private boolean pendingFrame = false;
+  // Whether a signal was sent since the last vsync, in which case new signals are deferred.
+  private boolean signaledSinceVsync = false;
+
+  private long signalCount = 0;
+  private long nativeCallCount = 0;
+
+  TextureFrameScheduler(@NonNull FlutterJNI flutterJNI) {
+    this.flutterJNI = flutterJNI;
+  }
+
+  /** Marks the given texture as having a new frame available, and schedules an engine frame. */
+  @UiThread
+  void markTextureFrameAvailable(long textureId) {
+    signalCount++;
+    if (!signaledSinceVsync) {
+      startCoalescing();
+      nativeCallCount++;
+      flutterJNI.markTextureFrameAvailable(textureId);
+      return;
+    }
+    for (int i = 0; i < pendingTextureIdCount; i++) {
+      if (pendingTextureIds[i] == textureId) {
+        return;
+      }
+    }
+    if (pendingTextureIdCount == pendingTextureIds.length) {
+      pendingTextureIds = Arrays.copyOf(pendingTextureIds, pendingTextureIdCount * 2);
+    }
+    pendingTextureIds[pendingTextureIdCount++] = textureId;
+  }
+
+  /** Schedules an engine frame, for textures that pick up their new content when painted. */
+  @UiThread
+  void scheduleFrame() {
+    signalCount++;
+    if (!signaledSinceVsync) {
+      startCoalescing();
+      nativeCallCount++;
+      flutterJNI.scheduleFrame();
+      return;
+    }
+    pendingFrame = true;
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    signaledSinceVsync = false;
+    if (pendingTextureIdCount == 0 && !pendingFrame) {
+      return;
+    }
+    final int count = pendingTextureIdCount;
+    pendingTextureIdCount = 0;
+    pendingFrame = false;
+    if (!flutterJNI.isAttached()) {
+      // The engine was detached while the signals were pending, there is nothing to update.
+      return;
+    }
+    startCoalescing();
+    nativeCallCount++;
+    flutterJNI.markTextureFramesAvailable(pendingTextureIds, count);
+  }
+
+  /** The number of frame-available signals received, see {@link #getNativeCallCount()}. */
+  long getSignalCount() {
+    return signalCount;
+  }
+
+  /** The number of JNI calls made to forward the frame-available signals to the engine. */
+  long getNativeCallCount() {
+    return nativeCallCount;
+  }
+
+  private void startCoalescing() {
+    signaledSinceVsync = true;
+    Choreographer.getInstance().postFrameCallback(this);
+  }
+}
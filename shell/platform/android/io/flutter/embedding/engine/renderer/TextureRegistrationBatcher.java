@@ -0,0 +1,178 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.embedding.engine.renderer;
+
+import android.os.Handler;
+import androidx.annotation.NonNull;
+import io.flutter.Log;
+import io.flutter.embedding.engine.FlutterJNI;
+import io.flutter.view.TextureRegistry;
+import java.util.Arrays;
+
+/**
+ * Collects the texture registrations and unregistrations of a {@link FlutterRenderer}, and forwards
+ * them to the engine in batches.
+ *
+ * <p>Unregistrations are always deferred: the first one posts a flush to the main thread, and every
+ * texture released or finalized before that flush runs is unregistered with the same JNI call.
+ * Registrations are sent right away, unless they happen between {@link #beginBatch()} and {@link
+ * #endBatch()}, in which case they are sent together when the outermost batch ends. A texture that
+ * is registered and released within the same batch never reaches the engine.
+ *
+ * <p>Unregistrations may be requested from any thread, for example from finalizers. Registrations
+ * and flushes must happen on the main thread.
+ */
+final class TextureRegistrationBatcher {
+  private static final String TAG = "TextureRegistrationBatcher";
+
+  @NonNull private final FlutterJNI flutterJNI;
+  @NonNull private final Handler handler;
+  @NonNull private final Runnable flushRunnable = this::flush;
+
+  // Guarded by this.
+  @NonNull private long[] pendingRegistrationIds = new long[4];
+  @NonNull private Object[] pendingRegistrationTextures = new Object[4];
+  private int pendingRegistrationCount = 0;
+  @NonNull private long[] pendingUnregistrationIds = new long[4];
+  private int pendingUnregistrationCount = 0;
+  private int batchDepth = 0;
+  private boolean flushScheduled = false;
+
+  TextureRegistrationBatcher(@NonNull FlutterJNI flutterJNI, @NonNull Handler handler) {
+    this.flutterJNI = flutterJNI;
+    this.handler = handler;
+  }
+
+  /** Defers registrations until the matching {@link #endBatch()}. Batches may be nested. */
+  synchronized void beginBatch() {
+    batchDepth++;
+  }
+
+  /** Ends a batch started by {@link #beginBatch()}, flushing if it was the outermost one. */
+  void endBatch() {
+    synchronized (this) {
+      if (batchDepth == 0) {
+        throw new IllegalStateException("endBatch called without a matching beginBatch");
+      }
+      batchDepth--;
+      if (batchDepth > 0) {
+        return;
+      }
+    }
+    flush();
+  }
+
+  /** Registers a {@link SurfaceTextureWrapper}, see {@link FlutterJNI#registerTexture}. */
+  void registerTexture(long textureId, @NonNull SurfaceTextureWrapper textureWrapper) {
+    if (!enqueueRegistration(textureId, textureWrapper)) {
+      registerNow(textureId, textureWrapper);
+    }
+  }
+
+  /** Registers an image texture, see {@link FlutterJNI#registerImageTexture}. */
+  void registerImageTexture(long textureId, @NonNull TextureRegistry.ImageConsumer imageTexture) {
+    if (!enqueueRegistration(textureId, imageTexture)) {
+      registerNow(textureId, imageTexture);
+    }
+  }
+
+  /** Unregisters the texture with the given id at the next flush. */
+  void unregisterTexture(long textureId) {
+    synchronized (this) {
+      for (int i = 0; i < pendingRegistrationCount; i++) {
+        if (pendingRegistrationIds[i] == textureId) {
+          // The engine never saw this texture, forget about it.
+          pendingRegistrationCount--;
+          System.arraycopy(
+              pendingRegistrationIds,
+              i + 1,
+              pendingRegistrationIds,
+              i,
+              pendingRegistrationCount - i);
+          System.arraycopy(
+              pendingRegistrationTextures,
+              i + 1,
+              pendingRegistrationTextures,
+              i,
+              pendingRegistrationCount - i);
+          pendingRegistrationTextures[pendingRegistrationCount] = null;
+          return;
+        }
+      }
+      if (pendingUnregistrationCount == pendingUnregistrationIds.length) {
+        pendingUnregistrationIds =
+            Arrays.copyOf(pendingUnregistrationIds, pendingUnregistrationCount * 2);
+      }
+      pendingUnregistrationIds[pendingUnregistrationCount++] = textureId;
+      if (batchDepth > 0 || flushScheduled) {
+        return;
+      }
+      flushScheduled = true;
+    }
+    handler.post(flushRunnable);
+  }
+
+  /** Sends all the pending registrations and unregistrations to the engine. */
+  void flush() {
+    final long[] registrationIds;
+    final Object[] registrationTextures;
+    final int registrationCount;
+    final long[] unregistrationIds;
+    final int unregistrationCount;
+    synchronized (this) {
+      flushScheduled = false;
+      registrationCount = pendingRegistrationCount;
+      registrationIds = Arrays.copyOf(pendingRegistrationIds, registrationCount);
+      registrationTextures = Arrays.copyOf(pendingRegistrationTextures, registrationCount);
+      Arrays.fill(pendingRegistrationTextures, 0, registrationCount, null);
+      pendingRegistrationCount = 0;
+      unregistrationCount = pendingUnregistrationCount;
+      unregistrationIds = Arrays.copyOf(pendingUnregistrationIds, unregistrationCount);
+      pendingUnregistrationCount = 0;
+    }
+    if (registrationCount == 0 && unregistrationCount == 0) {
+      return;
+    }
+    if (!flutterJNI.isAttached()) {
+      return;
+    }
+    if (registrationCount == 1) {
+      registerNow(registrationIds[0], registrationTextures[0]);
+    } else if (registrationCount > 1) {
+      flutterJNI.registerTextures(registrationIds, registrationTextures, registrationCount);
+    }
+    if (unregistrationCount == 1) {
+      Log.v(TAG, "Releasing a Texture (" + unregistrationIds[0] + ").");
+      flutterJNI.unregisterTexture(unregistrationIds[0]);
+    } else if (unregistrationCount > 1) {
+      Log.v(TAG, "Releasing " + unregistrationCount + " Textures.");
+      flutterJNI.unregisterTextures(unregistrationIds, unregistrationCount);
+    }
+  }
+
+  /** Queues the registration if a batch is open, returns whether it was queued. */
+  private synchronized boolean enqueueRegistration(long textureId, @NonNull Object texture) {
+    if (batchDepth == 0) {
+      return false;
+    }
+    if (pendingRegistrationCount == pendingRegistrationIds.length) {
+      pendingRegistrationIds = Arrays.copyOf(pendingRegistrationIds, pendingRegistrationCount * 2);
+      pendingRegistrationTextures =
+          Arrays.copyOf(pendingRegistrationTextures, pendingRegistrationCount * 2);
+    }
+    pendingRegistrationIds[pendingRegistrationCount] = textureId;
+    pendingRegistrationTextures[pendingRegistrationCount] = texture;
+    pendingRegistrationCount++;
+    return true;
+  }
+
+  private void registerNow(long textureId, @NonNull Object texture) {
+    if (texture instanceof SurfaceTextureWrapper) {
+      flutterJNI.registerTexture(textureId, (SurfaceTextureWrapper) texture);
+    } else {
+      flutterJNI.registerImageTexture(textureId, (TextureRegistry.ImageConsumer) texture);
+    }
+  }
+}
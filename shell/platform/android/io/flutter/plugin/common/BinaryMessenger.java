@@ -169,6 +169,24 @@ public interface BinaryMessenger {
     throw new UnsupportedOperationException("disableBufferingIncomingMessages not implemented.");
   }
 
+  /**
+   * Starts a batch of messages.
+   *
+   * <p>The messages sent with {@link #send(String, ByteBuffer, BinaryReply)} until the matching
+   * {@link #endBatch()} are held back, then dispatched to Dart together, in the order they were
+   * sent. This saves the cost of crossing into native code for messages that are sent together,
+   * such as the messages that describe a single input event. Batches can be nested, only the
+   * outermost one dispatches the messages.
+   *
+   * <p>The default implementation sends the messages right away.
+   */
+  @UiThread
+  default void beginBatch() {}
+
+  /** Ends a batch started with {@link #beginBatch()}. */
+  @UiThread
+  default void endBatch() {}
+
   /** Handler for incoming binary messages from Flutter. */
   interface BinaryMessageHandler {
     /**
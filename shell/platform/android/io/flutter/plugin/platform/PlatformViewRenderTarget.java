@@ -5,6 +5,7 @@
 package io.flutter.plugin.platform;
 
 import android.view.Surface;
+import androidx.annotation.Nullable;
 
 /**
  * A PlatformViewRenderTarget interface allows an Android Platform View to be rendered into an
@@ -35,4 +36,14 @@ public interface PlatformViewRenderTarget {
 
   // Schedules a frame to be drawn.
   public default void scheduleFrame() {}
+
+  // Sets a listener invoked after the Surface was released, for example under memory pressure.
+  // Owners that hold on to the Surface must stop drawing into it. Render targets that never
+  // release their Surface ignore the listener.
+  public default void setOnSurfaceDestroyedListener(@Nullable Runnable listener) {}
+
+  // Sets a listener invoked when a released Surface is needed again because the engine draws the
+  // render target. Owners fetch the new Surface with getSurface. Render targets that never release
+  // their Surface ignore the listener.
+  public default void setOnSurfaceAvailableListener(@Nullable Runnable listener) {}
 }
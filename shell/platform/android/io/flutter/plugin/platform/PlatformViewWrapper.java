@@ -62,6 +62,9 @@ public class PlatformViewWrapper extends FrameLayout {
       @NonNull Context context, @NonNull PlatformViewRenderTarget renderTarget) {
     this(context);
     this.renderTarget = renderTarget;
+    // The surface is fetched again on every draw, so a released surface only needs a redraw once
+    // the engine draws the platform view again.
+    renderTarget.setOnSurfaceAvailableListener(this::invalidate);
 
     Surface surface = renderTarget.getSurface();
     if (surface != null && !FlutterRenderer.debugDisableSurfaceClear) {
@@ -118,6 +121,7 @@ public class PlatformViewWrapper extends FrameLayout {
   /** Releases resources. */
   public void release() {
     if (renderTarget != null) {
+      renderTarget.setOnSurfaceAvailableListener(null);
       renderTarget.release();
       renderTarget = null;
     }
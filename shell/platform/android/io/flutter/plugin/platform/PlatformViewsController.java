@@ -37,7 +37,7 @@ import io.flutter.plugin.editing.TextInputPlugin;
 import io.flutter.util.ViewUtils;
 import io.flutter.view.AccessibilityBridge;
 import io.flutter.view.TextureRegistry;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -145,8 +145,14 @@ public class PlatformViewsController implements PlatformViewsAccessibilityDelega
   private final HashSet<Integer> currentFrameUsedPlatformViewIds;
 
   // Used to acquire the original motion events using the motionEventIds.
+  //
+  // The tracker is scoped to the FlutterView this controller is attached to, and is cleared when
+  // the controller detaches from it.
   private final MotionEventTracker motionEventTracker;
 
+  // Pointer properties and coordinates used to recreate motion events sent by the framework.
+  private final PointerDataPool pointerDataPool = new PointerDataPool();
+
   // Whether software rendering is used.
   private boolean usesSoftwareRendering = false;
 
@@ -668,16 +674,23 @@ public class PlatformViewsController implements PlatformViewsAccessibilityDelega
   }
 
   @VisibleForTesting
+  @SuppressWarnings("deprecation")
   public MotionEvent toMotionEvent(
       float density, PlatformViewsChannel.PlatformViewTouch touch, boolean usingVirtualDiplay) {
-    MotionEventTracker.MotionEventId motionEventId =
-        MotionEventTracker.MotionEventId.from(touch.motionEventId);
-    MotionEvent trackedEvent = motionEventTracker.pop(motionEventId);
-
-    if (!usingVirtualDiplay && trackedEvent != null) {
-      // We have the original event, deliver it as it will pass the verifiable
-      // input check.
-      return trackedEvent;
+    MotionEvent trackedEvent = motionEventTracker.pop(touch.motionEventId);
+    if (trackedEvent == null && touch.motionEventId != 0) {
+      // The event may have been tracked by a touch processor that uses the process-wide tracker.
+      trackedEvent = MotionEventTracker.getInstance().pop(touch.motionEventId);
+    }
+
+    if (trackedEvent != null) {
+      if (!usingVirtualDiplay) {
+        // We have the original event, deliver it as it will pass the verifiable
+        // input check.
+        return trackedEvent;
+      }
+      // The copy made by the tracker won't be used.
+      trackedEvent.recycle();
     }
     // We are in virtual display mode or don't have a reference to the original MotionEvent.
     // In this case we manually recreate a MotionEvent to be delivered. This MotionEvent
@@ -687,12 +700,13 @@ public class PlatformViewsController implements PlatformViewsAccessibilityDelega
     // framework converts them to be local to a widget, given that
     // motion events operate on local coords, we need to replace these in the tracked
     // event with their local counterparts.
-    PointerProperties[] pointerProperties =
-        parsePointerPropertiesList(touch.rawPointerPropertiesList)
-            .toArray(new PointerProperties[touch.pointerCount]);
-    PointerCoords[] pointerCoords =
-        parsePointerCoordsList(touch.rawPointerCoords, density)
-            .toArray(new PointerCoords[touch.pointerCount]);
+    //
+    // MotionEvent.obtain copies the pointer data, so the arrays are reused across events.
+    pointerDataPool.ensureCapacity(touch.pointerCount);
+    PointerProperties[] pointerProperties = pointerDataPool.properties;
+    PointerCoords[] pointerCoords = pointerDataPool.coords;
+    parsePointerProperties(touch.rawPointerPropertiesList, touch.pointerCount, pointerProperties);
+    parsePointerCoords(touch.rawPointerCoords, density, touch.pointerCount, pointerCoords);
 
     // TODO (kaushikiska) : warn that we are potentially using an untracked
     // event in the platform views.
@@ -725,7 +739,12 @@ public class PlatformViewsController implements PlatformViewsAccessibilityDelega
     platformViews = new SparseArray<>();
     platformViewParent = new SparseArray<>();
 
-    motionEventTracker = MotionEventTracker.getInstance();
+    motionEventTracker = new MotionEventTracker();
+  }
+
+  @VisibleForTesting
+  /* package */ MotionEventTracker getMotionEventTracker() {
+    return motionEventTracker;
   }
 
   /**
@@ -835,6 +854,8 @@ public class PlatformViewsController implements PlatformViewsAccessibilityDelega
     removeOverlaySurfaces();
     flutterView = null;
     flutterViewConvertedToImageView = false;
+    // Events tracked for this view can no longer be dispatched to it.
+    motionEventTracker.clear();
 
     // Notify that the platform view have been detached from FlutterView.
     for (int index = 0; index < platformViews.size(); index++) {
@@ -984,39 +1005,41 @@ public class PlatformViewsController implements PlatformViewsAccessibilityDelega
     return direction == View.LAYOUT_DIRECTION_LTR || direction == View.LAYOUT_DIRECTION_RTL;
   }
 
-  @SuppressWarnings("unchecked")
-  private static List<PointerProperties> parsePointerPropertiesList(Object rawPropertiesList) {
-    List<Object> rawProperties = (List<Object>) rawPropertiesList;
-    List<PointerProperties> pointerProperties = new ArrayList<>();
-    for (Object o : rawProperties) {
-      pointerProperties.add(parsePointerProperties(o));
+  private static void parsePointerProperties(
+      @NonNull Object rawProperties,
+      int pointerCount,
+      @NonNull PointerProperties[] pointerProperties) {
+    @SuppressWarnings("unchecked")
+    final List<Object> rawPropertiesList = (List<Object>) rawProperties;
+    for (int i = 0; i < pointerCount; i++) {
+      parsePointerProperties(rawPropertiesList.get(i), pointerProperties[i]);
     }
-    return pointerProperties;
   }
 
   @SuppressWarnings("unchecked")
-  private static PointerProperties parsePointerProperties(Object rawProperties) {
+  private static void parsePointerProperties(
+      Object rawProperties, @NonNull PointerProperties properties) {
     List<Object> propertiesList = (List<Object>) rawProperties;
-    PointerProperties properties = new MotionEvent.PointerProperties();
     properties.id = (int) propertiesList.get(0);
     properties.toolType = (int) propertiesList.get(1);
-    return properties;
   }
 
-  @SuppressWarnings("unchecked")
-  private static List<PointerCoords> parsePointerCoordsList(Object rawCoordsList, float density) {
-    List<Object> rawCoords = (List<Object>) rawCoordsList;
-    List<PointerCoords> pointerCoords = new ArrayList<>();
-    for (Object o : rawCoords) {
-      pointerCoords.add(parsePointerCoords(o, density));
+  private static void parsePointerCoords(
+      @NonNull Object rawCoords,
+      float density,
+      int pointerCount,
+      @NonNull PointerCoords[] pointerCoords) {
+    @SuppressWarnings("unchecked")
+    final List<Object> rawCoordsList = (List<Object>) rawCoords;
+    for (int i = 0; i < pointerCount; i++) {
+      parsePointerCoords(rawCoordsList.get(i), density, pointerCoords[i]);
     }
-    return pointerCoords;
   }
 
   @SuppressWarnings("unchecked")
-  private static PointerCoords parsePointerCoords(Object rawCoords, float density) {
+  private static void parsePointerCoords(
+      Object rawCoords, float density, @NonNull PointerCoords coords) {
     List<Object> coordsList = (List<Object>) rawCoords;
-    PointerCoords coords = new MotionEvent.PointerCoords();
     coords.orientation = (float) (double) coordsList.get(0);
     coords.pressure = (float) (double) coordsList.get(1);
     coords.size = (float) (double) coordsList.get(2);
@@ -1026,7 +1049,30 @@ public class PlatformViewsController implements PlatformViewsAccessibilityDelega
     coords.touchMinor = (float) ((double) coordsList.get(6) * density);
     coords.x = (float) ((double) coordsList.get(7) * density);
     coords.y = (float) ((double) coordsList.get(8) * density);
-    return coords;
+  }
+
+  /**
+   * Pointer properties and coordinates that are reused to recreate motion events.
+   *
+   * <p>{@link MotionEvent#obtain} only reads the first {@code pointerCount} elements of the arrays
+   * it is given, so a single pair of arrays, grown to the largest pointer count seen, is enough.
+   */
+  private static final class PointerDataPool {
+    @NonNull PointerProperties[] properties = new PointerProperties[0];
+    @NonNull PointerCoords[] coords = new PointerCoords[0];
+
+    void ensureCapacity(int pointerCount) {
+      if (pointerCount <= properties.length) {
+        return;
+      }
+      final int previousCount = properties.length;
+      properties = Arrays.copyOf(properties, pointerCount);
+      coords = Arrays.copyOf(coords, pointerCount);
+      for (int i = previousCount; i < pointerCount; i++) {
+        properties[i] = new PointerProperties();
+        coords[i] = new PointerCoords();
+      }
+    }
   }
 
   private float getDisplayDensity() {
@@ -1125,7 +1171,7 @@ public class PlatformViewsController implements PlatformViewsAccessibilityDelega
   }
 
   public void attachToFlutterRenderer(@NonNull FlutterRenderer flutterRenderer) {
-    androidTouchProcessor = new AndroidTouchProcessor(flutterRenderer, /*trackMotionEvents=*/ true);
+    androidTouchProcessor = new AndroidTouchProcessor(flutterRenderer, motionEventTracker);
   }
 
   /**
@@ -4,12 +4,15 @@ import static io.flutter.Build.API_LEVELS;
 
 import android.annotation.TargetApi;
 import android.view.Surface;
+import androidx.annotation.Nullable;
 import io.flutter.view.TextureRegistry.SurfaceProducer;
 
 @TargetApi(API_LEVELS.API_29)
 public class SurfaceProducerPlatformViewRenderTarget implements PlatformViewRenderTarget {
   private static final String TAG = "SurfaceProducerRenderTarget";
   private SurfaceProducer producer;
+  @Nullable private Runnable onSurfaceDestroyedListener;
+  @Nullable private Runnable onSurfaceAvailableListener;
 
   public SurfaceProducerPlatformViewRenderTarget(SurfaceProducer producer) {
     this.producer = producer;
@@ -54,4 +57,39 @@ public class SurfaceProducerPlatformViewRenderTarget implements PlatformViewRend
   public void scheduleFrame() {
     this.producer.scheduleFrame();
   }
+
+  public void setOnSurfaceDestroyedListener(@Nullable Runnable listener) {
+    this.onSurfaceDestroyedListener = listener;
+    updateCallback();
+  }
+
+  public void setOnSurfaceAvailableListener(@Nullable Runnable listener) {
+    this.onSurfaceAvailableListener = listener;
+    updateCallback();
+  }
+
+  private void updateCallback() {
+    final Runnable onSurfaceDestroyed = this.onSurfaceDestroyedListener;
+    final Runnable onSurfaceAvailable = this.onSurfaceAvailableListener;
+    if (onSurfaceDestroyed == null && onSurfaceAvailable == null) {
+      this.producer.setCallback(null);
+      return;
+    }
+    this.producer.setCallback(
+        new SurfaceProducer.Callback() {
+          @Override
+          public void onSurfaceDestroyed() {
+            if (onSurfaceDestroyed != null) {
+              onSurfaceDestroyed.run();
+            }
+          }
+
+          @Override
+          public void onSurfaceAvailable() {
+            if (onSurfaceAvailable != null) {
+              onSurfaceAvailable.run();
+            }
+          }
+        });
+  }
 }
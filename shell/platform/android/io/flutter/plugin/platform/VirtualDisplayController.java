@@ -116,6 +116,11 @@ class VirtualDisplayController {
     this.viewId = viewId;
     this.virtualDisplay = virtualDisplay;
     this.densityDpi = context.getResources().getDisplayMetrics().densityDpi;
+    // The virtual display holds on to the surface. It is detached while released, and handed the
+    // recreated one once the engine draws the platform view again.
+    renderTarget.setOnSurfaceDestroyedListener(() -> this.virtualDisplay.setSurface(null));
+    renderTarget.setOnSurfaceAvailableListener(
+        () -> this.virtualDisplay.setSurface(renderTarget.getSurface()));
     presentation =
         new SingleViewPresentation(
             context,
@@ -228,6 +233,8 @@ class VirtualDisplayController {
     presentation.cancel();
     presentation.detachState();
     virtualDisplay.release();
+    renderTarget.setOnSurfaceDestroyedListener(null);
+    renderTarget.setOnSurfaceAvailableListener(null);
     renderTarget.release();
   }
 
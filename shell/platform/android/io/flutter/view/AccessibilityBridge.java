@@ -19,11 +19,14 @@ import android.opengl.Matrix;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.provider.Settings;
 import android.text.SpannableString;
 import android.text.TextUtils;
 import android.text.style.LocaleSpan;
 import android.text.style.TtsSpan;
+import android.util.SparseArray;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.WindowInsets;
@@ -37,6 +40,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.VisibleForTesting;
 import io.flutter.BuildConfig;
+import io.flutter.FlutterInjector;
 import io.flutter.Log;
 import io.flutter.embedding.engine.systemchannels.AccessibilityChannel;
 import io.flutter.plugin.platform.PlatformViewsAccessibilityDelegate;
@@ -44,8 +48,9 @@ import io.flutter.util.Predicate;
 import io.flutter.util.ViewUtils;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -88,6 +93,9 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
   private static final float SCROLL_EXTENT_FOR_INFINITY = 100000.0f;
   private static final float SCROLL_POSITION_CAP_FOR_INFINITY = 70000.0f;
   private static final int ROOT_NODE_ID = 0;
+
+  // The maximum number of locales for which string attribute spans are cached.
+  private static final int MAX_CACHED_LOCALES = 64;
   private static final int SCROLLABLE_ACTIONS =
       Action.SCROLL_RIGHT.value
           | Action.SCROLL_LEFT.value
@@ -152,7 +160,7 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
   // purposes.
   @NonNull private final ContentResolver contentResolver;
 
-  // The entire Flutter semantics tree of the running Flutter app, stored as a Map
+  // The entire Flutter semantics tree of the running Flutter app, stored as a SparseArray
   // from each SemanticsNode's ID to a Java representation of a Flutter SemanticsNode.
   //
   // Flutter's semantics tree is cached here because Android might ask for information about
@@ -164,7 +172,104 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
   //
   // See the Flutter docs on SemanticsNode:
   // https://api.flutter.dev/flutter/semantics/SemanticsNode-class.html
-  @NonNull private final Map<Integer, SemanticsNode> flutterSemanticsTree = new HashMap<>();
+  @NonNull private final SparseArray<SemanticsNode> flutterSemanticsTree = new SparseArray<>();
+
+  // The maximum number of removed SemanticsNodes that are kept for reuse.
+  private static final int MAX_RECYCLED_SEMANTICS_NODES = 4096;
+
+  // SemanticsNodes that were removed from flutterSemanticsTree, kept along with their child lists
+  // and matrices so that updates which add and remove many nodes don't churn the GC.
+  //
+  // Nodes are only recycled at the end of updateSemantics, once no event refers to them anymore.
+  @NonNull private final ArrayList<SemanticsNode> recycledSemanticsNodes = new ArrayList<>();
+
+  // The SemanticsNodes removed during the current call to updateSemantics.
+  @NonNull private final ArrayList<SemanticsNode> removedSemanticsNodes = new ArrayList<>();
+
+  // Incremented on every call to updateSemantics.
+  //
+  // The children listed by the nodes of an update are stamped with the generation of the update,
+  // which tells apart the children that are still attached to some node from the ones that were
+  // dropped by their parent.
+  private int semanticsGeneration = 0;
+
+  // The SemanticsNodes received in the current call to updateSemantics.
+  @NonNull private final ArrayList<SemanticsNode> updatedSemanticsNodes = new ArrayList<>();
+
+  // The children that the nodes of the current update dropped from their child lists.
+  //
+  // These children, and their descendants, are removed unless they are attached to another node
+  // during the same update.
+  @NonNull private final ArrayList<SemanticsNode> detachedSemanticsNodes = new ArrayList<>();
+
+  // The nodes that scope routes, in traversal order, as of the last call to updateSemantics.
+  @NonNull private final ArrayList<SemanticsNode> routeSemanticsNodes = new ArrayList<>();
+
+  // Whether child lists or route flags have changed since routeSemanticsNodes was collected.
+  private boolean routesDirty = true;
+
+  // The roots of the subtrees changed by the current update, for which a
+  // TYPE_WINDOW_CONTENT_CHANGED event is sent.
+  @NonNull private final ArrayList<SemanticsNode> changedSubtreeRoots = new ArrayList<>();
+
+  // The maximum number of content change events sent for one update. An update that changes more
+  // subtrees than this sends a single event for the root node instead.
+  private static final int MAX_SUBTREE_CONTENT_CHANGE_EVENTS = 16;
+
+  // Scratch buffers for the geometry computations of updateSemantics.
+  private final float[] rootTransform = new float[16];
+  private final float[] geometrySample = new float[4];
+  private final float[] geometryCorners = new float[16];
+
+  // The index used to hit test hover events without walking the semantics tree.
+  @NonNull private final SemanticsNodeGrid semanticsNodeGrid = new SemanticsNodeGrid();
+
+  // Scratch buffers for the points of SemanticsNode.hitTest, one per depth of the tree.
+  @NonNull private final ArrayList<float[]> hitTestPoints = new ArrayList<>();
+
+  // The executor that parses the semantics updates received from Flutter. Looked up when the first
+  // update is received.
+  @Nullable private Executor semanticsParsingExecutor;
+
+  @NonNull private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  // The sequence number of the next update received from Flutter, and of the next update to apply.
+  private int nextReceivedUpdate = 0;
+  private int nextAppliedUpdate = 0;
+
+  // The updates that are ready to be applied, by sequence number, and that wait for an earlier
+  // update to be parsed.
+  @NonNull private final SparseArray<Runnable> pendingUpdates = new SparseArray<>();
+
+  // The minimum interval between two applied semantics updates received from Flutter, or 0 if
+  // updates are applied as soon as they are parsed.
+  private long semanticsUpdateIntervalMs = 0;
+
+  // The updates received from Flutter that wait for the interval to elapse, merged by node id.
+  @NonNull
+  private final LinkedHashMap<Integer, SemanticsNodeUpdate> coalescedNodeUpdates =
+      new LinkedHashMap<>();
+
+  private long lastSemanticsUpdateTimeMs = 0;
+
+  private final Runnable flushCoalescedSemanticsUpdates = this::flushCoalescedSemanticsUpdates;
+
+  // The location of rootAccessibilityView on screen, and the drawing time and semantics generation
+  // for which it was looked up.
+  private final int[] locationOnScreen = new int[2];
+  private long locationOnScreenDrawingTime = 0;
+  private int locationOnScreenGeneration = -1;
+
+  // Spans shared by the text of all the nodes. A string can't hold the same span object twice, so
+  // the n-th span of a kind in a string is the n-th span of the corresponding list.
+  @NonNull private final ArrayList<TtsSpan> verbatimSpans = new ArrayList<>();
+  @NonNull private final HashMap<String, ArrayList<LocaleSpan>> localeSpans = new HashMap<>();
+
+  // Statistics of the caches used by createAccessibilityNodeInfo.
+  private long nodeInfoTextCacheHitCount = 0;
+  private long nodeInfoTextCacheMissCount = 0;
+  private long locationOnScreenCacheHitCount = 0;
+  private long locationOnScreenCacheMissCount = 0;
 
   // The set of all custom Flutter accessibility actions that are present in the running
   // Flutter app, stored as a Map from each action's ID to the definition of the custom
@@ -246,6 +351,32 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
     return hoveredObject.id;
   }
 
+  /**
+   * The number of {@link AccessibilityNodeInfo}s that were created with the cached text of their
+   * {@code SemanticsNode}.
+   */
+  public long getNodeInfoTextCacheHitCount() {
+    return nodeInfoTextCacheHitCount;
+  }
+
+  /**
+   * The number of {@link AccessibilityNodeInfo}s whose text had to be built because the text of
+   * their {@code SemanticsNode} was new or had changed.
+   */
+  public long getNodeInfoTextCacheMissCount() {
+    return nodeInfoTextCacheMissCount;
+  }
+
+  /** The number of times the location of the root view on screen was reused for a node. */
+  public long getLocationOnScreenCacheHitCount() {
+    return locationOnScreenCacheHitCount;
+  }
+
+  /** The number of times the location of the root view on screen was looked up. */
+  public long getLocationOnScreenCacheMissCount() {
+    return locationOnScreenCacheMissCount;
+  }
+
   // A Java/Android cached representation of the Flutter app's navigation stack. The Flutter
   // navigation stack is tracked so that accessibility announcements can be made during Flutter's
   // navigation changes.
@@ -296,25 +427,33 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
         /** The Dart application would like the given {@code message} to be announced. */
         @Override
         public void announce(@NonNull String message) {
-          rootAccessibilityView.announceForAccessibility(message);
+          enqueueAccessibilityMessage(
+              () -> {
+                // Announce against the latest state of the tree.
+                flushCoalescedSemanticsUpdates();
+                rootAccessibilityView.announceForAccessibility(message);
+              });
         }
 
         /** The user has tapped on the widget with the given {@code nodeId}. */
         @Override
         public void onTap(int nodeId) {
-          sendAccessibilityEvent(nodeId, AccessibilityEvent.TYPE_VIEW_CLICKED);
+          enqueueAccessibilityMessage(
+              () -> sendAccessibilityEvent(nodeId, AccessibilityEvent.TYPE_VIEW_CLICKED));
         }
 
         /** The user has long pressed on the widget with the given {@code nodeId}. */
         @Override
         public void onLongPress(int nodeId) {
-          sendAccessibilityEvent(nodeId, AccessibilityEvent.TYPE_VIEW_LONG_CLICKED);
+          enqueueAccessibilityMessage(
+              () -> sendAccessibilityEvent(nodeId, AccessibilityEvent.TYPE_VIEW_LONG_CLICKED));
         }
 
         /** The framework has requested focus on the given {@code nodeId}. */
         @Override
         public void onFocus(int nodeId) {
-          sendAccessibilityEvent(nodeId, AccessibilityEvent.TYPE_VIEW_FOCUSED);
+          enqueueAccessibilityMessage(
+              () -> sendAccessibilityEvent(nodeId, AccessibilityEvent.TYPE_VIEW_FOCUSED));
         }
 
         /** The user has opened a tooltip. */
@@ -329,17 +468,21 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
           if (Build.VERSION.SDK_INT >= API_LEVELS.API_28) {
             return;
           }
-          AccessibilityEvent e =
-              obtainAccessibilityEvent(ROOT_NODE_ID, AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED);
-          e.getText().add(message);
-          sendAccessibilityEvent(e);
+          enqueueAccessibilityMessage(
+              () -> {
+                AccessibilityEvent e =
+                    obtainAccessibilityEvent(
+                        ROOT_NODE_ID, AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED);
+                e.getText().add(message);
+                sendAccessibilityEvent(e);
+              });
         }
 
         /** New custom accessibility actions exist in Flutter. Update our Android-side cache. */
         @Override
         public void updateCustomAccessibilityActions(ByteBuffer buffer, String[] strings) {
           buffer.order(ByteOrder.LITTLE_ENDIAN);
-          AccessibilityBridge.this.updateCustomAccessibilityActions(buffer, strings);
+          enqueueCustomAccessibilityActionsUpdate(buffer, strings);
         }
 
         /** Flutter's semantics tree has changed. Update our Android-side cache. */
@@ -350,7 +493,7 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
           for (ByteBuffer args : stringAttributeArgs) {
             args.order(ByteOrder.LITTLE_ENDIAN);
           }
-          AccessibilityBridge.this.updateSemantics(buffer, strings, stringAttributeArgs);
+          enqueueSemanticsUpdate(buffer, strings, stringAttributeArgs);
         }
       };
 
@@ -503,6 +646,10 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
         touchExplorationStateChangeListener);
     contentResolver.unregisterContentObserver(animationScaleObserver);
     accessibilityChannel.setAccessibilityMessageHandler(null);
+    // Updates that are still being parsed are dropped by onUpdateReady.
+    pendingUpdates.clear();
+    coalescedNodeUpdates.clear();
+    mainHandler.removeCallbacks(flushCoalescedSemanticsUpdates);
   }
 
   /** Returns true if the Android OS currently has accessibility enabled, false otherwise. */
@@ -615,7 +762,7 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       rootAccessibilityView.onInitializeAccessibilityNodeInfo(result);
       // TODO(mattcarroll): what does it mean for the semantics tree to contain or not contain
       //                    the root node ID?
-      if (flutterSemanticsTree.containsKey(ROOT_NODE_ID)) {
+      if (flutterSemanticsTree.get(ROOT_NODE_ID) != null) {
         result.addChild(rootAccessibilityView, ROOT_NODE_ID);
       }
       if (Build.VERSION.SDK_INT >= API_LEVELS.API_24) {
@@ -652,6 +799,12 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
     AccessibilityNodeInfo result =
         obtainAccessibilityNodeInfo(rootAccessibilityView, virtualViewId);
 
+    if (semanticsNode.nodeInfoTextValid) {
+      nodeInfoTextCacheHitCount++;
+    } else {
+      nodeInfoTextCacheMissCount++;
+    }
+
     // Accessibility Scanner uses isImportantForAccessibility to decide whether to check
     // or skip this node.
     if (Build.VERSION.SDK_INT >= API_LEVELS.API_24) {
@@ -771,10 +924,7 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
 
     Rect bounds = semanticsNode.getGlobalRect();
     if (semanticsNode.parent != null) {
-      Rect parentBounds = semanticsNode.parent.getGlobalRect();
-      Rect boundsInParent = new Rect(bounds);
-      boundsInParent.offset(-parentBounds.left, -parentBounds.top);
-      result.setBoundsInParent(boundsInParent);
+      result.setBoundsInParent(semanticsNode.getBoundsInParent());
     } else {
       result.setBoundsInParent(bounds);
     }
@@ -988,13 +1138,26 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
   /**
    * Get the bounds in screen with root FlutterView's offset.
    *
+   * <p>The location of the root view is looked up once per frame, as identified by the drawing
+   * time of the view, and once per semantics update.
+   *
    * @param bounds the bounds in FlutterView
    * @return the bounds with offset
    */
   private Rect getBoundsInScreen(Rect bounds) {
     Rect boundsInScreen = new Rect(bounds);
-    int[] locationOnScreen = new int[2];
-    rootAccessibilityView.getLocationOnScreen(locationOnScreen);
+    final long drawingTime = rootAccessibilityView.getDrawingTime();
+    // The drawing time is 0 when the view is not attached, in which case nothing is cached.
+    if (drawingTime != 0
+        && drawingTime == locationOnScreenDrawingTime
+        && semanticsGeneration == locationOnScreenGeneration) {
+      locationOnScreenCacheHitCount++;
+    } else {
+      rootAccessibilityView.getLocationOnScreen(locationOnScreen);
+      locationOnScreenDrawingTime = drawingTime;
+      locationOnScreenGeneration = semanticsGeneration;
+      locationOnScreenCacheMissCount++;
+    }
     boundsInScreen.offset(locationOnScreen[0], locationOnScreen[1]);
     return boundsInScreen;
   }
@@ -1409,7 +1572,7 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
 
   /** Returns the {@link SemanticsNode} at the root of Flutter's semantics tree. */
   private SemanticsNode getRootSemanticsNode() {
-    if (BuildConfig.DEBUG && !flutterSemanticsTree.containsKey(0)) {
+    if (BuildConfig.DEBUG && flutterSemanticsTree.get(0) == null) {
       Log.e(TAG, "Attempted to getRootSemanticsNode without a root semantics node.");
     }
     return flutterSemanticsTree.get(0);
@@ -1428,13 +1591,23 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
   private SemanticsNode getOrCreateSemanticsNode(int id) {
     SemanticsNode semanticsNode = flutterSemanticsTree.get(id);
     if (semanticsNode == null) {
-      semanticsNode = new SemanticsNode(this);
+      final int recycledCount = recycledSemanticsNodes.size();
+      semanticsNode =
+          recycledCount > 0
+              ? recycledSemanticsNodes.remove(recycledCount - 1)
+              : new SemanticsNode(this);
       semanticsNode.id = id;
       flutterSemanticsTree.put(id, semanticsNode);
     }
     return semanticsNode;
   }
 
+  /** Returns the number of removed {@link SemanticsNode}s that are kept for reuse. */
+  @VisibleForTesting
+  int getRecycledSemanticsNodeCount() {
+    return recycledSemanticsNodes.size();
+  }
+
   /**
    * Returns an existing {@link CustomAccessibilityAction} with the given {@code id}, if it exists
    * within {@link #customAccessibilityActions}, or creates and returns a new {@link
@@ -1489,13 +1662,12 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
     if (!accessibilityManager.isTouchExplorationEnabled()) {
       return false;
     }
-    if (flutterSemanticsTree.isEmpty()) {
+    if (flutterSemanticsTree.size() == 0) {
       return false;
     }
 
     SemanticsNode semanticsNodeUnderCursor =
-        getRootSemanticsNode()
-            .hitTest(new float[] {event.getX(), event.getY(), 0, 1}, ignorePlatformViews);
+        hitTestSemanticsTree(event.getX(), event.getY(), ignorePlatformViews);
     // semanticsNodeUnderCursor can be null when hovering over non-flutter UI such as
     // the Android navigation bar due to hitTest() bounds checking.
     if (semanticsNodeUnderCursor != null && semanticsNodeUnderCursor.platformViewId != -1) {
@@ -1542,11 +1714,10 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
    * {@link AccessibilityEvent#TYPE_VIEW_HOVER_EXIT} event for the old hover node.
    */
   private void handleTouchExploration(float x, float y, boolean ignorePlatformViews) {
-    if (flutterSemanticsTree.isEmpty()) {
+    if (flutterSemanticsTree.size() == 0) {
       return;
     }
-    SemanticsNode semanticsNodeUnderCursor =
-        getRootSemanticsNode().hitTest(new float[] {x, y, 0, 1}, ignorePlatformViews);
+    SemanticsNode semanticsNodeUnderCursor = hitTestSemanticsTree(x, y, ignorePlatformViews);
     if (semanticsNodeUnderCursor != hoveredObject) {
       // sending ENTER before EXIT is how Android wants it
       if (semanticsNodeUnderCursor != null) {
@@ -1560,6 +1731,240 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
     }
   }
 
+  /**
+   * Returns the deepest focusable {@link SemanticsNode} at the given point, in the coordinate space
+   * of the root node, or null if there is none.
+   *
+   * <p>Uses {@link #semanticsNodeGrid} when it can answer the query, and walks the semantics tree
+   * otherwise.
+   */
+  @Nullable
+  private SemanticsNode hitTestSemanticsTree(float x, float y, boolean ignorePlatformViews) {
+    final SemanticsNode root = getRootSemanticsNode();
+    if (semanticsNodeGrid.canHitTest()) {
+      return semanticsNodeGrid.hitTest(root, x, y, ignorePlatformViews);
+    }
+    final float[] point = getHitTestPoint(0);
+    point[0] = x;
+    point[1] = y;
+    point[2] = 0;
+    point[3] = 1;
+    return root.hitTest(point, ignorePlatformViews, 0);
+  }
+
+  /** Returns the scratch buffer for the points hit tested at the given depth of the tree. */
+  @NonNull
+  private float[] getHitTestPoint(int depth) {
+    while (hitTestPoints.size() <= depth) {
+      hitTestPoints.add(new float[4]);
+    }
+    return hitTestPoints.get(depth);
+  }
+
+  @VisibleForTesting
+  boolean canHitTestWithSemanticsNodeGrid() {
+    return semanticsNodeGrid.canHitTest();
+  }
+
+  /** Returns the {@code index}-th shared span that spells its text out. */
+  @NonNull
+  private TtsSpan getVerbatimSpan(int index) {
+    while (verbatimSpans.size() <= index) {
+      verbatimSpans.add(new TtsSpan.Builder<>(TtsSpan.TYPE_VERBATIM).build());
+    }
+    return verbatimSpans.get(index);
+  }
+
+  /** Returns the {@code index}-th shared span for the locale with the given language tag. */
+  @NonNull
+  private LocaleSpan getLocaleSpan(@NonNull String languageTag, int index) {
+    ArrayList<LocaleSpan> spans = localeSpans.get(languageTag);
+    if (spans == null) {
+      if (localeSpans.size() >= MAX_CACHED_LOCALES) {
+        localeSpans.clear();
+      }
+      spans = new ArrayList<>();
+      localeSpans.put(languageTag, spans);
+    }
+    if (spans.size() <= index) {
+      // All the spans of a locale share the same Locale.
+      final Locale locale =
+          spans.isEmpty() ? Locale.forLanguageTag(languageTag) : spans.get(0).getLocale();
+      while (spans.size() <= index) {
+        spans.add(new LocaleSpan(locale));
+      }
+    }
+    return spans.get(index);
+  }
+
+  @VisibleForTesting
+  void setSemanticsParsingExecutor(@NonNull Executor executor) {
+    semanticsParsingExecutor = executor;
+  }
+
+  /**
+   * Parses a semantics update received from Flutter on {@link #semanticsParsingExecutor}, then
+   * applies it on the main thread with {@link #applySemanticsUpdate}.
+   *
+   * <p>The buffers are only valid for the duration of the call, so they are copied first. Updates
+   * are applied in the order in which they are received, along with the updates of the custom
+   * accessibility actions.
+   */
+  private void enqueueSemanticsUpdate(
+      @NonNull ByteBuffer buffer,
+      @NonNull String[] strings,
+      @NonNull ByteBuffer[] stringAttributeArgs) {
+    final ByteBuffer bufferCopy = copyBuffer(buffer);
+    final ByteBuffer[] stringAttributeArgsCopy = new ByteBuffer[stringAttributeArgs.length];
+    for (int i = 0; i < stringAttributeArgs.length; i++) {
+      stringAttributeArgsCopy[i] = copyBuffer(stringAttributeArgs[i]);
+    }
+    final int sequence = nextReceivedUpdate++;
+    if (semanticsParsingExecutor == null) {
+      semanticsParsingExecutor = FlutterInjector.instance().executorService();
+    }
+    semanticsParsingExecutor.execute(
+        () -> {
+          Runnable apply;
+          try {
+            final List<SemanticsNodeUpdate> nodeUpdates =
+                parseSemanticsUpdate(bufferCopy, strings, stringAttributeArgsCopy);
+            apply = () -> onSemanticsUpdateParsed(nodeUpdates);
+          } catch (RuntimeException e) {
+            // Report malformed updates on the main thread, where they used to be parsed.
+            apply =
+                () -> {
+                  throw e;
+                };
+          }
+          final Runnable parsedUpdate = apply;
+          mainHandler.post(() -> onUpdateReady(sequence, parsedUpdate));
+        });
+  }
+
+  /**
+   * Applies an update of the custom accessibility actions received from Flutter, after the
+   * semantics updates received before it.
+   */
+  private void enqueueCustomAccessibilityActionsUpdate(
+      @NonNull ByteBuffer buffer, @NonNull String[] strings) {
+    if (nextAppliedUpdate == nextReceivedUpdate) {
+      updateCustomAccessibilityActions(buffer, strings);
+      return;
+    }
+    final ByteBuffer bufferCopy = copyBuffer(buffer);
+    onUpdateReady(
+        nextReceivedUpdate++, () -> updateCustomAccessibilityActions(bufferCopy, strings));
+  }
+
+  /**
+   * Handles a message received from Flutter that refers to the semantics tree, such as an
+   * announcement or a focus request, after the semantics updates received before it.
+   */
+  private void enqueueAccessibilityMessage(@NonNull Runnable message) {
+    if (nextAppliedUpdate == nextReceivedUpdate) {
+      message.run();
+      return;
+    }
+    onUpdateReady(nextReceivedUpdate++, message);
+  }
+
+  /** Applies the update with the given sequence number, and the ones that were waiting for it. */
+  private void onUpdateReady(int sequence, @NonNull Runnable update) {
+    // Updates received before a reset are dropped.
+    if (isReleased || sequence < nextAppliedUpdate) {
+      return;
+    }
+    pendingUpdates.put(sequence, update);
+    Runnable next;
+    while ((next = pendingUpdates.get(nextAppliedUpdate)) != null) {
+      pendingUpdates.remove(nextAppliedUpdate);
+      nextAppliedUpdate++;
+      next.run();
+    }
+  }
+
+  /**
+   * Sets the minimum interval between two applications of the semantics updates received from
+   * Flutter.
+   *
+   * <p>Updates received within the interval are merged, keeping the latest configuration of each
+   * node, and applied once the interval has elapsed. This bounds the rate of the accessibility
+   * events sent during animations. Updates that move the input focus, change a live region or
+   * change a route are applied right away, along with the updates merged before them.
+   *
+   * @param intervalMs The interval, in milliseconds, or 0 to apply every update as soon as it is
+   *     received, which is the default.
+   */
+  public void setSemanticsUpdateInterval(long intervalMs) {
+    semanticsUpdateIntervalMs = intervalMs;
+    if (intervalMs <= 0) {
+      flushCoalescedSemanticsUpdates();
+    }
+  }
+
+  /** Applies a parsed semantics update received from Flutter, or merges it with the next one. */
+  private void onSemanticsUpdateParsed(@NonNull List<SemanticsNodeUpdate> nodeUpdates) {
+    if (semanticsUpdateIntervalMs <= 0 && coalescedNodeUpdates.isEmpty()) {
+      applySemanticsUpdate(nodeUpdates);
+      lastSemanticsUpdateTimeMs = SystemClock.uptimeMillis();
+      return;
+    }
+    boolean deliverPromptly = false;
+    for (int i = 0; i < nodeUpdates.size(); i++) {
+      final SemanticsNodeUpdate nodeUpdate = nodeUpdates.get(i);
+      deliverPromptly |= requiresPromptDelivery(nodeUpdate);
+      // Replacing a value keeps the original position of its key.
+      coalescedNodeUpdates.put(nodeUpdate.id, nodeUpdate);
+    }
+    final long nextUpdateTimeMs = lastSemanticsUpdateTimeMs + semanticsUpdateIntervalMs;
+    if (deliverPromptly || SystemClock.uptimeMillis() >= nextUpdateTimeMs) {
+      flushCoalescedSemanticsUpdates();
+    } else {
+      mainHandler.removeCallbacks(flushCoalescedSemanticsUpdates);
+      mainHandler.postAtTime(flushCoalescedSemanticsUpdates, nextUpdateTimeMs);
+    }
+  }
+
+  /**
+   * Whether applying {@code nodeUpdate} leads to an event that must not wait for the update
+   * interval: a change of input focus, of a live region, or of the routes.
+   */
+  private boolean requiresPromptDelivery(@NonNull SemanticsNodeUpdate nodeUpdate) {
+    final int promptFlags =
+        Flag.IS_FOCUSED.value | Flag.SCOPES_ROUTE.value | Flag.NAMES_ROUTE.value;
+    final SemanticsNode node = flutterSemanticsTree.get(nodeUpdate.id);
+    if (node == null) {
+      return (nodeUpdate.flags & (promptFlags | Flag.IS_LIVE_REGION.value)) != 0;
+    }
+    if (((node.flags ^ nodeUpdate.flags) & promptFlags) != 0) {
+      return true;
+    }
+    return (nodeUpdate.flags & Flag.IS_LIVE_REGION.value) != 0
+        && (!TextUtils.equals(node.label, nodeUpdate.label)
+            || !TextUtils.equals(node.value, nodeUpdate.value));
+  }
+
+  /** Applies the semantics updates merged by {@link #onSemanticsUpdateParsed}, if any. */
+  private void flushCoalescedSemanticsUpdates() {
+    mainHandler.removeCallbacks(flushCoalescedSemanticsUpdates);
+    if (coalescedNodeUpdates.isEmpty()) {
+      return;
+    }
+    final List<SemanticsNodeUpdate> nodeUpdates = new ArrayList<>(coalescedNodeUpdates.values());
+    coalescedNodeUpdates.clear();
+    applySemanticsUpdate(nodeUpdates);
+    lastSemanticsUpdateTimeMs = SystemClock.uptimeMillis();
+  }
+
+  @NonNull
+  private static ByteBuffer copyBuffer(@NonNull ByteBuffer buffer) {
+    final ByteBuffer copy = ByteBuffer.allocate(buffer.remaining()).order(buffer.order());
+    copy.put(buffer.duplicate());
+    copy.flip();
+    return copy;
+  }
+
   /**
    * Updates the Android cache of Flutter's currently registered custom accessibility actions.
    *
@@ -1592,11 +1997,37 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       @NonNull ByteBuffer buffer,
       @NonNull String[] strings,
       @NonNull ByteBuffer[] stringAttributeArgs) {
-    ArrayList<SemanticsNode> updated = new ArrayList<>();
+    applySemanticsUpdate(parseSemanticsUpdate(buffer, strings, stringAttributeArgs));
+  }
+
+  /**
+   * Decodes the semantics update encoded in the given {@code buffer}.
+   *
+   * <p>This doesn't access the state of the bridge, so it can be called from any thread.
+   */
+  @NonNull
+  private static List<SemanticsNodeUpdate> parseSemanticsUpdate(
+      @NonNull ByteBuffer buffer,
+      @NonNull String[] strings,
+      @NonNull ByteBuffer[] stringAttributeArgs) {
+    final List<SemanticsNodeUpdate> nodeUpdates = new ArrayList<>();
     while (buffer.hasRemaining()) {
-      int id = buffer.getInt();
-      SemanticsNode semanticsNode = getOrCreateSemanticsNode(id);
-      semanticsNode.updateWith(buffer, strings, stringAttributeArgs);
+      nodeUpdates.add(SemanticsNodeUpdate.read(buffer, strings, stringAttributeArgs));
+    }
+    return nodeUpdates;
+  }
+
+  /** Updates {@link #flutterSemanticsTree} with the given decoded semantics update. */
+  private void applySemanticsUpdate(@NonNull List<SemanticsNodeUpdate> nodeUpdates) {
+    semanticsGeneration++;
+    ArrayList<SemanticsNode> updated = new ArrayList<>();
+    for (int i = 0; i < nodeUpdates.size(); i++) {
+      final SemanticsNodeUpdate nodeUpdate = nodeUpdates.get(i);
+      SemanticsNode semanticsNode = getOrCreateSemanticsNode(nodeUpdate.id);
+      if (semanticsNode.updateWith(nodeUpdate, semanticsGeneration)) {
+        routesDirty = true;
+      }
+      updatedSemanticsNodes.add(semanticsNode);
       if (semanticsNode.hasFlag(Flag.IS_HIDDEN)) {
         continue;
       }
@@ -1616,11 +2047,15 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       }
     }
 
-    Set<SemanticsNode> visitedObjects = new HashSet<>();
+    // Parents are only known once the whole update is parsed.
+    for (int i = 0; i < updatedSemanticsNodes.size(); i++) {
+      updatedSemanticsNodes.get(i).markSubtreeDirty();
+    }
+
     SemanticsNode rootObject = getRootSemanticsNode();
-    List<SemanticsNode> newRoutes = new ArrayList<>();
+    List<SemanticsNode> newRoutes = routeSemanticsNodes;
     if (rootObject != null) {
-      final float[] identity = new float[16];
+      final float[] identity = rootTransform;
       Matrix.setIdentityM(identity, 0);
       // In Android devices API 23 and above, the system nav bar can be placed on the left side
       // of the screen in landscape mode. We must handle the translation ourselves for the
@@ -1641,14 +2076,23 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
             if (!lastLeftFrameInset.equals(insets.getSystemWindowInsetLeft())) {
               rootObject.globalGeometryDirty = true;
               rootObject.inverseTransformDirty = true;
+              rootObject.updateGeneration = semanticsGeneration;
+              updatedSemanticsNodes.add(rootObject);
             }
             lastLeftFrameInset = insets.getSystemWindowInsetLeft();
             Matrix.translateM(identity, 0, lastLeftFrameInset, 0, 0);
           }
         }
       }
-      rootObject.updateRecursively(identity, visitedObjects, false);
-      rootObject.collectRoutes(newRoutes);
+      rootObject.updateRecursively(identity, false);
+      if (routesDirty) {
+        newRoutes.clear();
+        rootObject.collectRoutes(newRoutes);
+        routesDirty = false;
+      }
+    } else {
+      newRoutes.clear();
+      routesDirty = true;
     }
 
     // Dispatch a TYPE_WINDOW_STATE_CHANGED event if the most recent route id changed from the
@@ -1684,19 +2128,37 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       flutterNavigationStack.add(semanticsNode.id);
     }
 
-    Iterator<Map.Entry<Integer, SemanticsNode>> it = flutterSemanticsTree.entrySet().iterator();
-    while (it.hasNext()) {
-      Map.Entry<Integer, SemanticsNode> entry = it.next();
-      SemanticsNode object = entry.getValue();
-      if (!visitedObjects.contains(object)) {
-        willRemoveSemanticsNode(object);
-        it.remove();
+    // Remove the nodes that are no longer attached to the tree. Only the children dropped by the
+    // nodes of this update, and the nodes of this update that have no parent, can be detached.
+    for (int i = 0; i < updatedSemanticsNodes.size(); i++) {
+      final SemanticsNode object = updatedSemanticsNodes.get(i);
+      if (object.id != ROOT_NODE_ID && object.parent == null) {
+        removeSemanticsSubtree(object);
+      }
+    }
+    for (int i = 0; i < detachedSemanticsNodes.size(); i++) {
+      final SemanticsNode object = detachedSemanticsNodes.get(i);
+      if (object.attachGeneration != semanticsGeneration) {
+        removeSemanticsSubtree(object);
+      }
+    }
+    collectChangedSubtreeRoots();
+    updatedSemanticsNodes.clear();
+    detachedSemanticsNodes.clear();
+
+    // The framework sends at most one semantics update per frame, so this sends at most
+    // MAX_SUBTREE_CONTENT_CHANGE_EVENTS events per frame.
+    if (changedSubtreeRoots.size() > MAX_SUBTREE_CONTENT_CHANGE_EVENTS) {
+      sendWindowContentChangeEvent(ROOT_NODE_ID);
+      // The event of the root doesn't come from the live regions, which still need their own.
+      for (int i = 0; i < changedSubtreeRoots.size(); i++) {
+        changedSubtreeRoots.get(i).contentChangeGeneration = 0;
+      }
+    } else {
+      for (int i = 0; i < changedSubtreeRoots.size(); i++) {
+        sendWindowContentChangeEvent(changedSubtreeRoots.get(i).id);
       }
     }
-
-    // TODO(goderbauer): Send this event only once (!) for changed subtrees,
-    //     see https://github.com/flutter/flutter/issues/14534
-    sendWindowContentChangeEvent(0);
 
     for (SemanticsNode object : updated) {
       if (object.didScroll()) {
@@ -1763,7 +2225,11 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
         }
         sendAccessibilityEvent(event);
       }
-      if (object.hasFlag(Flag.IS_LIVE_REGION) && object.didChangeLabel()) {
+      if (object.hasFlag(Flag.IS_LIVE_REGION)
+          && object.didChangeLabel()
+          && object.contentChangeGeneration != semanticsGeneration) {
+        // The event is identical to the one of a changed subtree root, so it's only sent if this
+        // node isn't one of them.
         sendWindowContentChangeEvent(object.id);
       }
       if (accessibilityFocusedSemanticsNode != null
@@ -1822,6 +2288,80 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
         }
       }
     }
+
+    changedSubtreeRoots.clear();
+    recycleRemovedSemanticsNodes();
+  }
+
+  /**
+   * Collects in {@link #changedSubtreeRoots} the nodes of the current update that are still in the
+   * tree and have no ancestor in the current update.
+   *
+   * <p>Nodes removed by the update don't need an event of their own, since their former parent is
+   * part of the update.
+   */
+  private void collectChangedSubtreeRoots() {
+    changedSubtreeRoots.clear();
+    for (int i = 0; i < updatedSemanticsNodes.size(); i++) {
+      final SemanticsNode object = updatedSemanticsNodes.get(i);
+      if (object.contentChangeGeneration == semanticsGeneration
+          || flutterSemanticsTree.get(object.id) != object) {
+        continue;
+      }
+      boolean hasUpdatedAncestor = false;
+      for (SemanticsNode ancestor = object.parent; ancestor != null; ancestor = ancestor.parent) {
+        if (ancestor.updateGeneration == semanticsGeneration) {
+          hasUpdatedAncestor = true;
+          break;
+        }
+      }
+      if (!hasUpdatedAncestor) {
+        object.contentChangeGeneration = semanticsGeneration;
+        changedSubtreeRoots.add(object);
+      }
+    }
+  }
+
+  /**
+   * Removes the given {@link SemanticsNode} from {@link #flutterSemanticsTree}, along with the
+   * descendants that are not attached to another node.
+   */
+  private void removeSemanticsSubtree(@NonNull SemanticsNode subtreeRoot) {
+    if (flutterSemanticsTree.get(subtreeRoot.id) != subtreeRoot) {
+      // Already removed.
+      return;
+    }
+    final int start = removedSemanticsNodes.size();
+    willRemoveSemanticsNode(subtreeRoot);
+    flutterSemanticsTree.remove(subtreeRoot.id);
+    removedSemanticsNodes.add(subtreeRoot);
+    for (int i = start; i < removedSemanticsNodes.size(); i++) {
+      final SemanticsNode removed = removedSemanticsNodes.get(i);
+      for (int j = 0; j < removed.childrenInTraversalOrder.size(); j++) {
+        final SemanticsNode child = removed.childrenInTraversalOrder.get(j);
+        // A child whose parent is another node was attached elsewhere by this update.
+        if (child.parent == removed && flutterSemanticsTree.get(child.id) == child) {
+          willRemoveSemanticsNode(child);
+          flutterSemanticsTree.remove(child.id);
+          removedSemanticsNodes.add(child);
+        }
+      }
+    }
+  }
+
+  /** Makes the nodes removed by the last update available to {@link #getOrCreateSemanticsNode}. */
+  private void recycleRemovedSemanticsNodes() {
+    for (int i = 0; i < removedSemanticsNodes.size(); i++) {
+      final SemanticsNode node = removedSemanticsNodes.get(i);
+      // The last input-focused node is compared by id with later nodes, so it must keep its id.
+      if (node == lastInputFocusedSemanticsNode
+          || recycledSemanticsNodes.size() >= MAX_RECYCLED_SEMANTICS_NODES) {
+        continue;
+      }
+      node.recycle();
+      recycledSemanticsNodes.add(node);
+    }
+    removedSemanticsNodes.clear();
   }
 
   private AccessibilityEvent createTextChangedEvent(int id, String oldValue, String newValue) {
@@ -1995,7 +2535,7 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
    */
   private void willRemoveSemanticsNode(SemanticsNode semanticsNodeToBeRemoved) {
     if (BuildConfig.DEBUG) {
-      if (!flutterSemanticsTree.containsKey(semanticsNodeToBeRemoved.id)) {
+      if (flutterSemanticsTree.get(semanticsNodeToBeRemoved.id) == null) {
         Log.e(TAG, "Attempted to remove a node that is not in the tree.");
       }
       if (flutterSemanticsTree.get(semanticsNodeToBeRemoved.id) != semanticsNodeToBeRemoved) {
@@ -2007,6 +2547,7 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
     //                    for null'ing accessibilityFocusedSemanticsNode, inputFocusedSemanticsNode,
     //                    and hoveredObject.  Is this a hook method or a command?
     semanticsNodeToBeRemoved.parent = null;
+    semanticsNodeGrid.remove(semanticsNodeToBeRemoved);
 
     if (semanticsNodeToBeRemoved.platformViewId != -1
         && embeddedAccessibilityFocusedNodeId != null
@@ -2059,7 +2600,15 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
    */
   // TODO(mattcarroll): under what conditions is this method expected to be invoked?
   public void reset() {
+    // Drop the updates received so far, including the ones that are still being parsed.
+    nextAppliedUpdate = nextReceivedUpdate;
+    pendingUpdates.clear();
+    coalescedNodeUpdates.clear();
+    mainHandler.removeCallbacks(flushCoalescedSemanticsUpdates);
     flutterSemanticsTree.clear();
+    semanticsNodeGrid.clear();
+    routeSemanticsNodes.clear();
+    routesDirty = true;
     if (accessibilityFocusedSemanticsNode != null) {
       sendAccessibilityEvent(
           accessibilityFocusedSemanticsNode.id,
@@ -2248,12 +2797,526 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
     int start;
     int end;
     StringAttributeType type;
+
+    /** Whether this attribute applies the same span to the same range as {@code other}. */
+    boolean isEquivalentTo(@NonNull StringAttribute other) {
+      return start == other.start && end == other.end && type == other.type;
+    }
+
+    static boolean areEquivalent(
+        @Nullable List<StringAttribute> attributes, @Nullable List<StringAttribute> others) {
+      if (attributes == others) {
+        return true;
+      }
+      if (attributes == null || others == null || attributes.size() != others.size()) {
+        return false;
+      }
+      for (int i = 0; i < attributes.size(); i++) {
+        if (!attributes.get(i).isEquivalentTo(others.get(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
   }
 
   private static class SpellOutStringAttribute extends StringAttribute {}
 
   private static class LocaleStringAttribute extends StringAttribute {
     String locale;
+
+    @Override
+    boolean isEquivalentTo(@NonNull StringAttribute other) {
+      return super.isEquivalentTo(other)
+          && TextUtils.equals(locale, ((LocaleStringAttribute) other).locale);
+    }
+  }
+
+  /**
+   * The configuration of a {@link SemanticsNode}, as decoded from a semantics update.
+   *
+   * <p>Instances are created by {@link #parseSemanticsUpdate}, possibly off the main thread, and
+   * are not modified afterwards.
+   */
+  private static final class SemanticsNodeUpdate {
+    int id;
+    int flags;
+    int actions;
+    int maxValueLength;
+    int currentValueLength;
+    int textSelectionBase;
+    int textSelectionExtent;
+    int platformViewId;
+    int scrollChildren;
+    int scrollIndex;
+    float scrollPosition;
+    float scrollExtentMax;
+    float scrollExtentMin;
+    String identifier;
+    String label;
+    List<StringAttribute> labelAttributes;
+    String value;
+    List<StringAttribute> valueAttributes;
+    String increasedValue;
+    List<StringAttribute> increasedValueAttributes;
+    String decreasedValue;
+    List<StringAttribute> decreasedValueAttributes;
+    String hint;
+    List<StringAttribute> hintAttributes;
+    String tooltip;
+    TextDirection textDirection;
+    float left;
+    float top;
+    float right;
+    float bottom;
+    // The 16 floats of the transform are read from this buffer at transformPosition when the
+    // update is applied, so that they are copied once, into the matrix of the node.
+    ByteBuffer transformBuffer;
+    int transformPosition;
+    int[] childrenInTraversalOrder;
+    int[] childrenInHitTestOrder;
+    int[] customAccessibilityActions;
+
+    /**
+     * Reads the configuration of the next node from the buffer.
+     *
+     * <p>The decode logic must be kept in sync with the encoding logic of
+     * PlatformViewAndroid::UpdateSemantics.
+     */
+    @NonNull
+    static SemanticsNodeUpdate read(
+        @NonNull ByteBuffer buffer,
+        @NonNull String[] strings,
+        @NonNull ByteBuffer[] stringAttributeArgs) {
+      final SemanticsNodeUpdate update = new SemanticsNodeUpdate();
+      update.id = buffer.getInt();
+      update.flags = buffer.getInt();
+      update.actions = buffer.getInt();
+      update.maxValueLength = buffer.getInt();
+      update.currentValueLength = buffer.getInt();
+      update.textSelectionBase = buffer.getInt();
+      update.textSelectionExtent = buffer.getInt();
+      update.platformViewId = buffer.getInt();
+      update.scrollChildren = buffer.getInt();
+      update.scrollIndex = buffer.getInt();
+      update.scrollPosition = buffer.getFloat();
+      update.scrollExtentMax = buffer.getFloat();
+      update.scrollExtentMin = buffer.getFloat();
+
+      update.identifier = getString(buffer, strings);
+      update.label = getString(buffer, strings);
+      update.labelAttributes = getStringAttributes(buffer, stringAttributeArgs);
+      update.value = getString(buffer, strings);
+      update.valueAttributes = getStringAttributes(buffer, stringAttributeArgs);
+      update.increasedValue = getString(buffer, strings);
+      update.increasedValueAttributes = getStringAttributes(buffer, stringAttributeArgs);
+      update.decreasedValue = getString(buffer, strings);
+      update.decreasedValueAttributes = getStringAttributes(buffer, stringAttributeArgs);
+      update.hint = getString(buffer, strings);
+      update.hintAttributes = getStringAttributes(buffer, stringAttributeArgs);
+      update.tooltip = getString(buffer, strings);
+      update.textDirection = TextDirection.fromInt(buffer.getInt());
+
+      update.left = buffer.getFloat();
+      update.top = buffer.getFloat();
+      update.right = buffer.getFloat();
+      update.bottom = buffer.getFloat();
+
+      update.transformBuffer = buffer;
+      update.transformPosition = buffer.position();
+      buffer.position(update.transformPosition + 16 * 4);
+
+      final int childCount = buffer.getInt();
+      update.childrenInTraversalOrder = getInts(buffer, childCount);
+      update.childrenInHitTestOrder = getInts(buffer, childCount);
+      update.customAccessibilityActions = getInts(buffer, buffer.getInt());
+      return update;
+    }
+
+    @Nullable
+    private static String getString(@NonNull ByteBuffer buffer, @NonNull String[] strings) {
+      final int stringIndex = buffer.getInt();
+      return stringIndex == -1 ? null : strings[stringIndex];
+    }
+
+    @NonNull
+    private static int[] getInts(@NonNull ByteBuffer buffer, int count) {
+      final int[] result = new int[count];
+      for (int i = 0; i < count; ++i) {
+        result[i] = buffer.getInt();
+      }
+      return result;
+    }
+
+    @Nullable
+    private static List<StringAttribute> getStringAttributes(
+        @NonNull ByteBuffer buffer, @NonNull ByteBuffer[] stringAttributeArgs) {
+      final int attributesCount = buffer.getInt();
+      if (attributesCount == -1) {
+        return null;
+      }
+      final List<StringAttribute> result = new ArrayList<>(attributesCount);
+      for (int i = 0; i < attributesCount; ++i) {
+        final int start = buffer.getInt();
+        final int end = buffer.getInt();
+        final StringAttributeType type = StringAttributeType.values()[buffer.getInt()];
+        switch (type) {
+          case SPELLOUT:
+            {
+              // Pops the -1 size.
+              buffer.getInt();
+              SpellOutStringAttribute attribute = new SpellOutStringAttribute();
+              attribute.start = start;
+              attribute.end = end;
+              attribute.type = type;
+              result.add(attribute);
+              break;
+            }
+          case LOCALE:
+            {
+              final int argsIndex = buffer.getInt();
+              final ByteBuffer args = stringAttributeArgs[argsIndex];
+              LocaleStringAttribute attribute = new LocaleStringAttribute();
+              attribute.start = start;
+              attribute.end = end;
+              attribute.type = type;
+              attribute.locale = StandardCharsets.UTF_8.decode(args).toString();
+              result.add(attribute);
+              break;
+            }
+          default:
+            break;
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * A uniform grid over the bounds of the {@link SemanticsNode}s, used to hit test hover events
+   * without walking the semantics tree.
+   *
+   * <p>Bounds are kept in the coordinate space of the root node, in which hover events are hit
+   * tested. They are updated whenever {@link SemanticsNode#updateRecursively} recomputes the global
+   * geometry of a node. The grid can only answer queries while every node has a transform
+   * that maps rects to rects, i.e. a combination of scales and translations; otherwise {@link
+   * #canHitTest()} returns false and the semantics tree has to be walked instead.
+   */
+  private static final class SemanticsNodeGrid {
+    static final int NODE_NOT_INDEXED = 0;
+    static final int NODE_IN_CELLS = 1;
+    static final int NODE_OVERSIZED = 2;
+    static final int NODE_NOT_AXIS_ALIGNED = 3;
+
+    // The smallest width and height of a cell, in pixels.
+    private static final float MIN_CELL_SIZE = 128;
+    // The largest number of columns, and of rows.
+    private static final int MAX_CELLS_PER_AXIS = 32;
+    // Nodes that span more cells than this are listed in oversizedNodes instead.
+    private static final int MAX_CELLS_PER_NODE = 16;
+
+    @NonNull private final ArrayList<ArrayList<SemanticsNode>> cells = new ArrayList<>();
+    @NonNull private final ArrayList<SemanticsNode> oversizedNodes = new ArrayList<>();
+    private float left;
+    private float top;
+    private float right;
+    private float bottom;
+    private float cellWidth;
+    private float cellHeight;
+    private int columns;
+    private int rows;
+
+    // The inverse of the global transform of the root node, unless it is the identity.
+    private final float[] rootInverse = new float[16];
+    private boolean rootIsIdentity = true;
+    private final float[] corner = new float[4];
+    private final float[] transformedCorner = new float[4];
+
+    // The number of nodes whose global transform does not map rects to rects.
+    private int notAxisAlignedNodeCount;
+
+    /** Whether {@link #hitTest} gives the same result as {@link SemanticsNode#hitTest}. */
+    boolean canHitTest() {
+      return columns > 0 && notAxisAlignedNodeCount == 0;
+    }
+
+    /**
+     * Called when the global geometry of the root node is updated, before the geometry of the other
+     * nodes.
+     */
+    void setRoot(@NonNull SemanticsNode root) {
+      rootIsIdentity = isIdentity(root.globalTransform);
+      if (!rootIsIdentity && !Matrix.invertM(rootInverse, 0, root.globalTransform, 0)) {
+        Arrays.fill(rootInverse, 0);
+      }
+      if (columns > 0
+          && root.left == left
+          && root.top == top
+          && root.right == right
+          && root.bottom == bottom) {
+        return;
+      }
+      // The cells change, so all the nodes have to be indexed again. This happens anyway, since the
+      // geometry of the whole tree is recomputed when the geometry of the root changes.
+      clearCells();
+      left = root.left;
+      top = root.top;
+      right = root.right;
+      bottom = root.bottom;
+      final float width = right - left;
+      final float height = bottom - top;
+      if (!(width > 0 && height > 0) || Float.isInfinite(width) || Float.isInfinite(height)) {
+        columns = 0;
+        rows = 0;
+        return;
+      }
+      columns = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, (int) Math.ceil(width / MIN_CELL_SIZE)));
+      rows = Math.max(1, Math.min(MAX_CELLS_PER_AXIS, (int) Math.ceil(height / MIN_CELL_SIZE)));
+      cellWidth = width / columns;
+      cellHeight = height / rows;
+      for (int i = cells.size(); i < columns * rows; i++) {
+        cells.add(new ArrayList<>());
+      }
+    }
+
+    /**
+     * Called when the global geometry of {@code node} is updated.
+     *
+     * @param corners The four corners of the node in global coordinates, at offsets 0, 4, 8 and 12.
+     */
+    void update(@NonNull SemanticsNode node, @NonNull float[] corners) {
+      remove(node);
+      if (!isAxisAligned(node.globalTransform)) {
+        node.gridState = NODE_NOT_AXIS_ALIGNED;
+        notAxisAlignedNodeCount++;
+        return;
+      }
+      if (node.id == ROOT_NODE_ID) {
+        // The root node is hit tested in its own coordinate space.
+        node.hitLeft = node.left;
+        node.hitTop = node.top;
+        node.hitRight = node.right;
+        node.hitBottom = node.bottom;
+      } else if (rootIsIdentity) {
+        node.hitLeft = Math.min(corners[0], corners[8]);
+        node.hitTop = Math.min(corners[1], corners[9]);
+        node.hitRight = Math.max(corners[0], corners[8]);
+        node.hitBottom = Math.max(corners[1], corners[9]);
+      } else {
+        // Opposite corners are enough to describe an axis-aligned rect.
+        transformCorner(corners, 0);
+        final float x0 = transformedCorner[0];
+        final float y0 = transformedCorner[1];
+        transformCorner(corners, 8);
+        node.hitLeft = Math.min(x0, transformedCorner[0]);
+        node.hitTop = Math.min(y0, transformedCorner[1]);
+        node.hitRight = Math.max(x0, transformedCorner[0]);
+        node.hitBottom = Math.max(y0, transformedCorner[1]);
+      }
+      if (!(node.hitLeft < node.hitRight && node.hitTop < node.hitBottom)
+          || node.hitRight <= left
+          || node.hitLeft >= right
+          || node.hitBottom <= top
+          || node.hitTop >= bottom
+          || columns == 0) {
+        // The node is empty or outside of the root node, so it can't be hit.
+        return;
+      }
+      node.gridMinColumn = columnOf(node.hitLeft);
+      node.gridMaxColumn = columnOf(node.hitRight);
+      node.gridMinRow = rowOf(node.hitTop);
+      node.gridMaxRow = rowOf(node.hitBottom);
+      final int cellCount =
+          (node.gridMaxColumn - node.gridMinColumn + 1) * (node.gridMaxRow - node.gridMinRow + 1);
+      if (cellCount > MAX_CELLS_PER_NODE) {
+        node.gridState = NODE_OVERSIZED;
+        oversizedNodes.add(node);
+        return;
+      }
+      node.gridState = NODE_IN_CELLS;
+      for (int row = node.gridMinRow; row <= node.gridMaxRow; row++) {
+        for (int column = node.gridMinColumn; column <= node.gridMaxColumn; column++) {
+          cells.get(row * columns + column).add(node);
+        }
+      }
+    }
+
+    /** Called when {@code node} is removed from the semantics tree. */
+    void remove(@NonNull SemanticsNode node) {
+      switch (node.gridState) {
+        case NODE_IN_CELLS:
+          for (int row = node.gridMinRow; row <= node.gridMaxRow; row++) {
+            for (int column = node.gridMinColumn; column <= node.gridMaxColumn; column++) {
+              cells.get(row * columns + column).remove(node);
+            }
+          }
+          break;
+        case NODE_OVERSIZED:
+          oversizedNodes.remove(node);
+          break;
+        case NODE_NOT_AXIS_ALIGNED:
+          notAxisAlignedNodeCount--;
+          break;
+        default:
+          break;
+      }
+      node.gridState = NODE_NOT_INDEXED;
+    }
+
+    /** Called when the whole semantics tree is dropped. */
+    void clear() {
+      clearCells();
+      notAxisAlignedNodeCount = 0;
+      columns = 0;
+      rows = 0;
+    }
+
+    /**
+     * Returns the node that {@link SemanticsNode#hitTest} would return for the given point when
+     * called on {@code root}.
+     *
+     * <p>The candidates are the nodes listed in the cell that contains the point. A candidate can
+     * only be hit if it and its ancestors contain the point and none of them is hidden. Among
+     * those, the tree walk returns the first one in post-order, with children visited in hit test
+     * order.
+     */
+    @Nullable
+    SemanticsNode hitTest(
+        @NonNull SemanticsNode root, float x, float y, boolean stopAtPlatformView) {
+      if (!contains(root, x, y)) {
+        return null;
+      }
+      final ArrayList<SemanticsNode> cell = cells.get(rowOf(y) * columns + columnOf(x));
+      final SemanticsNode result = findFirstHit(cell, null, root, x, y, stopAtPlatformView);
+      return findFirstHit(oversizedNodes, result, root, x, y, stopAtPlatformView);
+    }
+
+    private static SemanticsNode findFirstHit(
+        @NonNull ArrayList<SemanticsNode> candidates,
+        @Nullable SemanticsNode result,
+        @NonNull SemanticsNode root,
+        float x,
+        float y,
+        boolean stopAtPlatformView) {
+      for (int i = 0; i < candidates.size(); i++) {
+        final SemanticsNode candidate = candidates.get(i);
+        if (result != null && !precedesInHitTestOrder(candidate, result)) {
+          continue;
+        }
+        final boolean foundPlatformView = stopAtPlatformView && candidate.platformViewId != -1;
+        if (!candidate.isFocusable() && !foundPlatformView) {
+          continue;
+        }
+        if (isHit(candidate, root, x, y)) {
+          result = candidate;
+        }
+      }
+      return result;
+    }
+
+    private static boolean isHit(
+        @NonNull SemanticsNode node, @NonNull SemanticsNode root, float x, float y) {
+      for (; node != root; node = node.parent) {
+        // Nodes that are not attached to the root can't be hit.
+        if (node == null || node.hasFlag(Flag.IS_HIDDEN) || !contains(node, x, y)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean contains(@NonNull SemanticsNode node, float x, float y) {
+      return x >= node.hitLeft && x < node.hitRight && y >= node.hitTop && y < node.hitBottom;
+    }
+
+    /** Whether the tree walk of {@link SemanticsNode#hitTest} visits {@code a} before {@code b}. */
+    private static boolean precedesInHitTestOrder(
+        @NonNull SemanticsNode a, @NonNull SemanticsNode b) {
+      int depthA = depthOf(a);
+      int depthB = depthOf(b);
+      SemanticsNode previousA = null;
+      while (depthA > depthB) {
+        previousA = a;
+        a = a.parent;
+        depthA--;
+      }
+      while (depthB > depthA) {
+        b = b.parent;
+        depthB--;
+      }
+      if (a == b) {
+        // One node is an ancestor of the other, and descendants are visited first.
+        return previousA != null;
+      }
+      while (a.parent != b.parent) {
+        a = a.parent;
+        b = b.parent;
+      }
+      return a.hitTestIndex < b.hitTestIndex;
+    }
+
+    private static int depthOf(@NonNull SemanticsNode node) {
+      int depth = 0;
+      for (SemanticsNode ancestor = node.parent; ancestor != null; ancestor = ancestor.parent) {
+        depth++;
+      }
+      return depth;
+    }
+
+    private int columnOf(float x) {
+      return Math.max(0, Math.min(columns - 1, (int) ((x - left) / cellWidth)));
+    }
+
+    private int rowOf(float y) {
+      return Math.max(0, Math.min(rows - 1, (int) ((y - top) / cellHeight)));
+    }
+
+    private void transformCorner(@NonNull float[] corners, int offset) {
+      corner[0] = corners[offset];
+      corner[1] = corners[offset + 1];
+      corner[2] = 0;
+      corner[3] = 1;
+      Matrix.multiplyMV(transformedCorner, 0, rootInverse, 0, corner, 0);
+    }
+
+    private void clearCells() {
+      for (int i = 0; i < cells.size(); i++) {
+        final ArrayList<SemanticsNode> cell = cells.get(i);
+        for (int j = 0; j < cell.size(); j++) {
+          cell.get(j).gridState = NODE_NOT_INDEXED;
+        }
+        cell.clear();
+      }
+      for (int i = 0; i < oversizedNodes.size(); i++) {
+        oversizedNodes.get(i).gridState = NODE_NOT_INDEXED;
+      }
+      oversizedNodes.clear();
+    }
+
+    private static boolean isIdentity(@NonNull float[] matrix) {
+      for (int i = 0; i < 16; i++) {
+        if (matrix[i] != (i % 5 == 0 ? 1 : 0)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Whether {@code matrix} maps the rects of the z = 0 plane to rects with a non-zero area, i.e.
+     * is a combination of non-zero scales and of translations, without a perspective component.
+     */
+    private static boolean isAxisAligned(@NonNull float[] matrix) {
+      return matrix[1] == 0
+          && matrix[4] == 0
+          && matrix[3] == 0
+          && matrix[7] == 0
+          && matrix[15] == 1
+          && matrix[0] != 0
+          && matrix[5] != 0
+          && !Float.isNaN(matrix[0] + matrix[5] + matrix[12] + matrix[13])
+          && !Float.isInfinite(matrix[0] + matrix[5] + matrix[12] + matrix[13]);
+    }
   }
 
   /**
@@ -2285,7 +3348,8 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
     private int currentValueLength;
     private int textSelectionBase;
     private int textSelectionExtent;
-    private int platformViewId;
+    // The id of the platform view embedded by this node, or -1 if there is none.
+    private int platformViewId = -1;
     private int scrollChildren;
     private int scrollIndex;
     private float scrollPosition;
@@ -2356,10 +3420,118 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
     private float[] globalTransform;
     private Rect globalRect;
 
+    // Whether the global geometry of this node or of one of its descendants needs to be updated.
+    private boolean subtreeDirty = false;
+
+    // The last semantics generation in which a node of the update listed this node as a child.
+    private int attachGeneration = 0;
+
+    // The last semantics generation in which this node was part of the update.
+    private int updateGeneration = 0;
+
+    // The last semantics generation in which a content change event was sent for this subtree.
+    private int contentChangeGeneration = 0;
+
+    // The index of this node in the childrenInHitTestOrder of its parent.
+    private int hitTestIndex = 0;
+
+    // The text of the AccessibilityNodeInfo of this node, built on first use and dropped when the
+    // text of this node changes.
+    private boolean nodeInfoTextValid = false;
+    private CharSequence nodeInfoValue;
+    private CharSequence nodeInfoValueLabelHint;
+    private CharSequence nodeInfoTextFieldHint;
+
+    // The bounds of this node relative to the bounds of its parent, updated along with the global
+    // geometry.
+    private Rect boundsInParent;
+
+    // The bounds of this node in the coordinate space of the root node, as tracked by the
+    // SemanticsNodeGrid.
+    private float hitLeft;
+    private float hitTop;
+    private float hitRight;
+    private float hitBottom;
+
+    // How this node is tracked by the SemanticsNodeGrid, one of the SemanticsNodeGrid.NODE_*
+    // constants, and the range of cells that list it.
+    private int gridState = SemanticsNodeGrid.NODE_NOT_INDEXED;
+    private int gridMinColumn;
+    private int gridMinRow;
+    private int gridMaxColumn;
+    private int gridMaxRow;
+
     SemanticsNode(@NonNull AccessibilityBridge accessibilityBridge) {
       this.accessibilityBridge = accessibilityBridge;
     }
 
+    /**
+     * Resets this {@code SemanticsNode} to the state of a newly created one, so that it can be
+     * reused for another id.
+     *
+     * <p>The child lists and the matrices are kept to avoid allocating them again.
+     */
+    private void recycle() {
+      id = -1;
+      flags = 0;
+      actions = 0;
+      maxValueLength = 0;
+      currentValueLength = 0;
+      textSelectionBase = 0;
+      textSelectionExtent = 0;
+      platformViewId = -1;
+      scrollChildren = 0;
+      scrollIndex = 0;
+      scrollPosition = 0;
+      scrollExtentMax = 0;
+      scrollExtentMin = 0;
+      identifier = null;
+      label = null;
+      labelAttributes = null;
+      value = null;
+      valueAttributes = null;
+      increasedValue = null;
+      increasedValueAttributes = null;
+      decreasedValue = null;
+      decreasedValueAttributes = null;
+      hint = null;
+      hintAttributes = null;
+      tooltip = null;
+      previousNodeId = -1;
+      textDirection = null;
+      hadPreviousConfig = false;
+      previousFlags = 0;
+      previousActions = 0;
+      previousTextSelectionBase = 0;
+      previousTextSelectionExtent = 0;
+      previousScrollPosition = 0;
+      previousScrollExtentMax = 0;
+      previousScrollExtentMin = 0;
+      previousValue = null;
+      previousLabel = null;
+      left = 0;
+      top = 0;
+      right = 0;
+      bottom = 0;
+      if (transform != null) {
+        Arrays.fill(transform, 0);
+      }
+      parent = null;
+      childrenInTraversalOrder.clear();
+      childrenInHitTestOrder.clear();
+      customAccessibilityActions = null;
+      onTapOverride = null;
+      onLongPressOverride = null;
+      inverseTransformDirty = true;
+      globalGeometryDirty = true;
+      subtreeDirty = false;
+      attachGeneration = 0;
+      updateGeneration = 0;
+      contentChangeGeneration = 0;
+      hitTestIndex = 0;
+      invalidateNodeInfoText();
+    }
+
     /**
      * Returns the ancestor of this {@code SemanticsNode} for which {@link Predicate#test(Object)}
      * returns true, or null if no such ancestor exists.
@@ -2460,11 +3632,17 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       }
     }
 
-    private void updateWith(
-        @NonNull ByteBuffer buffer,
-        @NonNull String[] strings,
-        @NonNull ByteBuffer[] stringAttributeArgs) {
+    /**
+     * Applies the new configuration of this node.
+     *
+     * @param generation the semantics generation of the update.
+     * @return whether the route structure of the tree may have changed, which is the case when the
+     *     node is new, when its children changed, or when its {@link Flag#SCOPES_ROUTE} changed.
+     */
+    private boolean updateWith(@NonNull SemanticsNodeUpdate update, int generation) {
+      boolean routesChanged = !hadPreviousConfig;
       hadPreviousConfig = true;
+      updateGeneration = generation;
       previousValue = value;
       previousLabel = label;
       previousFlags = flags;
@@ -2475,82 +3653,91 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       previousScrollExtentMax = scrollExtentMax;
       previousScrollExtentMin = scrollExtentMin;
 
-      flags = buffer.getInt();
-      actions = buffer.getInt();
-      maxValueLength = buffer.getInt();
-      currentValueLength = buffer.getInt();
-      textSelectionBase = buffer.getInt();
-      textSelectionExtent = buffer.getInt();
-      platformViewId = buffer.getInt();
-      scrollChildren = buffer.getInt();
-      scrollIndex = buffer.getInt();
-      scrollPosition = buffer.getFloat();
-      scrollExtentMax = buffer.getFloat();
-      scrollExtentMin = buffer.getFloat();
-
-      int stringIndex = buffer.getInt();
-
-      identifier = stringIndex == -1 ? null : strings[stringIndex];
-      stringIndex = buffer.getInt();
-
-      label = stringIndex == -1 ? null : strings[stringIndex];
-
-      labelAttributes = getStringAttributesFromBuffer(buffer, stringAttributeArgs);
-
-      stringIndex = buffer.getInt();
-      value = stringIndex == -1 ? null : strings[stringIndex];
-
-      valueAttributes = getStringAttributesFromBuffer(buffer, stringAttributeArgs);
-
-      stringIndex = buffer.getInt();
-      increasedValue = stringIndex == -1 ? null : strings[stringIndex];
-
-      increasedValueAttributes = getStringAttributesFromBuffer(buffer, stringAttributeArgs);
-
-      stringIndex = buffer.getInt();
-      decreasedValue = stringIndex == -1 ? null : strings[stringIndex];
-
-      decreasedValueAttributes = getStringAttributesFromBuffer(buffer, stringAttributeArgs);
-
-      stringIndex = buffer.getInt();
-      hint = stringIndex == -1 ? null : strings[stringIndex];
-
-      hintAttributes = getStringAttributesFromBuffer(buffer, stringAttributeArgs);
-
-      stringIndex = buffer.getInt();
-      tooltip = stringIndex == -1 ? null : strings[stringIndex];
+      flags = update.flags;
+      actions = update.actions;
+      maxValueLength = update.maxValueLength;
+      currentValueLength = update.currentValueLength;
+      textSelectionBase = update.textSelectionBase;
+      textSelectionExtent = update.textSelectionExtent;
+      platformViewId = update.platformViewId;
+      scrollChildren = update.scrollChildren;
+      scrollIndex = update.scrollIndex;
+      scrollPosition = update.scrollPosition;
+      scrollExtentMax = update.scrollExtentMax;
+      scrollExtentMin = update.scrollExtentMin;
+
+      // Attributed text is often sent again unchanged, in which case the text that was built for
+      // it is kept.
+      if (!TextUtils.equals(label, update.label)
+          || !TextUtils.equals(value, update.value)
+          || !TextUtils.equals(hint, update.hint)
+          || !StringAttribute.areEquivalent(labelAttributes, update.labelAttributes)
+          || !StringAttribute.areEquivalent(valueAttributes, update.valueAttributes)
+          || !StringAttribute.areEquivalent(hintAttributes, update.hintAttributes)) {
+        invalidateNodeInfoText();
+      }
 
-      textDirection = TextDirection.fromInt(buffer.getInt());
+      identifier = update.identifier;
+      label = update.label;
+      labelAttributes = update.labelAttributes;
+      value = update.value;
+      valueAttributes = update.valueAttributes;
+      increasedValue = update.increasedValue;
+      increasedValueAttributes = update.increasedValueAttributes;
+      decreasedValue = update.decreasedValue;
+      decreasedValueAttributes = update.decreasedValueAttributes;
+      hint = update.hint;
+      hintAttributes = update.hintAttributes;
+      tooltip = update.tooltip;
+
+      textDirection = update.textDirection;
+      if (((previousFlags ^ flags) & Flag.SCOPES_ROUTE.value) != 0) {
+        routesChanged = true;
+      }
 
-      left = buffer.getFloat();
-      top = buffer.getFloat();
-      right = buffer.getFloat();
-      bottom = buffer.getFloat();
+      left = update.left;
+      top = update.top;
+      right = update.right;
+      bottom = update.bottom;
 
       if (transform == null) {
         transform = new float[16];
       }
       for (int i = 0; i < 16; ++i) {
-        transform[i] = buffer.getFloat();
+        transform[i] = update.transformBuffer.getFloat(update.transformPosition + i * 4);
       }
       inverseTransformDirty = true;
       globalGeometryDirty = true;
 
-      final int childCount = buffer.getInt();
+      final int[] childIds = update.childrenInTraversalOrder;
+      boolean childrenChanged = childIds.length != childrenInTraversalOrder.size();
+      for (int i = 0; i < childIds.length && !childrenChanged; ++i) {
+        childrenChanged = childIds[i] != childrenInTraversalOrder.get(i).id;
+      }
+      if (childrenChanged) {
+        routesChanged = true;
+        for (int i = 0; i < childrenInTraversalOrder.size(); ++i) {
+          accessibilityBridge.detachedSemanticsNodes.add(childrenInTraversalOrder.get(i));
+        }
+      }
       childrenInTraversalOrder.clear();
       childrenInHitTestOrder.clear();
-      for (int i = 0; i < childCount; ++i) {
-        SemanticsNode child = accessibilityBridge.getOrCreateSemanticsNode(buffer.getInt());
+      for (int i = 0; i < childIds.length; ++i) {
+        SemanticsNode child = accessibilityBridge.getOrCreateSemanticsNode(childIds[i]);
         child.parent = this;
+        child.attachGeneration = generation;
         childrenInTraversalOrder.add(child);
       }
-      for (int i = 0; i < childCount; ++i) {
-        SemanticsNode child = accessibilityBridge.getOrCreateSemanticsNode(buffer.getInt());
+      for (int i = 0; i < update.childrenInHitTestOrder.length; ++i) {
+        SemanticsNode child =
+            accessibilityBridge.getOrCreateSemanticsNode(update.childrenInHitTestOrder[i]);
         child.parent = this;
+        child.attachGeneration = generation;
+        child.hitTestIndex = i;
         childrenInHitTestOrder.add(child);
       }
 
-      final int actionCount = buffer.getInt();
+      final int actionCount = update.customAccessibilityActions.length;
       if (actionCount == 0) {
         customAccessibilityActions = null;
       } else {
@@ -2560,7 +3747,8 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
 
         for (int i = 0; i < actionCount; i++) {
           CustomAccessibilityAction action =
-              accessibilityBridge.getOrCreateAccessibilityAction(buffer.getInt());
+              accessibilityBridge.getOrCreateAccessibilityAction(
+                  update.customAccessibilityActions[i]);
           if (action.overrideId == Action.TAP.value) {
             onTapOverride = action;
           } else if (action.overrideId == Action.LONG_PRESS.value) {
@@ -2576,48 +3764,7 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
           customAccessibilityActions.add(action);
         }
       }
-    }
-
-    private List<StringAttribute> getStringAttributesFromBuffer(
-        @NonNull ByteBuffer buffer, @NonNull ByteBuffer[] stringAttributeArgs) {
-      final int attributesCount = buffer.getInt();
-      if (attributesCount == -1) {
-        return null;
-      }
-      final List<StringAttribute> result = new ArrayList<>(attributesCount);
-      for (int i = 0; i < attributesCount; ++i) {
-        final int start = buffer.getInt();
-        final int end = buffer.getInt();
-        final StringAttributeType type = StringAttributeType.values()[buffer.getInt()];
-        switch (type) {
-          case SPELLOUT:
-            {
-              // Pops the -1 size.
-              buffer.getInt();
-              SpellOutStringAttribute attribute = new SpellOutStringAttribute();
-              attribute.start = start;
-              attribute.end = end;
-              attribute.type = type;
-              result.add(attribute);
-              break;
-            }
-          case LOCALE:
-            {
-              final int argsIndex = buffer.getInt();
-              final ByteBuffer args = stringAttributeArgs[argsIndex];
-              LocaleStringAttribute attribute = new LocaleStringAttribute();
-              attribute.start = start;
-              attribute.end = end;
-              attribute.type = type;
-              attribute.locale = Charset.forName("UTF-8").decode(args).toString();
-              result.add(attribute);
-              break;
-            }
-          default:
-            break;
-        }
-      }
-      return result;
+      return routesChanged;
     }
 
     private void ensureInverseTransform() {
@@ -2640,27 +3787,40 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       return globalRect;
     }
 
+    private Rect getBoundsInParent() {
+      if (boundsInParent == null) {
+        // The node was attached to its parent without having its geometry updated.
+        boundsInParent = new Rect(globalRect);
+        boundsInParent.offset(-parent.globalRect.left, -parent.globalRect.top);
+      }
+      return boundsInParent;
+    }
+
     /**
      * Hit tests {@code point} to find the deepest focusable node in the node tree at that point.
      *
      * @param point The point to hit test against this node.
      * @param stopAtPlatformView Whether to return a platform view if found, regardless of whether
      *     or not it is focusable.
+     * @param depth The depth of this node in the tree, used to pick the scratch buffer of the
+     *     points hit tested against the children.
      * @return The found node, or null if no relevant node was found at the given point.
      */
-    private SemanticsNode hitTest(float[] point, boolean stopAtPlatformView) {
+    private SemanticsNode hitTest(float[] point, boolean stopAtPlatformView, int depth) {
       final float w = point[3];
       final float x = point[0] / w;
       final float y = point[1] / w;
       if (x < left || x >= right || y < top || y >= bottom) return null;
-      final float[] transformedPoint = new float[4];
-      for (SemanticsNode child : childrenInHitTestOrder) {
+      final float[] transformedPoint = accessibilityBridge.getHitTestPoint(depth + 1);
+      for (int i = 0; i < childrenInHitTestOrder.size(); i++) {
+        final SemanticsNode child = childrenInHitTestOrder.get(i);
         if (child.hasFlag(Flag.IS_HIDDEN)) {
           continue;
         }
         child.ensureInverseTransform();
         Matrix.multiplyMV(transformedPoint, 0, child.inverseTransform, 0, point, 0);
-        final SemanticsNode result = child.hitTest(transformedPoint, stopAtPlatformView);
+        final SemanticsNode result =
+            child.hitTest(transformedPoint, stopAtPlatformView, depth + 1);
         if (result != null) {
           return result;
         }
@@ -2716,10 +3876,23 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       return null;
     }
 
-    private void updateRecursively(
-        float[] ancestorTransform, Set<SemanticsNode> visitedObjects, boolean forceUpdate) {
-      visitedObjects.add(this);
+    /** Marks this node and its ancestors so that the next geometry update visits this node. */
+    private void markSubtreeDirty() {
+      SemanticsNode node = this;
+      while (node != null && !node.subtreeDirty) {
+        node.subtreeDirty = true;
+        node = node.parent;
+      }
+    }
 
+    /**
+     * Updates the global geometry of the dirty nodes of this subtree, and the traversal order of
+     * their children.
+     *
+     * <p>Only the subtrees that contain dirty nodes are visited, unless {@code forceUpdate} is
+     * true.
+     */
+    private void updateRecursively(float[] ancestorTransform, boolean forceUpdate) {
       if (globalGeometryDirty) {
         forceUpdate = true;
       }
@@ -2737,41 +3910,51 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
         }
         Matrix.multiplyMM(globalTransform, 0, ancestorTransform, 0, transform, 0);
 
-        final float[] sample = new float[4];
+        final float[] sample = accessibilityBridge.geometrySample;
         sample[2] = 0;
         sample[3] = 1;
 
-        final float[] point1 = new float[4];
-        final float[] point2 = new float[4];
-        final float[] point3 = new float[4];
-        final float[] point4 = new float[4];
+        // The four transformed corners, at offsets 0, 4, 8 and 12.
+        final float[] corners = accessibilityBridge.geometryCorners;
 
         sample[0] = left;
         sample[1] = top;
-        transformPoint(point1, globalTransform, sample);
+        transformPoint(corners, 0, globalTransform, sample);
 
         sample[0] = right;
         sample[1] = top;
-        transformPoint(point2, globalTransform, sample);
+        transformPoint(corners, 4, globalTransform, sample);
 
         sample[0] = right;
         sample[1] = bottom;
-        transformPoint(point3, globalTransform, sample);
+        transformPoint(corners, 8, globalTransform, sample);
 
         sample[0] = left;
         sample[1] = bottom;
-        transformPoint(point4, globalTransform, sample);
+        transformPoint(corners, 12, globalTransform, sample);
 
         if (globalRect == null) globalRect = new Rect();
 
         globalRect.set(
-            Math.round(min(point1[0], point2[0], point3[0], point4[0])),
-            Math.round(min(point1[1], point2[1], point3[1], point4[1])),
-            Math.round(max(point1[0], point2[0], point3[0], point4[0])),
-            Math.round(max(point1[1], point2[1], point3[1], point4[1])));
+            Math.round(min(corners[0], corners[4], corners[8], corners[12])),
+            Math.round(min(corners[1], corners[5], corners[9], corners[13])),
+            Math.round(max(corners[0], corners[4], corners[8], corners[12])),
+            Math.round(max(corners[1], corners[5], corners[9], corners[13])));
+
+        if (parent != null && parent.globalRect != null) {
+          if (boundsInParent == null) boundsInParent = new Rect();
+          boundsInParent.set(globalRect);
+          boundsInParent.offset(-parent.globalRect.left, -parent.globalRect.top);
+        }
+
+        if (id == ROOT_NODE_ID) {
+          accessibilityBridge.semanticsNodeGrid.setRoot(this);
+        }
+        accessibilityBridge.semanticsNodeGrid.update(this, corners);
 
         globalGeometryDirty = false;
       }
+      subtreeDirty = false;
 
       if (BuildConfig.DEBUG) {
         if (globalTransform == null) {
@@ -2783,20 +3966,24 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       }
 
       int previousNodeId = -1;
-      for (SemanticsNode child : childrenInTraversalOrder) {
+      for (int i = 0; i < childrenInTraversalOrder.size(); i++) {
+        final SemanticsNode child = childrenInTraversalOrder.get(i);
         child.previousNodeId = previousNodeId;
         previousNodeId = child.id;
-        child.updateRecursively(globalTransform, visitedObjects, forceUpdate);
+        if (forceUpdate || child.subtreeDirty || child.globalGeometryDirty) {
+          child.updateRecursively(globalTransform, forceUpdate);
+        }
       }
     }
 
-    private void transformPoint(float[] result, float[] transform, float[] point) {
-      Matrix.multiplyMV(result, 0, transform, 0, point, 0);
-      final float w = result[3];
-      result[0] /= w;
-      result[1] /= w;
-      result[2] /= w;
-      result[3] = 0;
+    private void transformPoint(
+        float[] result, int resultOffset, float[] transform, float[] point) {
+      Matrix.multiplyMV(result, resultOffset, transform, 0, point, 0);
+      final float w = result[resultOffset + 3];
+      result[resultOffset] /= w;
+      result[resultOffset + 1] /= w;
+      result[resultOffset + 2] /= w;
+      result[resultOffset + 3] = 0;
     }
 
     private float min(float a, float b, float c, float d) {
@@ -2808,34 +3995,51 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
     }
 
     private CharSequence getValue() {
-      return createSpannableString(value, valueAttributes);
+      ensureNodeInfoText();
+      return nodeInfoValue;
     }
 
-    private CharSequence getLabel() {
-      return createSpannableString(label, labelAttributes);
+    private CharSequence getValueLabelHint() {
+      ensureNodeInfoText();
+      return nodeInfoValueLabelHint;
     }
 
-    private CharSequence getHint() {
-      return createSpannableString(hint, hintAttributes);
+    private CharSequence getTextFieldHint() {
+      ensureNodeInfoText();
+      return nodeInfoTextFieldHint;
     }
 
-    private CharSequence getValueLabelHint() {
-      CharSequence[] array = new CharSequence[] {getValue(), getLabel(), getHint()};
-      CharSequence result = null;
-      for (CharSequence word : array) {
-        if (word != null && word.length() > 0) {
-          if (result == null || result.length() == 0) {
-            result = word;
-          } else {
-            result = TextUtils.concat(result, ", ", word);
-          }
-        }
+    private void invalidateNodeInfoText() {
+      nodeInfoTextValid = false;
+      nodeInfoValue = null;
+      nodeInfoValueLabelHint = null;
+      nodeInfoTextFieldHint = null;
+    }
+
+    /**
+     * Builds the text of the {@link AccessibilityNodeInfo} of this node, unless it is still valid.
+     *
+     * <p>The returned sequences are not modified by {@link AccessibilityNodeInfo}, which copies
+     * them, so they can be shared by the node infos created until the text changes.
+     */
+    private void ensureNodeInfoText() {
+      if (nodeInfoTextValid) {
+        return;
       }
-      return result;
+      // The value, label and hint are joined, and the result can't hold the same span twice, so
+      // their spans are numbered across the three strings.
+      final CharSequence valueText = createSpannableString(value, valueAttributes, null, null);
+      final CharSequence labelText =
+          createSpannableString(label, labelAttributes, valueAttributes, null);
+      final CharSequence hintText =
+          createSpannableString(hint, hintAttributes, valueAttributes, labelAttributes);
+      nodeInfoValue = valueText;
+      nodeInfoValueLabelHint = join(new CharSequence[] {valueText, labelText, hintText});
+      nodeInfoTextFieldHint = join(new CharSequence[] {labelText, hintText});
+      nodeInfoTextValid = true;
     }
 
-    private CharSequence getTextFieldHint() {
-      CharSequence[] array = new CharSequence[] {getLabel(), getHint()};
+    private static CharSequence join(CharSequence[] array) {
       CharSequence result = null;
       for (CharSequence word : array) {
         if (word != null && word.length() > 0) {
@@ -2849,25 +4053,44 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       return result;
     }
 
-    private SpannableString createSpannableString(String string, List<StringAttribute> attributes) {
+    /**
+     * Creates the text of the given string with the spans of its attributes.
+     *
+     * <p>The spans are shared, so the n-th span of a kind is used by every string that has n
+     * attributes of that kind before it. The attributes of the strings that precede this one in the
+     * same joined text are counted as well, so that the joined text doesn't use a span twice.
+     */
+    private SpannableString createSpannableString(
+        String string,
+        List<StringAttribute> attributes,
+        @Nullable List<StringAttribute> precedingAttributes,
+        @Nullable List<StringAttribute> morePrecedingAttributes) {
       if (string == null) {
         return null;
       }
       final SpannableString spannableString = new SpannableString(string);
       if (attributes != null) {
-        for (StringAttribute attribute : attributes) {
+        int verbatimSpanCount =
+            countSpellOutAttributes(precedingAttributes)
+                + countSpellOutAttributes(morePrecedingAttributes);
+        for (int i = 0; i < attributes.size(); i++) {
+          final StringAttribute attribute = attributes.get(i);
           switch (attribute.type) {
             case SPELLOUT:
               {
-                final TtsSpan ttsSpan = new TtsSpan.Builder<>(TtsSpan.TYPE_VERBATIM).build();
+                final TtsSpan ttsSpan = accessibilityBridge.getVerbatimSpan(verbatimSpanCount++);
                 spannableString.setSpan(ttsSpan, attribute.start, attribute.end, 0);
                 break;
               }
             case LOCALE:
               {
                 LocaleStringAttribute localeAttribute = (LocaleStringAttribute) attribute;
-                Locale locale = Locale.forLanguageTag(localeAttribute.locale);
-                final LocaleSpan localeSpan = new LocaleSpan(locale);
+                final int localeSpanIndex =
+                    countLocaleAttributes(precedingAttributes, localeAttribute.locale)
+                        + countLocaleAttributes(morePrecedingAttributes, localeAttribute.locale)
+                        + countLocaleAttributes(attributes, localeAttribute.locale, i);
+                final LocaleSpan localeSpan =
+                    accessibilityBridge.getLocaleSpan(localeAttribute.locale, localeSpanIndex);
                 spannableString.setSpan(localeSpan, attribute.start, attribute.end, 0);
                 break;
               }
@@ -2876,6 +4099,40 @@ public class AccessibilityBridge extends AccessibilityNodeProvider {
       }
       return spannableString;
     }
+
+    /** Returns the number of spell-out attributes in the given list. */
+    private static int countSpellOutAttributes(@Nullable List<StringAttribute> attributes) {
+      if (attributes == null) {
+        return 0;
+      }
+      int count = 0;
+      for (int i = 0; i < attributes.size(); i++) {
+        if (attributes.get(i).type == StringAttributeType.SPELLOUT) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    /** Returns the number of attributes of the given locale in the given list. */
+    private static int countLocaleAttributes(
+        @Nullable List<StringAttribute> attributes, @NonNull String locale) {
+      return attributes == null ? 0 : countLocaleAttributes(attributes, locale, attributes.size());
+    }
+
+    /** Returns the number of attributes of the given locale before the one at {@code end}. */
+    private static int countLocaleAttributes(
+        @NonNull List<StringAttribute> attributes, @NonNull String locale, int end) {
+      int count = 0;
+      for (int i = 0; i < end; i++) {
+        final StringAttribute attribute = attributes.get(i);
+        if (attribute.type == StringAttributeType.LOCALE
+            && TextUtils.equals(locale, ((LocaleStringAttribute) attribute).locale)) {
+          count++;
+        }
+      }
+      return count;
+    }
   }
 
   /**
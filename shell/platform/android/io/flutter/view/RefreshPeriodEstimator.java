@@ -0,0 +1,113 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.view;
+
+import androidx.annotation.VisibleForTesting;
+import java.util.Arrays;
+
+/**
+ * Estimates the refresh period of a display from the frame times reported by the {@link
+ * android.view.Choreographer}.
+ *
+ * <p>The refresh rate reported by a display can be stale, for example on panels that adapt their
+ * refresh rate to the content. Each interval between two frame times is divided by the number of
+ * nominal refresh periods it spans, so that skipped vsync signals still produce a sample, and the
+ * estimate is the median of the recent samples. The median filters out the jitter of the frame
+ * times, which is reported as the median absolute deviation of the samples from the estimate.
+ *
+ * <p>A display that refreshes at a fraction of its nominal rate can't be told apart from a display
+ * whose vsync signals are skipped, so the estimate only tracks refresh periods up to one and a half
+ * times the nominal one.
+ *
+ * <p>The frame times only come from the vsync signals {@link VsyncWaiter} delivers through the
+ * {@link android.view.Choreographer}, so below API 24, see {@link VsyncWaiter}.
+ *
+ * <p>Instances are not thread safe, {@link VsyncWaiter} only uses them under its lock.
+ */
+final class RefreshPeriodEstimator {
+  /** The number of recent samples the estimate is computed from. */
+  @VisibleForTesting static final int WINDOW_SIZE = 15;
+
+  // Intervals that span more refresh periods than this are idle time rather than skipped vsyncs.
+  private static final int MAX_PERIODS_PER_INTERVAL = 4;
+
+  private final long[] samples = new long[WINDOW_SIZE];
+  private final long[] scratch = new long[WINDOW_SIZE];
+  private int sampleCount = 0;
+  private int nextSample = 0;
+
+  private long nominalPeriodNanos;
+  private long lastFrameTimeNanos = -1;
+  private long periodNanos;
+  private long jitterNanos = 0;
+
+  RefreshPeriodEstimator(long nominalPeriodNanos) {
+    setNominalPeriod(nominalPeriodNanos);
+  }
+
+  /** Sets the refresh period reported by the display, and discards the previous samples. */
+  void setNominalPeriod(long nominalPeriodNanos) {
+    this.nominalPeriodNanos = nominalPeriodNanos;
+    periodNanos = nominalPeriodNanos;
+    jitterNanos = 0;
+    sampleCount = 0;
+    nextSample = 0;
+    lastFrameTimeNanos = -1;
+  }
+
+  /** The refresh period reported by the display, in nanoseconds. */
+  long getNominalPeriodNanos() {
+    return nominalPeriodNanos;
+  }
+
+  /** Adds the time of a frame, from {@link android.view.Choreographer.FrameCallback#doFrame}. */
+  void onFrame(long frameTimeNanos) {
+    final long lastFrameTimeNanos = this.lastFrameTimeNanos;
+    this.lastFrameTimeNanos = frameTimeNanos;
+    if (lastFrameTimeNanos < 0 || nominalPeriodNanos <= 0) {
+      return;
+    }
+    final long interval = frameTimeNanos - lastFrameTimeNanos;
+    if (interval <= 0) {
+      return;
+    }
+    // Intervals shorter than the nominal period come from a panel refreshing faster than reported.
+    final long periods = Math.max(1, Math.round((double) interval / nominalPeriodNanos));
+    if (periods > MAX_PERIODS_PER_INTERVAL) {
+      return;
+    }
+    samples[nextSample] = interval / periods;
+    nextSample = (nextSample + 1) % WINDOW_SIZE;
+    sampleCount = Math.min(sampleCount + 1, WINDOW_SIZE);
+
+    System.arraycopy(samples, 0, scratch, 0, sampleCount);
+    periodNanos = medianOfScratch();
+    for (int i = 0; i < sampleCount; i++) {
+      scratch[i] = Math.abs(samples[i] - periodNanos);
+    }
+    jitterNanos = medianOfScratch();
+  }
+
+  /** The estimated refresh period, in nanoseconds. */
+  long getPeriodNanos() {
+    return periodNanos;
+  }
+
+  /** The jitter of the frame times around the estimated refresh period, in nanoseconds. */
+  long getJitterNanos() {
+    return jitterNanos;
+  }
+
+  /** The number of samples the estimate is currently computed from. */
+  int getSampleCount() {
+    return sampleCount;
+  }
+
+  // Sorts the first sampleCount values of the scratch array in place.
+  private long medianOfScratch() {
+    Arrays.sort(scratch, 0, sampleCount);
+    return scratch[sampleCount / 2];
+  }
+}
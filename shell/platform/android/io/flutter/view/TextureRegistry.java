@@ -62,7 +62,13 @@ public interface TextureRegistry {
     /** @return The identity of this texture. */
     long id();
 
-    /** Deregisters and releases all resources . */
+    /**
+     * Deregisters and releases all resources.
+     *
+     * <p>The texture is unregistered from the engine on a later pass of the main looper, along
+     * with the other textures released in the meantime. The engine may therefore still draw the
+     * texture, without a new frame, until then.
+     */
     void release();
   }
 
@@ -90,8 +96,118 @@ public interface TextureRegistry {
     Surface getSurface();
 
     void scheduleFrame();
+
+    /**
+     * Sets a callback that is notified when the surface returned by {@link #getSurface()} was
+     * released, and when it should be recreated.
+     *
+     * <p>Producers only release their surface under critical memory pressure when a callback is
+     * set, since owners that hold on to the surface would otherwise keep drawing into a released
+     * one.
+     */
+    default void setCallback(@Nullable Callback callback) {}
+
+    /**
+     * Writes statistics about the frames that passed through this producer into {@code
+     * statistics}.
+     *
+     * <p>The default implementation reports no frames.
+     */
+    default void getStatistics(@NonNull SurfaceProducerStatistics statistics) {
+      statistics.reset();
+    }
+
+    /** Callback invoked when the surface of a {@link SurfaceProducer} is released. */
+    interface Callback {
+      /**
+       * Invoked on the main thread after the surface was released, for example under memory
+       * pressure.
+       *
+       * <p>The released surface must not be drawn to anymore. Calling {@link
+       * SurfaceProducer#getSurface()} recreates it, so owners that hold on to the surface should
+       * wait for {@link #onSurfaceAvailable()} rather than recreate it right away.
+       */
+      void onSurfaceDestroyed();
+
+      /**
+       * Invoked on the main thread when the engine draws the texture of a producer whose surface
+       * was released, so that its owner can call {@link SurfaceProducer#getSurface()} and draw
+       * into the recreated surface.
+       *
+       * <p>Not invoked if the owner already called {@link SurfaceProducer#getSurface()} since the
+       * surface was released.
+       */
+      default void onSurfaceAvailable() {}
+    }
   };
 
+  /**
+   * Statistics about the frames that passed through a {@link SurfaceProducer}.
+   *
+   * <p>Counts and times accumulate over the lifetime of the producer. Instances are filled in by
+   * {@link SurfaceProducer#getStatistics(SurfaceProducerStatistics)}, and may be reused so that
+   * statistics can be polled without allocating.
+   */
+  final class SurfaceProducerStatistics {
+    /** The number of frames that were produced into the surface. */
+    public long framesProduced;
+
+    /** The number of frames that were consumed by the engine. */
+    public long framesConsumed;
+
+    /** The number of frames that were discarded without being consumed by the engine. */
+    public long framesDropped;
+
+    /** The total time, in nanoseconds, that consumed frames were queued for. */
+    public long totalQueuedTimeNanos;
+
+    /** The longest time, in nanoseconds, that a consumed frame was queued for. */
+    public long maxQueuedTimeNanos;
+
+    /** The total time, in nanoseconds, spent waiting on the fences of consumed frames. */
+    public long totalFenceWaitTimeNanos;
+
+    /** The longest time, in nanoseconds, spent waiting on the fence of a consumed frame. */
+    public long maxFenceWaitTimeNanos;
+
+    /** The number of readers currently backing the producer. */
+    public int liveReaders;
+
+    /** The number of frames currently queued and not yet consumed. */
+    public int liveImages;
+
+    /** An estimate of the number of bytes released in response to memory pressure. */
+    public long trimmedBytes;
+
+    /** Resets all statistics to zero. */
+    public void reset() {
+      framesProduced = 0;
+      framesConsumed = 0;
+      framesDropped = 0;
+      totalQueuedTimeNanos = 0;
+      maxQueuedTimeNanos = 0;
+      totalFenceWaitTimeNanos = 0;
+      maxFenceWaitTimeNanos = 0;
+      liveReaders = 0;
+      liveImages = 0;
+      trimmedBytes = 0;
+    }
+
+    /** Adds {@code other} to these statistics, keeping the larger of the maximum times. */
+    public void add(@NonNull SurfaceProducerStatistics other) {
+      framesProduced += other.framesProduced;
+      framesConsumed += other.framesConsumed;
+      framesDropped += other.framesDropped;
+      totalQueuedTimeNanos += other.totalQueuedTimeNanos;
+      maxQueuedTimeNanos = Math.max(maxQueuedTimeNanos, other.maxQueuedTimeNanos);
+      totalFenceWaitTimeNanos += other.totalFenceWaitTimeNanos;
+      maxFenceWaitTimeNanos = Math.max(maxFenceWaitTimeNanos, other.maxFenceWaitTimeNanos);
+      liveReaders += other.liveReaders;
+      liveImages += other.liveImages;
+      trimmedBytes += other.trimmedBytes;
+    }
+  }
+
   /** A registry entry for a managed SurfaceTexture. */
   @Keep
   interface SurfaceTextureEntry extends TextureEntry {
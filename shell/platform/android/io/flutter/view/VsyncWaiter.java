@@ -5,13 +5,39 @@
 package io.flutter.view;
 
 import android.hardware.display.DisplayManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.SparseArray;
 import android.view.Choreographer;
 import android.view.Display;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import io.flutter.embedding.engine.FlutterJNI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 
-// TODO(mattcarroll): add javadoc.
+/**
+ * Delivers vsync signals from the {@link Choreographer} to the engine, along with the refresh
+ * period of the display that hosts the Flutter UI.
+ *
+ * <p>The refresh period is tracked per display. Views bind the waiter to the display they are
+ * attached to with {@link #bindToDisplay(int)}, and the most recently bound display is the one
+ * whose refresh period is reported to the engine. For each display, the period starts at the
+ * refresh rate the display reports, and is then refined from the intervals between the frame times
+ * of the vsync signals delivered to the engine, see {@link RefreshPeriodEstimator}.
+ *
+ * <p>Only the vsync signals requested through the delegate installed by {@link #init()} refine the
+ * period. Where the native {@code AChoreographer} is available, from API 24, the engine waits for
+ * vsync with it instead, and the period reported to the engine stays the refresh rate the display
+ * reports.
+ *
+ * <p>Vsync signals are delivered on the main thread by default, where they are delayed whenever the
+ * main thread is busy. {@link #init(boolean)} can deliver them on a dedicated thread instead.
+ */
 public class VsyncWaiter {
   class DisplayListener implements DisplayManager.DisplayListener {
     DisplayListener(DisplayManager displayManager) {
@@ -28,24 +54,66 @@ public class VsyncWaiter {
     public void onDisplayAdded(int displayId) {}
 
     @Override
-    public void onDisplayRemoved(int displayId) {}
+    public void onDisplayRemoved(int displayId) {
+      synchronized (VsyncWaiter.this) {
+        estimators.remove(displayId);
+      }
+    }
 
     @Override
     public void onDisplayChanged(int displayId) {
-      if (displayId == Display.DEFAULT_DISPLAY) {
-        final Display primaryDisplay = displayManager.getDisplay(Display.DEFAULT_DISPLAY);
-        float fps = primaryDisplay.getRefreshRate();
-        VsyncWaiter.this.refreshPeriodNanos = (long) (1000000000.0 / fps);
-        VsyncWaiter.this.flutterJNI.setRefreshRateFPS(fps);
+      synchronized (VsyncWaiter.this) {
+        final RefreshPeriodEstimator estimator = estimators.get(displayId);
+        if (estimator == null && displayId != getActiveDisplayId()) {
+          return;
+        }
+        final Display display = displayManager.getDisplay(displayId);
+        if (display == null) {
+          return;
+        }
+        final float fps = display.getRefreshRate();
+        final long periodNanos = (long) (1000000000.0 / fps);
+        if (estimator == null) {
+          estimators.put(displayId, new RefreshPeriodEstimator(periodNanos));
+        } else if (estimator.getNominalPeriodNanos() == periodNanos) {
+          // Displays report changes to other properties too, keep the samples of the estimate.
+          return;
+        } else {
+          estimator.setNominalPeriod(periodNanos);
+        }
+        if (displayId == getActiveDisplayId()) {
+          setRefreshPeriod(periodNanos, fps);
+        }
       }
     }
   }
 
+  // Only report a new estimated period to the engine if it differs by more than this fraction.
+  private static final double REFRESH_PERIOD_UPDATE_THRESHOLD = 0.02;
+
+  // The maximum number of frame callbacks kept for reuse.
+  private static final int MAX_POOLED_FRAME_CALLBACKS = 4;
+
+  // The weight of the latest vsync delivery delay in the average delivery delay.
+  private static final double VSYNC_DELAY_SMOOTHING_FACTOR = 1.0 / 16;
+
   private static VsyncWaiter instance;
   private static DisplayListener listener;
-  private long refreshPeriodNanos = -1;
+  // The displays the waiter is bound to, most recently bound last. Only used on the main thread.
+  private static final List<Integer> boundDisplayIds = new ArrayList<>();
+  // The most recently bound display, read on the thread vsync signals are delivered on.
+  private static volatile int activeDisplayId = Display.DEFAULT_DISPLAY;
+  private volatile long refreshPeriodNanos = -1;
   private FlutterJNI flutterJNI;
-  private FrameCallback frameCallback = new FrameCallback(0);
+  // Guarded by this.
+  private final SparseArray<RefreshPeriodEstimator> estimators = new SparseArray<>();
+  // Frame callbacks that are not waiting for a vsync signal, guarded by itself. Each pending cookie
+  // takes one, which is returned once its vsync signal is delivered.
+  private final ArrayDeque<FrameCallback> frameCallbackPool = new ArrayDeque<>();
+  // The thread vsync signals are delivered on, or null if they are delivered on the main thread.
+  @Nullable private HandlerThread vsyncThread;
+  @Nullable private Handler vsyncHandler;
+  private volatile long averageVsyncDelayNanos = 0;
 
   @NonNull
   public static VsyncWaiter getInstance(float fps, @NonNull FlutterJNI flutterJNI) {
@@ -53,7 +121,11 @@ public class VsyncWaiter {
       instance = new VsyncWaiter(flutterJNI);
     }
     flutterJNI.setRefreshRateFPS(fps);
-    instance.refreshPeriodNanos = (long) (1000000000.0 / fps);
+    synchronized (instance) {
+      instance.refreshPeriodNanos = (long) (1000000000.0 / fps);
+      instance.estimators.put(
+          instance.getActiveDisplayId(), new RefreshPeriodEstimator(instance.refreshPeriodNanos));
+    }
     return instance;
   }
 
@@ -68,27 +140,160 @@ public class VsyncWaiter {
       listener.register();
     }
     if (instance.refreshPeriodNanos == -1) {
-      final Display primaryDisplay = displayManager.getDisplay(Display.DEFAULT_DISPLAY);
-      float fps = primaryDisplay.getRefreshRate();
-      instance.refreshPeriodNanos = (long) (1000000000.0 / fps);
-      flutterJNI.setRefreshRateFPS(fps);
+      listener.onDisplayChanged(instance.getActiveDisplayId());
     }
     return instance;
   }
 
+  /**
+   * Binds the waiter to the given display, so that the refresh period of that display is reported
+   * to the engine until it is unbound with {@link #unbindFromDisplay(int)}.
+   *
+   * <p>Bindings are counted, a display may be bound several times, once per view attached to it.
+   */
+  public static void bindToDisplay(int displayId) {
+    boundDisplayIds.add(displayId);
+    activeDisplayId = displayId;
+    if (instance != null) {
+      instance.onActiveDisplayChanged();
+    }
+  }
+
+  /** Removes a binding added with {@link #bindToDisplay(int)}. */
+  public static void unbindFromDisplay(int displayId) {
+    final int index = boundDisplayIds.lastIndexOf(displayId);
+    if (index < 0) {
+      return;
+    }
+    boundDisplayIds.remove(index);
+    if (index < boundDisplayIds.size()) {
+      return;
+    }
+    activeDisplayId =
+        boundDisplayIds.isEmpty()
+            ? Display.DEFAULT_DISPLAY
+            : boundDisplayIds.get(boundDisplayIds.size() - 1);
+    if (instance != null) {
+      instance.onActiveDisplayChanged();
+    }
+  }
+
   // For tests, to reset the singleton between tests.
   @VisibleForTesting
   public static void reset() {
+    if (instance != null && instance.vsyncThread != null) {
+      instance.vsyncThread.quit();
+    }
     instance = null;
     listener = null;
+    boundDisplayIds.clear();
+    activeDisplayId = Display.DEFAULT_DISPLAY;
+  }
+
+  /** The refresh period, in nanoseconds, reported to the engine. */
+  public long getRefreshPeriodNanos() {
+    return refreshPeriodNanos;
+  }
+
+  /**
+   * The jitter, in nanoseconds, of the vsync signals of the display that hosts the Flutter UI
+   * around its estimated refresh period.
+   */
+  public synchronized long getVsyncJitterNanos() {
+    final RefreshPeriodEstimator estimator = getActiveEstimator();
+    return estimator != null ? estimator.getJitterNanos() : 0;
+  }
+
+  private int getActiveDisplayId() {
+    return activeDisplayId;
+  }
+
+  @Nullable
+  private RefreshPeriodEstimator getActiveEstimator() {
+    return estimators.get(getActiveDisplayId());
+  }
+
+  /**
+   * The average time, in nanoseconds, from the recent vsync signals to their delivery to the
+   * engine.
+   *
+   * <p>Vsync signals are delivered late when the thread they are delivered on is busy with other
+   * work. Comparing this delay with and without a dedicated thread, see {@link #init(boolean)},
+   * shows how much of it the main thread accounts for.
+   */
+  public long getAverageVsyncDelayNanos() {
+    return averageVsyncDelayNanos;
+  }
+
+  // Reports the refresh period of the newly active display to the engine.
+  private synchronized void onActiveDisplayChanged() {
+    final RefreshPeriodEstimator estimator = getActiveEstimator();
+    if (estimator != null) {
+      final long periodNanos = estimator.getPeriodNanos();
+      setRefreshPeriod(periodNanos, (float) (1000000000.0 / periodNanos));
+    } else if (listener != null) {
+      // Start tracking the display, with the refresh rate it reports.
+      listener.onDisplayChanged(getActiveDisplayId());
+    }
+  }
+
+  // Reports the refresh period of the active display to the engine.
+  private void setRefreshPeriod(long periodNanos, float fps) {
+    refreshPeriodNanos = periodNanos;
+    flutterJNI.setRefreshRateFPS(fps);
+  }
+
+  // Refines the refresh period of the active display with the time of a delivered frame.
+  private synchronized void onFrame(long frameTimeNanos) {
+    final RefreshPeriodEstimator estimator = getActiveEstimator();
+    if (estimator == null) {
+      return;
+    }
+    estimator.onFrame(frameTimeNanos);
+    final long estimatedPeriodNanos = estimator.getPeriodNanos();
+    if (Math.abs(estimatedPeriodNanos - refreshPeriodNanos)
+        > refreshPeriodNanos * REFRESH_PERIOD_UPDATE_THRESHOLD) {
+      setRefreshPeriod(estimatedPeriodNanos, (float) (1000000000.0 / estimatedPeriodNanos));
+    }
+  }
+
+  // Averages the time from a vsync signal to its delivery to the engine.
+  private void onVsyncDelay(long delayNanos) {
+    final long average = averageVsyncDelayNanos;
+    averageVsyncDelayNanos =
+        average + (long) ((delayNanos - average) * VSYNC_DELAY_SMOOTHING_FACTOR);
+  }
+
+  @NonNull
+  private FrameCallback obtainFrameCallback(long cookie) {
+    FrameCallback callback;
+    synchronized (frameCallbackPool) {
+      callback = frameCallbackPool.poll();
+    }
+    if (callback == null) {
+      callback = new FrameCallback();
+    }
+    callback.cookie = cookie;
+    return callback;
   }
 
-  private class FrameCallback implements Choreographer.FrameCallback {
+  private void recycleFrameCallback(@NonNull FrameCallback callback) {
+    synchronized (frameCallbackPool) {
+      if (frameCallbackPool.size() < MAX_POOLED_FRAME_CALLBACKS) {
+        frameCallbackPool.push(callback);
+      }
+    }
+  }
+
+  private class FrameCallback implements Choreographer.FrameCallback, Runnable {
 
     private long cookie;
 
-    FrameCallback(long cookie) {
-      this.cookie = cookie;
+    // Waits for the next vsync signal on the dedicated vsync thread, whose Choreographer can only
+    // be obtained on that thread.
+    @Override
+    public void run() {
+      Choreographer.getInstance().postFrameCallback(this);
     }
 
     @Override
@@ -97,35 +302,62 @@ public class VsyncWaiter {
       if (delay < 0) {
         delay = 0;
       }
+      onVsyncDelay(delay);
+      onFrame(frameTimeNanos);
       flutterJNI.onVsync(delay, refreshPeriodNanos, cookie);
-      frameCallback = this;
+      recycleFrameCallback(this);
     }
   }
 
   private final FlutterJNI.AsyncWaitForVsyncDelegate asyncWaitForVsyncDelegate =
       new FlutterJNI.AsyncWaitForVsyncDelegate() {
-
-        private Choreographer.FrameCallback obtainFrameCallback(final long cookie) {
-          if (frameCallback != null) {
-            frameCallback.cookie = cookie;
-            FrameCallback ret = frameCallback;
-            frameCallback = null;
-            return ret;
-          }
-          return new FrameCallback(cookie);
-        }
-
         @Override
         public void asyncWaitForVsync(long cookie) {
-          Choreographer.getInstance().postFrameCallback(obtainFrameCallback(cookie));
+          final FrameCallback callback = obtainFrameCallback(cookie);
+          if (vsyncHandler != null) {
+            vsyncHandler.post(callback);
+          } else {
+            Choreographer.getInstance().postFrameCallback(callback);
+          }
         }
       };
 
   private VsyncWaiter(@NonNull FlutterJNI flutterJNI) {
     this.flutterJNI = flutterJNI;
+    recycleFrameCallback(new FrameCallback());
   }
 
+  /** Starts delivering vsync signals to the engine on the main thread. */
   public void init() {
+    init(false);
+  }
+
+  /**
+   * Starts delivering vsync signals to the engine.
+   *
+   * <p>On the main thread, vsync signals wait for the work queued before them, such as layout,
+   * accessibility or plugin calls, and frames are missed even though the engine is idle. A
+   * dedicated thread with a display priority delivers them as soon as they are signaled.
+   *
+   * <p>Only the vsync signals the engine requests through the Java {@link Choreographer} are
+   * delivered on the dedicated thread. From API 24 the engine requests them from the native {@code
+   * AChoreographer} on its own UI thread, and the dedicated thread is left unused.
+   *
+   * @param useDedicatedThread Whether to deliver vsync signals on a dedicated thread rather than on
+   *     the main thread. Once a dedicated thread is started, it is used until the process exits.
+   */
+  public void init(boolean useDedicatedThread) {
+    if (useDedicatedThread && vsyncThread == null) {
+      vsyncThread = new HandlerThread("flutter-vsync", Process.THREAD_PRIORITY_DISPLAY);
+      vsyncThread.start();
+      vsyncHandler = new Handler(vsyncThread.getLooper());
+    }
     flutterJNI.setAsyncWaitForVsyncDelegate(asyncWaitForVsyncDelegate);
   }
+
+  @VisibleForTesting
+  @Nullable
+  Looper getVsyncLooper() {
+    return vsyncThread != null ? vsyncThread.getLooper() : null;
+  }
 }
@@ -107,6 +107,11 @@ class JNIMock final : public PlatformViewAndroidJNI {
 
   MOCK_METHOD(void, FlutterViewEndFrame, (), (override));
 
+  MOCK_METHOD(void,
+              FlutterViewOnFrameRasterized,
+              (const FrameTiming& timing),
+              (override));
+
   MOCK_METHOD(std::unique_ptr<PlatformViewAndroidJNI::OverlayMetadata>,
               FlutterViewCreateOverlaySurface,
               (),
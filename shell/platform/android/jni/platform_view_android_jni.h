@@ -10,6 +10,7 @@
 #include "flutter/fml/macros.h"
 #include "flutter/fml/mapping.h"
 
+#include "flutter/common/settings.h"
 #include "flutter/flow/embedded_views.h"
 #include "flutter/lib/ui/window/platform_message.h"
 #include "flutter/shell/platform/android/surface/android_native_window.h"
@@ -180,6 +181,13 @@ class PlatformViewAndroidJNI {
   ///
   virtual void FlutterViewEndFrame() = 0;
 
+  //----------------------------------------------------------------------------
+  /// @brief      Reports the timings of a frame that was rasterized.
+  ///
+  /// @note       Must be called from the raster thread.
+  ///
+  virtual void FlutterViewOnFrameRasterized(const FrameTiming& timing) = 0;
+
   //------------------------------------------------------------------------------
   /// The metadata returned from Java which is converted into an |OverlayLayer|
   /// by |SurfacePool|.
@@ -387,6 +387,17 @@ void PlatformViewAndroid::ReleaseResourceContext() const {
   }
 }
 
+void PlatformViewAndroid::SetFrameTimingsEnabled(bool enabled) {
+  frame_timings_enabled_ = enabled;
+}
+
+// |PlatformView|
+void PlatformViewAndroid::OnFrameRasterized(const FrameTiming& timing) {
+  if (frame_timings_enabled_) {
+    jni_facade_->FlutterViewOnFrameRasterized(timing);
+  }
+}
+
 // |PlatformView|
 std::shared_ptr<impeller::Context> PlatformViewAndroid::GetImpellerContext()
     const {
@@ -5,6 +5,7 @@
 #ifndef FLUTTER_SHELL_PLATFORM_ANDROID_PLATFORM_VIEW_ANDROID_H_
 #define FLUTTER_SHELL_PLATFORM_ANDROID_PLATFORM_VIEW_ANDROID_H_
 
+#include <atomic>
 #include <memory>
 #include <string>
 #include <unordered_map>
@@ -96,6 +97,12 @@ class PlatformViewAndroid final : public PlatformView {
       int64_t texture_id,
       const fml::jni::ScopedJavaGlobalRef<jobject>& image_texture_entry);
 
+  //----------------------------------------------------------------------------
+  /// @brief      Sets whether the timings of rasterized frames are reported
+  ///             to the Java side. Disabled by default.
+  ///
+  void SetFrameTimingsEnabled(bool enabled);
+
   // |PlatformView|
   void LoadDartDeferredLibrary(
       intptr_t loading_unit_id,
@@ -129,6 +136,8 @@ class PlatformViewAndroid final : public PlatformView {
 
   std::unique_ptr<AndroidSurface> android_surface_;
   std::shared_ptr<PlatformMessageHandlerAndroid> platform_message_handler_;
+  // Read on the raster thread.
+  std::atomic_bool frame_timings_enabled_ = false;
 
   // |PlatformView|
   void UpdateSemantics(
@@ -161,6 +170,9 @@ class PlatformViewAndroid final : public PlatformView {
   // |PlatformView|
   void ReleaseResourceContext() const override;
 
+  // |PlatformView|
+  void OnFrameRasterized(const FrameTiming& timing) override;
+
   // |PlatformView|
   std::shared_ptr<impeller::Context> GetImpellerContext() const override;
 
@@ -106,6 +106,8 @@ static jmethodID g_on_begin_frame_method = nullptr;
 
 static jmethodID g_on_end_frame_method = nullptr;
 
+static jmethodID g_on_frame_rasterized_method = nullptr;
+
 static jmethodID g_java_weak_reference_get_method = nullptr;
 
 static jmethodID g_attach_to_gl_context_method = nullptr;
@@ -432,6 +434,49 @@ static void DispatchEmptyPlatformMessage(JNIEnv* env,
   );
 }
 
+static void DispatchPlatformMessages(JNIEnv* env,
+                                     jobject jcaller,
+                                     jlong shell_holder,
+                                     jobjectArray channels,
+                                     jobjectArray messages,
+                                     jintArray positions,
+                                     jintArray response_ids,
+                                     jint count) {
+  jint* message_positions = env->GetIntArrayElements(positions, nullptr);
+  if (message_positions == nullptr) {
+    return;
+  }
+  jint* message_response_ids = env->GetIntArrayElements(response_ids, nullptr);
+  if (message_response_ids == nullptr) {
+    env->ReleaseIntArrayElements(positions, message_positions, JNI_ABORT);
+    return;
+  }
+  auto platform_view = ANDROID_SHELL_HOLDER->GetPlatformView();
+  for (jint i = 0; i < count; i++) {
+    fml::jni::ScopedJavaLocalRef<jstring> channel(
+        env, static_cast<jstring>(env->GetObjectArrayElement(channels, i)));
+    fml::jni::ScopedJavaLocalRef<jobject> message(
+        env, env->GetObjectArrayElement(messages, i));
+    if (message.is_null()) {
+      platform_view->DispatchEmptyPlatformMessage(
+          env,                                               //
+          fml::jni::JavaStringToString(env, channel.obj()),  //
+          message_response_ids[i]                            //
+      );
+    } else {
+      platform_view->DispatchPlatformMessage(
+          env,                                               //
+          fml::jni::JavaStringToString(env, channel.obj()),  //
+          message.obj(),                                     //
+          message_positions[i],                              //
+          message_response_ids[i]                            //
+      );
+    }
+  }
+  env->ReleaseIntArrayElements(response_ids, message_response_ids, JNI_ABORT);
+  env->ReleaseIntArrayElements(positions, message_positions, JNI_ABORT);
+}
+
 static void CleanupMessageData(JNIEnv* env,
                                jobject jcaller,
                                jlong message_data) {
@@ -514,6 +559,57 @@ static void UnregisterTexture(JNIEnv* env,
       static_cast<int64_t>(texture_id));
 }
 
+static void RegisterTextures(JNIEnv* env,
+                             jobject jcaller,
+                             jlong shell_holder,
+                             jlongArray texture_ids,
+                             jobjectArray textures,
+                             jbooleanArray image_textures,
+                             jint count) {
+  auto platform_view = ANDROID_SHELL_HOLDER->GetPlatformView();
+  jlong* ids = env->GetLongArrayElements(texture_ids, nullptr);
+  if (ids == nullptr) {
+    return;
+  }
+  jboolean* is_image_texture =
+      env->GetBooleanArrayElements(image_textures, nullptr);
+  if (is_image_texture == nullptr) {
+    env->ReleaseLongArrayElements(texture_ids, ids, JNI_ABORT);
+    return;
+  }
+  for (jint i = 0; i < count; i++) {
+    fml::jni::ScopedJavaLocalRef<jobject> texture(
+        env, env->GetObjectArrayElement(textures, i));
+    fml::jni::ScopedJavaGlobalRef<jobject> texture_ref(env, texture.obj());
+    if (is_image_texture[i]) {
+      platform_view->RegisterImageTexture(static_cast<int64_t>(ids[i]),
+                                          texture_ref);
+    } else {
+      platform_view->RegisterExternalTexture(static_cast<int64_t>(ids[i]),
+                                             texture_ref);
+    }
+  }
+  env->ReleaseBooleanArrayElements(image_textures, is_image_texture,
+                                   JNI_ABORT);
+  env->ReleaseLongArrayElements(texture_ids, ids, JNI_ABORT);
+}
+
+static void UnregisterTextures(JNIEnv* env,
+                               jobject jcaller,
+                               jlong shell_holder,
+                               jlongArray texture_ids,
+                               jint count) {
+  auto platform_view = ANDROID_SHELL_HOLDER->GetPlatformView();
+  jlong* ids = env->GetLongArrayElements(texture_ids, nullptr);
+  if (ids == nullptr) {
+    return;
+  }
+  for (jint i = 0; i < count; i++) {
+    platform_view->UnregisterTexture(static_cast<int64_t>(ids[i]));
+  }
+  env->ReleaseLongArrayElements(texture_ids, ids, JNI_ABORT);
+}
+
 static void MarkTextureFrameAvailable(JNIEnv* env,
                                       jobject jcaller,
                                       jlong shell_holder,
@@ -522,10 +618,38 @@ static void MarkTextureFrameAvailable(JNIEnv* env,
       static_cast<int64_t>(texture_id));
 }
 
+static void MarkTextureFramesAvailable(JNIEnv* env,
+                                       jobject jcaller,
+                                       jlong shell_holder,
+                                       jlongArray texture_ids,
+                                       jint count) {
+  auto platform_view = ANDROID_SHELL_HOLDER->GetPlatformView();
+  if (count == 0) {
+    platform_view->ScheduleFrame();
+    return;
+  }
+  jlong* ids = env->GetLongArrayElements(texture_ids, nullptr);
+  if (ids == nullptr) {
+    // An OutOfMemoryError is pending, it is thrown on return to Java.
+    return;
+  }
+  for (jint i = 0; i < count; i++) {
+    platform_view->MarkTextureFrameAvailable(static_cast<int64_t>(ids[i]));
+  }
+  env->ReleaseLongArrayElements(texture_ids, ids, JNI_ABORT);
+}
+
 static void ScheduleFrame(JNIEnv* env, jobject jcaller, jlong shell_holder) {
   ANDROID_SHELL_HOLDER->GetPlatformView()->ScheduleFrame();
 }
 
+static void SetFrameTimingsEnabled(JNIEnv* env,
+                                   jobject jcaller,
+                                   jlong shell_holder,
+                                   jboolean enabled) {
+  ANDROID_SHELL_HOLDER->GetPlatformView()->SetFrameTimingsEnabled(enabled);
+}
+
 static void InvokePlatformMessageResponseCallback(JNIEnv* env,
                                                   jobject jcaller,
                                                   jlong shell_holder,
@@ -697,6 +821,11 @@ bool RegisterApi(JNIEnv* env) {
           .signature = "(JLjava/lang/String;Ljava/nio/ByteBuffer;II)V",
           .fnPtr = reinterpret_cast<void*>(&DispatchPlatformMessage),
       },
+      {
+          .name = "nativeDispatchPlatformMessages",
+          .signature = "(J[Ljava/lang/String;[Ljava/nio/ByteBuffer;[I[II)V",
+          .fnPtr = reinterpret_cast<void*>(&DispatchPlatformMessages),
+      },
       {
           .name = "nativeInvokePlatformMessageResponseCallback",
           .signature = "(JILjava/nio/ByteBuffer;I)V",
@@ -783,21 +912,41 @@ bool RegisterApi(JNIEnv* env) {
                        "WeakReference;)V",
           .fnPtr = reinterpret_cast<void*>(&RegisterImageTexture),
       },
+      {
+          .name = "nativeRegisterTextures",
+          .signature = "(J[J[Ljava/lang/ref/WeakReference;[ZI)V",
+          .fnPtr = reinterpret_cast<void*>(&RegisterTextures),
+      },
       {
           .name = "nativeMarkTextureFrameAvailable",
           .signature = "(JJ)V",
           .fnPtr = reinterpret_cast<void*>(&MarkTextureFrameAvailable),
       },
+      {
+          .name = "nativeMarkTextureFramesAvailable",
+          .signature = "(J[JI)V",
+          .fnPtr = reinterpret_cast<void*>(&MarkTextureFramesAvailable),
+      },
       {
           .name = "nativeScheduleFrame",
           .signature = "(J)V",
           .fnPtr = reinterpret_cast<void*>(&ScheduleFrame),
       },
+      {
+          .name = "nativeSetFrameTimingsEnabled",
+          .signature = "(JZ)V",
+          .fnPtr = reinterpret_cast<void*>(&SetFrameTimingsEnabled),
+      },
       {
           .name = "nativeUnregisterTexture",
           .signature = "(JJ)V",
           .fnPtr = reinterpret_cast<void*>(&UnregisterTexture),
       },
+      {
+          .name = "nativeUnregisterTextures",
+          .signature = "(J[JI)V",
+          .fnPtr = reinterpret_cast<void*>(&UnregisterTextures),
+      },
       // Methods for Dart callback functionality.
       {
           .name = "nativeLookupCallbackInformation",
@@ -1118,6 +1267,14 @@ bool PlatformViewAndroid::Register(JNIEnv* env) {
     return false;
   }
 
+  g_on_frame_rasterized_method = env->GetMethodID(
+      g_flutter_jni_class->obj(), "onFrameRasterized", "(JJJJJ)V");
+
+  if (g_on_frame_rasterized_method == nullptr) {
+    FML_LOG(ERROR) << "Could not locate onFrameRasterized method";
+    return false;
+  }
+
   g_on_display_overlay_surface_method = env->GetMethodID(
       g_flutter_jni_class->obj(), "onDisplayOverlaySurface", "(IIIII)V");
 
@@ -1770,6 +1927,29 @@ void PlatformViewAndroidJNIImpl::FlutterViewEndFrame() {
   FML_CHECK(fml::jni::CheckException(env));
 }
 
+void PlatformViewAndroidJNIImpl::FlutterViewOnFrameRasterized(
+    const FrameTiming& timing) {
+  JNIEnv* env = fml::jni::AttachCurrentThread();
+
+  auto java_object = java_object_.get(env);
+  if (java_object.is_null()) {
+    return;
+  }
+
+  // fml::TimePoint and System.nanoTime() share the CLOCK_MONOTONIC timebase.
+  auto nanos = [&timing](FrameTiming::Phase phase) {
+    return static_cast<jlong>(timing.Get(phase).ToEpochDelta().ToNanoseconds());
+  };
+  env->CallVoidMethod(java_object.obj(), g_on_frame_rasterized_method,
+                      nanos(FrameTiming::kVsyncStart),
+                      nanos(FrameTiming::kBuildStart),
+                      nanos(FrameTiming::kBuildFinish),
+                      nanos(FrameTiming::kRasterStart),
+                      nanos(FrameTiming::kRasterFinish));
+
+  FML_CHECK(fml::jni::CheckException(env));
+}
+
 std::unique_ptr<PlatformViewAndroidJNI::OverlayMetadata>
 PlatformViewAndroidJNIImpl::FlutterViewCreateOverlaySurface() {
   JNIEnv* env = fml::jni::AttachCurrentThread();
@@ -2,9 +2,12 @@ package io.flutter.embedding.android;
 
 import static io.flutter.Build.API_LEVELS;
 import static junit.framework.TestCase.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -580,6 +583,46 @@ public class AndroidTouchProcessorTest {
     inOrder.verifyNoMoreInteractions();
   }
 
+  @Test
+  public void pressureRangeIsCachedPerDevice() {
+    final int deviceId = 7;
+    InputDevice.MotionRange pressureRange = mock(InputDevice.MotionRange.class);
+    when(pressureRange.getMin()).thenReturn(0.25f);
+    when(pressureRange.getMax()).thenReturn(4.0f);
+    InputDevice device = mock(InputDevice.class);
+    when(device.getMotionRange(MotionEvent.AXIS_PRESSURE)).thenReturn(pressureRange);
+
+    MotionEventMocker mocker =
+        new MotionEventMocker(1, InputDevice.SOURCE_TOUCHSCREEN, MotionEvent.TOOL_TYPE_FINGER);
+    final MotionEvent firstEvent = mocker.mockEvent(MotionEvent.ACTION_DOWN, 10.0f, 20.0f, 0);
+    when(firstEvent.getDeviceId()).thenReturn(deviceId);
+    when(firstEvent.getDevice()).thenReturn(device);
+    final MotionEvent secondEvent = mocker.mockEvent(MotionEvent.ACTION_MOVE, 10.0f, 20.0f, 0);
+    when(secondEvent.getDeviceId()).thenReturn(deviceId);
+    when(secondEvent.getDevice()).thenReturn(device);
+
+    touchProcessor.onTouchEvent(firstEvent);
+    touchProcessor.onTouchEvent(secondEvent);
+
+    InOrder inOrder = inOrder(mockRenderer);
+    inOrder
+        .verify(mockRenderer)
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    inOrder
+        .verify(mockRenderer)
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    for (ByteBuffer packet : packetCaptor.getAllValues()) {
+      assertEquals(0.25, readPressureMin(packet));
+      assertEquals(4.0, readPressureMax(packet));
+    }
+    // The device is only queried for the first event.
+    verify(firstEvent).getDevice();
+    verify(secondEvent, never()).getDevice();
+    verify(device).getMotionRange(MotionEvent.AXIS_PRESSURE);
+
+    inOrder.verifyNoMoreInteractions();
+  }
+
   @Test
   public void stylusDistance() {
     MotionEventMocker mocker =
@@ -658,6 +701,163 @@ public class AndroidTouchProcessorTest {
     inOrder.verifyNoMoreInteractions();
   }
 
+  @Test
+  public void coalescesHoverMovesUntilFlushed() {
+    touchProcessor.setCoalesceEvents(true);
+    MotionEventMocker mocker =
+        new MotionEventMocker(0, InputDevice.SOURCE_MOUSE, MotionEvent.TOOL_TYPE_MOUSE);
+    final Context context = ApplicationProvider.getApplicationContext();
+
+    touchProcessor.onGenericMotionEvent(
+        mocker.mockEvent(MotionEvent.ACTION_HOVER_MOVE, 1.0f, 2.0f, 0), context);
+    touchProcessor.onGenericMotionEvent(
+        mocker.mockEvent(MotionEvent.ACTION_HOVER_MOVE, 3.0f, 4.0f, 0), context);
+    verify(mockRenderer, never()).dispatchPointerDataPacket(any(), anyInt());
+
+    touchProcessor.flushPendingEvents();
+    InOrder inOrder = inOrder(mockRenderer);
+    inOrder
+        .verify(mockRenderer)
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    ByteBuffer packet = packetCaptor.getValue();
+    // A single record with the latest position.
+    assertEquals(
+        36 * AndroidTouchProcessor.BYTES_PER_FIELD, packetSizeCaptor.getValue().intValue());
+    assertEquals(AndroidTouchProcessor.PointerChange.HOVER, readPointerChange(packet));
+    assertEquals(3.0, readPointerPhysicalX(packet));
+    assertEquals(4.0, readPointerPhysicalY(packet));
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  @Config(minSdk = API_LEVELS.API_26)
+  public void coalescingSumsScrollDeltas() {
+    touchProcessor.setCoalesceEvents(true);
+    MotionEventMocker mocker =
+        new MotionEventMocker(0, InputDevice.SOURCE_MOUSE, MotionEvent.TOOL_TYPE_MOUSE);
+    final Context context = ApplicationProvider.getApplicationContext();
+    final double horizontalScaleFactor =
+        ViewConfiguration.get(context).getScaledHorizontalScrollFactor();
+    final double verticalScaleFactor =
+        ViewConfiguration.get(context).getScaledVerticalScrollFactor();
+
+    for (int i = 0; i < 3; i++) {
+      touchProcessor.onGenericMotionEvent(
+          mocker.mockEvent(
+              MotionEvent.ACTION_SCROLL,
+              0.0f,
+              0.0f,
+              0,
+              1.0f,
+              -2.0f,
+              0.0f,
+              0.0f,
+              0.0f,
+              0.0f,
+              0.0f),
+          context);
+    }
+    touchProcessor.flushPendingEvents();
+
+    InOrder inOrder = inOrder(mockRenderer);
+    inOrder
+        .verify(mockRenderer)
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    ByteBuffer packet = packetCaptor.getValue();
+    assertEquals(
+        36 * AndroidTouchProcessor.BYTES_PER_FIELD, packetSizeCaptor.getValue().intValue());
+    assertEquals(AndroidTouchProcessor.PointerSignalKind.SCROLL, readPointerSignalKind(packet));
+    assertEquals(3 * -1.0 * horizontalScaleFactor, readScrollDeltaX(packet), 1e-9);
+    assertEquals(3 * 2.0 * verticalScaleFactor, readScrollDeltaY(packet), 1e-9);
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  public void coalescingFlushesWhenTheToolTypeChanges() {
+    touchProcessor.setCoalesceEvents(true);
+    MotionEventMocker mouseMocker =
+        new MotionEventMocker(0, InputDevice.SOURCE_MOUSE, MotionEvent.TOOL_TYPE_MOUSE);
+    MotionEventMocker stylusMocker =
+        new MotionEventMocker(0, InputDevice.SOURCE_STYLUS, MotionEvent.TOOL_TYPE_STYLUS);
+    final Context context = ApplicationProvider.getApplicationContext();
+
+    touchProcessor.onGenericMotionEvent(
+        mouseMocker.mockEvent(MotionEvent.ACTION_HOVER_MOVE, 1.0f, 2.0f, 0), context);
+    touchProcessor.onGenericMotionEvent(
+        stylusMocker.mockEvent(MotionEvent.ACTION_HOVER_MOVE, 3.0f, 4.0f, 0), context);
+    // The pending mouse update was sent before the stylus update was held back.
+    verify(mockRenderer, times(1))
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    ByteBuffer mousePacket = packetCaptor.getValue();
+    assertEquals(
+        AndroidTouchProcessor.PointerDeviceKind.MOUSE, readPointerDeviceKind(mousePacket));
+    assertEquals(1.0, readPointerPhysicalX(mousePacket));
+
+    touchProcessor.flushPendingEvents();
+    verify(mockRenderer, times(2))
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    ByteBuffer packet = packetCaptor.getValue();
+    assertEquals(
+        36 * AndroidTouchProcessor.BYTES_PER_FIELD, packetSizeCaptor.getValue().intValue());
+    assertEquals(AndroidTouchProcessor.PointerDeviceKind.STYLUS, readPointerDeviceKind(packet));
+    assertEquals(3.0, readPointerPhysicalX(packet));
+  }
+
+  @Test
+  public void coalescingFlushesWhenTheDeviceChanges() {
+    touchProcessor.setCoalesceEvents(true);
+    MotionEventMocker mocker =
+        new MotionEventMocker(0, InputDevice.SOURCE_MOUSE, MotionEvent.TOOL_TYPE_MOUSE);
+    final Context context = ApplicationProvider.getApplicationContext();
+    MotionEvent firstMouseEvent = mocker.mockEvent(MotionEvent.ACTION_HOVER_MOVE, 1.0f, 2.0f, 0);
+    when(firstMouseEvent.getDeviceId()).thenReturn(1);
+    MotionEvent secondMouseEvent = mocker.mockEvent(MotionEvent.ACTION_HOVER_MOVE, 3.0f, 4.0f, 0);
+    when(secondMouseEvent.getDeviceId()).thenReturn(2);
+
+    touchProcessor.onGenericMotionEvent(firstMouseEvent, context);
+    touchProcessor.onGenericMotionEvent(secondMouseEvent, context);
+
+    // The update of the first mouse was sent before the update of the second one was held back.
+    verify(mockRenderer, times(1))
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    ByteBuffer firstPacket = packetCaptor.getValue();
+    assertEquals(
+        36 * AndroidTouchProcessor.BYTES_PER_FIELD, packetSizeCaptor.getValue().intValue());
+    assertEquals(1.0, readPointerPhysicalX(firstPacket));
+    assertEquals(2.0, readPointerPhysicalY(firstPacket));
+
+    touchProcessor.flushPendingEvents();
+    verify(mockRenderer, times(2))
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    assertEquals(3.0, readPointerPhysicalX(packetCaptor.getValue()));
+  }
+
+  @Test
+  public void touchEventFlushesCoalescedEventsFirst() {
+    touchProcessor.setCoalesceEvents(true);
+    MotionEventMocker mocker =
+        new MotionEventMocker(0, InputDevice.SOURCE_MOUSE, MotionEvent.TOOL_TYPE_MOUSE);
+
+    touchProcessor.onGenericMotionEvent(
+        mocker.mockEvent(MotionEvent.ACTION_HOVER_MOVE, 1.0f, 2.0f, 0),
+        ApplicationProvider.getApplicationContext());
+    touchProcessor.onTouchEvent(
+        mocker.mockEvent(MotionEvent.ACTION_DOWN, 1.0f, 2.0f, MotionEvent.BUTTON_PRIMARY));
+
+    InOrder inOrder = inOrder(mockRenderer);
+    inOrder
+        .verify(mockRenderer)
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    assertEquals(
+        AndroidTouchProcessor.PointerChange.HOVER, readPointerChange(packetCaptor.getValue()));
+    inOrder
+        .verify(mockRenderer)
+        .dispatchPointerDataPacket(packetCaptor.capture(), packetSizeCaptor.capture());
+    assertEquals(
+        AndroidTouchProcessor.PointerChange.DOWN, readPointerChange(packetCaptor.getValue()));
+    inOrder.verifyNoMoreInteractions();
+  }
+
   @Test
   public void unexpectedPointerChange() {
     // Regression test for https://github.com/flutter/flutter/issues/129765
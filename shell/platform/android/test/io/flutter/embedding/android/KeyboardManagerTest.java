@@ -267,21 +267,26 @@ public class KeyboardManagerTest {
     private Object onMessengerMessage(@NonNull InvocationOnMock invocation) {
       final String channel = invocation.getArgument(0);
       final ByteBuffer buffer = invocation.getArgument(1);
-      buffer.rewind();
 
       final BinaryMessenger.BinaryReply reply = invocation.getArgument(2);
       if (channel == "flutter/keyevent") {
         // Parse a channel call.
+        buffer.rewind();
         final JSONObject jsonObject = (JSONObject) JSONMessageCodec.INSTANCE.decodeMessage(buffer);
         final Consumer<Boolean> jsonReply =
             reply == null ? null : handled -> reply.reply(buildJsonResponse(handled));
         channelHandler.accept(jsonObject, jsonReply);
       } else if (channel == "flutter/keydata") {
-        // Parse an embedder call.
-        final KeyData keyData = new KeyData(buffer);
-        final Consumer<Boolean> booleanReply =
-            reply == null ? null : handled -> reply.reply(buildBinaryResponse(handled));
-        embedderHandler.accept(keyData, booleanReply);
+        // Parse an embedder call, which might contain several records. The reply belongs to the
+        // non-synthesized record.
+        final List<KeyData> records = KeyData.fromPacket(buffer);
+        for (final KeyData keyData : records) {
+          final Consumer<Boolean> booleanReply =
+              reply == null || keyData.synthesized
+                  ? null
+                  : handled -> reply.reply(buildBinaryResponse(handled));
+          embedderHandler.accept(keyData, booleanReply);
+        }
       } else {
         assertTrue(false);
       }
@@ -496,6 +501,36 @@ public class KeyboardManagerTest {
     assertEquals(data2Loaded.timestamp, data2.timestamp);
   }
 
+  @Test
+  public void encodeKeyDataPacketWithSeveralRecords() {
+    final KeyData.PacketEncoder encoder = new KeyData.PacketEncoder();
+    encoder.add(0x0c, Type.kDown, 0x0a, 0x0b, true, DeviceType.kKeyboard, "A");
+    encoder.add(0x0d, Type.kUp, 0x0a, 0x0b, false, DeviceType.kKeyboard, null);
+    assertEquals(2, encoder.getRecordCount());
+
+    final ByteBuffer packet = encoder.takePacket();
+    assertEquals(0, encoder.getRecordCount());
+    // `position` is considered as the message size.
+    assertEquals(57 + 56, packet.position());
+
+    final List<KeyData> records = KeyData.fromPacket(packet);
+    assertEquals(2, records.size());
+    assertEmbedderEventEquals(
+        records.get(0), Type.kDown, 0x0a, 0x0b, "A", true, DeviceType.kKeyboard);
+    assertEmbedderEventEquals(
+        records.get(1), Type.kUp, 0x0a, 0x0b, null, false, DeviceType.kKeyboard);
+
+    // The buffer is reused by the next packet, and grows as needed.
+    for (int i = 0; i < 10; i += 1) {
+      encoder.add(i, Type.kDown, 0x0a, 0x0b, true, DeviceType.kKeyboard, null);
+    }
+    final ByteBuffer largePacket = encoder.takePacket();
+    assertEquals(10 * 56, largePacket.position());
+    final List<KeyData> largeRecords = KeyData.fromPacket(largePacket);
+    assertEquals(10, largeRecords.size());
+    assertEquals(9, largeRecords.get(9).timestamp);
+  }
+
   @Test
   public void basicCombingCharactersTest() {
     final KeyboardManager.CharacterCombiner combiner = new KeyboardManager.CharacterCombiner();
@@ -1921,4 +1956,17 @@ public class KeyboardManagerTest {
         new FakeKeyEvent(ACTION_UP, SCAN_KEY_A, KEYCODE_A, 0, 'a', 0));
     assertEquals(tester.keyboardManager.getKeyboardState(), Map.of());
   }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void deprecatedKeyboardMapsMatchTheLookups() {
+    assertEquals(
+        (Long) KeyboardMap.getPhysicalKeyForScanCode(SCAN_KEY_A),
+        KeyboardMap.scanCodeToPhysical.get((long) SCAN_KEY_A));
+    assertEquals(
+        (Long) KeyboardMap.getLogicalKeyForKeyCode(KEYCODE_A),
+        KeyboardMap.keyCodeToLogical.get((long) KEYCODE_A));
+    assertEquals(0L, KeyboardMap.getPhysicalKeyForScanCode(0xffffffL));
+    assertNull(KeyboardMap.scanCodeToPhysical.get(0xffffffL));
+  }
 }
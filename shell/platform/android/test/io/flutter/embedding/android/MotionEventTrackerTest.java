@@ -0,0 +1,124 @@
+package io.flutter.embedding.android;
+
+import static android.os.Looper.getMainLooper;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.view.MotionEvent;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.time.Duration;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+@Config(manifest = Config.NONE)
+@RunWith(AndroidJUnit4.class)
+public class MotionEventTrackerTest {
+  private static MotionEvent createEvent(long eventTime) {
+    return MotionEvent.obtain(
+        0, // downTime
+        eventTime, // eventTime
+        MotionEvent.ACTION_MOVE, // action
+        0, // x
+        0, // y
+        0 // metaState
+        );
+  }
+
+  @Test
+  public void popReturnsTrackedEventAndDiscardsOlderEvents() {
+    MotionEventTracker tracker = new MotionEventTracker();
+    long first = tracker.trackEvent(createEvent(1));
+    long second = tracker.trackEvent(createEvent(2));
+    long third = tracker.trackEvent(createEvent(3));
+    assertEquals(3, tracker.getOccupancy());
+
+    MotionEvent popped = tracker.pop(second);
+    assertNotNull(popped);
+    assertEquals(2, popped.getEventTime());
+    assertEquals(1, tracker.getOccupancy());
+
+    // The older event was discarded, and popping an event twice returns null.
+    assertNull(tracker.pop(first));
+    assertNull(tracker.pop(second));
+    assertEquals(3, tracker.pop(third).getEventTime());
+    assertEquals(0, tracker.getOccupancy());
+    assertEquals(0, tracker.getEvictedEventCount());
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void sharedTrackerDoesNotHandOutTheIdsOfOtherTrackers() {
+    MotionEventTracker tracker = new MotionEventTracker();
+    MotionEventTracker sharedTracker = MotionEventTracker.getInstance();
+    assertSame(sharedTracker, MotionEventTracker.getInstance());
+    long id = tracker.trackEvent(createEvent(1));
+    long sharedId = sharedTracker.trackEvent(createEvent(2));
+
+    assertNull(tracker.pop(sharedId));
+    assertNull(sharedTracker.pop(id));
+    assertEquals(1, tracker.pop(id).getEventTime());
+    assertEquals(2, sharedTracker.pop(sharedId).getEventTime());
+  }
+
+  @Test
+  public void popReturnsNullForUnknownIds() {
+    MotionEventTracker tracker = new MotionEventTracker();
+    long id = tracker.trackEvent(createEvent(1));
+
+    assertNull(tracker.pop(0));
+    assertNull(tracker.pop(id + 1));
+    assertEquals(1, tracker.getOccupancy());
+  }
+
+  @Test
+  public void trackEvictsOldestEventWhenFull() {
+    MotionEventTracker tracker = new MotionEventTracker(/*capacity=*/ 3, /*maxAgeMs=*/ 1000);
+    // Capacity is rounded up to a power of two.
+    assertEquals(4, tracker.getCapacity());
+
+    long first = tracker.trackEvent(createEvent(1));
+    for (int i = 2; i <= 5; i++) {
+      tracker.trackEvent(createEvent(i));
+    }
+
+    assertEquals(4, tracker.getOccupancy());
+    assertEquals(4, tracker.getPeakOccupancy());
+    assertEquals(1, tracker.getEvictedEventCount());
+    assertNull(tracker.pop(first));
+    assertEquals(4, tracker.getOccupancy());
+  }
+
+  @Test
+  public void trackEvictsExpiredEvents() {
+    MotionEventTracker tracker = new MotionEventTracker(/*capacity=*/ 8, /*maxAgeMs=*/ 100);
+    long first = tracker.trackEvent(createEvent(1));
+    tracker.trackEvent(createEvent(2));
+
+    shadowOf(getMainLooper()).idleFor(Duration.ofMillis(200));
+    long third = tracker.trackEvent(createEvent(3));
+
+    assertEquals(1, tracker.getOccupancy());
+    assertEquals(2, tracker.getEvictedEventCount());
+    assertNull(tracker.pop(first));
+    assertEquals(3, tracker.pop(third).getEventTime());
+  }
+
+  @Test
+  public void clearDiscardsAllEvents() {
+    MotionEventTracker tracker = new MotionEventTracker();
+    long first = tracker.trackEvent(createEvent(1));
+    tracker.trackEvent(createEvent(2));
+
+    tracker.clear();
+
+    assertEquals(0, tracker.getOccupancy());
+    assertNull(tracker.pop(first));
+    // Ids keep increasing after the tracker is cleared.
+    long next = tracker.trackEvent(createEvent(3));
+    assertEquals(first + 2, next);
+  }
+}
@@ -1,6 +1,7 @@
 package io.flutter.embedding.engine;
 
 import static io.flutter.Build.API_LEVELS;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -248,6 +249,37 @@ public class FlutterJNITest {
     flutterJNI.invokePlatformMessageResponseCallback(0, buffer, buffer.position());
   }
 
+  @Test
+  public void onFrameRasterized_reportsTheEngineTimingsToFrameListeners() {
+    FlutterJNI flutterJNI = new FlutterJNI();
+    flutterJNI.setRefreshRateFPS(50.0f);
+    long[] reported = new long[6];
+    FlutterJNI.FrameListener listener =
+        (vsyncTime, buildStart, buildEnd, rasterStart, rasterEnd, refreshPeriod) -> {
+          reported[0] = vsyncTime;
+          reported[1] = buildStart;
+          reported[2] = buildEnd;
+          reported[3] = rasterStart;
+          reported[4] = rasterEnd;
+          reported[5] = refreshPeriod;
+        };
+    flutterJNI.addFrameListener(listener);
+
+    // --- Execute Test ---
+    // Called by the engine on the raster thread, whichever way vsync signals reach it.
+    flutterJNI.onFrameRasterized(1, 2, 3, 4, 5);
+
+    // --- Verify Results ---
+    assertArrayEquals(new long[] {1, 2, 3, 4, 5, 20000000}, reported);
+
+    // --- Execute Test ---
+    flutterJNI.removeFrameListener(listener);
+    flutterJNI.onFrameRasterized(6, 7, 8, 9, 10);
+
+    // --- Verify Results ---
+    assertEquals(1, reported[0]);
+  }
+
   @Test
   public void setRefreshRateFPS_callsUpdateRefreshRate() {
     FlutterJNI flutterJNI = spy(new FlutterJNI());
@@ -165,6 +165,46 @@ public class DartMessengerTest {
     verify(fakeFlutterJni, times(1)).dispatchEmptyPlatformMessage(eq("foobar"), eq(2));
   }
 
+  @Test
+  public void batchedMessagesAreDispatchedTogether() {
+    final FlutterJNI fakeFlutterJni = mock(FlutterJNI.class);
+    final DartMessenger messenger = new DartMessenger(fakeFlutterJni);
+    final String[][] dispatchedChannels = new String[1][];
+    final int[][] dispatchedReplyIds = new int[1][];
+    Mockito.doAnswer(
+            invocation -> {
+              final int count = invocation.getArgument(4);
+              dispatchedChannels[0] = new String[count];
+              System.arraycopy(invocation.getArgument(0), 0, dispatchedChannels[0], 0, count);
+              dispatchedReplyIds[0] = new int[count];
+              System.arraycopy(invocation.getArgument(3), 0, dispatchedReplyIds[0], 0, count);
+              return null;
+            })
+        .when(fakeFlutterJni)
+        .dispatchPlatformMessages(any(), any(), any(), any(), anyInt());
+
+    final ByteBuffer message = ByteBuffer.allocateDirect(4);
+    messenger.beginBatch();
+    messenger.send("a", message, null);
+    messenger.beginBatch();
+    messenger.send("b", null, (reply) -> {});
+    messenger.send("c", message, null);
+    messenger.endBatch();
+    // Nested batches are dispatched when the outermost batch ends.
+    verify(fakeFlutterJni, never()).dispatchPlatformMessages(any(), any(), any(), any(), anyInt());
+    messenger.endBatch();
+
+    verify(fakeFlutterJni, times(1)).dispatchPlatformMessages(any(), any(), any(), any(), eq(3));
+    verify(fakeFlutterJni, never()).dispatchPlatformMessage(any(), any(), anyInt(), anyInt());
+    verify(fakeFlutterJni, never()).dispatchEmptyPlatformMessage(any(), anyInt());
+    assertArrayEquals(new String[] {"a", "b", "c"}, dispatchedChannels[0]);
+    assertArrayEquals(new int[] {1, 2, 3}, dispatchedReplyIds[0]);
+
+    // Messages sent outside of a batch are dispatched immediately.
+    messenger.send("d", null, null);
+    verify(fakeFlutterJni, times(1)).dispatchEmptyPlatformMessage(eq("d"), eq(4));
+  }
+
   @Test
   public void cleansUpMessageData() throws InterruptedException {
     final FlutterJNI fakeFlutterJni = mock(FlutterJNI.class);
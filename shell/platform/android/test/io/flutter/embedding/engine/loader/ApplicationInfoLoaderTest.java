@@ -6,7 +6,9 @@ package io.flutter.embedding.engine.loader;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anyInt;
@@ -46,6 +48,7 @@ public class ApplicationInfoLoaderTest {
     assertEquals("flutter_assets", info.flutterAssetsDir);
     assertEquals("", info.domainNetworkPolicy);
     assertNull(info.nativeLibraryDir);
+    assertFalse(info.dedicatedVsyncThread);
   }
 
   @SuppressWarnings("deprecation")
@@ -76,6 +79,7 @@ public class ApplicationInfoLoaderTest {
     bundle.putString(ApplicationInfoLoader.PUBLIC_VM_SNAPSHOT_DATA_KEY, "testvmsnapshot");
     bundle.putString(ApplicationInfoLoader.PUBLIC_ISOLATE_SNAPSHOT_DATA_KEY, "testisolatesnapshot");
     bundle.putString(ApplicationInfoLoader.PUBLIC_FLUTTER_ASSETS_DIR_KEY, "testassets");
+    bundle.putBoolean(ApplicationInfoLoader.DEDICATED_VSYNC_THREAD_METADATA_KEY, true);
     Context context = generateMockContext(bundle, null);
     FlutterApplicationInfo info = ApplicationInfoLoader.load(context);
     assertNotNull(info);
@@ -85,6 +89,7 @@ public class ApplicationInfoLoaderTest {
     assertEquals("testassets", info.flutterAssetsDir);
     assertNull(info.nativeLibraryDir);
     assertEquals("", info.domainNetworkPolicy);
+    assertTrue(info.dedicatedVsyncThread);
   }
 
   @Test
@@ -1,14 +1,18 @@
 package io.flutter.embedding.engine.renderer;
 
 import static android.content.ComponentCallbacks2.TRIM_MEMORY_COMPLETE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyFloat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -18,6 +22,7 @@ import static org.mockito.Mockito.when;
 import static org.robolectric.Shadows.shadowOf;
 
 import android.graphics.Canvas;
+import android.graphics.ImageFormat;
 import android.graphics.Rect;
 import android.graphics.SurfaceTexture;
 import android.media.Image;
@@ -26,7 +31,10 @@ import android.view.Surface;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import io.flutter.embedding.engine.FlutterJNI;
 import io.flutter.view.TextureRegistry;
+import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
@@ -621,6 +629,251 @@ public class FlutterRendererTest {
     assertEquals(0, texture.numImages());
   }
 
+  @Test
+  public void ImageReaderSurfaceProducerHandsOffImagesAcrossThreadsWithoutLeaks() throws Exception {
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FlutterRenderer.ImageReaderSurfaceProducer texture =
+        flutterRenderer.new ImageReaderSurfaceProducer(0);
+    texture.disableFenceForTest();
+
+    final int frameCount = 2000;
+    final AtomicInteger[] closeCounts = new AtomicInteger[frameCount];
+    final Image[] images = new Image[frameCount];
+    for (int i = 0; i < frameCount; i++) {
+      final AtomicInteger closeCount = new AtomicInteger();
+      closeCounts[i] = closeCount;
+      images[i] = mock(Image.class);
+      doAnswer(invocation -> closeCount.incrementAndGet()).when(images[i]).close();
+    }
+
+    // Acquire images on a background thread, as the raster thread would, and check that every
+    // image is still open when it is acquired.
+    final AtomicBoolean producing = new AtomicBoolean(true);
+    final AtomicInteger acquiredCount = new AtomicInteger();
+    final AtomicInteger acquiredClosedCount = new AtomicInteger();
+    Thread consumer =
+        new Thread(
+            () -> {
+              while (true) {
+                final boolean done = !producing.get();
+                Image image = texture.acquireLatestImage();
+                if (image == null) {
+                  if (done) {
+                    return;
+                  }
+                  Thread.yield();
+                  continue;
+                }
+                acquiredCount.incrementAndGet();
+                for (int i = 0; i < frameCount; i++) {
+                  if (images[i] == image && closeCounts[i].get() != 0) {
+                    acquiredClosedCount.incrementAndGet();
+                  }
+                }
+              }
+            });
+    consumer.start();
+
+    // Produce images on this thread, resizing the texture every few frames.
+    for (int i = 0; i < frameCount; i++) {
+      if (i % 25 == 0) {
+        texture.setSize(1 + (i / 25) % 4, 1 + (i / 25) % 4);
+        assertNotNull(texture.getSurface());
+      }
+      texture.queueImageForTest(images[i]);
+    }
+    producing.set(false);
+    consumer.join();
+    texture.release();
+
+    assertEquals(0, acquiredClosedCount.get());
+    assertEquals(0, texture.numImageReaders());
+    assertEquals(0, texture.numImages());
+    for (int i = 0; i < frameCount; i++) {
+      assertEquals("image " + i + " close count", 1, closeCounts[i].get());
+    }
+    assertTrue(acquiredCount.get() > 0);
+  }
+
+  @Test
+  public void ImageReaderSurfaceProducerReportsStatistics() {
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FlutterRenderer.ImageReaderSurfaceProducer texture =
+        flutterRenderer.new ImageReaderSurfaceProducer(0);
+    texture.disableFenceForTest();
+    TextureRegistry.SurfaceProducerStatistics statistics =
+        new TextureRegistry.SurfaceProducerStatistics();
+
+    // Produce three frames. Only two are queued, so the first one is dropped.
+    texture.setSize(1, 1);
+    Image first = mock(Image.class);
+    texture.queueImageForTest(first);
+    texture.queueImageForTest(mock(Image.class));
+    texture.queueImageForTest(mock(Image.class));
+    verify(first, times(1)).close();
+
+    texture.getStatistics(statistics);
+    assertEquals(3, statistics.framesProduced);
+    assertEquals(0, statistics.framesConsumed);
+    assertEquals(1, statistics.framesDropped);
+    assertEquals(1, statistics.liveReaders);
+    assertEquals(2, statistics.liveImages);
+
+    // Consume a frame.
+    assertNotNull(texture.acquireLatestImage());
+
+    texture.getStatistics(statistics);
+    assertEquals(3, statistics.framesProduced);
+    assertEquals(1, statistics.framesConsumed);
+    assertEquals(1, statistics.framesDropped);
+    assertEquals(1, statistics.liveImages);
+    assertTrue(statistics.totalQueuedTimeNanos >= statistics.maxQueuedTimeNanos);
+    assertEquals(0, statistics.totalFenceWaitTimeNanos);
+
+    // Releasing the producer drops the frame that is still queued.
+    texture.release();
+
+    texture.getStatistics(statistics);
+    assertEquals(2, statistics.framesDropped);
+    assertEquals(0, statistics.liveReaders);
+    assertEquals(0, statistics.liveImages);
+  }
+
+  @Test
+  public void FlutterRendererAggregatesSurfaceProducerStatistics() {
+    FlutterRenderer.debugForceSurfaceProducerGlTextures = false;
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FlutterRenderer.ImageReaderSurfaceProducer first =
+        (FlutterRenderer.ImageReaderSurfaceProducer) flutterRenderer.createSurfaceProducer();
+    FlutterRenderer.ImageReaderSurfaceProducer second =
+        (FlutterRenderer.ImageReaderSurfaceProducer) flutterRenderer.createSurfaceProducer();
+    first.disableFenceForTest();
+    second.disableFenceForTest();
+
+    first.queueImageForTest(mock(Image.class));
+    second.queueImageForTest(mock(Image.class));
+    second.queueImageForTest(mock(Image.class));
+    second.queueImageForTest(mock(Image.class));
+    assertNotNull(second.acquireLatestImage());
+
+    TextureRegistry.SurfaceProducerStatistics statistics =
+        new TextureRegistry.SurfaceProducerStatistics();
+    flutterRenderer.getSurfaceProducerStatistics(statistics);
+    assertEquals(4, statistics.framesProduced);
+    assertEquals(1, statistics.framesConsumed);
+    assertEquals(1, statistics.framesDropped);
+    assertEquals(2, statistics.liveReaders);
+    assertEquals(2, statistics.liveImages);
+
+    // Statistics are recomputed rather than accumulated on every call.
+    flutterRenderer.getSurfaceProducerStatistics(statistics);
+    assertEquals(4, statistics.framesProduced);
+  }
+
+  @Test
+  public void ImageReaderSurfaceProducerGrowsAndShrinksImageQueue() {
+    FlutterRenderer.debugForceSurfaceProducerGlTextures = false;
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FlutterRenderer.ImageReaderSurfaceProducer texture =
+        (FlutterRenderer.ImageReaderSurfaceProducer) flutterRenderer.createSurfaceProducer();
+    texture.disableFenceForTest();
+
+    // The queue starts small.
+    texture.setSize(2, 2);
+    assertNotNull(texture.getSurface());
+    assertEquals(FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES, texture.getMaxImages());
+    assertEquals(
+        2 * 2 * 4 * FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES,
+        flutterRenderer.getTextureMemoryUsage());
+
+    // Dropping frames doesn't grow the queue, only two images are handed off per reader.
+    texture.queueImageForTest(mock(Image.class));
+    texture.queueImageForTest(mock(Image.class));
+    texture.queueImageForTest(mock(Image.class));
+    assertEquals(FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES, texture.getMaxImages());
+    while (texture.acquireLatestImage() != null) {}
+
+    // A stall grows the queue of the next reader.
+    texture.stallForTest();
+    assertEquals(FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES + 1, texture.getMaxImages());
+    assertEquals(1, texture.numImageReaders());
+    assertNotNull(texture.getSurface());
+    assertEquals(2, texture.numImageReaders());
+
+    // The queue shrinks back once the producer has been idle for a while, without waiting for the
+    // next getSurface.
+    texture.queueImageForTest(mock(Image.class));
+    assertNotNull(texture.acquireLatestImage());
+    shadowOf(Looper.getMainLooper())
+        .idleFor(
+            Duration.ofMillis(
+                FlutterRenderer.ImageReaderSurfaceProducer.SHRINK_AFTER_IDLE_MS + 1000));
+    assertEquals(FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES, texture.getMaxImages());
+    assertEquals(1, texture.numImageReaders());
+
+    texture.release();
+  }
+
+  @Test
+  public void ImageReaderSurfaceProducerReleasesItsSurfaceWhenIdleAfterGrowing() {
+    FlutterRenderer.debugForceSurfaceProducerGlTextures = false;
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FlutterRenderer.ImageReaderSurfaceProducer texture =
+        (FlutterRenderer.ImageReaderSurfaceProducer) flutterRenderer.createSurfaceProducer();
+    texture.disableFenceForTest();
+    AtomicInteger destroyedCount = new AtomicInteger();
+    texture.setCallback(
+        new TextureRegistry.SurfaceProducer.Callback() {
+          @Override
+          public void onSurfaceDestroyed() {
+            destroyedCount.incrementAndGet();
+          }
+
+          @Override
+          public void onSurfaceAvailable() {
+            assertNotNull(texture.getSurface());
+          }
+        });
+
+    texture.setSize(2, 2);
+    texture.stallForTest();
+    assertNotNull(texture.getSurface());
+    assertEquals(FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES + 1, texture.getMaxImages());
+
+    // The owner recreates the surface right away, at the minimum depth.
+    shadowOf(Looper.getMainLooper())
+        .idleFor(
+            Duration.ofMillis(
+                FlutterRenderer.ImageReaderSurfaceProducer.SHRINK_AFTER_IDLE_MS + 1000));
+    assertEquals(1, destroyedCount.get());
+    assertEquals(1, texture.numImageReaders());
+    assertEquals(FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES, texture.getMaxImages());
+    assertEquals(
+        2 * 2 * 4 * FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES,
+        flutterRenderer.getTextureMemoryUsage());
+
+    texture.release();
+  }
+
+  @Test
+  public void ImageReaderSurfaceProducerDoesNotGrowImageQueueBeyondMemoryBudget() {
+    FlutterRenderer.debugForceSurfaceProducerGlTextures = false;
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FlutterRenderer.ImageReaderSurfaceProducer texture =
+        (FlutterRenderer.ImageReaderSurfaceProducer) flutterRenderer.createSurfaceProducer();
+    texture.disableFenceForTest();
+    flutterRenderer.setTextureMemoryBudget(
+        4 * 4 * 4 * FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES);
+
+    texture.setSize(4, 4);
+    texture.stallForTest();
+
+    assertEquals(FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES, texture.getMaxImages());
+    assertEquals(1, texture.numImageReaders());
+
+    texture.release();
+  }
+
   @Test
   public void ImageReaderSurfaceProducerTrimMemoryCallback() {
     FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
@@ -656,6 +909,201 @@ public class FlutterRendererTest {
     assertEquals(1, texture.numImages());
   }
 
+  @Test
+  public void ImageReaderSurfaceProducerTrimsIdleReadersAndQueuedImages() {
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FlutterRenderer.ImageReaderSurfaceProducer texture =
+        flutterRenderer.new ImageReaderSurfaceProducer(0);
+    texture.disableFenceForTest();
+    TextureRegistry.SurfaceProducerStatistics statistics =
+        new TextureRegistry.SurfaceProducerStatistics();
+
+    // The first reader holds the dequeued image.
+    texture.setSize(1, 1);
+    texture.queueImageForTest(mock(Image.class));
+    assertNotNull(texture.acquireLatestImage());
+    // The second reader is idle.
+    texture.setSize(2, 2);
+    assertNotNull(texture.getSurface());
+    // The third reader is active and has two queued images.
+    texture.setSize(3, 3);
+    Image older = mock(Image.class);
+    Image newer = mock(Image.class);
+    texture.queueImageForTest(older);
+    texture.queueImageForTest(newer);
+    assertEquals(3, texture.numImageReaders());
+
+    // Only the idle reader is closed.
+    texture.onTrimMemory(TRIM_MEMORY_RUNNING_LOW);
+    assertEquals(2, texture.numImageReaders());
+    assertEquals(2, texture.numImages());
+    texture.getStatistics(statistics);
+    assertEquals(
+        2 * 2 * 4 * FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES,
+        statistics.trimmedBytes);
+
+    // Queued images are dropped, except for the most recent one.
+    texture.onTrimMemory(TRIM_MEMORY_RUNNING_CRITICAL);
+    assertEquals(2, texture.numImageReaders());
+    assertEquals(1, texture.numImages());
+    verify(older, times(1)).close();
+    verify(newer, never()).close();
+
+    // Without a callback, the surface is not released.
+    texture.onTrimMemory(TRIM_MEMORY_COMPLETE);
+    assertEquals(2, texture.numImageReaders());
+    assertEquals(1, texture.numImages());
+    verify(newer, never()).close();
+  }
+
+  @Test
+  public void ImageReaderSurfaceProducerReleasesSurfaceOnCompleteTrimWithCallback() {
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FlutterRenderer.ImageReaderSurfaceProducer texture =
+        flutterRenderer.new ImageReaderSurfaceProducer(0);
+    texture.disableFenceForTest();
+    AtomicInteger destroyedCount = new AtomicInteger();
+    AtomicInteger availableCount = new AtomicInteger();
+    texture.setCallback(
+        new TextureRegistry.SurfaceProducer.Callback() {
+          @Override
+          public void onSurfaceDestroyed() {
+            destroyedCount.incrementAndGet();
+          }
+
+          @Override
+          public void onSurfaceAvailable() {
+            availableCount.incrementAndGet();
+          }
+        });
+
+    texture.setSize(1, 1);
+    Image image = mock(Image.class);
+    texture.queueImageForTest(image);
+
+    texture.onTrimMemory(TRIM_MEMORY_COMPLETE);
+    assertEquals(1, destroyedCount.get());
+    assertEquals(0, texture.numImageReaders());
+    verify(image, times(1)).close();
+    TextureRegistry.SurfaceProducerStatistics statistics =
+        new TextureRegistry.SurfaceProducerStatistics();
+    texture.getStatistics(statistics);
+    assertEquals(
+        4 * FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES, statistics.trimmedBytes);
+
+    // The surface stays released until the engine draws the texture again.
+    shadowOf(Looper.getMainLooper()).idle();
+    assertEquals(0, availableCount.get());
+    assertEquals(0, texture.numImageReaders());
+    assertNull(texture.acquireLatestImage());
+    shadowOf(Looper.getMainLooper()).idle();
+    assertEquals(1, availableCount.get());
+
+    // The owner recreates the surface.
+    assertNotNull(texture.getSurface());
+    assertEquals(1, texture.numImageReaders());
+    assertNull(texture.acquireLatestImage());
+    shadowOf(Looper.getMainLooper()).idle();
+    assertEquals(1, availableCount.get());
+  }
+
+  private static Image createImage(int width, int height) {
+    Image image = mock(Image.class);
+    when(image.getWidth()).thenReturn(width);
+    when(image.getHeight()).thenReturn(height);
+    when(image.getFormat()).thenReturn(ImageFormat.YUV_420_888);
+    return image;
+  }
+
+  @Test
+  public void FlutterRendererAccountsForTextureMemory() {
+    FlutterRenderer.debugForceSurfaceProducerGlTextures = false;
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    TextureRegistry.SurfaceProducer producer = flutterRenderer.createSurfaceProducer();
+    TextureRegistry.ImageTextureEntry imageTexture = flutterRenderer.createImageTexture();
+
+    producer.setSize(10, 10);
+    assertNotNull(producer.getSurface());
+    // YUV_420_888 uses 12 bits per pixel.
+    imageTexture.pushImage(createImage(8, 8));
+
+    final long producerBytes = 10 * 10 * 4 * FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES;
+    final long imageTextureBytes = 8 * 8 * 12 / 8;
+    assertEquals(producerBytes + imageTextureBytes, flutterRenderer.getTextureMemoryUsage());
+    Map<Long, Long> usages = flutterRenderer.getTextureMemoryUsages();
+    assertEquals(2, usages.size());
+    assertEquals(producerBytes, (long) usages.get(producer.id()));
+    assertEquals(imageTextureBytes, (long) usages.get(imageTexture.id()));
+
+    // Released textures no longer hold memory.
+    imageTexture.release();
+    assertEquals(producerBytes, flutterRenderer.getTextureMemoryUsage());
+    producer.release();
+    assertEquals(0, flutterRenderer.getTextureMemoryUsage());
+  }
+
+  @Test
+  public void FlutterRendererEvictsTexturesThatWereNotDrawnRecentlyOverBudget() {
+    FlutterRenderer.debugForceSurfaceProducerGlTextures = false;
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FlutterRenderer.ImageReaderSurfaceProducer first =
+        (FlutterRenderer.ImageReaderSurfaceProducer) flutterRenderer.createSurfaceProducer();
+    FlutterRenderer.ImageReaderSurfaceProducer second =
+        (FlutterRenderer.ImageReaderSurfaceProducer) flutterRenderer.createSurfaceProducer();
+    FlutterRenderer.ImageTextureRegistryEntry imageTexture =
+        (FlutterRenderer.ImageTextureRegistryEntry) flutterRenderer.createImageTexture();
+    first.disableFenceForTest();
+    second.disableFenceForTest();
+    imageTexture.disableFenceForTest();
+    AtomicInteger firstDestroyedCount = new AtomicInteger();
+    AtomicInteger secondDestroyedCount = new AtomicInteger();
+    first.setCallback(firstDestroyedCount::incrementAndGet);
+    second.setCallback(secondDestroyedCount::incrementAndGet);
+
+    final long producerBytes = 2 * 2 * 4 * FlutterRenderer.ImageReaderSurfaceProducer.MIN_IMAGES;
+    first.setSize(2, 2);
+    second.setSize(2, 2);
+    assertNotNull(first.getSurface());
+    assertNotNull(second.getSurface());
+    Image pending = createImage(8, 8);
+    imageTexture.pushImage(pending);
+
+    // The first producer was drawn a while ago, the second one is on screen. The image texture was
+    // never drawn.
+    assertNull(first.acquireLatestImage());
+    shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(2));
+    assertNull(second.acquireLatestImage());
+    assertEquals(2 * producerBytes + 96, flutterRenderer.getTextureMemoryUsage());
+
+    flutterRenderer.setTextureMemoryBudget(producerBytes);
+
+    // Only the first producer is evicted. The pending image is the next frame of the image
+    // texture, so it is kept, and the producer on screen is left alone.
+    assertEquals(1, firstDestroyedCount.get());
+    assertEquals(0, secondDestroyedCount.get());
+    verify(pending, never()).close();
+    assertEquals(producerBytes + 96, flutterRenderer.getTextureMemoryUsage());
+    assertEquals(1, flutterRenderer.getEvictedTextureCount());
+    assertEquals(pending, imageTexture.acquireLatestImage());
+  }
+
+  @Test
+  public void FlutterRendererOnlyListensToFrameTimingsWhileItHasListeners() {
+    FlutterRenderer flutterRenderer = new FlutterRenderer(fakeFlutterJNI);
+    FrameTimingsListener first = (timings, summary) -> {};
+    FrameTimingsListener second = (timings, summary) -> {};
+    verify(fakeFlutterJNI, never()).addFrameListener(any());
+
+    flutterRenderer.addFrameTimingsListener(first);
+    flutterRenderer.addFrameTimingsListener(second);
+    verify(fakeFlutterJNI, times(2)).addFrameListener(any(FrameTimingsRecorder.class));
+
+    flutterRenderer.removeFrameTimingsListener(first);
+    verify(fakeFlutterJNI, never()).removeFrameListener(any());
+    flutterRenderer.removeFrameTimingsListener(second);
+    verify(fakeFlutterJNI, times(1)).removeFrameListener(any(FrameTimingsRecorder.class));
+  }
+
   // A 0x0 ImageReader is a runtime error.
   @Test
   public void ImageReaderSurfaceProducerClampsWidthAndHeightTo1() {
@@ -0,0 +1,99 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.embedding.engine.renderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import io.flutter.embedding.engine.renderer.FrameTimingsListener.FrameTiming;
+import io.flutter.embedding.engine.renderer.FrameTimingsListener.FrameTimingsSummary;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public final class FrameTimingsRecorderTest {
+  private static final long MS = 1000000L;
+  private static final long REFRESH_PERIOD = 16 * MS;
+
+  private final List<List<FrameTiming>> batches = new ArrayList<>();
+  private final List<FrameTimingsSummary> summaries = new ArrayList<>();
+  private final FrameTimingsListener listener =
+      (timings, summary) -> {
+        batches.add(timings);
+        summaries.add(summary);
+      };
+
+  // Reports a frame rasterized durationMs after its vsync.
+  private static void rasterize(FrameTimingsRecorder recorder, long vsyncMs, long durationMs) {
+    recorder.onFrameRasterized(
+        vsyncMs * MS,
+        (vsyncMs + 1) * MS,
+        (vsyncMs + 2) * MS,
+        (vsyncMs + 2) * MS,
+        (vsyncMs + durationMs) * MS,
+        REFRESH_PERIOD);
+  }
+
+  @Test
+  public void deliversFramesInBatchesWithSummary() {
+    final FrameTimingsRecorder recorder = new FrameTimingsRecorder(4, Runnable::run);
+    recorder.addListener(listener);
+
+    rasterize(recorder, 0, 10);
+    rasterize(recorder, 16, 12);
+    rasterize(recorder, 32, 40);
+    assertTrue(batches.isEmpty());
+    // The fourth frame completes the batch.
+    rasterize(recorder, 80, 8);
+
+    assertEquals(1, batches.size());
+    final List<FrameTiming> timings = batches.get(0);
+    assertEquals(4, timings.size());
+    assertEquals(12 * MS, timings.get(1).getDurationNanos());
+    assertEquals(1 * MS, timings.get(1).getBuildDurationNanos());
+    assertEquals(10 * MS, timings.get(1).getRasterDurationNanos());
+    assertFalse(timings.get(1).missedDeadline());
+    assertTrue(timings.get(2).missedDeadline());
+    assertEquals(2, timings.get(2).missedVsyncCount);
+    assertEquals(timings.get(2).vsyncTimeNanos + REFRESH_PERIOD, timings.get(2).deadlineNanos);
+
+    final FrameTimingsSummary summary = summaries.get(0);
+    assertEquals(4, summary.frameCount);
+    assertEquals(1, summary.jankyFrameCount);
+    assertEquals(2, summary.missedVsyncCount);
+    assertEquals(10 * MS, summary.p50DurationNanos);
+    assertEquals(40 * MS, summary.p90DurationNanos);
+    assertEquals(40 * MS, summary.p99DurationNanos);
+  }
+
+  @Test
+  public void recordsNothingWithoutListeners() {
+    final FrameTimingsRecorder recorder = new FrameTimingsRecorder(1, Runnable::run);
+
+    rasterize(recorder, 0, 10);
+    assertTrue(batches.isEmpty());
+    assertFalse(recorder.hasListeners());
+
+    recorder.addListener(listener);
+    recorder.removeListener(listener);
+    rasterize(recorder, 16, 10);
+    assertTrue(batches.isEmpty());
+  }
+
+  @Test
+  public void measuresTimeToFirstFrame() {
+    final FrameTimingsRecorder recorder = new FrameTimingsRecorder(1, Runnable::run);
+    assertEquals(-1, recorder.getTimeToFirstFrameNanos());
+
+    recorder.onRenderingStarted();
+    recorder.onFirstFrame();
+
+    assertTrue(recorder.getTimeToFirstFrameNanos() >= 0);
+  }
+}
@@ -30,7 +30,10 @@ public final class SurfaceTextureSurfaceProducerTest {
     final Handler handler = new Handler(Looper.getMainLooper());
     final SurfaceTextureSurfaceProducer producer =
         new SurfaceTextureSurfaceProducer(
-            0, handler, fakeJNI, flutterRenderer.registerSurfaceTexture(new SurfaceTexture(0)));
+            0,
+            new TextureFrameScheduler(fakeJNI),
+            new TextureRegistrationBatcher(fakeJNI, handler),
+            flutterRenderer.registerSurfaceTexture(new SurfaceTexture(0)));
     final Surface surface = producer.getSurface();
     AtomicInteger frames = new AtomicInteger();
     producer
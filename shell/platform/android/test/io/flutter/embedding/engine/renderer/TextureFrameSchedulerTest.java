@@ -0,0 +1,99 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.embedding.engine.renderer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import io.flutter.embedding.engine.FlutterJNI;
+import java.time.Duration;
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+@RunWith(AndroidJUnit4.class)
+public final class TextureFrameSchedulerTest {
+  private final FlutterJNI fakeJNI = mock(FlutterJNI.class);
+
+  private static void waitForVsync() {
+    shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(17));
+  }
+
+  @Test
+  public void coalescesSignalsUntilNextVsync() {
+    when(fakeJNI.isAttached()).thenReturn(true);
+    final TextureFrameScheduler scheduler = new TextureFrameScheduler(fakeJNI);
+
+    // The first signal is forwarded right away.
+    scheduler.markTextureFrameAvailable(1);
+    verify(fakeJNI, times(1)).markTextureFrameAvailable(1);
+
+    // Later signals wait for the next vsync, and duplicated ids are sent once.
+    scheduler.markTextureFrameAvailable(2);
+    scheduler.markTextureFrameAvailable(3);
+    scheduler.markTextureFrameAvailable(2);
+    scheduler.scheduleFrame();
+    verify(fakeJNI, never()).markTextureFrameAvailable(2);
+    verify(fakeJNI, never()).scheduleFrame();
+    verify(fakeJNI, never()).markTextureFramesAvailable(any(), anyInt());
+
+    waitForVsync();
+    final ArgumentCaptor<long[]> ids = ArgumentCaptor.forClass(long[].class);
+    verify(fakeJNI, times(1)).markTextureFramesAvailable(ids.capture(), eq(2));
+    assertArrayEquals(new long[] {2, 3}, Arrays.copyOf(ids.getValue(), 2));
+    assertEquals(5, scheduler.getSignalCount());
+    assertEquals(2, scheduler.getNativeCallCount());
+
+    // Once a vsync passes without signals, the next signal is forwarded right away again.
+    waitForVsync();
+    scheduler.scheduleFrame();
+    verify(fakeJNI, times(1)).scheduleFrame();
+    verify(fakeJNI, times(1)).markTextureFramesAvailable(any(), anyInt());
+    assertEquals(3, scheduler.getNativeCallCount());
+  }
+
+  @Test
+  public void sendsFrameRequestWithoutDirtyTextures() {
+    when(fakeJNI.isAttached()).thenReturn(true);
+    final TextureFrameScheduler scheduler = new TextureFrameScheduler(fakeJNI);
+
+    scheduler.scheduleFrame();
+    scheduler.scheduleFrame();
+    scheduler.scheduleFrame();
+    waitForVsync();
+
+    verify(fakeJNI, times(1)).scheduleFrame();
+    verify(fakeJNI, times(1)).markTextureFramesAvailable(any(), eq(0));
+    assertEquals(3, scheduler.getSignalCount());
+    assertEquals(2, scheduler.getNativeCallCount());
+  }
+
+  @Test
+  public void dropsPendingSignalsWhenDetached() {
+    final TextureFrameScheduler scheduler = new TextureFrameScheduler(fakeJNI);
+
+    scheduler.markTextureFrameAvailable(1);
+    scheduler.markTextureFrameAvailable(2);
+    when(fakeJNI.isAttached()).thenReturn(false);
+    waitForVsync();
+
+    verify(fakeJNI, times(1)).markTextureFrameAvailable(anyLong());
+    verify(fakeJNI, never()).markTextureFramesAvailable(any(), anyInt());
+    assertEquals(1, scheduler.getNativeCallCount());
+  }
+}
@@ -0,0 +1,110 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.embedding.engine.renderer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import io.flutter.embedding.engine.FlutterJNI;
+import io.flutter.view.TextureRegistry;
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+@RunWith(AndroidJUnit4.class)
+public final class TextureRegistrationBatcherTest {
+  private final FlutterJNI fakeJNI = mock(FlutterJNI.class);
+  private final TextureRegistrationBatcher batcher =
+      new TextureRegistrationBatcher(fakeJNI, new Handler(Looper.getMainLooper()));
+
+  @Test
+  public void registersRightAwayOutsideOfBatch() {
+    final TextureRegistry.ImageConsumer texture = mock(TextureRegistry.ImageConsumer.class);
+
+    batcher.registerImageTexture(1, texture);
+
+    verify(fakeJNI, times(1)).registerImageTexture(1, texture);
+  }
+
+  @Test
+  public void registersTexturesOfBatchWithOneCall() {
+    when(fakeJNI.isAttached()).thenReturn(true);
+    final SurfaceTextureWrapper wrapper = mock(SurfaceTextureWrapper.class);
+    final TextureRegistry.ImageConsumer first = mock(TextureRegistry.ImageConsumer.class);
+    final TextureRegistry.ImageConsumer second = mock(TextureRegistry.ImageConsumer.class);
+
+    batcher.beginBatch();
+    batcher.registerTexture(1, wrapper);
+    batcher.beginBatch();
+    batcher.registerImageTexture(2, first);
+    batcher.endBatch();
+    batcher.registerImageTexture(3, second);
+    // Released before being registered, the engine never hears about this texture.
+    batcher.unregisterTexture(2);
+    verify(fakeJNI, never()).registerTextures(any(), any(), anyInt());
+    batcher.endBatch();
+
+    final ArgumentCaptor<long[]> ids = ArgumentCaptor.forClass(long[].class);
+    final ArgumentCaptor<Object[]> textures = ArgumentCaptor.forClass(Object[].class);
+    verify(fakeJNI, times(1)).registerTextures(ids.capture(), textures.capture(), eq(2));
+    assertArrayEquals(new long[] {1, 3}, Arrays.copyOf(ids.getValue(), 2));
+    assertSame(wrapper, textures.getValue()[0]);
+    assertSame(second, textures.getValue()[1]);
+    verify(fakeJNI, never()).registerTexture(anyLong(), any());
+    verify(fakeJNI, never()).registerImageTexture(anyLong(), any());
+
+    shadowOf(Looper.getMainLooper()).idle();
+    verify(fakeJNI, never()).unregisterTexture(anyLong());
+    verify(fakeJNI, never()).unregisterTextures(any(), anyInt());
+  }
+
+  @Test
+  public void unregistersTexturesReleasedBeforeFlushWithOneCall() {
+    when(fakeJNI.isAttached()).thenReturn(true);
+
+    for (long id = 0; id < 10; id++) {
+      batcher.unregisterTexture(id);
+    }
+    verify(fakeJNI, never()).unregisterTextures(any(), anyInt());
+    shadowOf(Looper.getMainLooper()).idle();
+
+    final ArgumentCaptor<long[]> ids = ArgumentCaptor.forClass(long[].class);
+    verify(fakeJNI, times(1)).unregisterTextures(ids.capture(), eq(10));
+    assertArrayEquals(new long[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, Arrays.copyOf(ids.getValue(), 10));
+    verify(fakeJNI, never()).unregisterTexture(anyLong());
+  }
+
+  @Test
+  public void dropsPendingOperationsWhenDetached() {
+    when(fakeJNI.isAttached()).thenReturn(false);
+
+    batcher.unregisterTexture(1);
+    batcher.unregisterTexture(2);
+    shadowOf(Looper.getMainLooper()).idle();
+
+    verify(fakeJNI, never()).unregisterTexture(anyLong());
+    verify(fakeJNI, never()).unregisterTextures(any(), anyInt());
+  }
+
+  @Test
+  public void endBatchWithoutBeginBatchThrows() {
+    assertThrows(IllegalStateException.class, batcher::endBatch);
+  }
+}
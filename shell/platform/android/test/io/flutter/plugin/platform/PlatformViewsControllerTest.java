@@ -270,8 +270,8 @@ public class PlatformViewsControllerTest {
 
   @Test
   public void itUsesActionEventTypeFromFrameworkEventForVirtualDisplays() {
-    MotionEventTracker motionEventTracker = MotionEventTracker.getInstance();
     PlatformViewsController platformViewsController = new PlatformViewsController();
+    MotionEventTracker motionEventTracker = platformViewsController.getMotionEventTracker();
 
     MotionEvent original =
         MotionEvent.obtain(
@@ -318,8 +318,8 @@ public class PlatformViewsControllerTest {
 
   @Test
   public void itUsesActionEventTypeFromFrameworkEventAsActionChanged() {
-    MotionEventTracker motionEventTracker = MotionEventTracker.getInstance();
     PlatformViewsController platformViewsController = new PlatformViewsController();
+    MotionEventTracker motionEventTracker = platformViewsController.getMotionEventTracker();
 
     MotionEvent original =
         MotionEvent.obtain(
@@ -361,11 +361,56 @@ public class PlatformViewsControllerTest {
     assertNotEquals(resolvedEvent.getAction(), frameWorkTouch.action);
   }
 
+  @Test
+  @SuppressWarnings("deprecation")
+  public void itDeliversEventsTrackedByTheProcessWideTracker() {
+    PlatformViewsController platformViewsController = new PlatformViewsController();
+
+    MotionEvent original =
+        MotionEvent.obtain(
+            10, // downTime
+            10, // eventTime
+            261, // action
+            0, // x
+            0, // y
+            0 // metaState
+            );
+
+    // Embedders that create touch processors themselves track the events in the shared tracker.
+    long motionEventId = MotionEventTracker.getInstance().trackEvent(original);
+
+    PlatformViewTouch frameWorkTouch =
+        new PlatformViewTouch(
+            0, // viewId
+            original.getDownTime(),
+            original.getEventTime(),
+            0, // action
+            1, // pointerCount
+            Arrays.asList(Arrays.asList(0, 0)), // pointer properties
+            Arrays.asList(Arrays.asList(0., 1., 2., 3., 4., 5., 6., 7., 8.)), // pointer coords
+            original.getMetaState(),
+            original.getButtonState(),
+            original.getXPrecision(),
+            original.getYPrecision(),
+            original.getDeviceId(),
+            original.getEdgeFlags(),
+            original.getSource(),
+            original.getFlags(),
+            motionEventId);
+    MotionEvent resolvedEvent =
+        platformViewsController.toMotionEvent(
+            1, // density
+            frameWorkTouch,
+            false // usingVirtualDisplays
+            );
+    assertEquals(original.getAction(), resolvedEvent.getAction());
+  }
+
   @Ignore
   @Test
   public void itUsesActionEventTypeFromMotionEventForHybridPlatformViews() {
-    MotionEventTracker motionEventTracker = MotionEventTracker.getInstance();
     PlatformViewsController platformViewsController = new PlatformViewsController();
+    MotionEventTracker motionEventTracker = platformViewsController.getMotionEventTracker();
 
     MotionEvent original =
         MotionEvent.obtain(
@@ -4,16 +4,19 @@
 
 package io.flutter.view;
 
+import static android.os.Looper.getMainLooper;
 import static io.flutter.Build.API_LEVELS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -21,6 +24,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
 
 import android.annotation.TargetApi;
 import android.app.Activity;
@@ -31,6 +35,7 @@ import android.content.res.Resources;
 import android.graphics.Rect;
 import android.os.Bundle;
 import android.text.SpannableString;
+import android.text.Spanned;
 import android.text.SpannedString;
 import android.text.style.LocaleSpan;
 import android.text.style.TtsSpan;
@@ -53,9 +58,13 @@ import io.flutter.plugin.platform.PlatformViewsAccessibilityDelegate;
 import io.flutter.view.AccessibilityBridge.Action;
 import io.flutter.view.AccessibilityBridge.Flag;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -136,6 +145,64 @@ public class AccessibilityBridgeTest {
     assertEquals(position, outBoundsInScreen.top);
   }
 
+  @Test
+  public void itCachesNodeInfoTextAndLocationOnScreen() {
+    View mockRootView = mock(View.class);
+    Context context = mock(Context.class);
+    when(mockRootView.getContext()).thenReturn(context);
+    when(context.getPackageName()).thenReturn("test");
+    when(mockRootView.getDrawingTime()).thenReturn(16L);
+    AccessibilityBridge accessibilityBridge = setUpBridge(mockRootView, null, null);
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    root.right = 100;
+    root.bottom = 100;
+    TestSemanticsNode node = new TestSemanticsNode();
+    node.id = 1;
+    node.label = "label";
+    node.left = 10;
+    node.top = 20;
+    node.right = 30;
+    node.bottom = 40;
+    root.addChild(node);
+    root.toUpdate().sendUpdateToBridge(accessibilityBridge);
+
+    accessibilityBridge.createAccessibilityNodeInfo(1);
+    AccessibilityNodeInfo nodeInfo = accessibilityBridge.createAccessibilityNodeInfo(1);
+    assertEquals("label", nodeInfo.getContentDescription().toString());
+    Rect boundsInParent = new Rect();
+    nodeInfo.getBoundsInParent(boundsInParent);
+    assertEquals(new Rect(10, 20, 30, 40), boundsInParent);
+    assertEquals(1, accessibilityBridge.getNodeInfoTextCacheHitCount());
+    assertEquals(1, accessibilityBridge.getNodeInfoTextCacheMissCount());
+    assertEquals(1, accessibilityBridge.getLocationOnScreenCacheHitCount());
+    assertEquals(1, accessibilityBridge.getLocationOnScreenCacheMissCount());
+    verify(mockRootView, times(1)).getLocationOnScreen(any(int[].class));
+
+    // A new frame invalidates the location on screen, but not the text.
+    when(mockRootView.getDrawingTime()).thenReturn(32L);
+    accessibilityBridge.createAccessibilityNodeInfo(1);
+    assertEquals(2, accessibilityBridge.getNodeInfoTextCacheHitCount());
+    assertEquals(2, accessibilityBridge.getLocationOnScreenCacheMissCount());
+
+    // An update that doesn't change the text keeps it.
+    node.left = 0;
+    node.toUpdate().sendUpdateToBridge(accessibilityBridge);
+    accessibilityBridge.createAccessibilityNodeInfo(1);
+    assertEquals(3, accessibilityBridge.getNodeInfoTextCacheHitCount());
+    assertEquals(1, accessibilityBridge.getNodeInfoTextCacheMissCount());
+    // Semantics updates invalidate the location on screen.
+    assertEquals(3, accessibilityBridge.getLocationOnScreenCacheMissCount());
+
+    // An update of the text invalidates it.
+    node.label = "new label";
+    node.toUpdate().sendUpdateToBridge(accessibilityBridge);
+    nodeInfo = accessibilityBridge.createAccessibilityNodeInfo(1);
+    assertEquals("new label", nodeInfo.getContentDescription().toString());
+    assertEquals(2, accessibilityBridge.getNodeInfoTextCacheMissCount());
+  }
+
   @Test
   public void itSetsAccessibleNavigation() {
     AccessibilityChannel mockChannel = mock(AccessibilityChannel.class);
@@ -1002,6 +1069,112 @@ public class AccessibilityBridgeTest {
     assertEquals(actual.getSpanEnd(spellOutSpan), 9);
   }
 
+  @Test
+  public void itReusesSpansAndUnchangedAttributedText() {
+    AccessibilityBridge accessibilityBridge = setUpBridge();
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    root.right = 100;
+    root.bottom = 100;
+    TestSemanticsNode first = new TestSemanticsNode();
+    first.id = 1;
+    first.label = "a b";
+    first.labelAttributes = new ArrayList<>();
+    first.labelAttributes.add(createLocaleAttribute(0, 1, "de-DE"));
+    first.labelAttributes.add(createLocaleAttribute(2, 3, "de-DE"));
+    root.addChild(first);
+    TestSemanticsNode second = new TestSemanticsNode();
+    second.id = 2;
+    second.label = "c";
+    second.labelAttributes = new ArrayList<>();
+    second.labelAttributes.add(createLocaleAttribute(0, 1, "de-DE"));
+    root.addChild(second);
+    root.toUpdate().sendUpdateToBridge(accessibilityBridge);
+
+    // A string holds one span per attribute, even when the attributes have the same locale.
+    Spanned firstLabel =
+        (Spanned) accessibilityBridge.createAccessibilityNodeInfo(1).getContentDescription();
+    LocaleSpan[] firstSpans = firstLabel.getSpans(0, firstLabel.length(), LocaleSpan.class);
+    assertEquals(2, firstSpans.length);
+    assertNotEquals(firstSpans[0], firstSpans[1]);
+    assertEquals("de-DE", firstSpans[0].getLocale().toLanguageTag());
+    assertEquals(firstSpans[0].getLocale(), firstSpans[1].getLocale());
+
+    // Spans are shared between strings.
+    Spanned secondLabel =
+        (Spanned) accessibilityBridge.createAccessibilityNodeInfo(2).getContentDescription();
+    LocaleSpan[] secondSpans = secondLabel.getSpans(0, secondLabel.length(), LocaleSpan.class);
+    assertEquals(1, secondSpans.length);
+    assertTrue(secondSpans[0] == firstSpans[0] || secondSpans[0] == firstSpans[1]);
+    assertEquals(2, accessibilityBridge.getNodeInfoTextCacheMissCount());
+
+    // Sending the same attributed text again keeps the text that was built for it.
+    root.toUpdate().sendUpdateToBridge(accessibilityBridge);
+    accessibilityBridge.createAccessibilityNodeInfo(1);
+    assertEquals(2, accessibilityBridge.getNodeInfoTextCacheMissCount());
+
+    // A change of the attributes rebuilds it.
+    first.labelAttributes.get(1).end = 2;
+    root.toUpdate().sendUpdateToBridge(accessibilityBridge);
+    accessibilityBridge.createAccessibilityNodeInfo(1);
+    assertEquals(3, accessibilityBridge.getNodeInfoTextCacheMissCount());
+  }
+
+  @Test
+  public void itKeepsTheSpansOfBothTheValueAndTheLabelWhenJoiningThem() {
+    AccessibilityBridge accessibilityBridge = setUpBridge();
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    root.right = 100;
+    root.bottom = 100;
+    root.value = "value";
+    root.valueAttributes = new ArrayList<>();
+    root.valueAttributes.add(createSpellOutAttribute(0, 1));
+    root.valueAttributes.add(createLocaleAttribute(1, 2, "de-DE"));
+    root.label = "label";
+    root.labelAttributes = new ArrayList<>();
+    root.labelAttributes.add(createSpellOutAttribute(0, 1));
+    root.labelAttributes.add(createLocaleAttribute(1, 2, "de-DE"));
+    root.toUpdate().sendUpdateToBridge(accessibilityBridge);
+
+    Spanned actual =
+        (Spanned) accessibilityBridge.createAccessibilityNodeInfo(0).getContentDescription();
+    assertEquals("value, label", actual.toString());
+    TtsSpan[] ttsSpans = actual.getSpans(0, actual.length(), TtsSpan.class);
+    assertEquals(2, ttsSpans.length);
+    LocaleSpan[] localeSpans = actual.getSpans(0, actual.length(), LocaleSpan.class);
+    assertEquals(2, localeSpans.length);
+    // "value, " is 7 characters long.
+    assertEquals(
+        new HashSet<>(Arrays.asList(0, 7)),
+        new HashSet<>(
+            Arrays.asList(actual.getSpanStart(ttsSpans[0]), actual.getSpanStart(ttsSpans[1]))));
+    assertEquals(
+        new HashSet<>(Arrays.asList(1, 8)),
+        new HashSet<>(
+            Arrays.asList(
+                actual.getSpanStart(localeSpans[0]), actual.getSpanStart(localeSpans[1]))));
+  }
+
+  private TestStringAttribute createSpellOutAttribute(int start, int end) {
+    TestStringAttribute attribute = new TestStringAttributeSpellOut();
+    attribute.start = start;
+    attribute.end = end;
+    attribute.type = TestStringAttributeType.SPELLOUT;
+    return attribute;
+  }
+
+  private TestStringAttributeLocale createLocaleAttribute(int start, int end, String locale) {
+    TestStringAttributeLocale attribute = new TestStringAttributeLocale();
+    attribute.start = start;
+    attribute.end = end;
+    attribute.type = TestStringAttributeType.LOCALE;
+    attribute.locale = locale;
+    return attribute;
+  }
+
   @Config(sdk = API_LEVELS.API_21)
   @Test
   public void itSetsTextCorrectly() {
@@ -1863,6 +2036,105 @@ public class AccessibilityBridgeTest {
     accessibilityBridge.onAccessibilityHoverEvent(MotionEvent.obtain(1, 1, 1, -10, -10, 0));
   }
 
+  @Test
+  public void itHitTestsHoverEventsWithTheSemanticsNodeGrid() {
+    AccessibilityViewEmbedder mockViewEmbedder = mock(AccessibilityViewEmbedder.class);
+    AccessibilityManager mockManager = mock(AccessibilityManager.class);
+    View mockRootView = mock(View.class);
+    Context context = mock(Context.class);
+    when(mockRootView.getContext()).thenReturn(context);
+    when(context.getPackageName()).thenReturn("test");
+    AccessibilityBridge accessibilityBridge =
+        setUpBridge(mockRootView, mockManager, mockViewEmbedder);
+    ViewParent mockParent = mock(ViewParent.class);
+    when(mockRootView.getParent()).thenReturn(mockParent);
+    when(mockManager.isEnabled()).thenReturn(true);
+    when(mockManager.isTouchExplorationEnabled()).thenReturn(true);
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    root.right = 1000;
+    root.bottom = 1000;
+    // A hidden node on top of everything else, which must be skipped.
+    TestSemanticsNode hidden = new TestSemanticsNode();
+    hidden.id = 1;
+    hidden.label = "hidden";
+    hidden.addFlag(AccessibilityBridge.Flag.IS_HIDDEN);
+    hidden.right = 1000;
+    hidden.bottom = 1000;
+    root.addChild(hidden);
+    // A focusable container, whose focusable descendants take precedence.
+    TestSemanticsNode container = new TestSemanticsNode();
+    container.id = 2;
+    container.label = "container";
+    container.right = 1000;
+    container.bottom = 1000;
+    root.addChild(container);
+    // A 10x10 grid of tiles, positioned with their transforms.
+    for (int row = 0; row < 10; row++) {
+      for (int column = 0; column < 10; column++) {
+        container.addChild(createTile(10 + row * 10 + column, column * 100, row * 100));
+      }
+    }
+    root.toUpdate(100000).sendUpdateToBridge(accessibilityBridge);
+
+    assertTrue(accessibilityBridge.canHitTestWithSemanticsNodeGrid());
+    hover(accessibilityBridge, 250, 370);
+    assertEquals(42, accessibilityBridge.getHoveredObjectId());
+    hover(accessibilityBridge, 999, 0);
+    assertEquals(19, accessibilityBridge.getHoveredObjectId());
+
+    // Rotate a tile by 90 degrees, with a translation that keeps it over the same area.
+    TestSemanticsNode rotatedTile = createTile(42, 300, 300);
+    rotatedTile.transform[0] = 0;
+    rotatedTile.transform[1] = 1;
+    rotatedTile.transform[4] = -1;
+    rotatedTile.transform[5] = 0;
+    rotatedTile.toUpdate().sendUpdateToBridge(accessibilityBridge);
+
+    // Hit tests fall back to walking the tree.
+    assertFalse(accessibilityBridge.canHitTestWithSemanticsNodeGrid());
+    hover(accessibilityBridge, 150, 150);
+    assertEquals(21, accessibilityBridge.getHoveredObjectId());
+    hover(accessibilityBridge, 250, 370);
+    assertEquals(42, accessibilityBridge.getHoveredObjectId());
+
+    // Moving the tile back makes the grid usable again.
+    TestSemanticsNode movedTile = createTile(42, 200, 300);
+    movedTile.toUpdate().sendUpdateToBridge(accessibilityBridge);
+    assertTrue(accessibilityBridge.canHitTestWithSemanticsNodeGrid());
+    hover(accessibilityBridge, 150, 150);
+    assertEquals(21, accessibilityBridge.getHoveredObjectId());
+    hover(accessibilityBridge, 250, 370);
+    assertEquals(42, accessibilityBridge.getHoveredObjectId());
+
+    // Outside of every tile, the container is hit.
+    TestSemanticsNode shrunkTile = createTile(42, 200, 300);
+    shrunkTile.right = 50;
+    shrunkTile.toUpdate().sendUpdateToBridge(accessibilityBridge);
+    hover(accessibilityBridge, 250, 370);
+    assertEquals(2, accessibilityBridge.getHoveredObjectId());
+  }
+
+  private TestSemanticsNode createTile(int id, float x, float y) {
+    TestSemanticsNode tile = new TestSemanticsNode();
+    tile.id = id;
+    tile.label = "tile " + id;
+    tile.right = 100;
+    tile.bottom = 100;
+    tile.transform[12] = x;
+    tile.transform[13] = y;
+    return tile;
+  }
+
+  private static void hover(AccessibilityBridge accessibilityBridge, float x, float y) {
+    MotionEvent mockEvent = mock(MotionEvent.class);
+    when(mockEvent.getX()).thenReturn(x);
+    when(mockEvent.getY()).thenReturn(y);
+    when(mockEvent.getAction()).thenReturn(MotionEvent.ACTION_HOVER_MOVE);
+    accessibilityBridge.onAccessibilityHoverEvent(mockEvent);
+  }
+
   @Test
   public void itProducesPlatformViewNodeForHybridComposition() {
     PlatformViewsAccessibilityDelegate accessibilityDelegate =
@@ -2012,6 +2284,190 @@ public class AccessibilityBridgeTest {
     verify(accessibilityViewEmbedder).getRootNode(eq(embeddedView), eq(0), any(Rect.class));
   }
 
+  @Test
+  public void itParsesChannelUpdatesInTheBackgroundAndAppliesThemInOrder() {
+    AccessibilityChannel mockChannel = mock(AccessibilityChannel.class);
+    AccessibilityManager mockManager = mock(AccessibilityManager.class);
+    when(mockManager.isEnabled()).thenReturn(true);
+    AccessibilityBridge accessibilityBridge =
+        setUpBridge(null, mockChannel, mockManager, null, null, null);
+    ArgumentCaptor<AccessibilityChannel.AccessibilityMessageHandler> handlerCaptor =
+        ArgumentCaptor.forClass(AccessibilityChannel.AccessibilityMessageHandler.class);
+    verify(mockChannel).setAccessibilityMessageHandler(handlerCaptor.capture());
+    AccessibilityChannel.AccessibilityMessageHandler handler = handlerCaptor.getValue();
+    List<Runnable> parseTasks = new ArrayList<>();
+    accessibilityBridge.setSemanticsParsingExecutor(parseTasks::add);
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    root.right = 100;
+    root.bottom = 100;
+    TestSemanticsNode node = new TestSemanticsNode();
+    node.id = 1;
+    node.label = "first";
+    node.right = 10;
+    node.bottom = 10;
+    root.addChild(node);
+    TestSemanticsUpdate firstUpdate = root.toUpdate(1000, ByteOrder.LITTLE_ENDIAN);
+    handler.updateSemantics(
+        firstUpdate.buffer, firstUpdate.strings, firstUpdate.stringAttributeArgs);
+    // The buffers of channel messages are only valid during the call.
+    firstUpdate.buffer.clear();
+    firstUpdate.buffer.put(new byte[firstUpdate.buffer.capacity()]);
+
+    node.label = "second";
+    TestSemanticsUpdate secondUpdate = node.toUpdate(1000, ByteOrder.LITTLE_ENDIAN);
+    handler.updateSemantics(
+        secondUpdate.buffer, secondUpdate.strings, secondUpdate.stringAttributeArgs);
+
+    // Nothing is applied until the updates are parsed.
+    assertEquals(2, parseTasks.size());
+    assertNull(accessibilityBridge.createAccessibilityNodeInfo(1));
+
+    // The second update finishes parsing first, but is applied after the first one.
+    parseTasks.get(1).run();
+    shadowOf(getMainLooper()).idle();
+    assertNull(accessibilityBridge.createAccessibilityNodeInfo(1));
+    parseTasks.get(0).run();
+    shadowOf(getMainLooper()).idle();
+
+    AccessibilityNodeInfo nodeInfo = accessibilityBridge.createAccessibilityNodeInfo(1);
+    assertNotNull(nodeInfo);
+    assertEquals("second", nodeInfo.getContentDescription().toString());
+  }
+
+  @Test
+  public void itCoalescesChannelUpdatesWithinTheUpdateInterval() {
+    AccessibilityChannel mockChannel = mock(AccessibilityChannel.class);
+    AccessibilityManager mockManager = mock(AccessibilityManager.class);
+    when(mockManager.isEnabled()).thenReturn(true);
+    AccessibilityBridge accessibilityBridge =
+        setUpBridge(null, mockChannel, mockManager, null, null, null);
+    ArgumentCaptor<AccessibilityChannel.AccessibilityMessageHandler> handlerCaptor =
+        ArgumentCaptor.forClass(AccessibilityChannel.AccessibilityMessageHandler.class);
+    verify(mockChannel).setAccessibilityMessageHandler(handlerCaptor.capture());
+    AccessibilityChannel.AccessibilityMessageHandler handler = handlerCaptor.getValue();
+    accessibilityBridge.setSemanticsParsingExecutor(Runnable::run);
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    root.right = 100;
+    root.bottom = 100;
+    TestSemanticsNode node = new TestSemanticsNode();
+    node.id = 1;
+    node.label = "first";
+    node.right = 10;
+    node.bottom = 10;
+    root.addChild(node);
+    sendUpdateToHandler(handler, root);
+    assertEquals(
+        "first",
+        accessibilityBridge.createAccessibilityNodeInfo(1).getContentDescription().toString());
+
+    accessibilityBridge.setSemanticsUpdateInterval(100);
+    node.label = "second";
+    sendUpdateToHandler(handler, node);
+    node.label = "third";
+    sendUpdateToHandler(handler, node);
+    assertEquals(
+        "first",
+        accessibilityBridge.createAccessibilityNodeInfo(1).getContentDescription().toString());
+
+    // The merged updates are applied once the interval has elapsed.
+    shadowOf(getMainLooper()).idleFor(Duration.ofMillis(100));
+    assertEquals(
+        "third",
+        accessibilityBridge.createAccessibilityNodeInfo(1).getContentDescription().toString());
+
+    // Focus changes are applied right away.
+    node.label = "fourth";
+    node.addFlag(AccessibilityBridge.Flag.IS_FOCUSED);
+    sendUpdateToHandler(handler, node);
+    AccessibilityNodeInfo nodeInfo = accessibilityBridge.createAccessibilityNodeInfo(1);
+    assertEquals("fourth", nodeInfo.getContentDescription().toString());
+    assertTrue(nodeInfo.isFocused());
+  }
+
+  private void sendUpdateToHandler(
+      AccessibilityChannel.AccessibilityMessageHandler handler, TestSemanticsNode node) {
+    TestSemanticsUpdate update = node.toUpdate(1000, ByteOrder.LITTLE_ENDIAN);
+    handler.updateSemantics(update.buffer, update.strings, update.stringAttributeArgs);
+    shadowOf(getMainLooper()).idle();
+  }
+
+  @Test
+  public void itAnnouncesAfterTheSemanticsUpdatesReceivedBefore() {
+    AccessibilityChannel mockChannel = mock(AccessibilityChannel.class);
+    View mockRootView = mock(View.class);
+    Context context = mock(Context.class);
+    when(mockRootView.getContext()).thenReturn(context);
+    when(context.getPackageName()).thenReturn("test");
+    AccessibilityBridge accessibilityBridge =
+        setUpBridge(mockRootView, mockChannel, null, null, null, null);
+    ArgumentCaptor<AccessibilityChannel.AccessibilityMessageHandler> handlerCaptor =
+        ArgumentCaptor.forClass(AccessibilityChannel.AccessibilityMessageHandler.class);
+    verify(mockChannel).setAccessibilityMessageHandler(handlerCaptor.capture());
+    AccessibilityChannel.AccessibilityMessageHandler handler = handlerCaptor.getValue();
+    List<Runnable> parseTasks = new ArrayList<>();
+    accessibilityBridge.setSemanticsParsingExecutor(parseTasks::add);
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    root.label = "root";
+    root.right = 100;
+    root.bottom = 100;
+    TestSemanticsUpdate update = root.toUpdate(1000, ByteOrder.LITTLE_ENDIAN);
+    handler.updateSemantics(update.buffer, update.strings, update.stringAttributeArgs);
+    handler.announce("message");
+
+    // The announcement waits for the update received before it.
+    verify(mockRootView, never()).announceForAccessibility(any());
+    parseTasks.get(0).run();
+    shadowOf(getMainLooper()).idle();
+    verify(mockRootView, times(1)).announceForAccessibility("message");
+    assertNotNull(accessibilityBridge.createAccessibilityNodeInfo(0));
+
+    // Without updates being parsed, the announcement is immediate.
+    handler.announce("second message");
+    verify(mockRootView, times(1)).announceForAccessibility("second message");
+  }
+
+  @Test
+  public void resetDropsTheUpdatesThatAreStillBeingParsed() {
+    AccessibilityChannel mockChannel = mock(AccessibilityChannel.class);
+    AccessibilityBridge accessibilityBridge =
+        setUpBridge(null, mockChannel, null, null, null, null);
+    ArgumentCaptor<AccessibilityChannel.AccessibilityMessageHandler> handlerCaptor =
+        ArgumentCaptor.forClass(AccessibilityChannel.AccessibilityMessageHandler.class);
+    verify(mockChannel).setAccessibilityMessageHandler(handlerCaptor.capture());
+    AccessibilityChannel.AccessibilityMessageHandler handler = handlerCaptor.getValue();
+    List<Runnable> parseTasks = new ArrayList<>();
+    accessibilityBridge.setSemanticsParsingExecutor(parseTasks::add);
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    root.label = "root";
+    root.right = 100;
+    root.bottom = 100;
+    TestSemanticsUpdate update = root.toUpdate(1000, ByteOrder.LITTLE_ENDIAN);
+    handler.updateSemantics(update.buffer, update.strings, update.stringAttributeArgs);
+    accessibilityBridge.reset();
+
+    parseTasks.get(0).run();
+    shadowOf(getMainLooper()).idle();
+    assertNull(accessibilityBridge.createAccessibilityNodeInfo(0));
+
+    // Updates received after the reset are applied.
+    root.label = "new root";
+    update = root.toUpdate(1000, ByteOrder.LITTLE_ENDIAN);
+    handler.updateSemantics(update.buffer, update.strings, update.stringAttributeArgs);
+    parseTasks.get(1).run();
+    shadowOf(getMainLooper()).idle();
+    AccessibilityNodeInfo nodeInfo = accessibilityBridge.createAccessibilityNodeInfo(0);
+    assertNotNull(nodeInfo);
+    assertEquals("new root", nodeInfo.getContentDescription().toString());
+  }
+
   @Test
   public void releaseDropsChannelMessageHandler() {
     AccessibilityChannel mockChannel = mock(AccessibilityChannel.class);
@@ -2098,6 +2554,219 @@ public class AccessibilityBridgeTest {
     verify(mockEvent).setSource(eq(mockRootView), eq(123));
   }
 
+  @Test
+  public void itOnlyRemovesDetachedSubtrees() {
+    AccessibilityBridge accessibilityBridge = setUpBridge();
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    root.right = 100;
+    root.bottom = 100;
+    TestSemanticsNode node1 = new TestSemanticsNode();
+    node1.id = 1;
+    node1.label = "node1";
+    TestSemanticsNode node2 = new TestSemanticsNode();
+    node2.id = 2;
+    node2.label = "node2";
+    TestSemanticsNode node3 = new TestSemanticsNode();
+    node3.id = 3;
+    node3.label = "node3";
+    node3.right = 10;
+    node3.bottom = 10;
+    TestSemanticsNode node4 = new TestSemanticsNode();
+    node4.id = 4;
+    node4.label = "node4";
+    node1.addChild(node3);
+    node1.addChild(node4);
+    root.addChild(node1);
+    root.addChild(node2);
+    root.toUpdate().sendUpdateToBridge(accessibilityBridge);
+    assertNotNull(accessibilityBridge.createAccessibilityNodeInfo(4));
+
+    // Move node3 to node2 and drop node1 along with node4.
+    root.children.clear();
+    root.addChild(node2);
+    node1.children.clear();
+    node2.addChild(node3);
+    root.toUpdate().sendUpdateToBridge(accessibilityBridge);
+
+    assertNull(accessibilityBridge.createAccessibilityNodeInfo(1));
+    assertNull(accessibilityBridge.createAccessibilityNodeInfo(4));
+    assertEquals(2, accessibilityBridge.getRecycledSemanticsNodeCount());
+    AccessibilityNodeInfo nodeInfo = accessibilityBridge.createAccessibilityNodeInfo(3);
+    assertNotNull(nodeInfo);
+    Rect bounds = new Rect();
+    nodeInfo.getBoundsInScreen(bounds);
+    assertEquals(new Rect(0, 0, 10, 10), bounds);
+
+    // An update of a single leaf updates its geometry.
+    TestSemanticsNode movedNode3 = new TestSemanticsNode();
+    movedNode3.id = 3;
+    movedNode3.label = "node3";
+    movedNode3.left = 20;
+    movedNode3.top = 20;
+    movedNode3.right = 40;
+    movedNode3.bottom = 40;
+    movedNode3.toUpdate().sendUpdateToBridge(accessibilityBridge);
+
+    nodeInfo = accessibilityBridge.createAccessibilityNodeInfo(3);
+    assertNotNull(nodeInfo);
+    nodeInfo.getBoundsInScreen(bounds);
+    assertEquals(new Rect(20, 20, 40, 40), bounds);
+    assertNotNull(accessibilityBridge.createAccessibilityNodeInfo(2));
+  }
+
+  @Test
+  public void itSendsContentChangesOnlyForChangedSubtreeRoots() {
+    AccessibilityManager mockManager = mock(AccessibilityManager.class);
+    View mockRootView = mock(View.class);
+    Context context = mock(Context.class);
+    when(mockRootView.getContext()).thenReturn(context);
+    when(context.getPackageName()).thenReturn("test");
+    AccessibilityBridge accessibilityBridge =
+        setUpBridge(mockRootView, mockManager, mock(AccessibilityViewEmbedder.class));
+    ViewParent mockParent = mock(ViewParent.class);
+    when(mockRootView.getParent()).thenReturn(mockParent);
+    when(mockManager.isEnabled()).thenReturn(true);
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    TestSemanticsNode node1 = new TestSemanticsNode();
+    node1.id = 1;
+    node1.label = "node1";
+    TestSemanticsNode node2 = new TestSemanticsNode();
+    node2.id = 2;
+    node2.label = "node2";
+    TestSemanticsNode node3 = new TestSemanticsNode();
+    node3.id = 3;
+    node3.label = "node3";
+    node1.addChild(node3);
+    root.addChild(node1);
+    root.addChild(node2);
+    root.toUpdate().sendUpdateToBridge(accessibilityBridge);
+
+    AccessibilityBridge spyAccessibilityBridge = spy(accessibilityBridge);
+    AccessibilityEvent mockEvent = mock(AccessibilityEvent.class);
+    doReturn(mockEvent)
+        .when(spyAccessibilityBridge)
+        .obtainAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED);
+
+    // node1 and its child node3 changed, node3 is covered by the event of node1.
+    node1.label = "new node1";
+    node3.label = "new node3";
+    node1.toUpdate().sendUpdateToBridge(spyAccessibilityBridge);
+
+    verify(mockEvent, times(1)).setSource(eq(mockRootView), eq(1));
+    verify(mockEvent, never()).setSource(eq(mockRootView), eq(0));
+    verify(mockEvent, never()).setSource(eq(mockRootView), eq(3));
+    verify(mockParent, times(1)).requestSendAccessibilityEvent(mockRootView, mockEvent);
+  }
+
+  @Test
+  public void itSendsOneContentChangeForTheRootWhenManySubtreesChange() {
+    AccessibilityManager mockManager = mock(AccessibilityManager.class);
+    View mockRootView = mock(View.class);
+    Context context = mock(Context.class);
+    when(mockRootView.getContext()).thenReturn(context);
+    when(context.getPackageName()).thenReturn("test");
+    AccessibilityBridge accessibilityBridge =
+        setUpBridge(mockRootView, mockManager, mock(AccessibilityViewEmbedder.class));
+    ViewParent mockParent = mock(ViewParent.class);
+    when(mockRootView.getParent()).thenReturn(mockParent);
+    when(mockManager.isEnabled()).thenReturn(true);
+
+    TestSemanticsNode root = new TestSemanticsNode();
+    root.id = 0;
+    ArrayList<TestSemanticsNode> children = new ArrayList<>();
+    for (int i = 1; i <= 20; i++) {
+      TestSemanticsNode child = new TestSemanticsNode();
+      child.id = i;
+      child.label = "child" + i;
+      root.addChild(child);
+      children.add(child);
+    }
+    root.toUpdate().sendUpdateToBridge(accessibilityBridge);
+
+    AccessibilityBridge spyAccessibilityBridge = spy(accessibilityBridge);
+    AccessibilityEvent mockEvent = mock(AccessibilityEvent.class);
+    doReturn(mockEvent)
+        .when(spyAccessibilityBridge)
+        .obtainAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED);
+
+    // Each child is the root of a changed subtree.
+    ByteBuffer bytes = ByteBuffer.allocate(10000);
+    ArrayList<String> strings = new ArrayList<>();
+    ArrayList<ByteBuffer> stringAttributeArgs = new ArrayList<>();
+    for (TestSemanticsNode child : children) {
+      child.label = "new " + child.label;
+      child.addToBuffer(bytes, strings, stringAttributeArgs);
+    }
+    bytes.flip();
+    spyAccessibilityBridge.updateSemantics(
+        bytes,
+        strings.toArray(new String[strings.size()]),
+        stringAttributeArgs.toArray(new ByteBuffer[stringAttributeArgs.size()]));
+
+    verify(mockEvent, times(1)).setSource(eq(mockRootView), eq(0));
+    verify(mockEvent, never()).setSource(eq(mockRootView), eq(1));
+    verify(mockParent, times(1)).requestSendAccessibilityEvent(mockRootView, mockEvent);
+  }
+
+  // Builds a tree of 1 + childCount + childCount * grandchildCount nodes.
+  private static TestSemanticsNode buildLargeTree(
+      AccessibilityBridgeTest test, int childCount, int grandchildCount) {
+    TestSemanticsNode root = test.new TestSemanticsNode();
+    root.id = 0;
+    root.right = 1000;
+    root.bottom = 1000;
+    int nextId = 1;
+    for (int i = 0; i < childCount; i++) {
+      TestSemanticsNode child = test.new TestSemanticsNode();
+      child.id = nextId++;
+      child.top = i * 10;
+      child.right = 1000;
+      child.bottom = i * 10 + 10;
+      for (int j = 0; j < grandchildCount; j++) {
+        TestSemanticsNode grandchild = test.new TestSemanticsNode();
+        grandchild.id = nextId++;
+        grandchild.label = "item";
+        grandchild.left = j;
+        grandchild.right = j + 1;
+        grandchild.bottom = 10;
+        child.addChild(grandchild);
+      }
+      root.addChild(child);
+    }
+    return root;
+  }
+
+  @Test
+  public void largeSemanticsTreeUpdatesReuseRemovedNodes() {
+    AccessibilityBridge accessibilityBridge = setUpBridge();
+    // 10001 nodes.
+    TestSemanticsNode fullTree = buildLargeTree(this, 100, 99);
+    TestSemanticsNode halfTree = buildLargeTree(this, 50, 99);
+    final int capacity = 4 * 1024 * 1024;
+
+    for (int i = 0; i < 10; i++) {
+      TestSemanticsUpdate fullUpdate = fullTree.toUpdate(capacity);
+      fullUpdate.sendUpdateToBridge(accessibilityBridge);
+
+      // Removing half of the tree makes its nodes available for the next update.
+      TestSemanticsUpdate halfUpdate = halfTree.toUpdate(capacity);
+      halfUpdate.sendUpdateToBridge(accessibilityBridge);
+      assertTrue(accessibilityBridge.getRecycledSemanticsNodeCount() > 0);
+    }
+
+    TestSemanticsUpdate fullUpdate = fullTree.toUpdate(capacity);
+    fullUpdate.sendUpdateToBridge(accessibilityBridge);
+    assertEquals(0, accessibilityBridge.getRecycledSemanticsNodeCount());
+    AccessibilityNodeInfo nodeInfo = accessibilityBridge.createAccessibilityNodeInfo(0);
+    assertEquals(100, nodeInfo.getChildCount());
+    AccessibilityNodeInfo lastNodeInfo = accessibilityBridge.createAccessibilityNodeInfo(10000);
+    assertEquals("item", lastNodeInfo.getContentDescription().toString());
+  }
+
   AccessibilityBridge setUpBridge() {
     return setUpBridge(null, null, null, null, null, null);
   }
@@ -2249,8 +2918,16 @@ public class AccessibilityBridgeTest {
     // custom actions not supported.
 
     TestSemanticsUpdate toUpdate() {
+      return toUpdate(1000);
+    }
+
+    TestSemanticsUpdate toUpdate(int capacity) {
+      return toUpdate(capacity, ByteOrder.BIG_ENDIAN);
+    }
+
+    TestSemanticsUpdate toUpdate(int capacity, ByteOrder order) {
       ArrayList<String> strings = new ArrayList<String>();
-      ByteBuffer bytes = ByteBuffer.allocate(1000);
+      ByteBuffer bytes = ByteBuffer.allocate(capacity).order(order);
       ArrayList<ByteBuffer> stringAttributeArgs = new ArrayList<ByteBuffer>();
       addToBuffer(bytes, strings, stringAttributeArgs);
       bytes.flip();
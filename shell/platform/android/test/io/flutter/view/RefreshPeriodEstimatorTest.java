@@ -0,0 +1,81 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.view;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+@Config(manifest = Config.NONE)
+@RunWith(AndroidJUnit4.class)
+public class RefreshPeriodEstimatorTest {
+  private static final long PERIOD_60HZ = 16666666L;
+  private static final long PERIOD_120HZ = 8333333L;
+
+  @Test
+  public void startsWithTheNominalPeriod() {
+    RefreshPeriodEstimator estimator = new RefreshPeriodEstimator(PERIOD_60HZ);
+    estimator.onFrame(1000);
+
+    assertEquals(PERIOD_60HZ, estimator.getPeriodNanos());
+    assertEquals(0, estimator.getJitterNanos());
+    assertEquals(0, estimator.getSampleCount());
+  }
+
+  @Test
+  public void filtersJitterAndSkippedVsyncs() {
+    RefreshPeriodEstimator estimator = new RefreshPeriodEstimator(PERIOD_60HZ);
+    long frameTime = 0;
+    estimator.onFrame(frameTime);
+    for (int i = 0; i < RefreshPeriodEstimator.WINDOW_SIZE; i++) {
+      // Frame times alternate 100us around the vsync grid, and every third frame skips a vsync.
+      final long periods = i % 3 == 2 ? 2 : 1;
+      final long jitter = i % 2 == 0 ? 100000 : -100000;
+      frameTime += periods * PERIOD_60HZ;
+      estimator.onFrame(frameTime + jitter);
+    }
+
+    assertEquals(RefreshPeriodEstimator.WINDOW_SIZE, estimator.getSampleCount());
+    assertEquals(PERIOD_60HZ, estimator.getPeriodNanos(), 200000);
+    assertEquals(200000, estimator.getJitterNanos(), 100000);
+  }
+
+  @Test
+  public void followsAPanelFasterThanItsNominalRate() {
+    RefreshPeriodEstimator estimator = new RefreshPeriodEstimator(PERIOD_60HZ);
+    long frameTime = 0;
+    for (int i = 0; i <= RefreshPeriodEstimator.WINDOW_SIZE; i++) {
+      estimator.onFrame(frameTime);
+      frameTime += PERIOD_120HZ;
+    }
+
+    assertEquals(PERIOD_120HZ, estimator.getPeriodNanos());
+    assertEquals(0, estimator.getJitterNanos());
+  }
+
+  @Test
+  public void ignoresIdleTime() {
+    RefreshPeriodEstimator estimator = new RefreshPeriodEstimator(PERIOD_60HZ);
+    estimator.onFrame(0);
+    estimator.onFrame(10 * PERIOD_60HZ);
+
+    assertEquals(0, estimator.getSampleCount());
+  }
+
+  @Test
+  public void setNominalPeriodDiscardsSamples() {
+    RefreshPeriodEstimator estimator = new RefreshPeriodEstimator(PERIOD_60HZ);
+    estimator.onFrame(0);
+    estimator.onFrame(PERIOD_60HZ);
+
+    estimator.setNominalPeriod(PERIOD_120HZ);
+
+    assertEquals(0, estimator.getSampleCount());
+    assertEquals(PERIOD_120HZ, estimator.getPeriodNanos());
+  }
+}
@@ -4,11 +4,15 @@
 
 package io.flutter.view;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -19,6 +23,8 @@ import android.os.Looper;
 import android.view.Display;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import io.flutter.embedding.engine.FlutterJNI;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -49,6 +55,38 @@ public class VsyncWaiterTest {
     verify(mockFlutterJNI, times(1)).onVsync(anyLong(), eq(1000000000l / 10l), eq(1l));
   }
 
+  @Test
+  public void itDeliversVsyncOnADedicatedThread() {
+    FlutterJNI mockFlutterJNI = mock(FlutterJNI.class);
+    List<Thread> vsyncThreads = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              vsyncThreads.add(Thread.currentThread());
+              return null;
+            })
+        .when(mockFlutterJNI)
+        .onVsync(anyLong(), anyLong(), anyLong());
+    VsyncWaiter waiter = VsyncWaiter.getInstance(10.0f, mockFlutterJNI);
+
+    waiter.init(true);
+
+    ArgumentCaptor<FlutterJNI.AsyncWaitForVsyncDelegate> delegateCaptor =
+        ArgumentCaptor.forClass(FlutterJNI.AsyncWaitForVsyncDelegate.class);
+    verify(mockFlutterJNI, times(1)).setAsyncWaitForVsyncDelegate(delegateCaptor.capture());
+    Looper vsyncLooper = waiter.getVsyncLooper();
+    assertNotNull(vsyncLooper);
+    delegateCaptor.getValue().asyncWaitForVsync(1);
+    delegateCaptor.getValue().asyncWaitForVsync(2);
+    shadowOf(vsyncLooper).idle();
+
+    verify(mockFlutterJNI, times(1)).onVsync(anyLong(), eq(1000000000l / 10l), eq(1l));
+    verify(mockFlutterJNI, times(1)).onVsync(anyLong(), eq(1000000000l / 10l), eq(2l));
+    assertEquals(2, vsyncThreads.size());
+    for (Thread thread : vsyncThreads) {
+      assertEquals(vsyncLooper.getThread(), thread);
+    }
+  }
+
   @Test
   public void itSetsFpsWhenDisplayManagerUpdates() {
     FlutterJNI mockFlutterJNI = mock(FlutterJNI.class);
@@ -97,4 +135,58 @@ public class VsyncWaiterTest {
 
     verify(mockFlutterJNI, times(1)).setRefreshRateFPS(90.0f);
   }
+
+  @Test
+  public void itKeepsTheRefreshPeriodWhenTheRefreshRateIsUnchanged() {
+    FlutterJNI mockFlutterJNI = mock(FlutterJNI.class);
+    DisplayManager mockDisplayManager = mock(DisplayManager.class);
+    Display mockDisplay = mock(Display.class);
+    when(mockDisplayManager.getDisplay(Display.DEFAULT_DISPLAY)).thenReturn(mockDisplay);
+    when(mockDisplay.getRefreshRate()).thenReturn(90.0f);
+    ArgumentCaptor<VsyncWaiter.DisplayListener> displayListenerCaptor =
+        ArgumentCaptor.forClass(VsyncWaiter.DisplayListener.class);
+
+    VsyncWaiter waiter = VsyncWaiter.getInstance(mockDisplayManager, mockFlutterJNI);
+    verify(mockDisplayManager, times(1))
+        .registerDisplayListener(displayListenerCaptor.capture(), isNull());
+    verify(mockFlutterJNI, times(1)).setRefreshRateFPS(90.0f);
+
+    // A change of another property of the display doesn't reset the refresh period.
+    displayListenerCaptor.getValue().onDisplayChanged(Display.DEFAULT_DISPLAY);
+    verify(mockFlutterJNI, times(1)).setRefreshRateFPS(90.0f);
+    assertEquals(1000000000L / 90L, waiter.getRefreshPeriodNanos());
+  }
+
+  @Test
+  public void itReportsTheRefreshRateOfTheBoundDisplay() {
+    FlutterJNI mockFlutterJNI = mock(FlutterJNI.class);
+    DisplayManager mockDisplayManager = mock(DisplayManager.class);
+    Display mockDefaultDisplay = mock(Display.class);
+    Display mockSecondaryDisplay = mock(Display.class);
+    when(mockDisplayManager.getDisplay(Display.DEFAULT_DISPLAY)).thenReturn(mockDefaultDisplay);
+    when(mockDisplayManager.getDisplay(2)).thenReturn(mockSecondaryDisplay);
+    when(mockDefaultDisplay.getRefreshRate()).thenReturn(60.0f);
+    when(mockSecondaryDisplay.getRefreshRate()).thenReturn(90.0f);
+    ArgumentCaptor<VsyncWaiter.DisplayListener> displayListenerCaptor =
+        ArgumentCaptor.forClass(VsyncWaiter.DisplayListener.class);
+
+    VsyncWaiter waiter = VsyncWaiter.getInstance(mockDisplayManager, mockFlutterJNI);
+    verify(mockDisplayManager, times(1))
+        .registerDisplayListener(displayListenerCaptor.capture(), isNull());
+    verify(mockFlutterJNI, times(1)).setRefreshRateFPS(60.0f);
+    assertEquals(1000000000L / 60L, waiter.getRefreshPeriodNanos());
+
+    // A view attached to the secondary display binds the waiter to it.
+    VsyncWaiter.bindToDisplay(2);
+    verify(mockFlutterJNI, times(1)).setRefreshRateFPS(90.0f);
+    assertEquals(1000000000L / 90L, waiter.getRefreshPeriodNanos());
+
+    // Changes of displays that are not tracked are ignored.
+    displayListenerCaptor.getValue().onDisplayChanged(3);
+    verify(mockDisplayManager, never()).getDisplay(3);
+
+    VsyncWaiter.unbindFromDisplay(2);
+    assertEquals(1000000000L / 60L, waiter.getRefreshPeriodNanos());
+    assertEquals(0, waiter.getVsyncJitterNanos());
+  }
 }
@@ -3,10 +3,42 @@
 // found in the LICENSE file.
 
 import 'dart:async';
+import 'dart:convert';
+import 'dart:typed_data';
 import 'dart:ui';
 
 import 'package:litetest/litetest.dart';
 
+// Encodes the key data records in the layout described in `key_data_packet.h`,
+// one after the other, as the Android embedder does.
+ByteData _encodeKeyDataPacket(List<KeyData> records) {
+  const int kFieldCount = 6;
+  final List<Uint8List> characters = records
+      .map((KeyData record) => Uint8List.fromList(utf8.encode(record.character ?? '')))
+      .toList();
+  int length = 0;
+  for (final Uint8List character in characters) {
+    length += Int64List.bytesPerElement * (1 + kFieldCount) + character.length;
+  }
+  final ByteData packet = ByteData(length);
+  int offset = 0;
+  for (int i = 0; i < records.length; i++) {
+    final KeyData record = records[i];
+    packet.setUint64(offset, characters[i].length, Endian.little);
+    packet.setUint64(offset + 8, record.timeStamp.inMicroseconds, Endian.little);
+    packet.setInt64(offset + 16, record.type.index, Endian.little);
+    packet.setUint64(offset + 24, record.physical, Endian.little);
+    packet.setUint64(offset + 32, record.logical, Endian.little);
+    packet.setUint64(offset + 40, record.synthesized ? 1 : 0, Endian.little);
+    // The device type, which dart:ui doesn't read, is left as 0.
+    offset += Int64List.bytesPerElement * (1 + kFieldCount);
+    for (final int byte in characters[i]) {
+      packet.setUint8(offset++, byte);
+    }
+  }
+  return packet;
+}
+
 void main() {
   test('ViewConstraints.tight', () {
     final ViewConstraints tightConstraints = ViewConstraints.tight(const Size(200, 300));
@@ -74,4 +106,96 @@ void main() {
     expect(drawFrameCalled.isCompleted, true);
     expect(microtaskFlushed, true);
   });
+
+  test('onKeyData receives every record of a key data packet', () {
+    final List<KeyData> received = <KeyData>[];
+    PlatformDispatcher.instance.onKeyData = (KeyData data) {
+      received.add(data);
+      return !data.synthesized;
+    };
+    ByteData? response;
+    channelBuffers.push(
+      'flutter/keydata',
+      _encodeKeyDataPacket(<KeyData>[
+        const KeyData(
+          timeStamp: Duration(microseconds: 1),
+          type: KeyEventType.down,
+          physical: 0x700e1,
+          logical: 0x200000102,
+          character: null,
+          synthesized: true,
+        ),
+        const KeyData(
+          timeStamp: Duration(microseconds: 2),
+          type: KeyEventType.down,
+          physical: 0x70004,
+          logical: 0x61,
+          character: 'A',
+          synthesized: false,
+        ),
+        const KeyData(
+          timeStamp: Duration(microseconds: 3),
+          type: KeyEventType.up,
+          physical: 0x700e1,
+          logical: 0x200000102,
+          character: null,
+          synthesized: true,
+        ),
+      ]),
+      (ByteData? data) {
+        response = data;
+      },
+    );
+    PlatformDispatcher.instance.onKeyData = null;
+
+    expect(received.length, 3);
+    expect(received[0].timeStamp, const Duration(microseconds: 1));
+    expect(received[0].type, KeyEventType.down);
+    expect(received[0].physical, 0x700e1);
+    expect(received[0].logical, 0x200000102);
+    expect(received[0].character, null);
+    expect(received[0].synthesized, true);
+    expect(received[1].timeStamp, const Duration(microseconds: 2));
+    expect(received[1].physical, 0x70004);
+    expect(received[1].logical, 0x61);
+    expect(received[1].character, 'A');
+    expect(received[1].synthesized, false);
+    expect(received[2].type, KeyEventType.up);
+    expect(received[2].synthesized, true);
+    // The response is the result of the record that isn't synthesized.
+    expect(response!.lengthInBytes, 1);
+    expect(response!.getUint8(0), 1);
+  });
+
+  test('onKeyData responds with the last record when all are synthesized', () {
+    PlatformDispatcher.instance.onKeyData = (KeyData data) => data.type == KeyEventType.up;
+    ByteData? response;
+    channelBuffers.push(
+      'flutter/keydata',
+      _encodeKeyDataPacket(<KeyData>[
+        const KeyData(
+          timeStamp: Duration(microseconds: 1),
+          type: KeyEventType.down,
+          physical: 0x700e1,
+          logical: 0x200000102,
+          character: null,
+          synthesized: true,
+        ),
+        const KeyData(
+          timeStamp: Duration(microseconds: 2),
+          type: KeyEventType.up,
+          physical: 0x700e1,
+          logical: 0x200000102,
+          character: null,
+          synthesized: true,
+        ),
+      ]),
+      (ByteData? data) {
+        response = data;
+      },
+    );
+    PlatformDispatcher.instance.onKeyData = null;
+
+    expect(response!.getUint8(0), 1);
+  });
 }